@@ -8,12 +8,15 @@ import type {
   CowView,
   Feedlot,
   FeedlotWithCows,
+  FeedlotMovementSummary,
   Inseminator,
   Semen,
   SemenFormData,
   Transponder,
   AiRecord,
   AiRecordFormData,
+  AiSessionRecord,
+  AiSessionResult,
   DamAiRecord,
   CalfRecord,
   TransponderRecord,
@@ -34,6 +37,7 @@ import type {
   User,
   SystemSetting,
   SystemSettingFormData,
+  PdTransitionRun,
   ColorDetail,
   InseminatorDetail,
   GenderDetail,
@@ -112,12 +116,12 @@ export const feedlotApi = {
   getWithCows: (id: number) =>
     api.get<ServerRes<FeedlotWithCows>>(`/feedlot/${id}/with-cows`),
   assignBulk: (feedlotId: number, cowIds: number[]) =>
-    api.put<ServerRes<FeedlotWithCows>>(
+    api.put<ServerRes<FeedlotMovementSummary>>(
       `/feedlot/assign-bulk/${feedlotId}`,
       cowIds
     ),
   unassignBulk: (cowIds: number[]) =>
-    api.put<ServerRes<string>>("/feedlot/unassign-bulk", cowIds),
+    api.put<ServerRes<FeedlotMovementSummary>>("/feedlot/unassign-bulk", cowIds),
   toggleActive: (id: number) =>
     api.put<ServerRes<Feedlot>>(`/feedlot/toggle-active/${id}`),
   create: (data: LookupFormData) =>
@@ -180,6 +184,8 @@ export const aiRecordApi = {
     api.get<ServerRes<number>>(`/ai-record/dam-ai-count/${damId}`),
   getDamAiRecord: () =>
     api.get<ServerRes<DamAiRecord[]>>("/ai-record/dam-ai-record"),
+  uploadSession: (records: AiSessionRecord[]) =>
+    api.post<ServerRes<AiSessionResult>>("/ai-record/session-upload", { records }),
 };
 
 export const calfRecordApi = {
@@ -294,7 +300,7 @@ export const systemSettingApi = {
     api.post<ServerRes<SystemSetting>>("/system-setting", data),
   update: (id: number, data: SystemSettingFormData) =>
     api.put<ServerRes<SystemSetting>>(`/system-setting/${id}`, data),
-  runCron: () => api.post<ServerRes<string>>("/system-setting/run-cron"),
+  runCron: () => api.post<ServerRes<PdTransitionRun>>("/system-setting/run-cron"),
 };
 
 export default api;
@@ -99,6 +99,7 @@ export interface Semen {
   sire: string | null;
   date: string;
   straw: number | null;
+  reservedStraw: number | null;
   bull: boolean | null;
   remark: string | null;
 }
@@ -233,6 +234,16 @@ export interface FeedlotWithCows {
   cows: CowView[];
 }
 
+export interface FeedlotMovementSummary {
+  feedlotId: number | null;
+  requested: number;
+  moved: number;
+  unchanged: number;
+  movedFrom: Record<string, number>;
+  movedFromNone: number;
+  notFound: number[];
+}
+
 export interface AiRecordFormData {
   damId: number;
   semenId: number;
@@ -241,6 +252,28 @@ export interface AiRecordFormData {
   aiById: number;
   preparedById: number;
   remark: string;
+  strawReservationId?: number;
+}
+
+// Offline AI session upload (clientId is generated on the device)
+export interface AiSessionRecord {
+  clientId: string;
+  damId: number;
+  semenId: number;
+  aiDate: string;
+  aiTime: string | null;
+  aiById: number | null;
+  preparedById: number | null;
+  remark: string | null;
+  strawReservationId?: number;
+}
+
+export interface AiSessionResult {
+  requested: number;
+  created: number;
+  alreadyUploaded: number;
+  saved: { clientId: string; aiRecordId: number; code: string; created: boolean }[];
+  rejected: { clientId: string | null; message: string }[];
 }
 
 // Dam AI Record
@@ -396,6 +429,23 @@ export interface SystemSettingFormData {
   remark: string;
 }
 
+export interface PdTransitionReport {
+  rule: string;
+  fromStatusId: number;
+  toStatusId: number;
+  cutoff: string | null;
+  updated: number;
+  chunks: number;
+  millis: number;
+  skipped: string | null;
+}
+
+export interface PdTransitionRun {
+  startedAt: string;
+  millis: number;
+  rules: PdTransitionReport[];
+}
+
 // User
 export interface User {
   id: string;
@@ -158,7 +158,8 @@ function SemenPage() {
       name: data.name,
       sire: data.sire,
       date: format(data.date, "yyyy-MM-dd"),
-      straw: data.straw ? parseInt(data.straw) : null,
+      // Stock is only set here on create; later changes go through the straw ledger
+      straw: !editingEntity && data.straw ? parseInt(data.straw) : null,
       bull: data.bull,
       remark: data.remark,
     };
@@ -433,23 +434,25 @@ function SemenPage() {
                   </FormItem>
                 )}
               />
-              <FormField
-                control={form.control}
-                name="straw"
-                render={({ field }) => (
-                  <FormItem>
-                    <FormLabel>Straw</FormLabel>
-                    <FormControl>
-                      <Input
-                        type="number"
-                        placeholder="Enter straw count (optional)"
-                        {...field}
-                      />
-                    </FormControl>
-                    <FormMessage />
-                  </FormItem>
-                )}
-              />
+              {!editingEntity && (
+                <FormField
+                  control={form.control}
+                  name="straw"
+                  render={({ field }) => (
+                    <FormItem>
+                      <FormLabel>Straw</FormLabel>
+                      <FormControl>
+                        <Input
+                          type="number"
+                          placeholder="Enter straw count (optional)"
+                          {...field}
+                        />
+                      </FormControl>
+                      <FormMessage />
+                    </FormItem>
+                  )}
+                />
+              )}
               <FormField
                 control={form.control}
                 name="bull"
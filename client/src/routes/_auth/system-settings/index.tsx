@@ -91,7 +91,10 @@ function SystemSettingsPage() {
 
   const cronMutation = useMutation({
     mutationFn: () => systemSettingApi.runCron(),
-    onSuccess: () => toast.success("Cron job executed"),
+    onSuccess: (res) => {
+      const moved = res.data.data?.rules.reduce((sum, r) => sum + r.updated, 0) ?? 0;
+      toast.success(`Cron job executed, ${moved} PD records updated`);
+    },
     onError: () => toast.error("Failed to run cron job"),
   });
 
@@ -121,6 +121,7 @@ CREATE TABLE semen (
     sire_id VARCHAR,
     date DATE NOT NULL DEFAULT CURRENT_DATE,
     straw INTEGER,
+    reserved_straw INTEGER NOT NULL DEFAULT 0,
     bull BOOLEAN,
     remark TEXT,
     created_at TIMESTAMPTZ DEFAULT NOW(),
@@ -141,6 +142,9 @@ CREATE TABLE users (
     created_at TIMESTAMPTZ DEFAULT NOW()
 );
 
+-- Code sequences: one PostgreSQL sequence per period, created by the server ahead of
+-- time, e.g. CREATE SEQUENCE code_seq_ai_record_20261018 START WITH 1 CACHE 10;
+
 -- =============================================
 -- MAIN TABLES (With Foreign Keys)
 -- =============================================
@@ -200,6 +204,7 @@ CREATE TABLE ai_records (
     ai_date DATE,
     ai_time TIME,
     remark TEXT,
+    client_id UUID UNIQUE,
     created_at TIMESTAMPTZ DEFAULT NOW(),
     created_by UUID,
     updated_at TIMESTAMPTZ,
@@ -239,6 +244,7 @@ CREATE TABLE pregnancy_diagnosis (
     ai_date DATE NOT NULL,
     diagnosis_by INTEGER REFERENCES inseminators(id),
     pd_status INTEGER REFERENCES pd_status(id),
+    pregnant_date DATE,
     created_at TIMESTAMPTZ DEFAULT NOW(),
     created_by UUID,
     updated_at TIMESTAMPTZ,
@@ -265,6 +271,51 @@ CREATE TABLE transponder_records (
     feedlot_id INTEGER REFERENCES feedlots(id),
     assigned_date DATE NOT NULL,
     leave_date DATE,
+    read_at TIMESTAMPTZ,
+    reader VARCHAR,
+    created_at TIMESTAMPTZ DEFAULT NOW(),
+    created_by UUID,
+    updated_at TIMESTAMPTZ,
+    updated_by UUID
+);
+
+-- Weight Measurements table (append-only; cows.weight caches the latest value)
+CREATE TABLE weight_measurements (
+    id SERIAL PRIMARY KEY,
+    cow_id INTEGER NOT NULL REFERENCES cows(id),
+    measured_at TIMESTAMP NOT NULL,
+    weight NUMERIC NOT NULL,
+    feedlot_id INTEGER REFERENCES feedlots(id),
+    created_at TIMESTAMPTZ DEFAULT NOW(),
+    created_by UUID,
+    updated_at TIMESTAMPTZ,
+    updated_by UUID
+);
+
+-- Straw ledger (append-only; semen.straw caches the running balance)
+CREATE TABLE straw_ledger (
+    id SERIAL PRIMARY KEY,
+    semen_id INTEGER NOT NULL REFERENCES semen(id),
+    entry_type VARCHAR NOT NULL,
+    quantity INTEGER NOT NULL,
+    balance_after INTEGER NOT NULL,
+    ai_record_id INTEGER REFERENCES ai_records(id),
+    reservation_id INTEGER,
+    remark TEXT,
+    created_at TIMESTAMPTZ DEFAULT NOW(),
+    created_by UUID,
+    updated_at TIMESTAMPTZ,
+    updated_by UUID
+);
+
+-- Straw reservations (open ones are counted in semen.reserved_straw)
+CREATE TABLE straw_reservations (
+    id SERIAL PRIMARY KEY,
+    semen_id INTEGER NOT NULL REFERENCES semen(id),
+    quantity INTEGER NOT NULL,
+    remaining INTEGER NOT NULL,
+    status VARCHAR NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
     created_at TIMESTAMPTZ DEFAULT NOW(),
     created_by UUID,
     updated_at TIMESTAMPTZ,
@@ -289,13 +340,22 @@ $$ LANGUAGE plpgsql SECURITY DEFINER;
 
 CREATE INDEX idx_cows_tag ON cows(tag);
 CREATE INDEX idx_cows_current_feedlot ON cows(current_feedlot_id);
+CREATE INDEX idx_cows_current_transponder ON cows(current_transponder_id);
 CREATE INDEX idx_cows_dam ON cows(dam_id);
 CREATE INDEX idx_ai_records_dam ON ai_records(dam_id);
 CREATE INDEX idx_ai_records_feedlot ON ai_records(feedlot_id);
 CREATE INDEX idx_ai_records_date ON ai_records(ai_date);
 CREATE INDEX idx_transponders_code ON transponders(code);
+CREATE INDEX idx_transponders_current_cow ON transponders(current_cow);
 CREATE INDEX idx_transponder_records_transponder ON transponder_records(transponder_id);
+CREATE INDEX idx_transponder_records_cow_read ON transponder_records(cow_id, read_at);
 CREATE INDEX idx_calf_record_cow ON calf_record(cow_id);
+CREATE INDEX idx_calf_record_ai_record ON calf_record(ai_record_id);
 CREATE INDEX idx_pregnancy_diagnosis_ai_record ON pregnancy_diagnosis(ai_record_id);
+CREATE INDEX idx_pregnancy_diagnosis_status_ai_date ON pregnancy_diagnosis(pd_status, ai_date);
+CREATE INDEX idx_pregnancy_diagnosis_status_pregnant_date ON pregnancy_diagnosis(pd_status, pregnant_date);
 CREATE INDEX idx_cow_feedlot_history_cow ON cow_feedlot_history(cow_id);
 CREATE INDEX idx_cow_transponder_history_cow ON cow_transponder_history(cow_id);
+CREATE INDEX idx_weight_measurements_cow_time ON weight_measurements(cow_id, measured_at);
+CREATE INDEX idx_straw_ledger_semen ON straw_ledger(semen_id, id);
+CREATE INDEX idx_straw_reservations_status_expires ON straw_reservations(status, expires_at);
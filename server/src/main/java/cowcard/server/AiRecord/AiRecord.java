@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -14,6 +15,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
 
 import cowcard.server.AiStatus.AiStatus;
 import cowcard.server.Common.BaseEntity;
@@ -26,7 +29,9 @@ import cowcard.server.Semen.Semen;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "ai_records")
+@Table(name = "ai_records", indexes = {
+		@Index(name = "idx_ai_records_date", columnList = "ai_date")
+})
 public class AiRecord extends BaseEntity implements Serializable {
 	private static final long serialVersionUID = 1L;
 
@@ -62,11 +67,15 @@ public class AiRecord extends BaseEntity implements Serializable {
 	private AiStatus status;
 
 	@Column(name = "ai_date")
-	private String aiDate;
+	private LocalDate aiDate;
 
 	@Column(name = "ai_time")
 	private String aiTime;
 
 	@Column(name = "remark")
 	private String remark;
+
+	// Set by field tablets so a re-sent offline upload does not create the record twice
+	@Column(name = "client_id", unique = true)
+	private UUID clientId;
 }
@@ -1,5 +1,6 @@
 package cowcard.server.AiRecord;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,14 +24,18 @@ public class AiRecordController {
     @Autowired
     private AiRecordService aiRecordService;
 
+    @Autowired
+    private AiSessionService aiSessionService;
+
     public record CreateAiRecordRequest(
             Integer damId,
             Integer semenId,
-            String aiDate,
+            LocalDate aiDate,
             String aiTime,
             Integer aiById,
             Integer preparedById,
-            String remark) {
+            String remark,
+            Integer strawReservationId) {
     }
 
     @GetMapping("/{id}/detail")
@@ -45,7 +50,7 @@ public class AiRecordController {
 
     @GetMapping("/next-code")
     public ServerRes<String> getNextCode() {
-        return ServerRes.success(aiRecordService.generateNextCode());
+        return ServerRes.success(aiRecordService.peekNextCode());
     }
 
     @GetMapping("/dam-ai-record")
@@ -96,9 +101,22 @@ public class AiRecordController {
         }
 
         try {
-            return ServerRes.success(aiRecordService.create(aiRecord, request.semenId()));
+            return ServerRes.success(aiRecordService.create(aiRecord, request.semenId(), request.strawReservationId()));
         } catch (RuntimeException e) {
             return ServerRes.<AiRecord>error(e.getMessage());
         }
     }
+
+    // Offline session from a field tablet; safe to re-send, records already stored are reported back
+    @PostMapping("/session-upload")
+    public ServerRes<AiSessionResult> uploadSession(@RequestBody AiSessionUpload upload) {
+        if (upload == null || upload.records() == null || upload.records().isEmpty()) {
+            return ServerRes.<AiSessionResult>error("No AI records to upload");
+        }
+        try {
+            return ServerRes.success(aiSessionService.upload(upload.records()));
+        } catch (RuntimeException e) {
+            return ServerRes.<AiSessionResult>error(e.getMessage());
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package cowcard.server.AiRecord;
 
+import java.time.LocalDate;
+
 public record AiRecordDetail(
         Integer id,
         String code,
-        String aiDate,
+        LocalDate aiDate,
         String aiTime,
         String remark,
         String feedlot,
@@ -4,23 +4,18 @@ import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import cowcard.server.Cow.CowAiRecordItem;
+
 @Repository
 public interface AiRecordRepository extends JpaRepository<AiRecord, Integer> {
     @Query("SELECT a FROM AiRecord a ORDER BY a.aiDate DESC, a.id DESC")
     List<AiRecord> findAllOrderByAiDateDescIdDesc();
 
-    long countByCodeStartingWith(String prefix);
-
     long countByDamIdAndSemenBullFalse(Integer damId);
 
-    List<AiRecord> findBySemenBullFalseOrderByDamIdAscAiDateAsc();
-
-    List<AiRecord> findBySemenBullTrueOrderByDamIdAscAiDateAsc();
-
-    List<AiRecord> findByDamIdOrderByAiDateDesc(Integer damId);
-
     List<AiRecord> findByAiById(Integer id);
 
     List<AiRecord> findByPreparedById(Integer id);
@@ -28,4 +23,14 @@ public interface AiRecordRepository extends JpaRepository<AiRecord, Integer> {
     List<AiRecord> findByDamId(Integer damId);
 
     List<AiRecord> findBySemenId(Integer semenId);
+
+    @Query("SELECT new cowcard.server.Cow.CowAiRecordItem(" +
+           "a.id, a.code, a.aiDate, a.aiTime, s.name, ab.name, pb.name, a.feedlot, st.name) " +
+           "FROM AiRecord a " +
+           "LEFT JOIN a.semen s " +
+           "LEFT JOIN a.aiBy ab " +
+           "LEFT JOIN a.preparedBy pb " +
+           "LEFT JOIN a.status st " +
+           "WHERE a.dam.id = :damId ORDER BY a.id ASC")
+    List<CowAiRecordItem> findItemsByDamId(@Param("damId") Integer damId);
 }
@@ -3,25 +3,34 @@ package cowcard.server.AiRecord;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import cowcard.server.AiStatus.AiStatus;
+import cowcard.server.BreedingAnalytics.BreedingAnalyticsService;
 import cowcard.server.CalfRecord.CalfRecordRepository;
+import cowcard.server.CodeSequence.CodeSequenceAllocator;
 import cowcard.server.Cow.Cow;
 import cowcard.server.Cow.CowRepository;
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.LiveEvent.LiveTopic;
+import cowcard.server.LiveEvent.StatusChange;
 import cowcard.server.PdStatus.PdStatus;
 import cowcard.server.PregnancyDiagnosis.PregnancyDiagnosis;
 import cowcard.server.PregnancyDiagnosis.PregnancyDiagnosisRepository;
 import cowcard.server.Semen.Semen;
 import cowcard.server.Semen.SemenRepository;
-import cowcard.server.Semen.SemenService;
+import cowcard.server.StrawInventory.StrawInventoryService;
 
 @Service
 public class AiRecordService {
@@ -42,10 +51,39 @@ public class AiRecordService {
     private CalfRecordRepository calfRecordRepository;
 
     @Autowired
-    private SemenService semenService;
+    private StrawInventoryService strawInventoryService;
+
+    @Autowired
+    private LiveEventPublisher liveEventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CodeSequenceAllocator codeSequenceAllocator;
+
+    @Autowired
+    private BreedingAnalyticsService breedingAnalyticsService;
 
     private static final DateTimeFormatter CODE_DATE_FMT = DateTimeFormatter.ofPattern("yyyyMMdd");
 
+    private static final String CODE_SEQUENCE = "ai-record";
+
+    private static final String SELECT_HIGHEST_CODE_NUMBER = "SELECT COALESCE(max(split_part(code, '-', 2)::bigint), 0) " +
+            "FROM ai_records WHERE code LIKE ? AND split_part(code, '-', 2) ~ '^[0-9]{1,18}$'";
+
+    // One pass over ai_records: every bull AI and the first three non-bull AIs per dam. The
+    // latest AI date is aggregated separately over all of the dam's records, including those
+    // whose semen has no bull flag; dams with only such records are not listed.
+    private static final String SELECT_DAM_AI_RECORDS = "WITH last_ai AS (SELECT dam_id, max(ai_date) AS last_ai_date " +
+            "FROM ai_records GROUP BY dam_id) " +
+            "SELECT r.dam_id, r.tag, r.id, r.code, r.ai_date, r.semen_name, r.bull, l.last_ai_date " +
+            "FROM (SELECT a.dam_id, c.tag, a.id, a.code, a.ai_date, s.name AS semen_name, s.bull, " +
+            "row_number() OVER (PARTITION BY a.dam_id, s.bull ORDER BY a.ai_date, a.id) AS rn " +
+            "FROM ai_records a JOIN semen s ON s.id = a.semen_id JOIN cows c ON c.id = a.dam_id " +
+            "WHERE s.bull IS NOT NULL) r JOIN last_ai l ON l.dam_id = r.dam_id " +
+            "WHERE r.bull OR r.rn <= 3 ORDER BY r.dam_id, r.bull, r.ai_date, r.id";
+
     public List<AiRecord> findAll() {
         return aiRecordRepository.findAllOrderByAiDateDescIdDesc();
     }
@@ -64,58 +102,75 @@ public class AiRecordService {
     }
 
     public List<DamAiRecord> getDamAiRecord() {
-        List<AiRecord> nonBullRecords = aiRecordRepository.findBySemenBullFalseOrderByDamIdAscAiDateAsc();
-        List<AiRecord> bullRecords = aiRecordRepository.findBySemenBullTrueOrderByDamIdAscAiDateAsc();
-
-        Map<Integer, List<AiRecord>> nonBullByDam = nonBullRecords.stream()
-                .collect(Collectors.groupingBy(r -> r.getDam().getId()));
-        Map<Integer, List<AiRecord>> bullByDam = bullRecords.stream()
-                .collect(Collectors.groupingBy(r -> r.getDam().getId()));
-
-        // Collect all dam IDs from both maps
-        Map<Integer, AiRecord> damSamples = new HashMap<>();
-        nonBullRecords.forEach(r -> damSamples.putIfAbsent(r.getDam().getId(), r));
-        bullRecords.forEach(r -> damSamples.putIfAbsent(r.getDam().getId(), r));
-
-        return damSamples.entrySet().stream()
-                .map(entry -> {
-                    Integer damId = entry.getKey();
-                    AiRecord sample = entry.getValue();
-
-                    List<AiRecordSummary> aiSummaries = nonBullByDam.getOrDefault(damId, List.of()).stream()
-                            .limit(3)
-                            .map(AiRecordSummary::from)
-                            .toList();
-
-                    List<BullAiSummary> bullSummaries = bullByDam.getOrDefault(damId, List.of()).stream()
-                            .map(BullAiSummary::from)
-                            .toList();
-
-                    // Calculate lastAiDays from most recent AI record (any type)
-                    Integer lastAiDays = null;
-                    List<AiRecord> allDamRecords = aiRecordRepository.findByDamIdOrderByAiDateDesc(damId);
-                    if (!allDamRecords.isEmpty()) {
-                        String mostRecentAiDate = allDamRecords.getFirst().getAiDate();
-                        if (mostRecentAiDate != null && !mostRecentAiDate.isBlank()) {
-                            LocalDate aiDate = LocalDate.parse(mostRecentAiDate);
-                            lastAiDays = (int) ChronoUnit.DAYS.between(aiDate, LocalDate.now());
-                        }
-                    }
-
-                    return new DamAiRecord(
-                            damId,
-                            sample.getDam().getTag(),
-                            aiSummaries,
-                            bullSummaries,
-                            lastAiDays);
-                })
-                .toList();
+        Map<Integer, DamRows> dams = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_DAM_AI_RECORDS, rs -> {
+            DamRows dam = dams.get(rs.getInt(1));
+            if (dam == null) {
+                dam = new DamRows(rs.getString(2), rs.getObject(8, LocalDate.class), new ArrayList<>(3), new ArrayList<>());
+                dams.put(rs.getInt(1), dam);
+            }
+            if (rs.getBoolean(7)) {
+                dam.bull().add(new BullAiSummary(rs.getInt(3), rs.getString(4)));
+            } else {
+                dam.aiRecords().add(new AiRecordSummary(rs.getInt(3), rs.getString(4), rs.getObject(5, LocalDate.class),
+                        rs.getString(6)));
+            }
+        });
+
+        LocalDate today = LocalDate.now();
+        List<DamAiRecord> result = new ArrayList<>(dams.size());
+        dams.forEach((damId, dam) -> {
+            Integer lastAiDays = null;
+            if (dam.lastAiDate() != null) {
+                lastAiDays = (int) ChronoUnit.DAYS.between(dam.lastAiDate(), today);
+            }
+            result.add(new DamAiRecord(damId, dam.tag(), dam.aiRecords(), dam.bull(), lastAiDays));
+        });
+        return result;
     }
 
+    // Codes are yyyyMMdd-N with N from a per-day sequence, unique across instances
     public String generateNextCode() {
         String prefix = LocalDate.now().format(CODE_DATE_FMT);
-        long count = aiRecordRepository.countByCodeStartingWith(prefix);
-        return prefix + "-" + (count + 1);
+        return prefix + "-" + codeSequenceAllocator.next(CODE_SEQUENCE, prefix, () -> highestCodeNumber(prefix));
+    }
+
+    // For the form preview only; nothing is reserved, so the saved code may differ
+    public String peekNextCode() {
+        String prefix = LocalDate.now().format(CODE_DATE_FMT);
+        return prefix + "-" + codeSequenceAllocator.peek(CODE_SEQUENCE, prefix, () -> highestCodeNumber(prefix));
+    }
+
+    // count codes with one sequence round trip, for batch uploads
+    public List<String> generateCodes(int count) {
+        String prefix = LocalDate.now().format(CODE_DATE_FMT);
+        List<String> codes = new ArrayList<>(count);
+        for (Long n : codeSequenceAllocator.next(CODE_SEQUENCE, prefix, count, () -> highestCodeNumber(prefix))) {
+            codes.add(prefix + "-" + n);
+        }
+        return codes;
+    }
+
+    // Creates today's and tomorrow's code sequence outside any request transaction, so
+    // creating AI records never has to; hourly so a missed day change is caught up. Days
+    // before yesterday are dropped: codes are only ever taken for today, and yesterday's
+    // may still be in use by a request that straddled midnight.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 5 * * * *")
+    public void prepareCodeSequences() {
+        LocalDate today = LocalDate.now();
+        for (LocalDate day : List.of(today, today.plusDays(1))) {
+            String prefix = day.format(CODE_DATE_FMT);
+            codeSequenceAllocator.prepare(CODE_SEQUENCE, prefix, () -> highestCodeNumber(prefix));
+        }
+        codeSequenceAllocator.dropBefore(CODE_SEQUENCE, today.minusDays(1).format(CODE_DATE_FMT));
+    }
+
+    // Only consulted when a day's sequence is created, so codes written before it
+    // existed are not handed out again
+    private long highestCodeNumber(String prefix) {
+        Long highest = jdbcTemplate.queryForObject(SELECT_HIGHEST_CODE_NUMBER, Long.class, prefix + "-%");
+        return highest != null ? highest : 0;
     }
 
     @Transactional
@@ -126,6 +181,7 @@ public class AiRecordService {
         aiStatus.setId(aiStatusId);
         aiRecord.setStatus(aiStatus);
         aiRecordRepository.save(aiRecord);
+        liveEventPublisher.publish(LiveTopic.BREEDING, "ai-status", "ai:" + id, new StatusChange(id, aiStatusId));
 
         // If fail (id=2), cascade to PD only if PD is currently NEW (7) or Pending (1)
         if (aiStatusId == 2) {
@@ -136,19 +192,26 @@ public class AiRecordService {
                     pdStatus.setId(2);
                     pd.setPdStatus(pdStatus);
                     pregnancyDiagnosisRepository.save(pd);
+                    liveEventPublisher.publish(LiveTopic.BREEDING, "pd-status", "pd:" + pd.getId(),
+                            new StatusChange(pd.getId(), 2));
                 }
             });
         }
+        breedingAnalyticsService.refresh(List.of(id));
 
         return aiRecord;
     }
 
     @Transactional
-    public AiRecord create(AiRecord aiRecord, Integer semenId) {
+    public AiRecord create(AiRecord aiRecord, Integer semenId, Integer strawReservationId) {
+        // Locked before counting, as AiSessionService does, so concurrent AIs on the same dam
+        // can't both pass the non-bull limit
+        Cow dam = cowRepository.findByIdForUpdate(aiRecord.getDam().getId()).orElseThrow();
+
         // Validate: dam can only have 3 non-bull AI records
         Semen semen = semenRepository.findById(semenId).orElseThrow();
         if (semen.getBull() == null || !semen.getBull()) {
-            long nonBullCount = countNonBullAiRecords(aiRecord.getDam().getId());
+            long nonBullCount = countNonBullAiRecords(dam.getId());
             if (nonBullCount >= 3) {
                 throw new RuntimeException("This dam already has 3 AI records with non-bull semen. Only bull semen can be used.");
             }
@@ -158,7 +221,6 @@ public class AiRecordService {
         aiRecord.setCode(generateNextCode());
 
         // Store the dam's current feedlot name
-        Cow dam = cowRepository.findById(aiRecord.getDam().getId()).orElseThrow();
         if (dam.getCurrentFeedlot() != null) {
             aiRecord.setFeedlot(dam.getCurrentFeedlot().getName());
         }
@@ -181,11 +243,15 @@ public class AiRecordService {
         pd.setPdStatus(defaultPdStatus);
         pregnancyDiagnosisRepository.save(pd);
 
-        // Deduct 1 straw from non-bull semen only
+        // Deduct 1 straw from non-bull semen only, from the session's reservation if it holds one
         if (semen.getBull() == null || !semen.getBull()) {
-            semenService.deductStraw(semenId);
+            strawInventoryService.use(semenId, saved.getId(), strawReservationId);
         }
+        breedingAnalyticsService.refresh(List.of(saved.getId()));
 
         return saved;
     }
+
+    private record DamRows(String tag, LocalDate lastAiDate, List<AiRecordSummary> aiRecords, List<BullAiSummary> bull) {
+    }
 }
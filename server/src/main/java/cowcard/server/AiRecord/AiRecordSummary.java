@@ -1,16 +1,10 @@
 package cowcard.server.AiRecord;
 
+import java.time.LocalDate;
+
 public record AiRecordSummary(
         Integer id,
         String code,
-        String aiDate,
+        LocalDate aiDate,
         String semenName) {
-
-    public static AiRecordSummary from(AiRecord record) {
-        return new AiRecordSummary(
-                record.getId(),
-                record.getCode(),
-                record.getAiDate(),
-                record.getSemen() != null ? record.getSemen().getName() : null);
-    }
 }
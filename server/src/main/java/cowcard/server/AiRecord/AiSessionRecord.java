@@ -0,0 +1,16 @@
+package cowcard.server.AiRecord;
+
+import java.util.UUID;
+
+// One AI captured offline; clientId is generated on the tablet and makes re-sends idempotent
+public record AiSessionRecord(
+        UUID clientId,
+        Integer damId,
+        Integer semenId,
+        String aiDate,
+        String aiTime,
+        Integer aiById,
+        Integer preparedById,
+        String remark,
+        Integer strawReservationId) {
+}
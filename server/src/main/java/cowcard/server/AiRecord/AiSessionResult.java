@@ -0,0 +1,16 @@
+package cowcard.server.AiRecord;
+
+import java.util.List;
+import java.util.UUID;
+
+// saved covers new records and ones an earlier upload already stored (created = false),
+// so the tablet can mark everything in it as synced
+public record AiSessionResult(int requested, int created, int alreadyUploaded, List<AiSessionSaved> saved,
+                              List<AiSessionError> rejected) {
+
+    public record AiSessionSaved(UUID clientId, Integer aiRecordId, String code, boolean created) {
+    }
+
+    public record AiSessionError(UUID clientId, String message) {
+    }
+}
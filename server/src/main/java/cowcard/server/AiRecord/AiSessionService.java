@@ -0,0 +1,330 @@
+package cowcard.server.AiRecord;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import cowcard.server.AiRecord.AiSessionResult.AiSessionError;
+import cowcard.server.AiRecord.AiSessionResult.AiSessionSaved;
+import cowcard.server.BreedingAnalytics.BreedingAnalyticsService;
+import cowcard.server.StrawInventory.StrawConsumption;
+import cowcard.server.StrawInventory.StrawDemand;
+import cowcard.server.StrawInventory.StrawInventoryService;
+import cowcard.server.StrawInventory.StrawUsage;
+
+// A day's AI records from a field tablet in one transaction. Applies the same rules as
+// AiRecordService.create. The whole batch is checked in memory against one read of
+// semen, dams and non-bull counts. Codes come from one sequence round trip, and AI
+// records, PDs and straw usage are written with batched statements. Records whose
+// clientId is already stored are reported back instead of created again.
+@Service
+public class AiSessionService {
+
+    private static final int DEFAULT_AI_STATUS = 3;
+    private static final int DEFAULT_PD_STATUS = 7;
+    private static final int MAX_NON_BULL_AI = 3;
+
+    private static final Comparator<AiSessionRecord> AI_ORDER = Comparator.comparing(AiSessionRecord::aiDate)
+            .thenComparing(AiSessionRecord::aiTime, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final String SELECT_UPLOADED = "SELECT client_id, id, code FROM ai_records WHERE client_id = ANY(?)";
+
+    private static final String SELECT_SEMEN = "SELECT id, bull FROM semen WHERE id = ANY(?)";
+
+    // Locks the dams so a concurrent upload can't slip past the non-bull limit
+    private static final String LOCK_DAMS = "SELECT c.id, f.name FROM cows c " +
+            "LEFT JOIN feedlots f ON f.id = c.current_feedlot_id WHERE c.id = ANY(?) ORDER BY c.id FOR UPDATE OF c";
+
+    private static final String COUNT_NON_BULL = "SELECT a.dam_id, count(*) FROM ai_records a " +
+            "JOIN semen s ON s.id = a.semen_id WHERE a.dam_id = ANY(?) AND s.bull = false GROUP BY a.dam_id";
+
+    private static final String INSERT_AI_RECORD = "INSERT INTO ai_records (code, dam_id, semen_id, feedlot, ai_by, " +
+            "prepared_by, status, ai_date, ai_time, remark, client_id, created_at, created_by, updated_at, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PD = "INSERT INTO pregnancy_diagnosis (ai_record_id, ai_date, pd_status, " +
+            "created_at, created_by, updated_at, updated_by) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditorAware<UUID> auditorAware;
+
+    @Autowired
+    private AiRecordService aiRecordService;
+
+    @Autowired
+    private StrawInventoryService strawInventoryService;
+
+    @Autowired
+    private BreedingAnalyticsService breedingAnalyticsService;
+
+    @Transactional
+    public AiSessionResult upload(List<AiSessionRecord> records) {
+        List<AiSessionSaved> saved = new ArrayList<>();
+        List<AiSessionError> rejected = new ArrayList<>();
+        Map<UUID, AiSessionRecord> pending = new LinkedHashMap<>();
+        for (AiSessionRecord r : records) {
+            if (r == null || r.clientId() == null) {
+                rejected.add(new AiSessionError(null, "clientId is required"));
+            } else if (pending.putIfAbsent(r.clientId(), r) != null) {
+                rejected.add(new AiSessionError(r.clientId(), "clientId appears more than once in this upload"));
+            }
+        }
+
+        // Replays: anything stored by an earlier upload is reported as it was saved
+        query(SELECT_UPLOADED, "uuid", pending.keySet(), rs -> {
+            UUID clientId = rs.getObject(1, UUID.class);
+            saved.add(new AiSessionSaved(clientId, rs.getInt(2), rs.getString(3), false));
+            pending.remove(clientId);
+        });
+        int alreadyUploaded = saved.size();
+
+        List<AiSessionRecord> candidates = new ArrayList<>();
+        for (AiSessionRecord r : pending.values()) {
+            String error = validate(r);
+            if (error != null) {
+                rejected.add(new AiSessionError(r.clientId(), error));
+            } else {
+                candidates.add(r);
+            }
+        }
+        // The first three non-bull AIs are the earliest ones, whatever order they were keyed in
+        candidates.sort(AI_ORDER);
+
+        Map<Integer, Boolean> bullOfSemen = new HashMap<>();
+        query(SELECT_SEMEN, "integer", candidates.stream().map(AiSessionRecord::semenId).distinct().toList(), rs -> {
+            bullOfSemen.put(rs.getInt(1), (Boolean) rs.getObject(2));
+        });
+        List<Integer> damIds = candidates.stream().map(AiSessionRecord::damId).distinct().toList();
+        Map<Integer, String> feedlotOfDam = new HashMap<>();
+        query(LOCK_DAMS, "integer", damIds, rs -> {
+            feedlotOfDam.put(rs.getInt(1), rs.getString(2));
+        });
+        Map<Integer, Long> nonBullCount = new HashMap<>();
+        query(COUNT_NON_BULL, "integer", damIds, rs -> {
+            nonBullCount.put(rs.getInt(1), rs.getLong(2));
+        });
+
+        List<AiSessionRecord> waiting = new ArrayList<>();
+        for (AiSessionRecord r : candidates) {
+            if (!bullOfSemen.containsKey(r.semenId())) {
+                rejected.add(new AiSessionError(r.clientId(), "Semen with id " + r.semenId() + " not found"));
+            } else if (!feedlotOfDam.containsKey(r.damId())) {
+                rejected.add(new AiSessionError(r.clientId(), "Cow with id " + r.damId() + " not found"));
+            } else {
+                waiting.add(r);
+            }
+        }
+
+        // A non-bull slot is only taken once the record's straw is. Records left without straws
+        // hand their slot to the next AI on the same dam, so admission repeats until none is freed.
+        List<AiSessionRecord> accepted = new ArrayList<>();
+        Map<Integer, Integer> balances = new HashMap<>();
+        boolean freed = true;
+        while (freed && !waiting.isEmpty()) {
+            List<AiSessionRecord> admitted = new ArrayList<>();
+            List<AiSessionRecord> overLimit = new ArrayList<>();
+            Map<Integer, Long> counted = new HashMap<>(nonBullCount);
+            for (AiSessionRecord r : waiting) {
+                Boolean bull = bullOfSemen.get(r.semenId());
+                if (!Boolean.TRUE.equals(bull) && counted.getOrDefault(r.damId(), 0L) >= MAX_NON_BULL_AI) {
+                    overLimit.add(r);
+                    continue;
+                }
+                // Same count create() checks against: semen explicitly flagged non-bull
+                if (Boolean.FALSE.equals(bull)) {
+                    counted.merge(r.damId(), 1L, Long::sum);
+                }
+                admitted.add(r);
+            }
+
+            Set<UUID> unmet = consumeStraws(admitted, bullOfSemen, balances, rejected);
+            freed = false;
+            for (AiSessionRecord r : admitted) {
+                boolean nonBull = Boolean.FALSE.equals(bullOfSemen.get(r.semenId()));
+                if (unmet.contains(r.clientId())) {
+                    freed |= nonBull;
+                } else {
+                    accepted.add(r);
+                    if (nonBull) {
+                        nonBullCount.merge(r.damId(), 1L, Long::sum);
+                    }
+                }
+            }
+            waiting = overLimit;
+        }
+        for (AiSessionRecord r : waiting) {
+            rejected.add(new AiSessionError(r.clientId(),
+                    "This dam already has 3 AI records with non-bull semen. Only bull semen can be used."));
+        }
+        // Codes follow AI date order even when a later round admitted some records
+        accepted.sort(AI_ORDER);
+
+        if (!accepted.isEmpty()) {
+            insert(accepted, feedlotOfDam, bullOfSemen, balances, saved);
+        }
+        return new AiSessionResult(records.size(), saved.size() - alreadyUploaded, alreadyUploaded, saved, rejected);
+    }
+
+    // Non-bull semen costs one straw per AI, taken per (semen, reservation) in one go. Returns
+    // the records whose straws could not be taken, after rejecting them.
+    private Set<UUID> consumeStraws(List<AiSessionRecord> records, Map<Integer, Boolean> bullOfSemen,
+                                    Map<Integer, Integer> balances, List<AiSessionError> rejected) {
+        Map<DemandKey, List<AiSessionRecord>> grouped = new LinkedHashMap<>();
+        for (AiSessionRecord r : records) {
+            if (!Boolean.TRUE.equals(bullOfSemen.get(r.semenId()))) {
+                grouped.computeIfAbsent(new DemandKey(r.semenId(), r.strawReservationId()), k -> new ArrayList<>()).add(r);
+            }
+        }
+        Set<UUID> unmet = new HashSet<>();
+        if (grouped.isEmpty()) {
+            return unmet;
+        }
+        Map<StrawDemand, List<AiSessionRecord>> byDemand = new LinkedHashMap<>();
+        grouped.forEach((key, group) ->
+                byDemand.put(new StrawDemand(key.semenId(), key.reservationId(), group.size()), group));
+        StrawConsumption consumption = strawInventoryService.consume(new ArrayList<>(byDemand.keySet()));
+        consumption.balances().forEach((semenId, balance) -> balances.merge(semenId, balance, Math::min));
+        byDemand.forEach((demand, group) -> {
+            if (!consumption.met().contains(demand)) {
+                String message = demand.reservationId() != null
+                        ? "Straw reservation " + demand.reservationId() + " is expired, short or for another semen"
+                        : "Not enough straws remaining for semen ID: " + demand.semenId();
+                group.forEach(r -> {
+                    rejected.add(new AiSessionError(r.clientId(), message));
+                    unmet.add(r.clientId());
+                });
+            }
+        });
+        return unmet;
+    }
+
+    private static String validate(AiSessionRecord r) {
+        if (r.damId() == null || r.semenId() == null) {
+            return "damId and semenId are required";
+        }
+        if (r.aiDate() == null || r.aiDate().isBlank()) {
+            return "aiDate is required";
+        }
+        try {
+            LocalDate.parse(r.aiDate());
+        } catch (DateTimeParseException e) {
+            return "aiDate must be yyyy-MM-dd";
+        }
+        return null;
+    }
+
+    private void insert(List<AiSessionRecord> accepted, Map<Integer, String> feedlotOfDam,
+                        Map<Integer, Boolean> bullOfSemen, Map<Integer, Integer> balances, List<AiSessionSaved> saved) {
+        List<String> codes = aiRecordService.generateCodes(accepted.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        UUID auditor = auditorAware.getCurrentAuditor().orElse(null);
+        try {
+            jdbcTemplate.batchUpdate(INSERT_AI_RECORD, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    AiSessionRecord r = accepted.get(i);
+                    ps.setString(1, codes.get(i));
+                    ps.setInt(2, r.damId());
+                    ps.setInt(3, r.semenId());
+                    ps.setString(4, feedlotOfDam.get(r.damId()));
+                    ps.setObject(5, r.aiById(), Types.INTEGER);
+                    ps.setObject(6, r.preparedById(), Types.INTEGER);
+                    ps.setInt(7, DEFAULT_AI_STATUS);
+                    ps.setDate(8, Date.valueOf(LocalDate.parse(r.aiDate())));
+                    ps.setString(9, r.aiTime());
+                    ps.setString(10, r.remark());
+                    ps.setObject(11, r.clientId(), Types.OTHER);
+                    ps.setTimestamp(12, now);
+                    ps.setObject(13, auditor, Types.OTHER);
+                    ps.setTimestamp(14, now);
+                    ps.setObject(15, auditor, Types.OTHER);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return accepted.size();
+                }
+            });
+        } catch (DuplicateKeyException e) {
+            // Another request is storing the same clientIds right now; a retry will see them as uploaded
+            throw new RuntimeException("Some of these records are being uploaded by another request, retry the upload");
+        }
+
+        Map<UUID, Integer> idOfClient = new HashMap<>();
+        query(SELECT_UPLOADED, "uuid", accepted.stream().map(AiSessionRecord::clientId).toList(), rs -> {
+            idOfClient.put(rs.getObject(1, UUID.class), rs.getInt(2));
+        });
+        jdbcTemplate.batchUpdate(INSERT_PD, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AiSessionRecord r = accepted.get(i);
+                ps.setInt(1, idOfClient.get(r.clientId()));
+                ps.setDate(2, Date.valueOf(LocalDate.parse(r.aiDate())));
+                ps.setInt(3, DEFAULT_PD_STATUS);
+                ps.setTimestamp(4, now);
+                ps.setObject(5, auditor, Types.OTHER);
+                ps.setTimestamp(6, now);
+                ps.setObject(7, auditor, Types.OTHER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return accepted.size();
+            }
+        });
+
+        List<StrawUsage> usages = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            AiSessionRecord r = accepted.get(i);
+            Integer id = idOfClient.get(r.clientId());
+            saved.add(new AiSessionSaved(r.clientId(), id, codes.get(i), true));
+            if (!Boolean.TRUE.equals(bullOfSemen.get(r.semenId()))) {
+                usages.add(new StrawUsage(r.semenId(), id, r.strawReservationId()));
+            }
+        }
+        strawInventoryService.recordUsages(usages, balances);
+        breedingAnalyticsService.refresh(idOfClient.values());
+    }
+
+    private void query(String sql, String arrayType, Collection<?> ids, RowCallbackHandler handler) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf(arrayType, ids.stream().filter(Objects::nonNull).toArray()));
+            return ps;
+        }, handler);
+    }
+
+    private record DemandKey(Integer semenId, Integer reservationId) {
+    }
+}
@@ -0,0 +1,6 @@
+package cowcard.server.AiRecord;
+
+import java.util.List;
+
+public record AiSessionUpload(List<AiSessionRecord> records) {
+}
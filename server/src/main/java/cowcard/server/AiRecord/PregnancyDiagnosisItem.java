@@ -1,10 +1,12 @@
 package cowcard.server.AiRecord;
 
+import java.time.LocalDate;
+
 import cowcard.server.PregnancyDiagnosis.PregnancyDiagnosis;
 
 public record PregnancyDiagnosisItem(
         Integer id,
-        String aiDate,
+        LocalDate aiDate,
         String diagnosisBy,
         String pdStatus) {
 
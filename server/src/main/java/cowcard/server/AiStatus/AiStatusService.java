@@ -5,35 +5,46 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import cowcard.server.ReferenceData.ReferenceDataCache;
+
 @Service
 public class AiStatusService {
 
     @Autowired
     private AiStatusRepository aiStatusRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<AiStatus> findAll() {
         return aiStatusRepository.findAll();
     }
 
     public List<AiStatus> findAllActive() {
-        return aiStatusRepository.findByActiveTrue();
+        return referenceDataCache.findAllActive(AiStatus.class);
     }
 
     public AiStatus toggleActive(Integer id) {
         AiStatus e = aiStatusRepository.findById(id).orElseThrow();
         e.setActive(e.getActive() == null || !e.getActive());
-        return aiStatusRepository.save(e);
+        AiStatus saved = aiStatusRepository.save(e);
+        referenceDataCache.invalidate(AiStatus.class);
+        return saved;
     }
 
     public AiStatus create(AiStatus aiStatus) {
         aiStatus.setActive(true);
-        return aiStatusRepository.save(aiStatus);
+        AiStatus saved = aiStatusRepository.save(aiStatus);
+        referenceDataCache.invalidate(AiStatus.class);
+        return saved;
     }
 
     public AiStatus update(Integer id, AiStatus aiStatus) {
         AiStatus e = aiStatusRepository.findById(id).orElseThrow();
         e.setName(aiStatus.getName());
         e.setRemark(aiStatus.getRemark());
-        return aiStatusRepository.save(e);
+        AiStatus saved = aiStatusRepository.save(e);
+        referenceDataCache.invalidate(AiStatus.class);
+        return saved;
     }
 }
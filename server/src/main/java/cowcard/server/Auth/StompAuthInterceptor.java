@@ -0,0 +1,64 @@
+package cowcard.server.Auth;
+
+import java.util.Map;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+// /ws is open at the HTTP layer; the JWT is checked on the STOMP CONNECT frame instead.
+// Browsers carry it in the jwt cookie (copied from the handshake), other clients may
+// send an "Authorization: Bearer <token>" native header.
+@Component
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    public static final String JWT_ATTRIBUTE = "jwt";
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+
+    public StompAuthInterceptor(JwtService jwtService, UserDetailsService userDetailsService) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        String token = extractToken(accessor);
+        try {
+            String username = token != null ? jwtService.extractUsername(token) : null;
+            if (username != null) {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (jwtService.validateToken(token, userDetails)) {
+                    accessor.setUser(new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities()));
+                    return message;
+                }
+            }
+        } catch (Exception e) {
+            // Fall through to rejection
+        }
+        throw new MessageDeliveryException("Unauthorized");
+    }
+
+    private String extractToken(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        return attributes != null ? (String) attributes.get(JWT_ATTRIBUTE) : null;
+    }
+}
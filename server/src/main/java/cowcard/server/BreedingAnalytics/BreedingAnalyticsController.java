@@ -0,0 +1,49 @@
+package cowcard.server.BreedingAnalytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import cowcard.server.Common.ServerRes;
+
+@RestController
+@RequestMapping("/breeding-analytics")
+public class BreedingAnalyticsController {
+
+    @Autowired
+    private BreedingAnalyticsService breedingAnalyticsService;
+
+    // Ranked by conception rate; from/to filter on AI date and default to all time
+    @GetMapping("/leaderboard")
+    public ServerRes<List<BreedingStats>> getLeaderboard(@RequestParam BreedingDimension dimension,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                         @RequestParam(defaultValue = "1") int minServices,
+                                                         @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ServerRes.success(breedingAnalyticsService.getLeaderboard(dimension, from, to, minServices, limit));
+        } catch (RuntimeException e) {
+            return ServerRes.<List<BreedingStats>>error(e.getMessage());
+        }
+    }
+
+    // key is the semen, inseminator or dam id, or the sire name
+    @GetMapping("/{dimension}/{key}")
+    public ServerRes<BreedingStats> getStats(@PathVariable BreedingDimension dimension,
+                                             @PathVariable String key,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ServerRes.success(breedingAnalyticsService.getStats(dimension, key, from, to));
+        } catch (RuntimeException e) {
+            return ServerRes.<BreedingStats>error(e.getMessage());
+        }
+    }
+}
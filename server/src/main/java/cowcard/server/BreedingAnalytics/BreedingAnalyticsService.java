@@ -0,0 +1,244 @@
+package cowcard.server.BreedingAnalytics;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import cowcard.server.Common.AfterCommit;
+import cowcard.server.Inseminator.Inseminator;
+import cowcard.server.Pedigree.PedigreeService;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+
+// Conception-rate counters per semen, sire, inseminator role and dam, kept in memory.
+// Every AI record is one fact; write paths hand over the AI record ids they touched and
+// those facts are re-read after commit and swapped in. The cron's PD moves (NEW -> Pending,
+// Pregnant -> Gestation) never change a counter, so it does not report here.
+@Service
+public class BreedingAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(BreedingAnalyticsService.class);
+
+    private static final String SELECT_FACTS = "SELECT a.id, a.ai_date, a.semen_id, s.name, s.sire, a.ai_by, " +
+            "a.prepared_by, pd.diagnosis_by, a.dam_id, pd.pd_status, " +
+            "EXISTS (SELECT 1 FROM calf_record cr WHERE cr.ai_record_id = a.id) " +
+            "FROM ai_records a LEFT JOIN semen s ON s.id = a.semen_id " +
+            "LEFT JOIN pregnancy_diagnosis pd ON pd.ai_record_id = a.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private PedigreeService pedigreeService;
+
+    @Autowired
+    @Qualifier("queryExecutor")
+    private ExecutorService queryExecutor;
+
+    @Value("${cowcard.breeding-analytics.range-size:20000}")
+    private int rangeSize;
+
+    private volatile Map<Integer, BreedingFact> facts = new ConcurrentHashMap<>();
+    private volatile Map<BreedingDimension, Map<String, BreedingTally>> tallies = emptyTallies();
+    private volatile Map<Integer, String> semenNames = new ConcurrentHashMap<>();
+
+    // Backfill: AI record id ranges are read concurrently on the query executor, then folded in
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT min(id) AS lo, max(id) AS hi FROM ai_records");
+        List<CompletableFuture<List<BreedingFact>>> tasks = new ArrayList<>();
+        if (bounds.get("lo") != null) {
+            int lo = ((Number) bounds.get("lo")).intValue();
+            int hi = ((Number) bounds.get("hi")).intValue();
+            for (long from = lo; from <= hi; from += rangeSize) {
+                int rangeFrom = (int) from;
+                int rangeTo = (int) Math.min(from + rangeSize, (long) hi + 1);
+                tasks.add(CompletableFuture.supplyAsync(() -> readRange(rangeFrom, rangeTo), queryExecutor));
+            }
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+        Map<Integer, BreedingFact> loaded = new ConcurrentHashMap<>();
+        Map<BreedingDimension, Map<String, BreedingTally>> counters = emptyTallies();
+        Map<Integer, String> names = new ConcurrentHashMap<>();
+        for (CompletableFuture<List<BreedingFact>> task : tasks) {
+            for (BreedingFact fact : task.join()) {
+                loaded.put(fact.aiRecordId(), fact);
+                count(counters, names, fact, 1);
+            }
+        }
+        facts = loaded;
+        tallies = counters;
+        semenNames = names;
+        log.info("Breeding analytics backfilled from {} AI records in {} ms", loaded.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Re-reads these AI records once the caller's transaction commits
+    public void refresh(Collection<Integer> aiRecordIds) {
+        if (aiRecordIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = List.copyOf(aiRecordIds);
+        AfterCommit.run(() -> replace(ids));
+    }
+
+    // A renamed semen or changed sire moves every AI record that used it
+    public void onSemenSaved(Integer semenId) {
+        AfterCommit.run(() -> {
+            List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM ai_records WHERE semen_id = ?",
+                    Integer.class, semenId);
+            if (!ids.isEmpty()) {
+                replace(ids);
+            }
+        });
+    }
+
+    // from/to filter on AI date, inclusive; services below minServices are left off the board
+    public List<BreedingStats> getLeaderboard(BreedingDimension dimension, LocalDate from, LocalDate to,
+                                              int minServices, int limit) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        Long fromDay = from != null ? from.toEpochDay() : null;
+        Long toDay = to != null ? to.toEpochDay() : null;
+        List<BreedingStats> rows = new ArrayList<>();
+        tallies.get(dimension).forEach((key, tally) -> {
+            long[] counts = tally.sum(fromDay, toDay);
+            if (counts[BreedingTally.SERVICES] > 0 && counts[BreedingTally.SERVICES] >= minServices) {
+                rows.add(BreedingStats.from(key, nameOf(dimension, key), counts));
+            }
+        });
+        rows.sort(Comparator.comparing(BreedingStats::conceptionRate, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(BreedingStats::pregnancies, Comparator.reverseOrder())
+                .thenComparing(BreedingStats::services, Comparator.reverseOrder())
+                .thenComparing(BreedingStats::key));
+        List<BreedingStats> ranked = new ArrayList<>(Math.min(rows.size(), Math.max(limit, 0)));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            ranked.add(rows.get(i).withRank(i + 1));
+        }
+        return ranked;
+    }
+
+    public BreedingStats getStats(BreedingDimension dimension, String key, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        BreedingTally tally = tallies.get(dimension).get(key);
+        long[] counts = tally != null
+                ? tally.sum(from != null ? from.toEpochDay() : null, to != null ? to.toEpochDay() : null)
+                : new long[5];
+        return BreedingStats.from(key, nameOf(dimension, key), counts);
+    }
+
+    // Runs after commit; the read and the swap share the lock so two refreshes of the
+    // same record cannot apply out of order
+    private synchronized void replace(List<Integer> aiRecordIds) {
+        Set<Integer> missing = new HashSet<>(aiRecordIds);
+        List<BreedingFact> current = new ArrayList<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_FACTS + " WHERE a.id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("integer", aiRecordIds.toArray()));
+            return ps;
+        }, rs -> {
+            current.add(fact(rs));
+        });
+        for (BreedingFact fact : current) {
+            missing.remove(fact.aiRecordId());
+            BreedingFact previous = facts.put(fact.aiRecordId(), fact);
+            if (previous != null) {
+                count(tallies, semenNames, previous, -1);
+            }
+            count(tallies, semenNames, fact, 1);
+        }
+        for (Integer id : missing) {
+            BreedingFact previous = facts.remove(id);
+            if (previous != null) {
+                count(tallies, semenNames, previous, -1);
+            }
+        }
+    }
+
+    private List<BreedingFact> readRange(int from, int to) {
+        List<BreedingFact> range = new ArrayList<>();
+        jdbcTemplate.query(SELECT_FACTS + " WHERE a.id >= ? AND a.id < ?", rs -> {
+            range.add(fact(rs));
+        }, from, to);
+        return range;
+    }
+
+    private static void count(Map<BreedingDimension, Map<String, BreedingTally>> counters,
+                              Map<Integer, String> names, BreedingFact fact, int sign) {
+        for (BreedingDimension dimension : BreedingDimension.values()) {
+            String key = fact.key(dimension);
+            if (key == null) {
+                continue;
+            }
+            Map<String, BreedingTally> byKey = counters.get(dimension);
+            BreedingTally tally = byKey.computeIfAbsent(key, k -> new BreedingTally());
+            tally.add(fact, sign);
+            if (tally.isEmpty()) {
+                byKey.remove(key, tally);
+            }
+        }
+        if (sign > 0 && fact.semenId() != null && fact.semenName() != null) {
+            names.put(fact.semenId(), fact.semenName());
+        }
+    }
+
+    private String nameOf(BreedingDimension dimension, String key) {
+        return switch (dimension) {
+            case SEMEN -> semenNames.get(Integer.valueOf(key));
+            case SIRE -> key;
+            case AI_BY, PREPARED_BY, DIAGNOSIS_BY -> referenceDataCache
+                    .findById(Inseminator.class, Integer.valueOf(key)).map(Inseminator::getName).orElse(null);
+            case DAM -> pedigreeService.index().tagOf(Integer.parseInt(key));
+        };
+    }
+
+    private static BreedingFact fact(ResultSet rs) throws SQLException {
+        Integer pdStatus = (Integer) rs.getObject(10);
+        boolean calf = rs.getBoolean(11);
+        boolean pregnant = pdStatus != null && BreedingFact.PREGNANT_STATUSES.contains(pdStatus);
+        boolean diagnosed = pregnant || (pdStatus != null && BreedingFact.NOT_PREGNANT_STATUSES.contains(pdStatus));
+        LocalDate aiDate = rs.getObject(2, LocalDate.class);
+        return new BreedingFact(rs.getInt(1), aiDate != null ? aiDate.toEpochDay() : null, (Integer) rs.getObject(3),
+                rs.getString(4), rs.getString(5), (Integer) rs.getObject(6), (Integer) rs.getObject(7),
+                (Integer) rs.getObject(8), (Integer) rs.getObject(9), diagnosed || calf, pregnant || calf,
+                calf || (pdStatus != null && pdStatus == BreedingFact.COMPLETE),
+                pdStatus != null && pdStatus == BreedingFact.STILL_BIRTH);
+    }
+
+    private static Map<BreedingDimension, Map<String, BreedingTally>> emptyTallies() {
+        Map<BreedingDimension, Map<String, BreedingTally>> counters = new EnumMap<>(BreedingDimension.class);
+        for (BreedingDimension dimension : BreedingDimension.values()) {
+            counters.put(dimension, new ConcurrentHashMap<>());
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,11 @@
+package cowcard.server.BreedingAnalytics;
+
+// What breeding outcomes are grouped by; inseminator dimensions are keyed by inseminator id
+public enum BreedingDimension {
+    SEMEN,
+    SIRE,
+    AI_BY,
+    PREPARED_BY,
+    DIAGNOSIS_BY,
+    DAM
+}
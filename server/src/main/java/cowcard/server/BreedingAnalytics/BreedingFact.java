@@ -0,0 +1,32 @@
+package cowcard.server.BreedingAnalytics;
+
+import java.util.Set;
+
+// One AI record reduced to the keys it is counted under and the outcome its PD and calf
+// record show. Facts are replaced whole, so a changed outcome is a retract plus an add.
+record BreedingFact(int aiRecordId, Long epochDay, Integer semenId, String semenName, String sire,
+                    Integer aiBy, Integer preparedBy, Integer diagnosisBy, Integer damId,
+                    boolean diagnosed, boolean pregnant, boolean liveCalf, boolean stillbirth) {
+
+    // Pregnant, Late Gestation, Gestation, Complete, Still Birth
+    static final Set<Integer> PREGNANT_STATUSES = Set.of(3, 5, 6, 8, 9);
+
+    // A PD outcome is known once it is pregnant, AI Failed or No Pregnant
+    static final Set<Integer> NOT_PREGNANT_STATUSES = Set.of(2, 4);
+
+    static final int COMPLETE = 8;
+
+    static final int STILL_BIRTH = 9;
+
+    String key(BreedingDimension dimension) {
+        Object key = switch (dimension) {
+            case SEMEN -> semenId;
+            case SIRE -> sire != null && !sire.isBlank() ? sire.trim() : null;
+            case AI_BY -> aiBy;
+            case PREPARED_BY -> preparedBy;
+            case DIAGNOSIS_BY -> diagnosisBy;
+            case DAM -> damId;
+        };
+        return key != null ? key.toString() : null;
+    }
+}
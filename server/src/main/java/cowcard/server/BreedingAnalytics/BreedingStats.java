@@ -0,0 +1,27 @@
+package cowcard.server.BreedingAnalytics;
+
+// conceptionRate is pregnancies over diagnosed services, null until one is diagnosed
+public record BreedingStats(
+        Integer rank,
+        String key,
+        String name,
+        long services,
+        long diagnosed,
+        long pregnancies,
+        long liveCalves,
+        long stillbirths,
+        Double conceptionRate) {
+
+    static BreedingStats from(String key, String name, long[] counts) {
+        long diagnosed = counts[BreedingTally.DIAGNOSED];
+        return new BreedingStats(null, key, name, counts[BreedingTally.SERVICES], diagnosed,
+                counts[BreedingTally.PREGNANCIES], counts[BreedingTally.LIVE_CALVES],
+                counts[BreedingTally.STILLBIRTHS],
+                diagnosed > 0 ? (double) counts[BreedingTally.PREGNANCIES] / diagnosed : null);
+    }
+
+    BreedingStats withRank(int rank) {
+        return new BreedingStats(rank, key, name, services, diagnosed, pregnancies, liveCalves, stillbirths,
+                conceptionRate);
+    }
+}
@@ -0,0 +1,61 @@
+package cowcard.server.BreedingAnalytics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// Outcome counters for one key, bucketed by AI day so any date window is a sub-map walk.
+// The running total answers the all-time view without touching the buckets. AI records
+// without a date only count towards the total.
+class BreedingTally {
+
+    static final int SERVICES = 0;
+    static final int DIAGNOSED = 1;
+    static final int PREGNANCIES = 2;
+    static final int LIVE_CALVES = 3;
+    static final int STILLBIRTHS = 4;
+
+    private final TreeMap<Long, long[]> byDay = new TreeMap<>();
+    private final long[] total = new long[5];
+
+    synchronized void add(BreedingFact fact, int sign) {
+        long[] delta = {
+                sign,
+                fact.diagnosed() ? sign : 0,
+                fact.pregnant() ? sign : 0,
+                fact.liveCalf() ? sign : 0,
+                fact.stillbirth() ? sign : 0
+        };
+        apply(total, delta);
+        if (fact.epochDay() != null) {
+            long[] day = byDay.computeIfAbsent(fact.epochDay(), k -> new long[5]);
+            apply(day, delta);
+            if (day[SERVICES] == 0) {
+                byDay.remove(fact.epochDay());
+            }
+        }
+    }
+
+    // Inclusive epoch-day bounds; null on both sides is all time
+    synchronized long[] sum(Long from, Long to) {
+        if (from == null && to == null) {
+            return total.clone();
+        }
+        Map<Long, long[]> window = byDay.subMap(from != null ? from : Long.MIN_VALUE, true,
+                to != null ? to : Long.MAX_VALUE, true);
+        long[] counts = new long[5];
+        for (long[] day : window.values()) {
+            apply(counts, day);
+        }
+        return counts;
+    }
+
+    synchronized boolean isEmpty() {
+        return total[SERVICES] == 0;
+    }
+
+    private static void apply(long[] counts, long[] delta) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += delta[i];
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package cowcard.server.BreedingCalendar;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import cowcard.server.Common.ServerRes;
+
+@RestController
+@RequestMapping("/calendar")
+public class BreedingCalendarController {
+
+    @Autowired
+    private BreedingCalendarService breedingCalendarService;
+
+    // AI services with an AI date in [from, to]
+    @GetMapping("/ai-services")
+    public ServerRes<List<CalendarAiService>> getAiServices(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ServerRes.success(breedingCalendarService.getAiServices(from, to));
+        } catch (RuntimeException e) {
+            return ServerRes.<List<CalendarAiService>>error(e.getMessage());
+        }
+    }
+
+    // Undiagnosed PDs due in [from, to]
+    @GetMapping("/pd-due")
+    public ServerRes<List<CalendarPdDue>> getPdDue(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ServerRes.success(breedingCalendarService.getPdDue(from, to));
+        } catch (RuntimeException e) {
+            return ServerRes.<List<CalendarPdDue>>error(e.getMessage());
+        }
+    }
+
+    // month is yyyy-MM; per-day counts of AI services and PDs due
+    @GetMapping("/month")
+    public ServerRes<List<CalendarDay>> getMonth(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        try {
+            return ServerRes.success(breedingCalendarService.getMonth(month));
+        } catch (RuntimeException e) {
+            return ServerRes.<List<CalendarDay>>error(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package cowcard.server.BreedingCalendar;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import cowcard.server.SystemSetting.SystemSetting;
+import cowcard.server.SystemSetting.SystemSettingRepository;
+
+// Date-range reads over ai_records(ai_date) and pregnancy_diagnosis(pd_status, ai_date).
+// A PD is due pdDays after its AI date, so "due between D1 and D2" is the AI date range
+// shifted back by pdDays and stays a plain index range scan.
+@Service
+public class BreedingCalendarService {
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    // NEW and Pending: inseminated but not yet diagnosed
+    private static final String AWAITING_PD = "(7, 1)";
+
+    private static final String SELECT_AI_SERVICES = "SELECT a.id, a.code, a.ai_date, a.ai_time, a.dam_id, d.tag, " +
+            "s.name, ab.name, st.name FROM ai_records a JOIN cows d ON d.id = a.dam_id " +
+            "LEFT JOIN semen s ON s.id = a.semen_id LEFT JOIN inseminators ab ON ab.id = a.ai_by " +
+            "LEFT JOIN ai_status st ON st.id = a.status " +
+            "WHERE a.ai_date BETWEEN ? AND ? ORDER BY a.ai_date, a.id";
+
+    private static final String SELECT_PD_DUE = "SELECT p.id, a.id, a.code, a.dam_id, d.tag, p.ai_date, ps.name " +
+            "FROM pregnancy_diagnosis p JOIN ai_records a ON a.id = p.ai_record_id JOIN cows d ON d.id = a.dam_id " +
+            "LEFT JOIN pd_status ps ON ps.id = p.pd_status " +
+            "WHERE p.pd_status IN " + AWAITING_PD + " AND p.ai_date BETWEEN ? AND ? ORDER BY p.ai_date, p.id";
+
+    private static final String COUNT_AI_SERVICES_BY_DAY = "SELECT ai_date, count(*) FROM ai_records " +
+            "WHERE ai_date BETWEEN ? AND ? GROUP BY ai_date";
+
+    private static final String COUNT_PD_DUE_BY_DAY = "SELECT ai_date, count(*) FROM pregnancy_diagnosis " +
+            "WHERE pd_status IN " + AWAITING_PD + " AND ai_date BETWEEN ? AND ? GROUP BY ai_date";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SystemSettingRepository systemSettingRepository;
+
+    public List<CalendarAiService> getAiServices(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        List<CalendarAiService> result = new ArrayList<>();
+        jdbcTemplate.query(SELECT_AI_SERVICES, rs -> {
+            result.add(new CalendarAiService(rs.getInt(1), rs.getString(2), rs.getObject(3, LocalDate.class),
+                    rs.getString(4), rs.getInt(5), rs.getString(6), rs.getString(7), rs.getString(8),
+                    rs.getString(9)));
+        }, Date.valueOf(from), Date.valueOf(to));
+        return result;
+    }
+
+    // PDs still awaiting diagnosis whose due date falls in the range
+    public List<CalendarPdDue> getPdDue(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        int pdDays = pdDays();
+        List<CalendarPdDue> result = new ArrayList<>();
+        jdbcTemplate.query(SELECT_PD_DUE, rs -> {
+            LocalDate aiDate = rs.getObject(6, LocalDate.class);
+            result.add(new CalendarPdDue(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getInt(4),
+                    rs.getString(5), aiDate, aiDate.plusDays(pdDays), rs.getString(7)));
+        }, Date.valueOf(from.minusDays(pdDays)), Date.valueOf(to.minusDays(pdDays)));
+        return result;
+    }
+
+    // Every day of the month, including empty ones
+    public List<CalendarDay> getMonth(YearMonth month) {
+        LocalDate first = month.atDay(1);
+        LocalDate last = month.atEndOfMonth();
+        int pdDays = pdDays();
+        Map<LocalDate, long[]> days = new TreeMap<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            days.put(day, new long[2]);
+        }
+        jdbcTemplate.query(COUNT_AI_SERVICES_BY_DAY, rs -> {
+            days.get(rs.getObject(1, LocalDate.class))[0] = rs.getLong(2);
+        }, Date.valueOf(first), Date.valueOf(last));
+        jdbcTemplate.query(COUNT_PD_DUE_BY_DAY, rs -> {
+            days.get(rs.getObject(1, LocalDate.class).plusDays(pdDays))[1] = rs.getLong(2);
+        }, Date.valueOf(first.minusDays(pdDays)), Date.valueOf(last.minusDays(pdDays)));
+        List<CalendarDay> result = new ArrayList<>(days.size());
+        days.forEach((day, counts) -> result.add(new CalendarDay(day, counts[0], counts[1])));
+        return result;
+    }
+
+    // Same setting the cron uses to move NEW PDs to Pending
+    private int pdDays() {
+        SystemSetting setting = systemSettingRepository.findById(1).orElse(null);
+        if (setting == null || setting.getValue() == null) {
+            throw new RuntimeException("PD day setting (id=1) is not configured");
+        }
+        try {
+            return Integer.parseInt(setting.getValue().trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("PD day setting (id=1) is not a number: " + setting.getValue());
+        }
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_RANGE_DAYS) {
+            throw new RuntimeException("Range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+    }
+}
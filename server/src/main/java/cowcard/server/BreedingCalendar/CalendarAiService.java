@@ -0,0 +1,15 @@
+package cowcard.server.BreedingCalendar;
+
+import java.time.LocalDate;
+
+public record CalendarAiService(
+        Integer id,
+        String code,
+        LocalDate aiDate,
+        String aiTime,
+        Integer damId,
+        String damTag,
+        String semenName,
+        String aiBy,
+        String status) {
+}
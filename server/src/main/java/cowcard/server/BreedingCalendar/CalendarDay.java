@@ -0,0 +1,6 @@
+package cowcard.server.BreedingCalendar;
+
+import java.time.LocalDate;
+
+public record CalendarDay(LocalDate date, long aiServices, long pdDue) {
+}
@@ -0,0 +1,15 @@
+package cowcard.server.BreedingCalendar;
+
+import java.time.LocalDate;
+
+// dueDate is aiDate plus the PD day setting
+public record CalendarPdDue(
+        Integer id,
+        Integer aiRecordId,
+        String aiRecordCode,
+        Integer damId,
+        String damTag,
+        LocalDate aiDate,
+        LocalDate dueDate,
+        String pdStatus) {
+}
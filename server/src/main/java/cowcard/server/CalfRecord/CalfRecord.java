@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -25,7 +26,9 @@ import cowcard.server.PregnancyDiagnosis.PregnancyDiagnosis;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "calf_record")
+@Table(name = "calf_record", indexes = {
+        @Index(name = "idx_calf_record_ai_record", columnList = "ai_record_id")
+})
 public class CalfRecord extends BaseEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
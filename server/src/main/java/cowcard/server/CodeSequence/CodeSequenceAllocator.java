@@ -0,0 +1,147 @@
+package cowcard.server.CodeSequence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Per-period counters shared by every server instance, backed by one PostgreSQL sequence
+// per period (e.g. code_seq_ai_record_20261018). nextval runs on the caller's own connection,
+// takes no row lock and is never rolled back, so allocating inside a request transaction needs
+// no second connection and no Java-side lock. CACHE gives each database session a block of
+// values, so values are unique but may skip and are not ordered across sessions.
+// Sequences are created ahead of time through prepare(), outside any transaction. next() only
+// creates a missing one itself when called without a transaction; inside one it fails fast
+// rather than take a second connection while the caller holds the first.
+@Component
+public class CodeSequenceAllocator {
+
+    private static final String EXISTS = "SELECT to_regclass(?) IS NOT NULL";
+
+    private static final String NEXT = "SELECT nextval(?::regclass)";
+
+    private static final String NEXT_MANY = "SELECT nextval(?::regclass) FROM generate_series(1, ?)";
+
+    private static final String LIST = "SELECT sequencename FROM pg_sequences " +
+            "WHERE schemaname = current_schema() AND starts_with(sequencename, ?)";
+
+    private static final String PEEK = "SELECT CASE WHEN is_called THEN last_value + 1 ELSE last_value END FROM %s";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${cowcard.code-sequence.block-size:10}")
+    private int blockSize;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate createTransaction;
+
+    private final Set<String> prepared = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        // A created sequence must survive the caller's rollback, or another node could
+        // create it again and hand out the same values
+        createTransaction = new TransactionTemplate(transactionManager);
+        createTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // seed gives the highest value already in use for a period whose sequence does not exist yet.
+    // Creating one needs a connection of its own, so it is refused inside a transaction.
+    public void prepare(String sequence, String period, LongSupplier seed) {
+        String name = sequenceName(sequence, period);
+        if (prepared.contains(name)) {
+            return;
+        }
+        if (!exists(name)) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw new IllegalStateException("Code sequence " + name + " has not been prepared");
+            }
+            long start = seed.getAsLong() + 1;
+            try {
+                createTransaction.executeWithoutResult(status -> jdbcTemplate.execute(
+                        "CREATE SEQUENCE IF NOT EXISTS " + name + " START WITH " + start + " CACHE " + blockSize));
+            } catch (DataAccessException e) {
+                // Another node created it at the same moment
+                if (!exists(name)) {
+                    throw e;
+                }
+            }
+        }
+        prepared.add(name);
+    }
+
+    public long next(String sequence, String period, LongSupplier seed) {
+        String name = ensure(sequence, period, seed);
+        Long value = jdbcTemplate.queryForObject(NEXT, Long.class, name);
+        if (value == null) {
+            throw new IllegalStateException("Could not allocate a code from " + name);
+        }
+        return value;
+    }
+
+    // count values in one round trip, for callers writing many rows at once; unique but not
+    // necessarily consecutive when other sessions allocate at the same time
+    public List<Long> next(String sequence, String period, int count, LongSupplier seed) {
+        String name = ensure(sequence, period, seed);
+        return jdbcTemplate.queryForList(NEXT_MANY, Long.class, name, count);
+    }
+
+    // The value next() would most likely return, without allocating anything
+    public long peek(String sequence, String period, LongSupplier seed) {
+        String name = sequenceName(sequence, period);
+        if (!prepared.contains(name) && !exists(name)) {
+            return seed.getAsLong() + 1;
+        }
+        Long next = jdbcTemplate.queryForObject(String.format(PEEK, name), Long.class);
+        return next != null ? next : seed.getAsLong() + 1;
+    }
+
+    private String ensure(String sequence, String period, LongSupplier seed) {
+        String name = sequenceName(sequence, period);
+        if (!prepared.contains(name)) {
+            prepare(sequence, period, seed);
+        }
+        return name;
+    }
+
+    // Drops the sequences of periods that sort before period; periods must sort by date
+    public List<String> dropBefore(String sequence, String period) {
+        String prefix = sequenceName(sequence, "");
+        String keep = sequenceName(sequence, period);
+        List<String> dropped = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(LIST, String.class, prefix)) {
+            if (name.compareTo(keep) < 0) {
+                jdbcTemplate.execute("DROP SEQUENCE IF EXISTS " + name);
+                prepared.remove(name);
+                dropped.add(name);
+            }
+        }
+        return dropped;
+    }
+
+    private boolean exists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS, Boolean.class, name));
+    }
+
+    // Names are spliced into DDL, so only [a-z0-9_] survive
+    static String sequenceName(String sequence, String period) {
+        return ("code_seq_" + sequence + "_" + period).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+    }
+}
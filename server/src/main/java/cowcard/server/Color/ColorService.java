@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import cowcard.server.Cow.CowRepository;
+import cowcard.server.ReferenceData.ReferenceDataCache;
 
 @Service
 public class ColorService {
@@ -16,30 +17,35 @@ public class ColorService {
     @Autowired
     private CowRepository cowRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<Color> findAll() {
         return colorRepository.findAll();
     }
 
     public List<Color> findAllActive() {
-        return colorRepository.findByActiveTrue();
+        return referenceDataCache.findAllActive(Color.class);
     }
 
     public Color toggleActive(Integer id) {
         Color e = colorRepository.findById(id).orElseThrow();
         e.setActive(e.getActive() == null || !e.getActive());
-        return colorRepository.save(e);
+        Color saved = colorRepository.save(e);
+        referenceDataCache.invalidate(Color.class);
+        return saved;
     }
 
     public Color create(Color color) {
         color.setActive(true);
-        return colorRepository.save(color);
+        Color saved = colorRepository.save(color);
+        referenceDataCache.invalidate(Color.class);
+        return saved;
     }
 
     public ColorWithCows getWithCows(Integer id) {
         Color color = colorRepository.findById(id).orElseThrow();
-        List<CowSummary> cows = cowRepository.findByColorIdOrderByTag(id).stream()
-                .map(CowSummary::from)
-                .toList();
+        List<CowSummary> cows = cowRepository.findSummariesByColorId(id);
         return ColorWithCows.from(color, cows);
     }
 
@@ -47,6 +53,8 @@ public class ColorService {
         Color e = colorRepository.findById(id).orElseThrow();
         e.setName(color.getName());
         e.setRemark(color.getRemark());
-        return colorRepository.save(e);
+        Color saved = colorRepository.save(e);
+        referenceDataCache.invalidate(Color.class);
+        return saved;
     }
 }
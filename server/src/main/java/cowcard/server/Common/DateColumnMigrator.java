@@ -0,0 +1,92 @@
+package cowcard.server.Common;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+// AI and PD dates used to be mapped as strings, and ddl-auto never changes a column's
+// type, so older databases still hold them as varchar. This converts them to DATE once,
+// before the web server takes requests. Blank values and anything that is not a yyyy-MM-dd
+// date are cleared; a PD's NOT NULL ai_date falls back to its AI record's date, then to the
+// day it was created.
+@Component
+public class DateColumnMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(DateColumnMigrator.class);
+
+    private static final String SELECT_TYPE = "SELECT data_type FROM information_schema.columns " +
+            "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Only so Hibernate has created or updated the tables before this runs
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void migrate() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            convert("ai_records", "ai_date", null);
+            convert("pregnancy_diagnosis", "ai_date", "COALESCE((SELECT a.ai_date::text FROM ai_records a " +
+                    "WHERE a.id = pregnancy_diagnosis.ai_record_id), created_at::date::text, CURRENT_DATE::text)");
+            convert("pregnancy_diagnosis", "pregnant_date", null);
+        });
+    }
+
+    // fallback: SQL for the text to store in place of an unparseable value, or null to clear it
+    private void convert(String table, String column, String fallback) {
+        List<String> types = jdbcTemplate.queryForList(SELECT_TYPE, String.class, table, column);
+        if (types.isEmpty() || "date".equals(types.get(0))) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<String> invalid = new ArrayList<>();
+        for (String value : jdbcTemplate.queryForList("SELECT DISTINCT " + column + " FROM " + table +
+                " WHERE " + column + " IS NOT NULL", String.class)) {
+            if (!isDate(value)) {
+                invalid.add(value);
+            }
+        }
+        if (!invalid.isEmpty()) {
+            int cleared = jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement("UPDATE " + table + " SET " + column + " = " +
+                        (fallback != null ? fallback : "NULL") + " WHERE " + column + " = ANY(?)");
+                ps.setArray(1, con.createArrayOf("text", invalid.toArray()));
+                return ps;
+            });
+            log.warn("{}.{}: {} rows held values that are not dates and were {}", table, column, cleared,
+                    fallback != null ? "replaced" : "cleared");
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column +
+                " TYPE date USING trim(" + column + ")::date");
+        log.info("{}.{} converted from {} to date in {} ms", table, column, types.get(0),
+                System.currentTimeMillis() - start);
+    }
+
+    private static boolean isDate(String value) {
+        try {
+            LocalDate.parse(value.trim());
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cowcard.server.Common;
+
+import java.util.Arrays;
+
+// Growable int array for index structures that would otherwise box millions of Integers
+public final class IntList {
+
+    private int[] items;
+    private int count;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int capacity) {
+        items = new int[Math.max(capacity, 1)];
+    }
+
+    public static IntList of(int value) {
+        IntList list = new IntList();
+        list.add(value);
+        return list;
+    }
+
+    public void add(int value) {
+        if (count == items.length) {
+            items = Arrays.copyOf(items, count * 2);
+        }
+        items[count++] = value;
+    }
+
+    public int get(int i) {
+        return items[i];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    // Binary search; only meaningful while values were added in ascending order
+    public boolean containsSorted(int value) {
+        return Arrays.binarySearch(items, 0, count, value) >= 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(items, count);
+    }
+}
@@ -0,0 +1,30 @@
+package cowcard.server.Config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Every task on this executor holds a pooled JDBC connection, so keep it
+    // below hikari.maximum-pool-size to leave room for request threads
+    @Value("${cowcard.query.parallelism:3}")
+    private int queryParallelism;
+
+    @Bean(name = "queryExecutor", destroyMethod = "shutdown")
+    ExecutorService queryExecutor() {
+        return Executors.newFixedThreadPool(queryParallelism,
+                Thread.ofVirtual().name("query-", 0).factory());
+    }
+
+    // Herd consistency scans fork per cow-id range; same connection budget as above
+    @Bean(name = "scanPool", destroyMethod = "shutdown")
+    ForkJoinPool scanPool() {
+        return new ForkJoinPool(queryParallelism);
+    }
+}
@@ -0,0 +1,43 @@
+package cowcard.server.Consistency;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import cowcard.server.Common.ServerRes;
+import cowcard.server.User.UserDetail;
+
+@RestController
+@RequestMapping("/consistency")
+public class ConsistencyController {
+
+    @Autowired
+    private ConsistencyService consistencyService;
+
+    // Runs in the background; poll /status for progress and the report
+    @PostMapping("/scan")
+    public ServerRes<ConsistencyScanStatus> scan(@RequestParam(defaultValue = "false") boolean repair) {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (repair && !(auth != null && auth.getPrincipal() instanceof UserDetail ud && ud.isAdmin())) {
+            return ServerRes.<ConsistencyScanStatus>error("Only admins can repair herd data");
+        }
+        try {
+            return ServerRes.success(consistencyService.start(repair, "manual"));
+        } catch (RuntimeException e) {
+            return ServerRes.<ConsistencyScanStatus>error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/status")
+    public ServerRes<ConsistencyScanStatus> getStatus() {
+        try {
+            return ServerRes.success(consistencyService.getStatus());
+        } catch (RuntimeException e) {
+            return ServerRes.<ConsistencyScanStatus>error(e.getMessage());
+        }
+    }
+}
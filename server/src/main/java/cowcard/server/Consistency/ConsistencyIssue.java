@@ -0,0 +1,5 @@
+package cowcard.server.Consistency;
+
+public record ConsistencyIssue(ConsistencyIssueType type, Integer cowId, Integer transponderId, Integer feedlotId,
+                               String detail) {
+}
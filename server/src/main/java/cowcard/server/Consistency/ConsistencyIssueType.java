@@ -0,0 +1,19 @@
+package cowcard.server.Consistency;
+
+// cows.current_feedlot_id is the source of truth for pens. A cow/transponder link must be
+// set on both sides, and each live pen stay or link has exactly one open history row.
+public enum ConsistencyIssueType {
+    // More than one open cow_feedlot_history row for a cow
+    FEEDLOT_DUPLICATE_OPEN,
+    // Open history row for a pen the cow is not in
+    FEEDLOT_STALE_OPEN,
+    // Cow is in a pen but has no open history row for it
+    FEEDLOT_MISSING_OPEN,
+    // cows.current_transponder_id points at a transponder whose current_cow is someone else
+    COW_LINK_BROKEN,
+    // transponders.current_cow points at a cow whose current_transponder_id is something else
+    TRANSPONDER_LINK_BROKEN,
+    TRANSPONDER_DUPLICATE_OPEN,
+    TRANSPONDER_STALE_OPEN,
+    TRANSPONDER_MISSING_OPEN
+}
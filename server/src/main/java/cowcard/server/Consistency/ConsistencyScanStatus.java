@@ -0,0 +1,13 @@
+package cowcard.server.Consistency;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// issues holds at most a sample; issuesByType has the full counts
+public record ConsistencyScanStatus(boolean running, boolean repair, String trigger, LocalDateTime startedAt,
+                                    LocalDateTime finishedAt, int rangesTotal, int rangesDone, long cowsTotal,
+                                    long cowsScanned, long issuesFound, Map<ConsistencyIssueType, Long> issuesByType,
+                                    int rangesRepaired, long rowsRepaired, long durationMs, String error,
+                                    List<ConsistencyIssue> issues) {
+}
@@ -0,0 +1,437 @@
+package cowcard.server.Consistency;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cowcard.server.Feedlot.FeedlotOccupancy;
+import cowcard.server.Feedlot.FeedlotTimelineService;
+import cowcard.server.FeedlotAnalytics.FeedlotAnalyticsService;
+import cowcard.server.Transponder.TransponderCodeIndex;
+
+// Checks the denormalized current-state columns against the history tables. The herd is
+// cut into fixed cow-id ranges and scanned on the fork-join scan pool; each range is four
+// indexed range reads checked in memory. Repairs run afterwards, one transaction per dirty
+// range and one range at a time, so two repairs never lock the same transponder.
+@Service
+public class ConsistencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsistencyService.class);
+
+    private static final int MAX_SAMPLE = 500;
+
+    private static final String SELECT_BOUNDS = "SELECT count(*), min(id), max(id) FROM cows";
+
+    private static final String SELECT_COWS = "SELECT c.id, c.current_feedlot_id, c.current_transponder_id, " +
+            "t.current_cow FROM cows c LEFT JOIN transponders t ON t.id = c.current_transponder_id " +
+            "WHERE c.id >= ? AND c.id < ?";
+
+    private static final String SELECT_OPEN_FEEDLOT = "SELECT cow_id, feedlot_id FROM cow_feedlot_history " +
+            "WHERE moved_out_at IS NULL AND cow_id >= ? AND cow_id < ?";
+
+    private static final String SELECT_OPEN_TRANSPONDER = "SELECT cow_id, transponder_id FROM cow_transponder_history " +
+            "WHERE unassigned_at IS NULL AND cow_id >= ? AND cow_id < ?";
+
+    private static final String SELECT_TRANSPONDER_LINKS = "SELECT id, current_cow FROM transponders " +
+            "WHERE current_cow >= ? AND current_cow < ?";
+
+    // Keeps the newest open row for the cow's current pen and closes every other open row
+    private static final String CLOSE_STALE_FEEDLOT = "UPDATE cow_feedlot_history h " +
+            "SET moved_out_at = ?, updated_at = ?, updated_by = ? FROM cows c " +
+            "WHERE c.id = h.cow_id AND h.moved_out_at IS NULL AND h.cow_id >= ? AND h.cow_id < ? " +
+            "AND (c.current_feedlot_id IS DISTINCT FROM h.feedlot_id OR h.id <> (SELECT max(h2.id) " +
+            "FROM cow_feedlot_history h2 WHERE h2.cow_id = h.cow_id AND h2.moved_out_at IS NULL))";
+
+    private static final String INSERT_MISSING_FEEDLOT = "INSERT INTO cow_feedlot_history " +
+            "(cow_id, feedlot_id, moved_in_at, created_at, created_by, updated_at, updated_by) " +
+            "SELECT c.id, c.current_feedlot_id, ?, ?, ?, ?, ? FROM cows c " +
+            "WHERE c.id >= ? AND c.id < ? AND c.current_feedlot_id IS NOT NULL AND NOT EXISTS " +
+            "(SELECT 1 FROM cow_feedlot_history h WHERE h.cow_id = c.id AND h.moved_out_at IS NULL)";
+
+    // A half link is completed only when nothing else claims the free side
+    private static final String COMPLETE_TRANSPONDER_SIDE = "UPDATE transponders t " +
+            "SET current_cow = c.id, assigned_date = ?, updated_at = ?, updated_by = ? FROM cows c " +
+            "WHERE c.current_transponder_id = t.id AND t.current_cow IS NULL AND c.id >= ? AND c.id < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM cows c2 WHERE c2.current_transponder_id = t.id AND c2.id <> c.id)";
+
+    private static final String COMPLETE_COW_SIDE = "UPDATE cows c " +
+            "SET current_transponder_id = t.id, updated_at = ?, updated_by = ? FROM transponders t " +
+            "WHERE t.current_cow = c.id AND c.current_transponder_id IS NULL AND c.id >= ? AND c.id < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM transponders t2 WHERE t2.current_cow = c.id AND t2.id <> t.id)";
+
+    private static final String CLEAR_COW_SIDE = "UPDATE cows c " +
+            "SET current_transponder_id = NULL, updated_at = ?, updated_by = ? FROM transponders t " +
+            "WHERE t.id = c.current_transponder_id AND t.current_cow IS DISTINCT FROM c.id AND c.id >= ? AND c.id < ?";
+
+    private static final String CLEAR_TRANSPONDER_SIDE = "UPDATE transponders t " +
+            "SET current_cow = NULL, assigned_date = NULL, updated_at = ?, updated_by = ? FROM cows c " +
+            "WHERE c.id = t.current_cow AND c.current_transponder_id IS DISTINCT FROM t.id " +
+            "AND t.current_cow >= ? AND t.current_cow < ?";
+
+    // Runs after the link fixes, so a cow's transponder pointer is reciprocated by then
+    private static final String CLOSE_STALE_TRANSPONDER = "UPDATE cow_transponder_history h " +
+            "SET unassigned_at = ?, updated_at = ?, updated_by = ? FROM cows c " +
+            "WHERE c.id = h.cow_id AND h.unassigned_at IS NULL AND h.cow_id >= ? AND h.cow_id < ? " +
+            "AND (c.current_transponder_id IS DISTINCT FROM h.transponder_id OR h.id <> (SELECT max(h2.id) " +
+            "FROM cow_transponder_history h2 WHERE h2.cow_id = h.cow_id AND h2.unassigned_at IS NULL))";
+
+    private static final String INSERT_MISSING_TRANSPONDER = "INSERT INTO cow_transponder_history " +
+            "(cow_id, transponder_id, assigned_at, created_at, created_by, updated_at, updated_by) " +
+            "SELECT c.id, c.current_transponder_id, ?, ?, ?, ?, ? FROM cows c " +
+            "WHERE c.id >= ? AND c.id < ? AND c.current_transponder_id IS NOT NULL AND NOT EXISTS " +
+            "(SELECT 1 FROM cow_transponder_history h WHERE h.cow_id = c.id AND h.unassigned_at IS NULL)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AuditorAware<UUID> auditorAware;
+
+    @Autowired
+    @Qualifier("scanPool")
+    private ForkJoinPool scanPool;
+
+    @Autowired
+    private FeedlotOccupancy feedlotOccupancy;
+
+    @Autowired
+    private FeedlotTimelineService feedlotTimelineService;
+
+    @Autowired
+    private FeedlotAnalyticsService feedlotAnalyticsService;
+
+    @Autowired
+    private TransponderCodeIndex transponderCodeIndex;
+
+    @Value("${cowcard.consistency.range-size:5000}")
+    private int rangeSize;
+
+    @Value("${cowcard.consistency.nightly-repair:false}")
+    private boolean nightlyRepair;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile Run current;
+
+    // Starts a scan in the background and returns its initial status
+    public ConsistencyScanStatus start(boolean repair, String trigger) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A consistency scan is already running");
+        }
+        Run run = new Run(repair, trigger, auditorAware.getCurrentAuditor().orElse(null));
+        current = run;
+        try {
+            scanPool.execute(() -> execute(run));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return run.status();
+    }
+
+    public ConsistencyScanStatus getStatus() {
+        Run run = current;
+        if (run == null) {
+            throw new RuntimeException("No consistency scan has run since startup");
+        }
+        return run.status();
+    }
+
+    @Scheduled(cron = "${cowcard.consistency.cron:0 30 2 * * *}")
+    public void nightly() {
+        try {
+            start(nightlyRepair, "nightly");
+        } catch (IllegalStateException e) {
+            log.warn("Skipping nightly consistency scan: {}", e.getMessage());
+        }
+    }
+
+    private void execute(Run run) {
+        try {
+            jdbcTemplate.query(SELECT_BOUNDS, rs -> {
+                run.cowsTotal = rs.getLong(1);
+                run.minId = rs.getLong(2);
+                run.maxId = rs.getLong(3);
+            });
+            if (run.cowsTotal > 0) {
+                run.rangesTotal = (int) ((run.maxId - run.minId) / rangeSize + 1);
+                new RangeTask(this::scanRange, run, 0, run.rangesTotal).invoke();
+            }
+            if (run.repair && !run.dirtyRanges.isEmpty()) {
+                repair(run);
+            }
+            log.info("Consistency scan ({}) checked {} cows in {} ranges: {} issues, {} rows repaired, {} ms",
+                    run.trigger, run.cowsScanned.sum(), run.rangesTotal, run.issuesFound(), run.rowsRepaired,
+                    run.elapsedMs());
+        } catch (RuntimeException e) {
+            run.error = e.getMessage();
+            log.error("Consistency scan ({}) failed", run.trigger, e);
+        } finally {
+            run.durationMs = run.elapsedMs();
+            run.finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void scanRange(Run run, int range) {
+        long lo = run.minId + (long) range * rangeSize;
+        long hi = Math.min(lo + rangeSize, run.maxId + 1);
+
+        Map<Integer, CowRow> cows = new HashMap<>();
+        jdbcTemplate.query(SELECT_COWS, rs -> {
+            cows.put(rs.getInt(1), new CowRow((Integer) rs.getObject(2), (Integer) rs.getObject(3),
+                    (Integer) rs.getObject(4)));
+        }, lo, hi);
+        Map<Integer, List<Integer>> openFeedlots = new HashMap<>();
+        jdbcTemplate.query(SELECT_OPEN_FEEDLOT, rs -> {
+            openFeedlots.computeIfAbsent(rs.getInt(1), k -> new ArrayList<>(1)).add(rs.getInt(2));
+        }, lo, hi);
+        Map<Integer, List<Integer>> openTransponders = new HashMap<>();
+        jdbcTemplate.query(SELECT_OPEN_TRANSPONDER, rs -> {
+            openTransponders.computeIfAbsent(rs.getInt(1), k -> new ArrayList<>(1)).add(rs.getInt(2));
+        }, lo, hi);
+        Map<Integer, Integer> cowOfTransponder = new HashMap<>();
+        jdbcTemplate.query(SELECT_TRANSPONDER_LINKS, rs -> {
+            cowOfTransponder.put(rs.getInt(1), rs.getInt(2));
+        }, lo, hi);
+
+        // Counted per range: the run-wide total also moves with the other ranges' workers
+        int issues = 0;
+        for (Map.Entry<Integer, CowRow> e : cows.entrySet()) {
+            issues += check(run, e.getKey(), e.getValue(), openFeedlots.getOrDefault(e.getKey(), List.of()),
+                    openTransponders.getOrDefault(e.getKey(), List.of()));
+        }
+        for (Map.Entry<Integer, Integer> e : cowOfTransponder.entrySet()) {
+            CowRow cow = cows.get(e.getValue());
+            // A cow inserted after the range was read is not drift
+            if (cow != null && !e.getKey().equals(cow.transponderId())) {
+                run.report(new ConsistencyIssue(ConsistencyIssueType.TRANSPONDER_LINK_BROKEN, e.getValue(), e.getKey(),
+                        null, "Cow's current transponder is " + cow.transponderId()));
+                issues++;
+            }
+        }
+        if (issues > 0) {
+            run.dirtyRanges.add(range);
+        }
+        run.cowsScanned.add(cows.size());
+        run.rangesDone.incrementAndGet();
+    }
+
+    // Reports each issue found for one cow and returns how many there were
+    private static int check(Run run, Integer cowId, CowRow cow, List<Integer> pens, List<Integer> transponders) {
+        int issues = 0;
+        if (pens.size() > 1) {
+            run.report(new ConsistencyIssue(ConsistencyIssueType.FEEDLOT_DUPLICATE_OPEN, cowId, null,
+                    cow.feedlotId(), pens.size() + " open feedlot stays"));
+            issues++;
+        }
+        for (Integer pen : pens) {
+            if (!pen.equals(cow.feedlotId())) {
+                run.report(new ConsistencyIssue(ConsistencyIssueType.FEEDLOT_STALE_OPEN, cowId, null, pen,
+                        "Cow's current feedlot is " + cow.feedlotId()));
+                issues++;
+            }
+        }
+        if (cow.feedlotId() != null && !pens.contains(cow.feedlotId())) {
+            run.report(new ConsistencyIssue(ConsistencyIssueType.FEEDLOT_MISSING_OPEN, cowId, null, cow.feedlotId(),
+                    "No open feedlot stay"));
+            issues++;
+        }
+
+        boolean linked = cow.transponderId() != null && cowId.equals(cow.transponderCow());
+        if (cow.transponderId() != null && !linked) {
+            run.report(new ConsistencyIssue(ConsistencyIssueType.COW_LINK_BROKEN, cowId, cow.transponderId(), null,
+                    "Transponder's current cow is " + cow.transponderCow()));
+            issues++;
+        }
+        if (transponders.size() > 1) {
+            run.report(new ConsistencyIssue(ConsistencyIssueType.TRANSPONDER_DUPLICATE_OPEN, cowId,
+                    cow.transponderId(), null, transponders.size() + " open transponder assignments"));
+            issues++;
+        }
+        for (Integer transponder : transponders) {
+            if (!linked || !transponder.equals(cow.transponderId())) {
+                run.report(new ConsistencyIssue(ConsistencyIssueType.TRANSPONDER_STALE_OPEN, cowId, transponder,
+                        null, "Transponder is not linked to this cow"));
+                issues++;
+            }
+        }
+        if (linked && !transponders.contains(cow.transponderId())) {
+            run.report(new ConsistencyIssue(ConsistencyIssueType.TRANSPONDER_MISSING_OPEN, cowId,
+                    cow.transponderId(), null, "No open transponder assignment"));
+            issues++;
+        }
+        return issues;
+    }
+
+    private void repair(Run run) {
+        for (int range : new TreeSet<>(run.dirtyRanges)) {
+            long lo = run.minId + (long) range * rangeSize;
+            long hi = Math.min(lo + rangeSize, run.maxId + 1);
+            Integer rows = transactionTemplate.execute(status -> repairRange(run.auditor, lo, hi));
+            run.rowsRepaired += rows != null ? rows : 0;
+            run.rangesRepaired++;
+        }
+        if (run.rowsRepaired > 0) {
+            // The in-memory views were built from the rows just rewritten
+            feedlotOccupancy.reload();
+            feedlotTimelineService.reload();
+            feedlotAnalyticsService.reload();
+            transponderCodeIndex.reload();
+        }
+    }
+
+    private int repairRange(UUID auditor, long lo, long hi) {
+        LocalDateTime at = LocalDateTime.now();
+        Timestamp now = Timestamp.valueOf(at);
+        Date today = Date.valueOf(at.toLocalDate());
+        int rows = 0;
+        rows += update(CLOSE_STALE_FEEDLOT, now, now, auditor, lo, hi);
+        rows += update(INSERT_MISSING_FEEDLOT, now, now, auditor, now, auditor, lo, hi);
+        rows += update(COMPLETE_TRANSPONDER_SIDE, today, now, auditor, lo, hi);
+        rows += update(COMPLETE_COW_SIDE, now, auditor, lo, hi);
+        rows += update(CLEAR_COW_SIDE, now, auditor, lo, hi);
+        rows += update(CLEAR_TRANSPONDER_SIDE, now, auditor, lo, hi);
+        rows += update(CLOSE_STALE_TRANSPONDER, now, now, auditor, lo, hi);
+        rows += update(INSERT_MISSING_TRANSPONDER, now, now, auditor, now, auditor, lo, hi);
+        return rows;
+    }
+
+    // UUID arguments are bound as OTHER; everything else lets the driver pick the type
+    private int update(String sql, Object... args) {
+        return jdbcTemplate.update(sql, ps -> {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof UUID || args[i] == null) {
+                    ps.setObject(i + 1, args[i], Types.OTHER);
+                } else {
+                    ps.setObject(i + 1, args[i]);
+                }
+            }
+        });
+    }
+
+    // Splits [first, last) in halves until a single range is left. Static so a task holds only
+    // what it is given; the scan callback and the run are never serialized, hence transient.
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ObjIntConsumer<Run> scan;
+        private final transient Run run;
+        private final int first;
+        private final int last;
+
+        RangeTask(ObjIntConsumer<Run> scan, Run run, int first, int last) {
+            this.scan = scan;
+            this.run = run;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first <= 1) {
+                if (first < last) {
+                    scan.accept(run, first);
+                }
+                return;
+            }
+            int mid = (first + last) >>> 1;
+            invokeAll(new RangeTask(scan, run, first, mid), new RangeTask(scan, run, mid, last));
+        }
+    }
+
+    private record CowRow(Integer feedlotId, Integer transponderId, Integer transponderCow) {
+    }
+
+    private static final class Run {
+        final boolean repair;
+        final String trigger;
+        final UUID auditor;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final AtomicInteger rangesDone = new AtomicInteger();
+        final LongAdder cowsScanned = new LongAdder();
+        final Map<ConsistencyIssueType, LongAdder> counts = new EnumMap<>(ConsistencyIssueType.class);
+        final ConcurrentLinkedQueue<ConsistencyIssue> sample = new ConcurrentLinkedQueue<>();
+        final AtomicInteger reported = new AtomicInteger();
+        final Set<Integer> dirtyRanges = ConcurrentHashMap.newKeySet();
+        volatile long cowsTotal;
+        volatile long minId;
+        volatile long maxId;
+        volatile int rangesTotal;
+        volatile int rangesRepaired;
+        volatile long rowsRepaired;
+        volatile long durationMs;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+
+        Run(boolean repair, String trigger, UUID auditor) {
+            this.repair = repair;
+            this.trigger = trigger;
+            this.auditor = auditor;
+            // Filled up front so workers only ever read the map
+            for (ConsistencyIssueType type : ConsistencyIssueType.values()) {
+                counts.put(type, new LongAdder());
+            }
+        }
+
+        void report(ConsistencyIssue issue) {
+            counts.get(issue.type()).increment();
+            if (reported.getAndIncrement() < MAX_SAMPLE) {
+                sample.add(issue);
+            }
+        }
+
+        int issuesFound() {
+            return reported.get();
+        }
+
+        long elapsedMs() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        ConsistencyScanStatus status() {
+            Map<ConsistencyIssueType, Long> byType = new EnumMap<>(ConsistencyIssueType.class);
+            counts.forEach((type, count) -> {
+                if (count.sum() > 0) {
+                    byType.put(type, count.sum());
+                }
+            });
+            boolean done = finishedAt != null;
+            return new ConsistencyScanStatus(!done, repair, trigger, startedAt, finishedAt, rangesTotal,
+                    rangesDone.get(), cowsTotal, cowsScanned.sum(), reported.get(), byType, rangesRepaired,
+                    rowsRepaired, done ? durationMs : elapsedMs(), error, List.copyOf(sample));
+        }
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -33,7 +34,9 @@ import cowcard.server.Transponder.Transponder;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "cows")
+@Table(name = "cows", indexes = {
+        @Index(name = "idx_cows_current_transponder", columnList = "current_transponder_id")
+})
 public class Cow extends BaseEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
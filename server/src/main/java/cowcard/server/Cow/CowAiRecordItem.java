@@ -1,8 +1,10 @@
 package cowcard.server.Cow;
 
+import java.time.LocalDate;
+
 import cowcard.server.AiRecord.AiRecord;
 
-public record CowAiRecordItem(Integer id, String code, String aiDate, String aiTime, String semenName,
+public record CowAiRecordItem(Integer id, String code, LocalDate aiDate, String aiTime, String semenName,
                                String aiBy, String preparedBy, String feedlot, String status) {
     public static CowAiRecordItem from(AiRecord r) {
         return new CowAiRecordItem(
@@ -1,6 +1,13 @@
 package cowcard.server.Cow;
 
+import java.time.LocalDate;
+
 public record CowCalfItem(Integer id, String tag, String dob, String gender, String color) {
+
+    public CowCalfItem(Integer id, String tag, LocalDate dob, String gender, String color) {
+        this(id, tag, dob != null ? dob.toString() : null, gender, color);
+    }
+
     public static CowCalfItem from(Cow cow) {
         return new CowCalfItem(
                 cow.getId(),
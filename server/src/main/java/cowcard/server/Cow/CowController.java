@@ -7,6 +7,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import cowcard.server.Common.ServerRes;
@@ -32,4 +33,23 @@ public class CowController {
         }
         return ServerRes.success(cowService.findAllActiveView());
     }
+
+    @GetMapping("/page")
+    public ServerRes<CowPage> getPage(@RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer size,
+                                      @RequestParam(required = false) Integer genderId,
+                                      @RequestParam(required = false) Integer roleId,
+                                      @RequestParam(required = false) Integer statusId,
+                                      @RequestParam(required = false) Integer feedlotId,
+                                      @RequestParam(required = false) Integer colorId,
+                                      @RequestParam(required = false) Boolean active) {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth != null && auth.getPrincipal() instanceof UserDetail ud && ud.isAdmin();
+        try {
+            return ServerRes.success(cowService.findPage(cursor, size, genderId, roleId, statusId,
+                    feedlotId, colorId, admin ? active : Boolean.TRUE));
+        } catch (IllegalArgumentException e) {
+            return ServerRes.<CowPage>error(e.getMessage());
+        }
+    }
 }
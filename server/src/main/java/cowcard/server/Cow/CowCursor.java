@@ -0,0 +1,32 @@
+package cowcard.server.Cow;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset position for the tag-ordered cow listing: the (tag, id) of the last row returned
+public record CowCursor(String tag, Integer id) {
+
+    public static final CowCursor START = new CowCursor("", 0);
+
+    public static CowCursor after(CowView cow) {
+        return new CowCursor(cow.tag(), cow.id());
+    }
+
+    public String encode() {
+        String raw = id + ":" + tag;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CowCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new CowCursor(raw.substring(sep + 1), Integer.parseInt(raw.substring(0, sep)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
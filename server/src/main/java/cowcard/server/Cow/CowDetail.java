@@ -21,25 +21,25 @@ public record CowDetail(
         List<CowAiRecordItem> aiRecords,
         List<CowCalfItem> calves) {
 
-    public static CowDetail from(Cow cow,
+    public static CowDetail from(CowDetailHeader cow,
                                   List<CowTransponderHistoryItem> transponderHistory,
                                   List<CowFeedlotHistoryItem> feedlotHistory,
                                   List<CowAiRecordItem> aiRecords,
                                   List<CowCalfItem> calves) {
         return new CowDetail(
-                cow.getId(),
-                cow.getTag(),
-                cow.getDob() != null ? cow.getDob().toString() : null,
-                cow.getWeight() != null ? cow.getWeight().doubleValue() : null,
-                cow.getRemark(),
-                cow.getGender() != null ? cow.getGender().getName() : null,
-                cow.getColor() != null ? cow.getColor().getName() : null,
-                cow.getRole() != null ? cow.getRole().getName() : null,
-                cow.getStatus() != null ? cow.getStatus().getName() : null,
-                cow.getCurrentFeedlot() != null ? cow.getCurrentFeedlot().getName() : null,
-                cow.getCurrentTransponder() != null ? cow.getCurrentTransponder().getCode() : null,
-                cow.getDam() != null ? cow.getDam().getTag() : null,
-                cow.getSemen() != null ? cow.getSemen().getName() : null,
+                cow.id(),
+                cow.tag(),
+                cow.dob() != null ? cow.dob().toString() : null,
+                cow.weight() != null ? cow.weight().doubleValue() : null,
+                cow.remark(),
+                cow.gender(),
+                cow.color(),
+                cow.role(),
+                cow.status(),
+                cow.feedlot(),
+                cow.transponder(),
+                cow.damTag(),
+                cow.semenName(),
                 transponderHistory,
                 feedlotHistory,
                 aiRecords,
@@ -0,0 +1,20 @@
+package cowcard.server.Cow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record CowDetailHeader(
+        Integer id,
+        String tag,
+        LocalDate dob,
+        BigDecimal weight,
+        String remark,
+        String gender,
+        String color,
+        String role,
+        String status,
+        String feedlot,
+        String transponder,
+        String damTag,
+        String semenName) {
+}
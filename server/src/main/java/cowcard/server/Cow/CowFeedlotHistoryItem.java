@@ -1,8 +1,17 @@
 package cowcard.server.Cow;
 
+import java.time.LocalDateTime;
+
 import cowcard.server.CowFeedlotHistory.CowFeedlotHistory;
 
 public record CowFeedlotHistoryItem(Integer id, String feedlotName, String movedInAt, String movedOutAt) {
+
+    public CowFeedlotHistoryItem(Integer id, String feedlotName, LocalDateTime movedInAt, LocalDateTime movedOutAt) {
+        this(id, feedlotName,
+                movedInAt != null ? movedInAt.toString() : null,
+                movedOutAt != null ? movedOutAt.toString() : null);
+    }
+
     public static CowFeedlotHistoryItem from(CowFeedlotHistory h) {
         return new CowFeedlotHistoryItem(
                 h.getId(),
@@ -0,0 +1,6 @@
+package cowcard.server.Cow;
+
+import java.util.List;
+
+public record CowPage(List<CowView> items, String nextCursor, boolean hasMore) {
+}
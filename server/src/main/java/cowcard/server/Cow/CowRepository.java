@@ -1,43 +1,130 @@
 package cowcard.server.Cow;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import cowcard.server.Color.CowSummary;
+import cowcard.server.CowGender.GenderCowSummary;
+import cowcard.server.CowRole.RoleCowSummary;
+import cowcard.server.CowStatus.StatusCowSummary;
+import cowcard.server.Feedlot.FeedlotHeadcount;
+import cowcard.server.Pedigree.PedigreeRow;
+import cowcard.server.Search.SearchEntry;
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface CowRepository extends JpaRepository<Cow, Integer> {
 
     List<Cow> findByActiveTrue();
 
-    @Query("SELECT c FROM Cow c ORDER BY c.tag ASC")
-    List<Cow> findAllOrderByTag();
-
-    @Query("SELECT c FROM Cow c WHERE c.active = true ORDER BY c.tag ASC")
-    List<Cow> findAllActiveOrderByTag();
+    // Row lock for single-cow moves, so they queue behind FeedlotMovementEngine's LOCK_COWS
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cow c WHERE c.id = :id")
+    Optional<Cow> findByIdForUpdate(@Param("id") Integer id);
+
+    // Projection queries: rows are built straight into DTOs from one joined SELECT,
+    // so none of Cow's eager associations are hydrated or tracked
+    String COW_VIEW_SELECT = "SELECT new cowcard.server.Cow.CowView(" +
+            "c.id, c.tag, g.name, g.id, r.name, r.id, s.name, s.id, c.weight, " +
+            "f.name, f.id, t.code, t.id, c.remark, c.active) " +
+            "FROM Cow c " +
+            "LEFT JOIN c.gender g " +
+            "LEFT JOIN c.role r " +
+            "LEFT JOIN c.status s " +
+            "LEFT JOIN c.currentFeedlot f " +
+            "LEFT JOIN c.currentTransponder t ";
+
+    @Query(COW_VIEW_SELECT + "ORDER BY c.tag ASC")
+    List<CowView> findAllViewOrderByTag();
+
+    @Query(COW_VIEW_SELECT + "WHERE c.active = true ORDER BY c.tag ASC")
+    List<CowView> findAllActiveViewOrderByTag();
+
+    // Keyset page on (tag, id): the leading "tag >= :afterTag" keeps the scan on idx_cows_tag
+    @Query(COW_VIEW_SELECT +
+           "WHERE c.tag >= :afterTag AND (c.tag > :afterTag OR c.id > :afterId) " +
+           "AND (:genderId IS NULL OR g.id = :genderId) " +
+           "AND (:roleId IS NULL OR r.id = :roleId) " +
+           "AND (:statusId IS NULL OR s.id = :statusId) " +
+           "AND (:feedlotId IS NULL OR f.id = :feedlotId) " +
+           "AND (:colorId IS NULL OR c.color.id = :colorId) " +
+           "AND (:active IS NULL OR c.active = :active) " +
+           "ORDER BY c.tag ASC, c.id ASC")
+    List<CowView> findViewPageAfter(@Param("afterTag") String afterTag,
+                                    @Param("afterId") Integer afterId,
+                                    @Param("genderId") Integer genderId,
+                                    @Param("roleId") Integer roleId,
+                                    @Param("statusId") Integer statusId,
+                                    @Param("feedlotId") Integer feedlotId,
+                                    @Param("colorId") Integer colorId,
+                                    @Param("active") Boolean active,
+                                    Pageable pageable);
 
     List<Cow> findByRole_NameIgnoreCaseAndActiveTrue(String roleName);
 
-    long countByCurrentFeedlotId(Integer feedlotId);
+    @Query("SELECT new cowcard.server.Color.CowSummary(c.id, c.tag, g.name, r.name, s.name) " +
+           "FROM Cow c LEFT JOIN c.gender g LEFT JOIN c.role r LEFT JOIN c.status s " +
+           "WHERE c.color.id = :colorId ORDER BY c.tag ASC")
+    List<CowSummary> findSummariesByColorId(@Param("colorId") Integer colorId);
 
-    @Query("SELECT c FROM Cow c WHERE c.color.id = :colorId ORDER BY c.tag ASC")
-    List<Cow> findByColorIdOrderByTag(Integer colorId);
+    @Query("SELECT new cowcard.server.CowGender.GenderCowSummary(c.id, c.tag, r.name, f.name) " +
+           "FROM Cow c LEFT JOIN c.role r LEFT JOIN c.currentFeedlot f " +
+           "WHERE c.gender.id = :genderId ORDER BY c.tag ASC")
+    List<GenderCowSummary> findSummariesByGenderId(@Param("genderId") Integer genderId);
 
-    @Query("SELECT c FROM Cow c WHERE c.gender.id = :genderId ORDER BY c.tag ASC")
-    List<Cow> findByGenderIdOrderByTag(Integer genderId);
+    @Query("SELECT new cowcard.server.CowRole.RoleCowSummary(c.id, c.tag, f.name) " +
+           "FROM Cow c LEFT JOIN c.currentFeedlot f " +
+           "WHERE c.role.id = :roleId ORDER BY c.tag ASC")
+    List<RoleCowSummary> findSummariesByRoleId(@Param("roleId") Integer roleId);
 
-    @Query("SELECT c FROM Cow c WHERE c.role.id = :roleId ORDER BY c.tag ASC")
-    List<Cow> findByRoleIdOrderByTag(Integer roleId);
-
-    @Query("SELECT c FROM Cow c WHERE c.status.id = :statusId ORDER BY c.tag ASC")
-    List<Cow> findByStatusIdOrderByTag(Integer statusId);
+    @Query("SELECT new cowcard.server.CowStatus.StatusCowSummary(c.id, c.tag, r.name, f.name) " +
+           "FROM Cow c LEFT JOIN c.role r LEFT JOIN c.currentFeedlot f " +
+           "WHERE c.status.id = :statusId ORDER BY c.tag ASC")
+    List<StatusCowSummary> findSummariesByStatusId(@Param("statusId") Integer statusId);
 
     @Query("SELECT c FROM Cow c WHERE c.currentFeedlot.id = :feedlotId ORDER BY c.tag ASC")
     List<Cow> findByCurrentFeedlotIdOrderByTag(Integer feedlotId);
 
     List<Cow> findByDamId(Integer damId);
 
+    @Query("SELECT new cowcard.server.Cow.CowDetailHeader(" +
+           "c.id, c.tag, c.dob, c.weight, c.remark, g.name, co.name, r.name, s.name, " +
+           "f.name, t.code, d.tag, sm.name) " +
+           "FROM Cow c " +
+           "LEFT JOIN c.gender g " +
+           "LEFT JOIN c.color co " +
+           "LEFT JOIN c.role r " +
+           "LEFT JOIN c.status s " +
+           "LEFT JOIN c.currentFeedlot f " +
+           "LEFT JOIN c.currentTransponder t " +
+           "LEFT JOIN c.dam d " +
+           "LEFT JOIN c.semen sm " +
+           "WHERE c.id = :id")
+    Optional<CowDetailHeader> findDetailHeaderById(@Param("id") Integer id);
+
+    @Query("SELECT new cowcard.server.Cow.CowCalfItem(c.id, c.tag, c.dob, g.name, co.name) " +
+           "FROM Cow c LEFT JOIN c.gender g LEFT JOIN c.color co " +
+           "WHERE c.dam.id = :damId ORDER BY c.id ASC")
+    List<CowCalfItem> findCalfItemsByDamId(@Param("damId") Integer damId);
+
     List<Cow> findBySemenId(Integer semenId);
+
+    @Query("SELECT new cowcard.server.Feedlot.FeedlotHeadcount(c.currentFeedlot.id, COUNT(c)) " +
+           "FROM Cow c WHERE c.currentFeedlot IS NOT NULL GROUP BY c.currentFeedlot.id")
+    List<FeedlotHeadcount> countGroupByCurrentFeedlot();
+
+    @Query("SELECT new cowcard.server.Pedigree.PedigreeRow(c.id, c.tag, d.id, s.id, s.name, s.sire) " +
+           "FROM Cow c LEFT JOIN c.dam d LEFT JOIN c.semen s ORDER BY c.id ASC")
+    List<PedigreeRow> findPedigreeRows();
+
+    @Query("SELECT new cowcard.server.Search.SearchEntry(c.id, c.tag) FROM Cow c ORDER BY c.id ASC")
+    List<SearchEntry> findSearchEntries();
 }
 
@@ -3,87 +3,138 @@ package cowcard.server.Cow;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import cowcard.server.Color.Color;
-import cowcard.server.Color.ColorRepository;
 import cowcard.server.CowGender.CowGender;
-import cowcard.server.CowGender.CowGenderRepository;
 import cowcard.server.CowRole.CowRole;
-import cowcard.server.CowRole.CowRoleRepository;
 import cowcard.server.CowStatus.CowStatus;
-import cowcard.server.CowStatus.CowStatusRepository;
 import cowcard.server.AiRecord.AiRecordRepository;
 import cowcard.server.CowFeedlotHistory.CowFeedlotHistoryRepository;
 import cowcard.server.CowTransponderHistory.CowTransponderHistoryRepository;
+import cowcard.server.Pedigree.PedigreeService;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.Search.SearchService;
 import cowcard.server.Semen.Semen;
 import cowcard.server.Semen.SemenRepository;
 
 @Service
 public class CowService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private CowRepository cowRepository;
 
     @Autowired
-    private CowGenderRepository cowGenderRepository;
+    private SemenRepository semenRepository;
 
     @Autowired
-    private CowRoleRepository cowRoleRepository;
+    private ReferenceDataCache referenceDataCache;
 
     @Autowired
-    private CowStatusRepository cowStatusRepository;
+    private CowTransponderHistoryRepository cowTransponderHistoryRepository;
 
     @Autowired
-    private ColorRepository colorRepository;
+    private CowFeedlotHistoryRepository cowFeedlotHistoryRepository;
 
     @Autowired
-    private SemenRepository semenRepository;
+    private AiRecordRepository aiRecordRepository;
 
     @Autowired
-    private CowTransponderHistoryRepository cowTransponderHistoryRepository;
+    private PedigreeService pedigreeService;
 
     @Autowired
-    private CowFeedlotHistoryRepository cowFeedlotHistoryRepository;
+    private SearchService searchService;
 
     @Autowired
-    private AiRecordRepository aiRecordRepository;
+    @Qualifier("queryExecutor")
+    private ExecutorService queryExecutor;
+
+    @Value("${cowcard.cow-detail.parallel:true}")
+    private boolean parallelDetail;
 
     public List<Cow> findAll() {
         return cowRepository.findAll();
     }
 
     public List<CowView> findAllView() {
-        return cowRepository.findAllOrderByTag().stream().map(CowView::from).toList();
+        return cowRepository.findAllViewOrderByTag();
     }
 
     public CowDetail getDetail(Integer id) {
-        Cow cow = cowRepository.findById(id).orElseThrow();
-        List<CowTransponderHistoryItem> transponderHistory = cowTransponderHistoryRepository
-                .findByCow_IdOrderByAssignedAtDesc(id).stream().map(CowTransponderHistoryItem::from).toList();
-        List<CowFeedlotHistoryItem> feedlotHistory = cowFeedlotHistoryRepository
-                .findByCow_IdOrderByMovedInAtDesc(id).stream().map(CowFeedlotHistoryItem::from).toList();
-        List<CowAiRecordItem> aiRecords = aiRecordRepository
-                .findByDamId(id).stream().map(CowAiRecordItem::from).toList();
-        List<CowCalfItem> calves = cowRepository
-                .findByDamId(id).stream().map(CowCalfItem::from).toList();
-        return CowDetail.from(cow, transponderHistory, feedlotHistory, aiRecords, calves);
+        if (!parallelDetail) {
+            CowDetailHeader cow = cowRepository.findDetailHeaderById(id).orElseThrow();
+            return CowDetail.from(cow,
+                    cowTransponderHistoryRepository.findItemsByCowId(id),
+                    cowFeedlotHistoryRepository.findItemsByCowId(id),
+                    aiRecordRepository.findItemsByDamId(id),
+                    cowRepository.findCalfItemsByDamId(id));
+        }
+
+        // The four sub-collections are independent, so they run concurrently on the
+        // bounded query executor while the header is read on the calling thread. Must stay
+        // non-transactional: the request thread may only hold a connection for its own query.
+        CompletableFuture<List<CowTransponderHistoryItem>> transponderHistory = CompletableFuture
+                .supplyAsync(() -> cowTransponderHistoryRepository.findItemsByCowId(id), queryExecutor);
+        CompletableFuture<List<CowFeedlotHistoryItem>> feedlotHistory = CompletableFuture
+                .supplyAsync(() -> cowFeedlotHistoryRepository.findItemsByCowId(id), queryExecutor);
+        CompletableFuture<List<CowAiRecordItem>> aiRecords = CompletableFuture
+                .supplyAsync(() -> aiRecordRepository.findItemsByDamId(id), queryExecutor);
+        CompletableFuture<List<CowCalfItem>> calves = CompletableFuture
+                .supplyAsync(() -> cowRepository.findCalfItemsByDamId(id), queryExecutor);
+
+        CowDetailHeader cow = cowRepository.findDetailHeaderById(id).orElseThrow();
+        return CowDetail.from(cow, await(transponderHistory), await(feedlotHistory), await(aiRecords), await(calves));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     public List<CowView> findAllActiveView() {
-        return cowRepository.findAllActiveOrderByTag().stream().map(CowView::from).toList();
+        return cowRepository.findAllActiveViewOrderByTag();
+    }
+
+    public CowPage findPage(String cursor, Integer size, Integer genderId, Integer roleId, Integer statusId,
+                            Integer feedlotId, Integer colorId, Boolean active) {
+        CowCursor after = CowCursor.decode(cursor);
+        int limit = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        // Fetch one extra row to know whether another page follows without a count query
+        List<CowView> rows = cowRepository.findViewPageAfter(after.tag(), after.id(),
+                genderId, roleId, statusId, feedlotId, colorId, active, PageRequest.of(0, limit + 1));
+
+        boolean hasMore = rows.size() > limit;
+        List<CowView> page = hasMore ? List.copyOf(rows.subList(0, limit)) : rows;
+        String nextCursor = hasMore ? CowCursor.after(page.getLast()).encode() : null;
+        return new CowPage(page, nextCursor, hasMore);
     }
 
     public Cow createDam(String tag, Integer statusId, String remark) {
-        CowGender femaleGender = cowGenderRepository.findByNameIgnoreCase("Female")
+        CowGender femaleGender = referenceDataCache.findByNameIgnoreCase(CowGender.class, "Female")
                 .orElseThrow(() -> new RuntimeException("CowGender 'Female' not found"));
 
-        CowRole damRole = cowRoleRepository.findByNameIgnoreCase("Dam")
+        CowRole damRole = referenceDataCache.findByNameIgnoreCase(CowRole.class, "Dam")
                 .orElseThrow(() -> new RuntimeException("CowRole 'Dam' not found"));
 
-        CowStatus status = cowStatusRepository.findById(statusId)
+        CowStatus status = referenceDataCache.findById(CowStatus.class, statusId)
                 .orElseThrow(() -> new RuntimeException("CowStatus with id " + statusId + " not found"));
 
         Cow cow = new Cow();
@@ -93,7 +144,10 @@ public class CowService {
         cow.setStatus(status);
         cow.setRemark(remark);
         cow.setActive(true);
-        return cowRepository.save(cow);
+        Cow saved = cowRepository.save(cow);
+        pedigreeService.onCowCreated(saved);
+        searchService.onCowSaved(saved);
+        return saved;
     }
 
     public List<Cow> findDams() {
@@ -103,16 +157,16 @@ public class CowService {
     public Cow createCow(String tag, Integer genderId, Integer roleId, Integer colorId,
                           String dob, BigDecimal weight, Integer statusId,
                           Integer damId, Integer semenId, String remark) {
-        CowGender gender = cowGenderRepository.findById(genderId)
+        CowGender gender = referenceDataCache.findById(CowGender.class, genderId)
                 .orElseThrow(() -> new RuntimeException("CowGender with id " + genderId + " not found"));
 
-        CowRole role = cowRoleRepository.findById(roleId)
+        CowRole role = referenceDataCache.findById(CowRole.class, roleId)
                 .orElseThrow(() -> new RuntimeException("CowRole with id " + roleId + " not found"));
 
-        Color color = colorRepository.findById(colorId)
+        Color color = referenceDataCache.findById(Color.class, colorId)
                 .orElseThrow(() -> new RuntimeException("Color with id " + colorId + " not found"));
 
-        CowStatus status = cowStatusRepository.findById(statusId)
+        CowStatus status = referenceDataCache.findById(CowStatus.class, statusId)
                 .orElseThrow(() -> new RuntimeException("CowStatus with id " + statusId + " not found"));
 
         Cow cow = new Cow();
@@ -142,18 +196,21 @@ public class CowService {
             cow.setSemen(semen);
         }
 
-        return cowRepository.save(cow);
+        Cow saved = cowRepository.save(cow);
+        pedigreeService.onCowCreated(saved);
+        searchService.onCowSaved(saved);
+        return saved;
     }
 
     public Cow createCalf(String tag, Integer genderId, Integer damId, Integer semenId,
                            String dob, BigDecimal weight, Integer colorId, String remark) {
-        CowRole calfRole = cowRoleRepository.findByNameIgnoreCase("Calf")
+        CowRole calfRole = referenceDataCache.findByNameIgnoreCase(CowRole.class, "Calf")
                 .orElseThrow(() -> new RuntimeException("CowRole 'Calf' not found"));
 
-        CowGender gender = cowGenderRepository.findById(genderId)
+        CowGender gender = referenceDataCache.findById(CowGender.class, genderId)
                 .orElseThrow(() -> new RuntimeException("CowGender with id " + genderId + " not found"));
 
-        Color color = colorRepository.findById(colorId)
+        Color color = referenceDataCache.findById(Color.class, colorId)
                 .orElseThrow(() -> new RuntimeException("Color with id " + colorId + " not found"));
 
         Cow cow = new Cow();
@@ -182,6 +239,9 @@ public class CowService {
             cow.setSemen(semen);
         }
 
-        return cowRepository.save(cow);
+        Cow saved = cowRepository.save(cow);
+        pedigreeService.onCowCreated(saved);
+        searchService.onCowSaved(saved);
+        return saved;
     }
 }
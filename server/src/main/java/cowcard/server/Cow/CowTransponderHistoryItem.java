@@ -1,8 +1,17 @@
 package cowcard.server.Cow;
 
+import java.time.LocalDateTime;
+
 import cowcard.server.CowTransponderHistory.CowTransponderHistory;
 
 public record CowTransponderHistoryItem(Integer id, String transponderCode, String assignedAt, String unassignedAt) {
+
+    public CowTransponderHistoryItem(Integer id, String transponderCode, LocalDateTime assignedAt, LocalDateTime unassignedAt) {
+        this(id, transponderCode,
+                assignedAt != null ? assignedAt.toString() : null,
+                unassignedAt != null ? unassignedAt.toString() : null);
+    }
+
     public static CowTransponderHistoryItem from(CowTransponderHistory h) {
         return new CowTransponderHistoryItem(
                 h.getId(),
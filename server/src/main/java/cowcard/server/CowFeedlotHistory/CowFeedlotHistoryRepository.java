@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import cowcard.server.Cow.Cow;
+import cowcard.server.Cow.CowFeedlotHistoryItem;
 import cowcard.server.Feedlot.Feedlot;
 
 @Repository
@@ -22,6 +23,11 @@ public interface CowFeedlotHistoryRepository extends JpaRepository<CowFeedlotHis
 
     List<CowFeedlotHistory> findByCow_IdOrderByMovedInAtDesc(Integer cowId);
 
+    @Query("SELECT new cowcard.server.Cow.CowFeedlotHistoryItem(h.id, f.name, h.movedInAt, h.movedOutAt) " +
+           "FROM CowFeedlotHistory h JOIN h.feedlot f " +
+           "WHERE h.cow.id = :cowId ORDER BY h.movedInAt DESC")
+    List<CowFeedlotHistoryItem> findItemsByCowId(@Param("cowId") Integer cowId);
+
     List<CowFeedlotHistory> findByFeedlotAndMovedOutAtIsNull(Feedlot feedlot);
 
     List<CowFeedlotHistory> findByCowInAndMovedOutAtIsNull(List<Cow> cows);
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import cowcard.server.Cow.CowRepository;
+import cowcard.server.ReferenceData.ReferenceDataCache;
 
 @Service
 public class CowGenderService {
@@ -16,29 +17,35 @@ public class CowGenderService {
     @Autowired
     private CowRepository cowRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<CowGender> findAll() {
         return cowGenderRepository.findAll();
     }
 
     public List<CowGender> findAllActive() {
-        return cowGenderRepository.findByActiveTrue();
+        return referenceDataCache.findAllActive(CowGender.class);
     }
 
     public CowGender toggleActive(Integer id) {
         CowGender e = cowGenderRepository.findById(id).orElseThrow();
         e.setActive(e.getActive() == null || !e.getActive());
-        return cowGenderRepository.save(e);
+        CowGender saved = cowGenderRepository.save(e);
+        referenceDataCache.invalidate(CowGender.class);
+        return saved;
     }
 
     public CowGender create(CowGender cowGender) {
         cowGender.setActive(true);
-        return cowGenderRepository.save(cowGender);
+        CowGender saved = cowGenderRepository.save(cowGender);
+        referenceDataCache.invalidate(CowGender.class);
+        return saved;
     }
 
     public GenderWithCows getWithCows(Integer id) {
         CowGender gender = cowGenderRepository.findById(id).orElseThrow();
-        List<GenderCowSummary> cows = cowRepository.findByGenderIdOrderByTag(id).stream()
-                .map(GenderCowSummary::from).toList();
+        List<GenderCowSummary> cows = cowRepository.findSummariesByGenderId(id);
         return GenderWithCows.from(gender, cows);
     }
 
@@ -46,6 +53,8 @@ public class CowGenderService {
         CowGender e = cowGenderRepository.findById(id).orElseThrow();
         e.setName(cowGender.getName());
         e.setRemark(cowGender.getRemark());
-        return cowGenderRepository.save(e);
+        CowGender saved = cowGenderRepository.save(e);
+        referenceDataCache.invalidate(CowGender.class);
+        return saved;
     }
 }
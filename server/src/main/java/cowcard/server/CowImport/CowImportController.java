@@ -0,0 +1,36 @@
+package cowcard.server.CowImport;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import cowcard.server.Common.ServerRes;
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/cow/import")
+public class CowImportController {
+
+    @Autowired
+    private CowImportService cowImportService;
+
+    // Body is the raw file (text/csv or application/x-ndjson), read as a stream
+    @PostMapping
+    public ServerRes<CowImportResult> importCows(HttpServletRequest request,
+                                                 @RequestParam(required = false) String format,
+                                                 @RequestHeader(value = "Content-Type", required = false) String contentType) {
+        try {
+            CowImportFormat f = CowImportFormat.from(format, contentType);
+            return ServerRes.success(cowImportService.importCows(request.getInputStream(), f));
+        } catch (IOException e) {
+            return ServerRes.error("Failed to read upload: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return ServerRes.error(e.getMessage());
+        }
+    }
+}
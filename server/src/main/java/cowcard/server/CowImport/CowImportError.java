@@ -0,0 +1,4 @@
+package cowcard.server.CowImport;
+
+public record CowImportError(int line, String tag, String message) {
+}
@@ -0,0 +1,17 @@
+package cowcard.server.CowImport;
+
+public enum CowImportFormat {
+    CSV,
+    NDJSON;
+
+    public static CowImportFormat from(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            return switch (format.trim().toLowerCase()) {
+                case "csv" -> CSV;
+                case "ndjson", "jsonl", "json" -> NDJSON;
+                default -> throw new IllegalArgumentException("Unsupported import format: " + format);
+            };
+        }
+        return contentType != null && contentType.toLowerCase().contains("json") ? NDJSON : CSV;
+    }
+}
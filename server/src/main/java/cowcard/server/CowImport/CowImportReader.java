@@ -0,0 +1,158 @@
+package cowcard.server.CowImport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+// Pulls one record at a time off the request stream so a whole file is never held in memory.
+// CSV needs a header row; NDJSON is one JSON object per line. Column names are the
+// CowImportRow component names, matched case-insensitively.
+public class CowImportReader {
+
+    private static final String[] COLUMNS = {
+            "tag", "gender", "role", "color", "status", "dob", "weight", "dam", "semen", "remark"
+    };
+
+    private final BufferedReader reader;
+    private final CowImportFormat format;
+    private final ObjectMapper objectMapper;
+    private int[] columnIndex;
+    private int line;
+
+    public CowImportReader(BufferedReader reader, CowImportFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    // Returns null at end of input. A malformed record comes back as an error so the caller
+    // can report it and carry on; a bad CSV header aborts the whole file.
+    public Parsed next() {
+        try {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+                if (line == 1 && !text.isEmpty() && text.charAt(0) == '\uFEFF') {
+                    text = text.substring(1);
+                }
+            } while (text.isBlank());
+
+            if (format == CowImportFormat.NDJSON) {
+                return parseJson(text);
+            }
+            if (columnIndex == null) {
+                readHeader(splitCsv(text));
+                return next();
+            }
+            int startLine = line;
+            List<String> cells = splitCsv(text);
+            return new Parsed(toRow(startLine, i -> i < cells.size() ? cells.get(i) : null), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException e) {
+            return new Parsed(null, new CowImportError(line, null, e.getMessage()));
+        }
+    }
+
+    private Parsed parseJson(String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (RuntimeException e) {
+            return new Parsed(null, new CowImportError(line, null, "Invalid JSON"));
+        }
+        if (!node.isObject()) {
+            return new Parsed(null, new CowImportError(line, null, "Expected a JSON object"));
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, JsonNode> e : node.properties()) {
+            JsonNode v = e.getValue();
+            fields.put(e.getKey().toLowerCase(Locale.ROOT), v == null || v.isNull() ? null : v.asString());
+        }
+        return new Parsed(toRow(line, i -> fields.get(COLUMNS[i])), null);
+    }
+
+    private void readHeader(List<String> header) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!positions.containsKey("tag")) {
+            throw new IllegalStateException("CSV header must include a 'tag' column");
+        }
+        columnIndex = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columnIndex[i] = positions.getOrDefault(COLUMNS[i], -1);
+        }
+    }
+
+    private CowImportRow toRow(int rowLine, IntFunction<String> cell) {
+        String[] v = new String[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            int source = columnIndex != null ? columnIndex[i] : i;
+            String raw = source < 0 ? null : cell.apply(source);
+            v[i] = raw == null || raw.isBlank() ? null : raw.trim();
+        }
+        return new CowImportRow(rowLine, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8], v[9]);
+    }
+
+    // RFC 4180: quoted cells may contain commas, doubled quotes and line breaks
+    private List<String> splitCsv(String text) throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String more = reader.readLine();
+                if (more == null) {
+                    throw new IllegalArgumentException("Unterminated quoted value");
+                }
+                line++;
+                cell.append('\n');
+                text = more;
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    public record Parsed(CowImportRow row, CowImportError error) {
+    }
+}
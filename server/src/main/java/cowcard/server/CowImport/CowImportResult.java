@@ -0,0 +1,6 @@
+package cowcard.server.CowImport;
+
+import java.util.List;
+
+public record CowImportResult(int rows, int imported, int failed, List<CowImportError> errors, long elapsedMs) {
+}
@@ -0,0 +1,16 @@
+package cowcard.server.CowImport;
+
+// One raw input record; lookup columns accept either a name or a numeric id
+public record CowImportRow(
+        int line,
+        String tag,
+        String gender,
+        String role,
+        String color,
+        String status,
+        String dob,
+        String weight,
+        String dam,
+        String semen,
+        String remark
+) {}
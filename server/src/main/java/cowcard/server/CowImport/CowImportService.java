@@ -0,0 +1,420 @@
+package cowcard.server.CowImport;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cowcard.server.Color.Color;
+import cowcard.server.CowGender.CowGender;
+import cowcard.server.CowRole.CowRole;
+import cowcard.server.CowStatus.CowStatus;
+import cowcard.server.Pedigree.PedigreeRow;
+import cowcard.server.Pedigree.PedigreeService;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.Search.SearchEntry;
+import cowcard.server.Search.SearchService;
+import cowcard.server.Semen.Semen;
+import cowcard.server.Semen.SemenRepository;
+import tools.jackson.databind.ObjectMapper;
+
+@Service
+public class CowImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CowImportService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_COW = "INSERT INTO cows " +
+            "(id, tag, gender, dob, weight, color, role, status, dam_id, semen_id, remark, active, " +
+            "created_at, created_by, updated_at, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, true, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuditorAware<UUID> auditorAware;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private SemenRepository semenRepository;
+
+    @Autowired
+    private PedigreeService pedigreeService;
+
+    @Autowired
+    private SearchService searchService;
+
+    public CowImportResult importCows(InputStream input, CowImportFormat format) {
+        long start = System.currentTimeMillis();
+        Run run = new Run();
+
+        // Every lookup is resolved once per file instead of four findById calls per cow
+        run.genders = Lookup.of(referenceDataCache.table(CowGender.class).findAll(), CowGender::getId, CowGender::getName);
+        run.roles = Lookup.of(referenceDataCache.table(CowRole.class).findAll(), CowRole::getId, CowRole::getName);
+        run.colors = Lookup.of(referenceDataCache.table(Color.class).findAll(), Color::getId, Color::getName);
+        run.statuses = Lookup.of(referenceDataCache.table(CowStatus.class).findAll(), CowStatus::getId, CowStatus::getName);
+        List<Semen> semen = semenRepository.findAll();
+        run.semen = Lookup.of(semen, Semen::getId, Semen::getName);
+        for (Semen s : semen) {
+            run.semenById.put(s.getId(), s);
+        }
+        run.auditor = auditorAware.getCurrentAuditor().orElse(null);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        CowImportReader records = new CowImportReader(reader, format, objectMapper);
+        List<CowImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        CowImportReader.Parsed parsed;
+        while ((parsed = records.next()) != null) {
+            run.rows++;
+            if (parsed.error() != null) {
+                run.fail(parsed.error());
+                continue;
+            }
+            chunk.add(parsed.row());
+            if (chunk.size() == CHUNK_SIZE) {
+                processChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, run);
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Cow import: {} rows, {} imported, {} failed in {} ms", run.rows, run.imported, run.failed, elapsed);
+        return new CowImportResult(run.rows, run.imported, run.failed, run.errors, elapsed);
+    }
+
+    private void processChunk(List<CowImportRow> chunk, Run run) {
+        List<Pending> valid = new ArrayList<>(chunk.size());
+        for (CowImportRow row : chunk) {
+            Pending p = validate(row, run);
+            if (p != null) {
+                valid.add(p);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Integer>> damsInDb = findDamIdsByTag(valid, run);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('cows', 'id')) FROM generate_series(1, ?)",
+                Long.class, valid.size());
+
+        // Dams resolve against rows already imported from this file first, then the herd
+        List<Pending> ready = new ArrayList<>(valid.size());
+        Map<String, Integer> addedThisChunk = new HashMap<>();
+        for (int i = 0; i < valid.size(); i++) {
+            Pending p = valid.get(i);
+            p.id = ids.get(i).intValue();
+            if (p.row.dam() != null && !resolveDam(p, run, damsInDb, addedThisChunk)) {
+                continue;
+            }
+            addedThisChunk.put(p.row.tag(), p.id);
+            ready.add(p);
+        }
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insert(ready, run.auditor);
+                onImported(ready, run);
+            });
+        } catch (RuntimeException e) {
+            // One bad row fails the whole batch, so find it rather than rejecting the chunk
+            log.warn("Cow import chunk failed, retrying {} rows one at a time: {}", ready.size(), rootMessage(e));
+            retryRows(ready, run);
+            return;
+        }
+        run.fileTags.putAll(addedThisChunk);
+        run.imported += ready.size();
+    }
+
+    // Each row is inserted behind its own savepoint in one transaction, so a failing row is
+    // reported with its own database error and the rest of the chunk still goes in. The
+    // savepoints are plain SQL: the JPA transaction manager refuses status.createSavepoint()
+    private void retryRows(List<Pending> rows, Run run) {
+        List<Pending> inserted = new ArrayList<>(rows.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Pending p : rows) {
+                    jdbcTemplate.execute("SAVEPOINT import_row");
+                    try {
+                        insert(List.of(p), run.auditor);
+                        jdbcTemplate.execute("RELEASE SAVEPOINT import_row");
+                        inserted.add(p);
+                    } catch (RuntimeException e) {
+                        jdbcTemplate.execute("ROLLBACK TO SAVEPOINT import_row");
+                        run.fail(new CowImportError(p.row.line(), p.row.tag(), "Rejected by database: " + rootMessage(e)));
+                    }
+                }
+                onImported(inserted, run);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Cow import row retry failed", e);
+            for (Pending p : inserted) {
+                run.fail(new CowImportError(p.row.line(), p.row.tag(), "Chunk rejected by database: " + rootMessage(e)));
+            }
+            return;
+        }
+        for (Pending p : inserted) {
+            run.fileTags.put(p.row.tag(), p.id);
+        }
+        run.imported += inserted.size();
+    }
+
+    private void onImported(List<Pending> rows, Run run) {
+        List<PedigreeRow> pedigree = new ArrayList<>(rows.size());
+        List<SearchEntry> search = new ArrayList<>(rows.size());
+        for (Pending p : rows) {
+            Semen s = p.semenId != null ? run.semenById.get(p.semenId) : null;
+            pedigree.add(new PedigreeRow(p.id, p.row.tag(), p.damId, p.semenId,
+                    s != null ? s.getName() : null, s != null ? s.getSire() : null));
+            search.add(new SearchEntry(p.id, p.row.tag()));
+        }
+        pedigreeService.onCowsImported(pedigree);
+        searchService.onCowsImported(search);
+    }
+
+    private Pending validate(CowImportRow row, Run run) {
+        Pending p = new Pending(row);
+        if (row.tag() == null) {
+            return reject(row, "Tag is required", run);
+        }
+        if ((p.genderId = run.genders.resolve(row.gender())) == null) {
+            return reject(row, "Unknown gender: " + row.gender(), run);
+        }
+        if ((p.roleId = run.roles.resolve(row.role())) == null) {
+            return reject(row, "Unknown role: " + row.role(), run);
+        }
+        if ((p.colorId = run.colors.resolve(row.color())) == null) {
+            return reject(row, "Unknown color: " + row.color(), run);
+        }
+        if ((p.statusId = run.statuses.resolve(row.status())) == null) {
+            return reject(row, "Unknown status: " + row.status(), run);
+        }
+        if (row.semen() != null && (p.semenId = run.semen.resolve(row.semen())) == null) {
+            return reject(row, "Unknown semen: " + row.semen(), run);
+        }
+        if (row.dob() != null) {
+            try {
+                p.dob = LocalDate.parse(row.dob());
+            } catch (DateTimeParseException e) {
+                return reject(row, "Invalid dob (expected yyyy-MM-dd): " + row.dob(), run);
+            }
+        }
+        if (row.weight() != null) {
+            try {
+                p.weight = new BigDecimal(row.weight());
+            } catch (NumberFormatException e) {
+                return reject(row, "Invalid weight: " + row.weight(), run);
+            }
+        }
+        return p;
+    }
+
+    private boolean resolveDam(Pending p, Run run, Map<String, List<Integer>> damsInDb,
+                               Map<String, Integer> addedThisChunk) {
+        String dam = p.row.dam();
+        Integer id = addedThisChunk.get(dam);
+        if (id == null) {
+            id = run.fileTags.get(dam);
+        }
+        if (id == null) {
+            List<Integer> matches = damsInDb.getOrDefault(dam, List.of());
+            if (matches.size() > 1) {
+                reject(p.row, "Dam tag matches " + matches.size() + " cows: " + dam, run);
+                return false;
+            }
+            id = matches.isEmpty() ? null : matches.getFirst();
+        }
+        if (id == null) {
+            reject(p.row, "Dam not found: " + dam, run);
+            return false;
+        }
+        p.damId = id;
+        return true;
+    }
+
+    // One round trip per chunk for every dam tag not already created from this file
+    private Map<String, List<Integer>> findDamIdsByTag(List<Pending> rows, Run run) {
+        Set<String> tags = new LinkedHashSet<>();
+        for (Pending p : rows) {
+            if (p.row.dam() != null && !run.fileTags.containsKey(p.row.dam())) {
+                tags.add(p.row.dam());
+            }
+        }
+        Map<String, List<Integer>> byTag = new HashMap<>();
+        if (tags.isEmpty()) {
+            return byTag;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, tag FROM cows WHERE tag = ANY(?)");
+            Array array = con.createArrayOf("varchar", tags.toArray());
+            ps.setArray(1, array);
+            return ps;
+        }, rs -> {
+            byTag.computeIfAbsent(rs.getString("tag"), k -> new ArrayList<>()).add(rs.getInt("id"));
+        });
+        return byTag;
+    }
+
+    // Explicit ids let the driver rewrite the batch into multi-row INSERTs
+    // (reWriteBatchedInserts), which an IDENTITY insert through Hibernate cannot do
+    private void insert(List<Pending> rows, UUID auditor) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_COW, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Pending p = rows.get(i);
+                ps.setInt(1, p.id);
+                ps.setString(2, p.row.tag());
+                ps.setInt(3, p.genderId);
+                ps.setObject(4, p.dob != null ? Date.valueOf(p.dob) : null, Types.DATE);
+                ps.setObject(5, p.weight, Types.NUMERIC);
+                ps.setInt(6, p.colorId);
+                ps.setInt(7, p.roleId);
+                ps.setInt(8, p.statusId);
+                ps.setObject(9, p.damId, Types.INTEGER);
+                ps.setObject(10, p.semenId, Types.INTEGER);
+                ps.setString(11, p.row.remark());
+                ps.setTimestamp(12, now);
+                ps.setObject(13, auditor, Types.OTHER);
+                ps.setTimestamp(14, now);
+                ps.setObject(15, auditor, Types.OTHER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private static Pending reject(CowImportRow row, String message, Run run) {
+        run.fail(new CowImportError(row.line(), row.tag(), message));
+        return null;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private static final class Run {
+        Lookup genders;
+        Lookup roles;
+        Lookup colors;
+        Lookup statuses;
+        Lookup semen;
+        final Map<Integer, Semen> semenById = new HashMap<>();
+        final Map<String, Integer> fileTags = new HashMap<>();
+        final List<CowImportError> errors = new ArrayList<>();
+        UUID auditor;
+        int rows;
+        int imported;
+        int failed;
+
+        void fail(CowImportError error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    private static final class Pending {
+        final CowImportRow row;
+        int id;
+        Integer genderId;
+        Integer roleId;
+        Integer colorId;
+        Integer statusId;
+        Integer semenId;
+        Integer damId;
+        LocalDate dob;
+        BigDecimal weight;
+
+        Pending(CowImportRow row) {
+            this.row = row;
+        }
+    }
+
+    // Name (case-insensitive) or numeric id -> id
+    private record Lookup(Map<String, Integer> byName, Set<Integer> ids) {
+
+        static <T> Lookup of(List<T> items, Function<T, Integer> id, Function<T, String> name) {
+            Map<String, Integer> byName = new HashMap<>();
+            Set<Integer> ids = new HashSet<>();
+            for (T item : items) {
+                ids.add(id.apply(item));
+                if (name.apply(item) != null) {
+                    byName.putIfAbsent(name.apply(item).trim().toLowerCase(Locale.ROOT), id.apply(item));
+                }
+            }
+            return new Lookup(byName, ids);
+        }
+
+        Integer resolve(String value) {
+            if (value == null) {
+                return null;
+            }
+            Integer byNameId = byName.get(value.toLowerCase(Locale.ROOT));
+            if (byNameId != null) {
+                return byNameId;
+            }
+            try {
+                Integer id = Integer.valueOf(value);
+                return ids.contains(id) ? id : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
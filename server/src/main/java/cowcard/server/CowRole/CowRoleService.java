@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import cowcard.server.Cow.CowRepository;
 import cowcard.server.CowGender.CowGender;
 import cowcard.server.CowGender.CowGenderRepository;
+import cowcard.server.ReferenceData.ReferenceDataCache;
 
 @Service
 public class CowRoleService {
@@ -21,24 +22,28 @@ public class CowRoleService {
     @Autowired
     private CowGenderRepository cowGenderRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<CowRole> findAll() {
         return cowRoleRepository.findAll();
     }
 
     public List<CowRole> findAllActive() {
-        return cowRoleRepository.findByActiveTrue();
+        return referenceDataCache.findAllActive(CowRole.class);
     }
 
     public CowRole toggleActive(Integer id) {
         CowRole e = cowRoleRepository.findById(id).orElseThrow();
         e.setActive(e.getActive() == null || !e.getActive());
-        return cowRoleRepository.save(e);
+        CowRole saved = cowRoleRepository.save(e);
+        referenceDataCache.invalidate(CowRole.class);
+        return saved;
     }
 
     public RoleWithCows getWithCows(Integer id) {
         CowRole role = cowRoleRepository.findById(id).orElseThrow();
-        List<RoleCowSummary> cows = cowRepository.findByRoleIdOrderByTag(id).stream()
-                .map(RoleCowSummary::from).toList();
+        List<RoleCowSummary> cows = cowRepository.findSummariesByRoleId(id);
         return RoleWithCows.from(role, cows);
     }
 
@@ -48,7 +53,9 @@ public class CowRoleService {
             List<CowGender> genders = cowGenderRepository.findAllById(cowGenderIds);
             cowRole.setCowGenders(genders);
         }
-        return cowRoleRepository.save(cowRole);
+        CowRole saved = cowRoleRepository.save(cowRole);
+        referenceDataCache.invalidate(CowRole.class);
+        return saved;
     }
 
     public CowRole update(Integer id, CowRole cowRole, List<Integer> cowGenderIds) {
@@ -61,6 +68,8 @@ public class CowRoleService {
         } else {
             e.getCowGenders().clear();
         }
-        return cowRoleRepository.save(e);
+        CowRole saved = cowRoleRepository.save(e);
+        referenceDataCache.invalidate(CowRole.class);
+        return saved;
     }
 }
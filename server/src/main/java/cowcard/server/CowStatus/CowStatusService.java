@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import cowcard.server.Cow.CowRepository;
 import cowcard.server.CowRole.CowRole;
 import cowcard.server.CowRole.CowRoleRepository;
+import cowcard.server.ReferenceData.ReferenceDataCache;
 
 @Service
 public class CowStatusService {
@@ -21,18 +22,23 @@ public class CowStatusService {
     @Autowired
     private CowRoleRepository cowRoleRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<CowStatus> findAll() {
         return cowStatusRepository.findAll();
     }
 
     public List<CowStatus> findAllActive() {
-        return cowStatusRepository.findByActiveTrue();
+        return referenceDataCache.findAllActive(CowStatus.class);
     }
 
     public CowStatus toggleActive(Integer id) {
         CowStatus e = cowStatusRepository.findById(id).orElseThrow();
         e.setActive(e.getActive() == null || !e.getActive());
-        return cowStatusRepository.save(e);
+        CowStatus saved = cowStatusRepository.save(e);
+        referenceDataCache.invalidate(CowStatus.class);
+        return saved;
     }
 
     public CowStatus create(CowStatus cowStatus, List<Integer> cowRoleIds) {
@@ -41,13 +47,14 @@ public class CowStatusService {
             List<CowRole> roles = cowRoleRepository.findAllById(cowRoleIds);
             cowStatus.setCowRoles(roles);
         }
-        return cowStatusRepository.save(cowStatus);
+        CowStatus saved = cowStatusRepository.save(cowStatus);
+        referenceDataCache.invalidate(CowStatus.class);
+        return saved;
     }
 
     public StatusWithCows getWithCows(Integer id) {
         CowStatus status = cowStatusRepository.findById(id).orElseThrow();
-        List<StatusCowSummary> cows = cowRepository.findByStatusIdOrderByTag(id).stream()
-                .map(StatusCowSummary::from).toList();
+        List<StatusCowSummary> cows = cowRepository.findSummariesByStatusId(id);
         return StatusWithCows.from(status, cows);
     }
 
@@ -61,6 +68,8 @@ public class CowStatusService {
         } else {
             e.getCowRoles().clear();
         }
-        return cowStatusRepository.save(e);
+        CowStatus saved = cowStatusRepository.save(e);
+        referenceDataCache.invalidate(CowStatus.class);
+        return saved;
     }
 }
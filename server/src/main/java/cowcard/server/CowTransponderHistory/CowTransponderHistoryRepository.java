@@ -4,9 +4,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import cowcard.server.Cow.Cow;
+import cowcard.server.Cow.CowTransponderHistoryItem;
 import cowcard.server.Transponder.Transponder;
 
 @Repository
@@ -21,4 +24,9 @@ public interface CowTransponderHistoryRepository extends JpaRepository<CowTransp
     List<CowTransponderHistory> findByTransponder_IdOrderByAssignedAtDesc(Integer transponderId);
 
     List<CowTransponderHistory> findByCow_IdOrderByAssignedAtDesc(Integer cowId);
+
+    @Query("SELECT new cowcard.server.Cow.CowTransponderHistoryItem(h.id, t.code, h.assignedAt, h.unassignedAt) " +
+           "FROM CowTransponderHistory h JOIN h.transponder t " +
+           "WHERE h.cow.id = :cowId ORDER BY h.assignedAt DESC")
+    List<CowTransponderHistoryItem> findItemsByCowId(@Param("cowId") Integer cowId);
 }
@@ -0,0 +1,67 @@
+package cowcard.server.Export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+class CsvRowWriter implements ExportRowWriter {
+
+    private final BufferedWriter out;
+
+    CsvRowWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void header(String[] columns) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeCell(columns[i]);
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void row(ResultSet rs, String[] columns) throws IOException, SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Object value = rs.getObject(i + 1);
+            if (value instanceof Timestamp ts) {
+                writeCell(ts.toLocalDateTime().toString());
+            } else if (value != null) {
+                writeCell(value.toString());
+            }
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    // RFC 4180 quoting, only when the value needs it
+    private void writeCell(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
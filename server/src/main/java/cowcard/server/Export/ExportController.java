@@ -0,0 +1,82 @@
+package cowcard.server.Export;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import cowcard.server.Common.ServerRes;
+import cowcard.server.User.UserDetail;
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    // GET /export/{cows|ai-records|pregnancy-diagnoses|feedlot-history|transponder-history}?format=ndjson|csv
+    @GetMapping("/{dataset}")
+    public ResponseEntity<?> export(@PathVariable String dataset,
+                                    @RequestParam(required = false) String format,
+                                    HttpServletRequest request) {
+        ExportDataset d;
+        ExportFormat f;
+        try {
+            d = ExportDataset.fromSlug(dataset);
+            f = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ServerRes.error(e.getMessage()));
+        }
+
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth != null && auth.getPrincipal() instanceof UserDetail ud && ud.isAdmin();
+
+        if (!exportService.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(ServerRes.error("Too many exports running, try again shortly"));
+        }
+        // The body may never run (executor rejected it, request timed out or failed first),
+        // so the async completion callback releases the slot too; whichever is first wins
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                exportService.release();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportController.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        release.run();
+                    }
+                });
+        StreamingResponseBody body = out -> {
+            try {
+                exportService.export(d, f, !admin, out);
+            } finally {
+                release.run();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(f.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + d.slug() + "." + f.extension() + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,85 @@
+package cowcard.server.Export;
+
+// Flat, name-resolved views of each table, ordered by primary key so exports are stable
+public enum ExportDataset {
+    COWS("cows",
+            "SELECT c.id, c.tag, g.name AS gender, c.dob, c.weight, co.name AS color, r.name AS role, " +
+            "s.name AS status, d.tag AS dam_tag, se.name AS semen, f.name AS feedlot, " +
+            "t.code AS transponder, c.remark, c.active " +
+            "FROM cows c " +
+            "LEFT JOIN cow_gender g ON g.id = c.gender " +
+            "LEFT JOIN colors co ON co.id = c.color " +
+            "LEFT JOIN cow_role r ON r.id = c.role " +
+            "LEFT JOIN cow_status s ON s.id = c.status " +
+            "LEFT JOIN cows d ON d.id = c.dam_id " +
+            "LEFT JOIN semen se ON se.id = c.semen_id " +
+            "LEFT JOIN feedlots f ON f.id = c.current_feedlot_id " +
+            "LEFT JOIN transponders t ON t.id = c.current_transponder_id " +
+            "%s ORDER BY c.id",
+            "WHERE c.active = true"),
+    AI_RECORDS("ai-records",
+            "SELECT a.id, a.code, d.tag AS dam_tag, se.name AS semen, se.sire, a.feedlot, " +
+            "ab.name AS ai_by, pb.name AS prepared_by, st.name AS status, a.ai_date, a.ai_time, a.remark " +
+            "FROM ai_records a " +
+            "JOIN cows d ON d.id = a.dam_id " +
+            "JOIN semen se ON se.id = a.semen_id " +
+            "LEFT JOIN inseminators ab ON ab.id = a.ai_by " +
+            "LEFT JOIN inseminators pb ON pb.id = a.prepared_by " +
+            "LEFT JOIN ai_status st ON st.id = a.status " +
+            "ORDER BY a.id",
+            null),
+    PREGNANCY_DIAGNOSES("pregnancy-diagnoses",
+            "SELECT p.id, a.code AS ai_code, d.tag AS dam_tag, p.ai_date, p.pregnant_date, " +
+            "i.name AS diagnosis_by, ps.name AS pd_status " +
+            "FROM pregnancy_diagnosis p " +
+            "JOIN ai_records a ON a.id = p.ai_record_id " +
+            "JOIN cows d ON d.id = a.dam_id " +
+            "LEFT JOIN inseminators i ON i.id = p.diagnosis_by " +
+            "LEFT JOIN pd_status ps ON ps.id = p.pd_status " +
+            "ORDER BY p.id",
+            null),
+    FEEDLOT_HISTORY("feedlot-history",
+            "SELECT h.id, h.cow_id, c.tag, h.feedlot_id, f.name AS feedlot, h.moved_in_at, h.moved_out_at " +
+            "FROM cow_feedlot_history h " +
+            "JOIN cows c ON c.id = h.cow_id " +
+            "JOIN feedlots f ON f.id = h.feedlot_id " +
+            "ORDER BY h.id",
+            null),
+    TRANSPONDER_HISTORY("transponder-history",
+            "SELECT h.id, h.cow_id, c.tag, h.transponder_id, t.code AS transponder, h.assigned_at, h.unassigned_at " +
+            "FROM cow_transponder_history h " +
+            "JOIN cows c ON c.id = h.cow_id " +
+            "JOIN transponders t ON t.id = h.transponder_id " +
+            "ORDER BY h.id",
+            null);
+
+    private final String slug;
+    private final String sql;
+    private final String activeOnlyFilter;
+
+    ExportDataset(String slug, String sql, String activeOnlyFilter) {
+        this.slug = slug;
+        this.sql = sql;
+        this.activeOnlyFilter = activeOnlyFilter;
+    }
+
+    public String slug() {
+        return slug;
+    }
+
+    public String sql(boolean activeOnly) {
+        if (!sql.contains("%s")) {
+            return sql;
+        }
+        return String.format(sql, activeOnly && activeOnlyFilter != null ? activeOnlyFilter : "");
+    }
+
+    public static ExportDataset fromSlug(String slug) {
+        for (ExportDataset d : values()) {
+            if (d.slug.equalsIgnoreCase(slug)) {
+                return d;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export: " + slug);
+    }
+}
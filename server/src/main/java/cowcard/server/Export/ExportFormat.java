@@ -0,0 +1,32 @@
+package cowcard.server.Export;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat from(String format) {
+        if (format == null || format.isBlank() || format.equalsIgnoreCase("ndjson")) {
+            return NDJSON;
+        }
+        if (format.equalsIgnoreCase("csv")) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+    }
+}
@@ -0,0 +1,15 @@
+package cowcard.server.Export;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Writes the current row of a forward-only cursor; nothing is buffered beyond the output stream
+interface ExportRowWriter {
+
+    void header(String[] columns) throws IOException;
+
+    void row(ResultSet rs, String[] columns) throws IOException, SQLException;
+
+    void finish() throws IOException;
+}
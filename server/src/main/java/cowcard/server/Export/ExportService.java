@@ -0,0 +1,97 @@
+package cowcard.server.Export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSetMetaData;
+import java.util.concurrent.Semaphore;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import tools.jackson.databind.ObjectMapper;
+
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cowcard.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${cowcard.export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    private JdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private Semaphore slots;
+
+    @PostConstruct
+    void init() {
+        // PostgreSQL only streams with a fetch size inside a transaction (autocommit off);
+        // otherwise the driver materialises the whole result set in memory
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        slots = new Semaphore(maxConcurrent);
+    }
+
+    // An export pins a pooled connection for the whole download, so only a few may run at once
+    public boolean tryAcquire() {
+        return slots.tryAcquire();
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    public long export(ExportDataset dataset, ExportFormat format, boolean activeOnly, OutputStream out) {
+        long start = System.currentTimeMillis();
+        ExportRowWriter writer = format == ExportFormat.CSV
+                ? new CsvRowWriter(out)
+                : new NdjsonRowWriter(objectMapper, out);
+        long[] rows = {0};
+
+        readOnlyTransaction.executeWithoutResult(status -> cursorTemplate.query(dataset.sql(activeOnly), rs -> {
+            try {
+                ResultSetMetaData meta = rs.getMetaData();
+                String[] columns = new String[meta.getColumnCount()];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = meta.getColumnLabel(i + 1);
+                }
+                writer.header(columns);
+                while (rs.next()) {
+                    writer.row(rs, columns);
+                    rows[0]++;
+                }
+                writer.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }));
+
+        log.info("Exported {} {} rows as {} in {} ms", rows[0], dataset.slug(), format,
+                System.currentTimeMillis() - start);
+        return rows[0];
+    }
+}
@@ -0,0 +1,60 @@
+package cowcard.server.Export;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+class NdjsonRowWriter implements ExportRowWriter {
+
+    private final JsonGenerator json;
+
+    NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out) {
+        // Rows end with an explicit '\n'; the default root separator would prefix every row after the first with a space
+        this.json = objectMapper.writer().withRootValueSeparator("").createGenerator(out);
+    }
+
+    @Override
+    public void header(String[] columns) {
+    }
+
+    @Override
+    public void row(ResultSet rs, String[] columns) throws SQLException {
+        json.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            json.writeName(columns[i]);
+            Object value = rs.getObject(i + 1);
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof Integer n) {
+                json.writeNumber(n);
+            } else if (value instanceof Long n) {
+                json.writeNumber(n);
+            } else if (value instanceof BigDecimal n) {
+                json.writeNumber(n);
+            } else if (value instanceof Boolean b) {
+                json.writeBoolean(b);
+            } else if (value instanceof Timestamp ts) {
+                json.writeString(ts.toLocalDateTime().toString());
+            } else if (value instanceof java.sql.Date d) {
+                json.writeString(d.toLocalDate().toString());
+            } else if (value instanceof Time t) {
+                json.writeString(t.toLocalTime().toString());
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() {
+        json.flush();
+    }
+}
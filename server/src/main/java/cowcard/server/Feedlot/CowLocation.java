@@ -0,0 +1,14 @@
+package cowcard.server.Feedlot;
+
+import java.time.LocalDateTime;
+
+// feedlotId is null when the cow was in no feedlot at that moment
+public record CowLocation(
+        Integer cowId,
+        String tag,
+        LocalDateTime at,
+        Integer feedlotId,
+        String feedlotName,
+        LocalDateTime movedInAt,
+        LocalDateTime movedOutAt) {
+}
@@ -1,8 +1,10 @@
 package cowcard.server.Feedlot;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import cowcard.server.Common.ServerRes;
@@ -22,6 +25,9 @@ public class FeedlotController {
     @Autowired
     private FeedlotService feedlotService;
 
+    @Autowired
+    private FeedlotTimelineService feedlotTimelineService;
+
     @GetMapping("/all")
     public ServerRes<List<FeedlotDto>> getAll() {
         var auth = SecurityContextHolder.getContext().getAuthentication();
@@ -61,19 +67,40 @@ public class FeedlotController {
         return feedlotService.unassign(cowId);
     }
 
+    // Who was in the pen at a moment in time (defaults to now)
+    @GetMapping("/{id}/occupancy")
+    public ServerRes<FeedlotSnapshot> getOccupancy(@PathVariable Integer id,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            return ServerRes.success(feedlotTimelineService.getSnapshot(id, at != null ? at : LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            return ServerRes.<FeedlotSnapshot>error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/cow-location/{cowId}")
+    public ServerRes<CowLocation> getCowLocation(@PathVariable Integer cowId,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            return ServerRes.success(feedlotTimelineService.getLocation(cowId, at != null ? at : LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            return ServerRes.<CowLocation>error(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}/with-cows")
     public ServerRes<FeedlotWithCows> getWithCows(@PathVariable Integer id) {
         return feedlotService.getWithCows(id);
     }
 
     @PutMapping("/assign-bulk/{feedlotId}")
-    public ServerRes<FeedlotWithCows> assignBulk(@PathVariable Integer feedlotId,
+    public ServerRes<FeedlotMovementSummary> assignBulk(@PathVariable Integer feedlotId,
             @RequestBody List<Integer> cowIds) {
         return feedlotService.assignBulk(feedlotId, cowIds);
     }
 
     @PutMapping("/unassign-bulk")
-    public ServerRes<Void> unassignBulk(@RequestBody List<Integer> cowIds) {
+    public ServerRes<FeedlotMovementSummary> unassignBulk(@RequestBody List<Integer> cowIds) {
         return feedlotService.unassignBulk(cowIds);
     }
 }
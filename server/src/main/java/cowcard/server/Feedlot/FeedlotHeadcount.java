@@ -0,0 +1,4 @@
+package cowcard.server.Feedlot;
+
+public record FeedlotHeadcount(Integer feedlotId, Long cowCount) {
+}
@@ -0,0 +1,7 @@
+package cowcard.server.Feedlot;
+
+import java.time.LocalDateTime;
+
+// A change of Cow.currentFeedlot at a given moment; null on either side means "no feedlot"
+public record FeedlotMove(Integer cowId, Integer fromFeedlotId, Integer toFeedlotId, LocalDateTime at) {
+}
@@ -0,0 +1,184 @@
+package cowcard.server.Feedlot;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Moves a whole group of cows with a fixed number of statements: one row lock on the
+// cows, one read of the current placement, one UPDATE closing open history, one batched
+// INSERT and one UPDATE of cows.current_feedlot_id. Callers own the transaction.
+@Component
+public class FeedlotMovementEngine {
+
+    // Locks are taken in id order so overlapping moves queue up instead of deadlocking.
+    // Placement is read by a separate statement afterwards: under READ COMMITTED its fresh
+    // snapshot sees the history written by a move we waited on, which a locking read joined
+    // to cow_feedlot_history would not.
+    private static final String LOCK_COWS = "SELECT c.id FROM cows c WHERE c.id = ANY(?) ORDER BY c.id FOR UPDATE OF c";
+
+    private static final String CURRENT_PLACEMENT = "SELECT c.id, c.current_feedlot_id, h.feedlot_id " +
+            "FROM cows c LEFT JOIN cow_feedlot_history h ON h.cow_id = c.id AND h.moved_out_at IS NULL " +
+            "WHERE c.id = ANY(?)";
+
+    private static final String CLOSE_OPEN_HISTORY = "UPDATE cow_feedlot_history " +
+            "SET moved_out_at = ?, updated_at = ?, updated_by = ? " +
+            "WHERE cow_id = ANY(?) AND moved_out_at IS NULL";
+
+    private static final String INSERT_HISTORY = "INSERT INTO cow_feedlot_history " +
+            "(cow_id, feedlot_id, moved_in_at, created_at, created_by, updated_at, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SET_CURRENT_FEEDLOT = "UPDATE cows " +
+            "SET current_feedlot_id = ?, updated_at = ?, updated_by = ? WHERE id = ANY(?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditorAware<UUID> auditorAware;
+
+    // targetFeedlotId null takes the cows out of any feedlot
+    public Outcome move(Integer targetFeedlotId, List<Integer> cowIds) {
+        Set<Integer> requested = new LinkedHashSet<>();
+        for (Integer id : cowIds) {
+            if (id != null) {
+                requested.add(id);
+            }
+        }
+        Map<Integer, Placement> placements = currentPlacement(requested);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Integer> notFound = new ArrayList<>();
+        List<FeedlotMove> moves = new ArrayList<>();
+        Map<Integer, Integer> movedFrom = new LinkedHashMap<>();
+        int unchanged = 0;
+        int movedFromNone = 0;
+        for (Integer cowId : requested) {
+            Placement p = placements.get(cowId);
+            if (p == null) {
+                notFound.add(cowId);
+            } else if (p.isIn(targetFeedlotId)) {
+                unchanged++;
+            } else {
+                moves.add(new FeedlotMove(cowId, p.currentFeedlotId, targetFeedlotId, now));
+                if (p.currentFeedlotId == null) {
+                    movedFromNone++;
+                } else {
+                    movedFrom.merge(p.currentFeedlotId, 1, Integer::sum);
+                }
+            }
+        }
+
+        if (!moves.isEmpty()) {
+            apply(targetFeedlotId, moves, now);
+        }
+        return new Outcome(new FeedlotMovementSummary(targetFeedlotId, requested.size(), moves.size(),
+                unchanged, movedFrom, movedFromNone, notFound), moves);
+    }
+
+    private Map<Integer, Placement> currentPlacement(Set<Integer> cowIds) {
+        Map<Integer, Placement> placements = new HashMap<>(cowIds.size() * 2);
+        if (cowIds.isEmpty()) {
+            return placements;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOCK_COWS);
+            ps.setArray(1, con.createArrayOf("integer", cowIds.toArray()));
+            return ps;
+        }, rs -> {
+            // Only the locks are wanted
+        });
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CURRENT_PLACEMENT);
+            ps.setArray(1, con.createArrayOf("integer", cowIds.toArray()));
+            return ps;
+        }, rs -> {
+            Placement p = placements.computeIfAbsent(rs.getInt(1), k -> new Placement());
+            p.currentFeedlotId = (Integer) rs.getObject(2);
+            Integer open = (Integer) rs.getObject(3);
+            if (open != null) {
+                p.openFeedlotIds.add(open);
+            }
+        });
+        return placements;
+    }
+
+    private void apply(Integer targetFeedlotId, List<FeedlotMove> moves, LocalDateTime at) {
+        Timestamp now = Timestamp.valueOf(at);
+        UUID auditor = auditorAware.getCurrentAuditor().orElse(null);
+        Integer[] moved = moves.stream().map(FeedlotMove::cowId).toArray(Integer[]::new);
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(CLOSE_OPEN_HISTORY);
+            ps.setTimestamp(1, now);
+            ps.setTimestamp(2, now);
+            ps.setObject(3, auditor, Types.OTHER);
+            ps.setArray(4, con.createArrayOf("integer", moved));
+            return ps;
+        });
+
+        if (targetFeedlotId != null) {
+            jdbcTemplate.batchUpdate(INSERT_HISTORY, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setInt(1, moved[i]);
+                    ps.setInt(2, targetFeedlotId);
+                    ps.setTimestamp(3, now);
+                    ps.setTimestamp(4, now);
+                    ps.setObject(5, auditor, Types.OTHER);
+                    ps.setTimestamp(6, now);
+                    ps.setObject(7, auditor, Types.OTHER);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return moved.length;
+                }
+            });
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SET_CURRENT_FEEDLOT);
+            ps.setObject(1, targetFeedlotId, Types.INTEGER);
+            ps.setTimestamp(2, now);
+            ps.setObject(3, auditor, Types.OTHER);
+            ps.setArray(4, con.createArrayOf("integer", moved));
+            return ps;
+        });
+    }
+
+    public record Outcome(FeedlotMovementSummary summary, List<FeedlotMove> moves) {
+    }
+
+    private static final class Placement {
+        Integer currentFeedlotId;
+        final List<Integer> openFeedlotIds = new ArrayList<>(1);
+
+        // Already where it should be, with exactly the matching open history row (if any)
+        boolean isIn(Integer feedlotId) {
+            if (!Objects.equals(currentFeedlotId, feedlotId)) {
+                return false;
+            }
+            return feedlotId == null
+                    ? openFeedlotIds.isEmpty()
+                    : openFeedlotIds.size() == 1 && openFeedlotIds.get(0).equals(feedlotId);
+        }
+    }
+}
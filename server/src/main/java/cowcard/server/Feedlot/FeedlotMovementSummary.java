@@ -0,0 +1,16 @@
+package cowcard.server.Feedlot;
+
+import java.util.List;
+import java.util.Map;
+
+// Result of a bulk move; feedlotId is null for an unassign. movedFrom counts
+// moved cows by the feedlot they left; movedFromNone had no feedlot before.
+public record FeedlotMovementSummary(
+        Integer feedlotId,
+        int requested,
+        int moved,
+        int unchanged,
+        Map<Integer, Integer> movedFrom,
+        int movedFromNone,
+        List<Integer> notFound) {
+}
@@ -0,0 +1,143 @@
+package cowcard.server.Feedlot;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cowcard.server.Cow.CowRepository;
+import jakarta.annotation.PostConstruct;
+
+// Headcount per feedlot (cows whose currentFeedlot points at it), seeded from one
+// GROUP BY and kept current by FeedlotService.afterMoves
+@Component
+public class FeedlotOccupancy {
+
+    @Autowired
+    private CowRepository cowRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate snapshot;
+
+    private volatile Map<Integer, Long> counts;
+
+    // Guards the map swap against apply(); moves seen while a reload reads the table
+    private final Object moveLock = new Object();
+    private List<FeedlotMove> pendingMoves;
+
+    @PostConstruct
+    void init() {
+        // The headcounts and the pending cows' feedlots must come from one snapshot
+        snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public long count(Integer feedlotId) {
+        return counts().getOrDefault(feedlotId, 0L);
+    }
+
+    public void apply(List<FeedlotMove> moves) {
+        synchronized (moveLock) {
+            Map<Integer, Long> current = counts;
+            if (current != null) {
+                for (FeedlotMove m : moves) {
+                    move(current, m.fromFeedlotId(), m.toFeedlotId());
+                }
+            }
+            if (pendingMoves != null) {
+                pendingMoves.addAll(moves);
+            }
+        }
+    }
+
+    // Moves that commit while the headcounts are read are buffered. A count cannot say
+    // which of them it already includes, so each buffered cow is moved from the feedlot
+    // the snapshot has it in to where its last move put it; that is a no-op when the
+    // snapshot already saw every move, and counts each move once otherwise
+    public synchronized void reload() {
+        synchronized (moveLock) {
+            pendingMoves = new ArrayList<>();
+        }
+        try {
+            snapshot.executeWithoutResult(status -> {
+                Map<Integer, Long> loaded = new ConcurrentHashMap<>();
+                for (FeedlotHeadcount h : cowRepository.countGroupByCurrentFeedlot()) {
+                    loaded.put(h.feedlotId(), h.cowCount());
+                }
+                synchronized (moveLock) {
+                    Map<Integer, Integer> finalFeedlot = new LinkedHashMap<>();
+                    for (FeedlotMove m : pendingMoves) {
+                        finalFeedlot.put(m.cowId(), m.toFeedlotId());
+                    }
+                    Map<Integer, Integer> seenFeedlot = feedlotsInSnapshot(finalFeedlot.keySet().toArray(Integer[]::new));
+                    finalFeedlot.forEach((cowId, to) -> move(loaded, seenFeedlot.get(cowId), to));
+                    counts = loaded;
+                }
+            });
+        } finally {
+            synchronized (moveLock) {
+                pendingMoves = null;
+            }
+        }
+    }
+
+    private Map<Integer, Long> counts() {
+        Map<Integer, Long> current = counts;
+        if (current == null) {
+            synchronized (this) {
+                if (counts == null) {
+                    reload();
+                }
+                current = counts;
+            }
+        }
+        return current;
+    }
+
+    private Map<Integer, Integer> feedlotsInSnapshot(Integer[] cowIds) {
+        Map<Integer, Integer> feedlotOf = new HashMap<>();
+        if (cowIds.length == 0) {
+            return feedlotOf;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, current_feedlot_id FROM cows WHERE id = ANY(?)");
+            Array array = con.createArrayOf("integer", cowIds);
+            ps.setArray(1, array);
+            return ps;
+        }, rs -> {
+            int feedlotId = rs.getInt(2);
+            feedlotOf.put(rs.getInt(1), rs.wasNull() ? null : feedlotId);
+        });
+        return feedlotOf;
+    }
+
+    private static void move(Map<Integer, Long> counts, Integer from, Integer to) {
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        if (from != null) {
+            counts.merge(from, -1L, Long::sum);
+        }
+        if (to != null) {
+            counts.merge(to, 1L, Long::sum);
+        }
+    }
+}
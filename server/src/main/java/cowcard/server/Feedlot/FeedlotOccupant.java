@@ -0,0 +1,10 @@
+package cowcard.server.Feedlot;
+
+import java.time.LocalDateTime;
+
+public record FeedlotOccupant(Integer cowId, String tag, LocalDateTime movedInAt, LocalDateTime movedOutAt) {
+
+    public static FeedlotOccupant from(FeedlotStay stay, String tag) {
+        return new FeedlotOccupant(stay.cowId(), tag, stay.movedInAt(), stay.movedOutAt());
+    }
+}
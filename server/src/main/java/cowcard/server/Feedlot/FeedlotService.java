@@ -1,20 +1,28 @@
 package cowcard.server.Feedlot;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import cowcard.server.Common.AfterCommit;
 import cowcard.server.Common.ServerRes;
 import cowcard.server.Cow.Cow;
 import cowcard.server.Cow.CowRepository;
 import cowcard.server.Cow.CowView;
 import cowcard.server.CowFeedlotHistory.CowFeedlotHistory;
 import cowcard.server.CowFeedlotHistory.CowFeedlotHistoryRepository;
+import cowcard.server.FeedlotAnalytics.FeedlotAnalyticsService;
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.LiveEvent.LiveTopic;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.Transponder.TransponderCodeIndex;
 
 @Service
 public class FeedlotService {
@@ -28,26 +36,79 @@ public class FeedlotService {
     @Autowired
     private CowFeedlotHistoryRepository cowFeedlotHistoryRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private FeedlotOccupancy feedlotOccupancy;
+
+    @Autowired
+    private FeedlotMovementEngine feedlotMovementEngine;
+
+    @Autowired
+    private FeedlotTimelineService feedlotTimelineService;
+
+    @Autowired
+    private FeedlotAnalyticsService feedlotAnalyticsService;
+
+    @Autowired
+    private LiveEventPublisher liveEventPublisher;
+
+    @Autowired
+    private TransponderCodeIndex transponderCodeIndex;
+
     public List<Feedlot> findAll() {
         return feedlotRepository.findAll();
     }
 
     public List<Feedlot> findAllActive() {
-        return feedlotRepository.findByActiveTrue();
+        return referenceDataCache.findAllActive(Feedlot.class);
     }
 
     public List<FeedlotDto> findAllDto() {
-        return feedlotRepository.findAll().stream()
-                .map(f -> FeedlotDto.from(f, cowRepository.countByCurrentFeedlotId(f.getId())))
+        return referenceDataCache.table(Feedlot.class).findAll().stream()
+                .map(f -> FeedlotDto.from(f, feedlotOccupancy.count(f.getId())))
                 .toList();
     }
 
     public List<FeedlotDto> findAllActiveDto() {
-        return feedlotRepository.findByActiveTrue().stream()
-                .map(f -> FeedlotDto.from(f, cowRepository.countByCurrentFeedlotId(f.getId())))
+        return referenceDataCache.findAllActive(Feedlot.class).stream()
+                .map(f -> FeedlotDto.from(f, feedlotOccupancy.count(f.getId())))
                 .toList();
     }
 
+    // Every path that changes Cow.currentFeedlot reports here; in-memory views
+    // are only updated once the move has committed
+    public void afterMoves(List<FeedlotMove> moves) {
+        if (moves.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            feedlotOccupancy.apply(moves);
+            feedlotTimelineService.apply(moves);
+            feedlotAnalyticsService.apply(moves);
+            transponderCodeIndex.onCowsMoved(moves);
+            publishMoves(moves);
+        });
+    }
+
+    private void publishMoves(List<FeedlotMove> moves) {
+        Set<Integer> touched = new HashSet<>();
+        for (FeedlotMove m : moves) {
+            liveEventPublisher.publishCommitted(LiveTopic.FEEDLOT, "moved", "cow:" + m.cowId(), m);
+            if (m.fromFeedlotId() != null) {
+                touched.add(m.fromFeedlotId());
+            }
+            if (m.toFeedlotId() != null) {
+                touched.add(m.toFeedlotId());
+            }
+        }
+        for (Integer feedlotId : touched) {
+            liveEventPublisher.publishCommitted(LiveTopic.FEEDLOT, "headcount", "feedlot:" + feedlotId,
+                    new FeedlotHeadcount(feedlotId, feedlotOccupancy.count(feedlotId)));
+        }
+    }
+
     public FeedlotDetail getDetail(Integer id) {
         Feedlot feedlot = feedlotRepository.findById(id).orElseThrow();
         List<FeedlotCowSummary> cows = cowRepository.findByCurrentFeedlotIdOrderByTag(id).stream()
@@ -60,29 +121,36 @@ public class FeedlotService {
     public Feedlot toggleActive(Integer id) {
         Feedlot e = feedlotRepository.findById(id).orElseThrow();
         e.setActive(e.getActive() == null || !e.getActive());
-        return feedlotRepository.save(e);
+        Feedlot saved = feedlotRepository.save(e);
+        referenceDataCache.invalidate(Feedlot.class);
+        return saved;
     }
 
     public Feedlot create(Feedlot feedlot) {
         feedlot.setActive(true);
-        return feedlotRepository.save(feedlot);
+        Feedlot saved = feedlotRepository.save(feedlot);
+        referenceDataCache.invalidate(Feedlot.class);
+        return saved;
     }
 
     public Feedlot update(Integer id, Feedlot feedlot) {
         Feedlot e = feedlotRepository.findById(id).orElseThrow();
         e.setName(feedlot.getName());
         e.setRemark(feedlot.getRemark());
-        return feedlotRepository.save(e);
+        Feedlot saved = feedlotRepository.save(e);
+        referenceDataCache.invalidate(Feedlot.class);
+        return saved;
     }
 
     @Transactional
     public ServerRes<Feedlot> assign(Integer feedlotId, Integer cowId) {
-        Feedlot feedlot = feedlotRepository.findById(feedlotId).orElse(null);
+        Feedlot feedlot = referenceDataCache.findById(Feedlot.class, feedlotId).orElse(null);
         if (feedlot == null) {
             return ServerRes.<Feedlot>error("Feedlot with id " + feedlotId + " not found");
         }
 
-        Cow cow = cowRepository.findById(cowId).orElse(null);
+        // Locked before its history is read, so a concurrent move of the same cow waits
+        Cow cow = cowRepository.findByIdForUpdate(cowId).orElse(null);
         if (cow == null) {
             return ServerRes.<Feedlot>error("Cow with id " + cowId + " not found");
         }
@@ -96,9 +164,10 @@ public class FeedlotService {
         Optional<CowFeedlotHistory> existingActive = cowFeedlotHistoryRepository
                 .findByCowAndMovedOutAtIsNull(cow);
 
+        LocalDateTime now = LocalDateTime.now();
         if (existingActive.isPresent()) {
             CowFeedlotHistory oldHistory = existingActive.get();
-            oldHistory.setMovedOutAt(LocalDateTime.now());
+            oldHistory.setMovedOutAt(now);
             cowFeedlotHistoryRepository.save(oldHistory);
         }
 
@@ -106,19 +175,21 @@ public class FeedlotService {
         CowFeedlotHistory history = new CowFeedlotHistory();
         history.setCow(cow);
         history.setFeedlot(feedlot);
-        history.setMovedInAt(LocalDateTime.now());
+        history.setMovedInAt(now);
         cowFeedlotHistoryRepository.save(history);
 
         // Update cow's current feedlot reference
+        Integer previousFeedlotId = cow.getCurrentFeedlot() != null ? cow.getCurrentFeedlot().getId() : null;
         cow.setCurrentFeedlot(feedlot);
         cowRepository.save(cow);
+        afterMoves(List.of(new FeedlotMove(cow.getId(), previousFeedlotId, feedlotId, now)));
 
         return ServerRes.success(feedlot, "Cow moved to feedlot successfully");
     }
 
     @Transactional
     public ServerRes<Feedlot> unassign(Integer cowId) {
-        Cow cow = cowRepository.findById(cowId).orElse(null);
+        Cow cow = cowRepository.findByIdForUpdate(cowId).orElse(null);
         if (cow == null) {
             return ServerRes.<Feedlot>error("Cow with id " + cowId + " not found");
         }
@@ -131,21 +202,24 @@ public class FeedlotService {
         }
 
         // Close the history record
+        LocalDateTime now = LocalDateTime.now();
         CowFeedlotHistory history = activeHistory.get();
-        history.setMovedOutAt(LocalDateTime.now());
+        history.setMovedOutAt(now);
         cowFeedlotHistoryRepository.save(history);
 
         Feedlot feedlot = history.getFeedlot();
 
         // Clear the cow's current feedlot reference
+        Integer previousFeedlotId = cow.getCurrentFeedlot() != null ? cow.getCurrentFeedlot().getId() : null;
         cow.setCurrentFeedlot(null);
         cowRepository.save(cow);
+        afterMoves(List.of(new FeedlotMove(cow.getId(), previousFeedlotId, null, now)));
 
         return ServerRes.success(feedlot, "Cow removed from feedlot successfully");
     }
 
     public ServerRes<FeedlotWithCows> getWithCows(Integer feedlotId) {
-        Feedlot feedlot = feedlotRepository.findById(feedlotId).orElse(null);
+        Feedlot feedlot = referenceDataCache.findById(Feedlot.class, feedlotId).orElse(null);
         if (feedlot == null) {
             return ServerRes.<FeedlotWithCows>error("Feedlot with id " + feedlotId + " not found");
         }
@@ -162,88 +236,29 @@ public class FeedlotService {
     }
 
     @Transactional
-    public ServerRes<FeedlotWithCows> assignBulk(Integer feedlotId, List<Integer> cowIds) {
-        Feedlot feedlot = feedlotRepository.findById(feedlotId).orElse(null);
+    public ServerRes<FeedlotMovementSummary> assignBulk(Integer feedlotId, List<Integer> cowIds) {
+        Feedlot feedlot = referenceDataCache.findById(Feedlot.class, feedlotId).orElse(null);
         if (feedlot == null) {
-            return ServerRes.<FeedlotWithCows>error("Feedlot with id " + feedlotId + " not found");
-        }
-
-        List<Cow> cows = cowRepository.findAllById(cowIds);
-        if (cows.isEmpty()) {
-            return ServerRes.<FeedlotWithCows>error("No valid cows found for the given IDs");
-        }
-
-        LocalDateTime now = LocalDateTime.now();
-
-        // Fetch all active feedlot history records for these cows in one query
-        List<CowFeedlotHistory> activeHistories = cowFeedlotHistoryRepository
-                .findByCowInAndMovedOutAtIsNull(cows);
-
-        for (Cow cow : cows) {
-            // Find existing active history for this cow (if any)
-            Optional<CowFeedlotHistory> existingActive = activeHistories.stream()
-                    .filter(h -> h.getCow().getId().equals(cow.getId()))
-                    .findFirst();
-
-            if (existingActive.isPresent()) {
-                CowFeedlotHistory activeHistory = existingActive.get();
-
-                // If already in this feedlot, skip
-                if (activeHistory.getFeedlot().getId().equals(feedlotId)) {
-                    continue;
-                }
-
-                // Close the old history record
-                activeHistory.setMovedOutAt(now);
-                cowFeedlotHistoryRepository.save(activeHistory);
-            }
-
-            // Create new history record
-            CowFeedlotHistory history = new CowFeedlotHistory();
-            history.setCow(cow);
-            history.setFeedlot(feedlot);
-            history.setMovedInAt(now);
-            cowFeedlotHistoryRepository.save(history);
-
-            // Update cow's current feedlot reference
-            cow.setCurrentFeedlot(feedlot);
-            cowRepository.save(cow);
+            return ServerRes.<FeedlotMovementSummary>error("Feedlot with id " + feedlotId + " not found");
         }
-
-        // Return updated feedlot with cows
-        List<CowFeedlotHistory> updatedHistories = cowFeedlotHistoryRepository
-                .findByFeedlotAndMovedOutAtIsNull(feedlot);
-
-        List<CowView> cowViews = updatedHistories.stream()
-                .map(h -> CowView.from(h.getCow()))
-                .collect(Collectors.toList());
-
-        return ServerRes.success(FeedlotWithCows.from(feedlot, cowViews),
-                "Cows assigned to feedlot successfully");
+        return moveBulk(feedlotId, cowIds, "Cows assigned to feedlot successfully");
     }
 
     @Transactional
-    public ServerRes<Void> unassignBulk(List<Integer> cowIds) {
-        List<Cow> cows = cowRepository.findAllById(cowIds);
-        if (cows.isEmpty()) {
-            return ServerRes.<Void>error("No valid cows found for the given IDs");
-        }
-
-        LocalDateTime now = LocalDateTime.now();
-
-        List<CowFeedlotHistory> activeHistories = cowFeedlotHistoryRepository
-                .findByCowInAndMovedOutAtIsNull(cows);
-
-        for (CowFeedlotHistory history : activeHistories) {
-            history.setMovedOutAt(now);
-            cowFeedlotHistoryRepository.save(history);
+    public ServerRes<FeedlotMovementSummary> unassignBulk(List<Integer> cowIds) {
+        return moveBulk(null, cowIds, "Cows unassigned from feedlot successfully");
+    }
 
-            // Clear the cow's current feedlot reference
-            Cow cow = history.getCow();
-            cow.setCurrentFeedlot(null);
-            cowRepository.save(cow);
+    private ServerRes<FeedlotMovementSummary> moveBulk(Integer feedlotId, List<Integer> cowIds, String message) {
+        if (cowIds == null || cowIds.isEmpty()) {
+            return ServerRes.<FeedlotMovementSummary>error("No valid cows found for the given IDs");
         }
-
-        return ServerRes.success(null, "Cows unassigned from feedlot successfully");
+        FeedlotMovementEngine.Outcome outcome = feedlotMovementEngine.move(feedlotId, cowIds);
+        FeedlotMovementSummary summary = outcome.summary();
+        if (summary.notFound().size() == summary.requested()) {
+            return ServerRes.<FeedlotMovementSummary>error("No valid cows found for the given IDs");
+        }
+        afterMoves(outcome.moves());
+        return ServerRes.success(summary, message);
     }
 }
@@ -0,0 +1,12 @@
+package cowcard.server.Feedlot;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record FeedlotSnapshot(
+        Integer feedlotId,
+        String feedlotName,
+        LocalDateTime at,
+        int cowCount,
+        List<FeedlotOccupant> cows) {
+}
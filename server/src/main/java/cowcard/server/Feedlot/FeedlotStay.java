@@ -0,0 +1,7 @@
+package cowcard.server.Feedlot;
+
+import java.time.LocalDateTime;
+
+// One cow_feedlot_history interval; movedOutAt is null while the cow is still in the pen
+public record FeedlotStay(Integer cowId, Integer feedlotId, LocalDateTime movedInAt, LocalDateTime movedOutAt) {
+}
@@ -0,0 +1,286 @@
+package cowcard.server.Feedlot;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// cow_feedlot_history as half-open [movedIn, movedOut) intervals in epoch seconds.
+// Each pen keeps its stays sorted by start with a max-end segment tree on top, so
+// "who was in pen X at t" is a binary search on start plus a descent that only
+// enters subtrees with some stay still open at t. Each cow keeps its own stays in
+// start order, so "where was cow Y at t" is one binary search.
+public class FeedlotStayIndex {
+
+    private static final long OPEN = Long.MAX_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Pen> pens = new HashMap<>();
+    private final Map<Integer, Timeline> timelines = new HashMap<>();
+    private int stays;
+
+    // Bulk load; stays should arrive in moved_in_at order so every pen is an append
+    public void load(int cowId, int feedlotId, LocalDateTime movedIn, LocalDateTime movedOut) {
+        long start = epochSecond(movedIn);
+        long end = movedOut == null ? OPEN : epochSecond(movedOut);
+        pens.computeIfAbsent(feedlotId, k -> new Pen()).add(cowId, start, end);
+        timelines.computeIfAbsent(cowId, k -> new Timeline()).add(feedlotId, start, end);
+        stays++;
+    }
+
+    // Segment trees are built once after the bulk load rather than per row
+    public void finishLoad() {
+        pens.values().forEach(Pen::build);
+    }
+
+    public void apply(List<FeedlotMove> moves) {
+        lock.writeLock().lock();
+        try {
+            for (FeedlotMove m : moves) {
+                long at = epochSecond(m.at());
+                Timeline timeline = timelines.computeIfAbsent(m.cowId(), k -> new Timeline());
+                // Close whatever stays are open, which is what the UPDATE on history did
+                for (int open = timeline.closeOpen(at); open != Timeline.NONE; open = timeline.closeOpen(at)) {
+                    pens.get(open).close(m.cowId(), at);
+                }
+                if (m.toFeedlotId() != null) {
+                    Pen pen = pens.computeIfAbsent(m.toFeedlotId(), k -> new Pen());
+                    pen.add(m.cowId(), at, OPEN);
+                    if (pen.tree == null) {
+                        pen.build();
+                    }
+                    timeline.add(m.toFeedlotId(), at, OPEN);
+                    stays++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Whether the loaded history already contains this move, i.e. the cow has a stay starting
+    // or ending at or after it (to the second). Lets a reload replay moves that raced it.
+    public boolean reflects(FeedlotMove m) {
+        lock.readLock().lock();
+        try {
+            Timeline timeline = timelines.get(m.cowId());
+            return timeline != null && timeline.lastEvent() >= epochSecond(m.at());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<FeedlotStay> occupantsAt(int feedlotId, LocalDateTime at) {
+        lock.readLock().lock();
+        try {
+            Pen pen = pens.get(feedlotId);
+            List<FeedlotStay> result = new ArrayList<>();
+            if (pen != null) {
+                pen.collect(epochSecond(at), feedlotId, result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public FeedlotStay locationAt(int cowId, LocalDateTime at) {
+        lock.readLock().lock();
+        try {
+            Timeline timeline = timelines.get(cowId);
+            return timeline == null ? null : timeline.at(cowId, epochSecond(at));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return stays;
+    }
+
+    private static long epochSecond(LocalDateTime at) {
+        return at.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == OPEN ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static final class Pen {
+        private int n;
+        private long[] start = new long[16];
+        private long[] end = new long[16];
+        private int[] cow = new int[16];
+        // Bottom-up segment tree over positions: tree[capacity + i] = end[i]
+        private long[] tree;
+        private int capacity;
+        private final Map<Integer, Integer> openPosition = new HashMap<>();
+
+        void add(int cowId, long s, long e) {
+            if (n == start.length) {
+                start = Arrays.copyOf(start, n * 2);
+                end = Arrays.copyOf(end, n * 2);
+                cow = Arrays.copyOf(cow, n * 2);
+            }
+            int pos = n;
+            if (n > 0 && start[n - 1] > s) {
+                // Out-of-order start (backdated row): shift into place and rebuild
+                int at = upperBound(s);
+                System.arraycopy(start, at, start, at + 1, n - at);
+                System.arraycopy(end, at, end, at + 1, n - at);
+                System.arraycopy(cow, at, cow, at + 1, n - at);
+                openPosition.replaceAll((k, v) -> v >= at ? v + 1 : v);
+                pos = at;
+                tree = null;
+            }
+            start[pos] = s;
+            end[pos] = e;
+            cow[pos] = cowId;
+            n++;
+            if (e == OPEN) {
+                openPosition.put(cowId, pos);
+            }
+            if (tree != null) {
+                if (n > capacity) {
+                    tree = null;
+                } else {
+                    set(pos, e);
+                }
+            }
+        }
+
+        void close(int cowId, long at) {
+            Integer pos = openPosition.remove(cowId);
+            if (pos == null) {
+                return;
+            }
+            end[pos] = at;
+            if (tree != null) {
+                set(pos, at);
+            }
+        }
+
+        void collect(long t, int feedlotId, List<FeedlotStay> out) {
+            int hi = upperBound(t);
+            if (hi > 0) {
+                descend(1, 0, capacity, hi, t, feedlotId, out);
+            }
+        }
+
+        private void descend(int node, int lo, int width, int hi, long t, int feedlotId, List<FeedlotStay> out) {
+            if (lo >= hi || tree[node] <= t) {
+                return;
+            }
+            if (width == 1) {
+                out.add(new FeedlotStay(cow[lo], feedlotId, toDateTime(start[lo]), toDateTime(end[lo])));
+                return;
+            }
+            int half = width / 2;
+            descend(2 * node, lo, half, hi, t, feedlotId, out);
+            descend(2 * node + 1, lo + half, half, hi, t, feedlotId, out);
+        }
+
+        // Number of stays starting at or before t
+        private int upperBound(long t) {
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start[mid] <= t) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        void build() {
+            // Smallest power of two holding n, doubled so appends rarely force a rebuild
+            capacity = Math.max(Integer.highestOneBit(Math.max(n, 1) * 2 - 1) * 2, 16);
+            tree = new long[2 * capacity];
+            Arrays.fill(tree, Long.MIN_VALUE);
+            System.arraycopy(end, 0, tree, capacity, n);
+            for (int i = capacity - 1; i > 0; i--) {
+                tree[i] = Math.max(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+
+        private void set(int pos, long value) {
+            int i = capacity + pos;
+            tree[i] = value;
+            for (i >>= 1; i > 0; i >>= 1) {
+                tree[i] = Math.max(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+    }
+
+    private static final class Timeline {
+        static final int NONE = -1;
+
+        private int n;
+        private long[] start = new long[2];
+        private long[] end = new long[2];
+        private int[] feedlot = new int[2];
+
+        void add(int feedlotId, long s, long e) {
+            if (n == start.length) {
+                start = Arrays.copyOf(start, n * 2);
+                end = Arrays.copyOf(end, n * 2);
+                feedlot = Arrays.copyOf(feedlot, n * 2);
+            }
+            int pos = n;
+            while (pos > 0 && start[pos - 1] > s) {
+                start[pos] = start[pos - 1];
+                end[pos] = end[pos - 1];
+                feedlot[pos] = feedlot[pos - 1];
+                pos--;
+            }
+            start[pos] = s;
+            end[pos] = e;
+            feedlot[pos] = feedlotId;
+            n++;
+        }
+
+        long lastEvent() {
+            long last = Long.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                last = Math.max(last, end[i] == OPEN ? start[i] : Math.max(start[i], end[i]));
+            }
+            return last;
+        }
+
+        // Closes the latest open stay and returns its feedlot, or NONE if nothing was open
+        int closeOpen(long at) {
+            for (int i = n - 1; i >= 0; i--) {
+                if (end[i] == OPEN) {
+                    end[i] = at;
+                    return feedlot[i];
+                }
+            }
+            return NONE;
+        }
+
+        FeedlotStay at(int cowId, long t) {
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start[mid] <= t) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            int i = lo - 1;
+            if (i < 0 || end[i] <= t) {
+                return null;
+            }
+            return new FeedlotStay(cowId, feedlot[i], toDateTime(start[i]), toDateTime(end[i]));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package cowcard.server.Feedlot;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import cowcard.server.Pedigree.PedigreeIndex;
+import cowcard.server.Pedigree.PedigreeService;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+
+// As-of occupancy answered from FeedlotStayIndex instead of scanning cow_feedlot_history
+@Service
+public class FeedlotTimelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedlotTimelineService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PedigreeService pedigreeService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    private volatile FeedlotStayIndex index = new FeedlotStayIndex();
+
+    // Guards the index swap against apply(); moves seen while a reload reads the table
+    private final Object moveLock = new Object();
+    private List<FeedlotMove> pendingMoves;
+
+    // Moves that commit while the table is read are buffered and replayed onto the new
+    // index before it is swapped in, unless the read already saw them
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        synchronized (moveLock) {
+            pendingMoves = new ArrayList<>();
+        }
+        FeedlotStayIndex loaded = new FeedlotStayIndex();
+        jdbcTemplate.query("SELECT cow_id, feedlot_id, moved_in_at, moved_out_at FROM cow_feedlot_history " +
+                "ORDER BY moved_in_at, id", rs -> {
+            Timestamp out = rs.getTimestamp(4);
+            loaded.load(rs.getInt(1), rs.getInt(2), rs.getTimestamp(3).toLocalDateTime(),
+                    out == null ? null : out.toLocalDateTime());
+        });
+        loaded.finishLoad();
+        synchronized (moveLock) {
+            List<FeedlotMove> missed = pendingMoves.stream().filter(m -> !loaded.reflects(m)).toList();
+            loaded.apply(missed);
+            index = loaded;
+            pendingMoves = null;
+        }
+        log.info("Feedlot stay index loaded: {} stays in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    // Called by FeedlotService.afterMoves once the move has committed
+    public void apply(List<FeedlotMove> moves) {
+        synchronized (moveLock) {
+            index.apply(moves);
+            if (pendingMoves != null) {
+                pendingMoves.addAll(moves);
+            }
+        }
+    }
+
+    public FeedlotSnapshot getSnapshot(Integer feedlotId, LocalDateTime at) {
+        Feedlot feedlot = referenceDataCache.findById(Feedlot.class, feedlotId)
+                .orElseThrow(() -> new RuntimeException("Feedlot with id " + feedlotId + " not found"));
+        PedigreeIndex pedigree = pedigreeService.index();
+        List<FeedlotOccupant> cows = index.occupantsAt(feedlotId, at).stream()
+                .map(stay -> FeedlotOccupant.from(stay, pedigree.tagOf(stay.cowId())))
+                .sorted(Comparator.comparing(FeedlotOccupant::tag, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        return new FeedlotSnapshot(feedlot.getId(), feedlot.getName(), at, cows.size(), cows);
+    }
+
+    public CowLocation getLocation(Integer cowId, LocalDateTime at) {
+        String tag = pedigreeService.index().tagOf(cowId);
+        if (tag == null) {
+            throw new RuntimeException("Cow with id " + cowId + " not found");
+        }
+        FeedlotStay stay = index.locationAt(cowId, at);
+        if (stay == null) {
+            return new CowLocation(cowId, tag, at, null, null, null, null);
+        }
+        String feedlotName = referenceDataCache.findById(Feedlot.class, stay.feedlotId())
+                .map(Feedlot::getName).orElse(null);
+        return new CowLocation(cowId, tag, at, stay.feedlotId(), feedlotName, stay.movedInAt(), stay.movedOutAt());
+    }
+}
@@ -0,0 +1,12 @@
+package cowcard.server.FeedlotAnalytics;
+
+import java.time.LocalDate;
+
+// from/to are inclusive and clipped to the requested range
+public record CowDaysBucket(
+        LocalDate from,
+        LocalDate to,
+        long cowDays,
+        double averageHeadcount,
+        long peakHeadcount) {
+}
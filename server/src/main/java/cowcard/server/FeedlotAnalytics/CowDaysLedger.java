@@ -0,0 +1,119 @@
+package cowcard.server.FeedlotAnalytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-day headcount of one feedlot kept as a difference array: a stay adds +1 on its
+// move-in day and -1 on its move-out day, so headcount(d) is a prefix sum. Two Fenwick
+// trees over D[i] and i*D[i] give cow-days over any day range in O(log n), using
+// sum_{j<=d} headcount(j) = (d+1) * sum_{i<=d} D[i] - sum_{i<=d} i*D[i].
+// A cow counts on the days from move-in up to, but excluding, the move-out day.
+public class CowDaysLedger {
+
+    private static final int SLACK_DAYS = 366;
+
+    private long origin;
+    private long[] diff;
+    private long[] sum;
+    private long[] weighted;
+
+    public CowDaysLedger(long firstEpochDay) {
+        origin = firstEpochDay - SLACK_DAYS;
+        diff = new long[4 * SLACK_DAYS];
+        sum = new long[diff.length + 1];
+        weighted = new long[diff.length + 1];
+    }
+
+    public synchronized void add(LocalDate day, long delta) {
+        long epochDay = day.toEpochDay();
+        if (epochDay < origin) {
+            resize(epochDay - SLACK_DAYS, diff.length);
+        }
+        int i = (int) (epochDay - origin);
+        if (i >= diff.length) {
+            resize(origin, Math.max(diff.length * 2, i + SLACK_DAYS));
+        }
+        diff[i] += delta;
+        update(sum, i, delta);
+        update(weighted, i, delta * i);
+    }
+
+    public synchronized long headcount(LocalDate day) {
+        long d = day.toEpochDay() - origin;
+        return d < 0 ? 0 : prefix(sum, d);
+    }
+
+    // Inclusive range
+    public synchronized long cowDays(LocalDate from, LocalDate to) {
+        return cumulative(to.toEpochDay() - origin) - cumulative(from.toEpochDay() - origin - 1);
+    }
+
+    public synchronized List<CowDaysBucket> buckets(LocalDate from, LocalDate to, CowDaysGranularity granularity) {
+        List<CowDaysBucket> result = new ArrayList<>();
+        long head = headcount(from);
+        long d = from.toEpochDay() - origin;
+        LocalDate start = from;
+        boolean first = true;
+        while (!start.isAfter(to)) {
+            LocalDate next = granularity.next(granularity.bucketStart(start));
+            LocalDate end = next.isAfter(to) ? to : next.minusDays(1);
+            long cowDays = 0;
+            long peak = 0;
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1), d++) {
+                if (!first) {
+                    head += d >= 0 && d < diff.length ? diff[(int) d] : 0;
+                }
+                first = false;
+                cowDays += head;
+                peak = Math.max(peak, head);
+            }
+            long days = end.toEpochDay() - start.toEpochDay() + 1;
+            result.add(new CowDaysBucket(start, end, cowDays, (double) cowDays / days, peak));
+            start = end.plusDays(1);
+        }
+        return result;
+    }
+
+    // Sum of headcount over relative days [0, d]
+    private long cumulative(long d) {
+        if (d < 0) {
+            return 0;
+        }
+        return (d + 1) * prefix(sum, d) - prefix(weighted, d);
+    }
+
+    private long prefix(long[] tree, long d) {
+        long total = 0;
+        for (int i = (int) Math.min(d, diff.length - 1) + 1; i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    private static void update(long[] tree, int index, long delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void resize(long newOrigin, int newLength) {
+        int shift = (int) (origin - newOrigin);
+        long[] moved = new long[newLength + shift];
+        System.arraycopy(diff, 0, moved, shift, diff.length);
+        origin = newOrigin;
+        diff = moved;
+        sum = new long[diff.length + 1];
+        weighted = new long[diff.length + 1];
+        // O(n) Fenwick build: push each node into its parent
+        for (int i = 1; i <= diff.length; i++) {
+            sum[i] += diff[i - 1];
+            weighted[i] += diff[i - 1] * (i - 1);
+            int parent = i + (i & -i);
+            if (parent <= diff.length) {
+                sum[parent] += sum[i];
+                weighted[parent] += weighted[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package cowcard.server.FeedlotAnalytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import cowcard.server.Common.ServerRes;
+
+@RestController
+@RequestMapping("/feedlot-analytics")
+public class FeedlotAnalyticsController {
+
+    @Autowired
+    private FeedlotAnalyticsService feedlotAnalyticsService;
+
+    // All feedlots unless feedlotId is given; granularity is DAY, WEEK or MONTH
+    @GetMapping("/cow-days")
+    public ServerRes<List<FeedlotCowDays>> getCowDays(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                      @RequestParam(defaultValue = "DAY") CowDaysGranularity granularity,
+                                                      @RequestParam(required = false) Integer feedlotId) {
+        try {
+            return ServerRes.success(feedlotAnalyticsService.getCowDays(feedlotId, from, to, granularity));
+        } catch (RuntimeException e) {
+            return ServerRes.<List<FeedlotCowDays>>error(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package cowcard.server.FeedlotAnalytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import cowcard.server.Feedlot.Feedlot;
+import cowcard.server.Feedlot.FeedlotMove;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+
+@Service
+public class FeedlotAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedlotAnalyticsService.class);
+
+    private static final int MAX_RANGE_DAYS = 3660;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    @Qualifier("queryExecutor")
+    private ExecutorService queryExecutor;
+
+    private volatile Map<Integer, CowDaysLedger> ledgers = new ConcurrentHashMap<>();
+
+    // Feedlot each cow currently has an open history row in; closes are charged there
+    private volatile Map<Integer, Integer> openFeedlotOfCow = new ConcurrentHashMap<>();
+
+    // Guards the swap against apply(); moves seen while a reload reads the history
+    private final Object moveLock = new Object();
+    private List<FeedlotMove> pendingMoves;
+
+    // Backfill: each feedlot's history is read and rolled up independently on the query executor.
+    // Moves that commit meanwhile are buffered and replayed onto the new ledgers before the swap,
+    // unless the backfill already saw them.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        synchronized (moveLock) {
+            pendingMoves = new ArrayList<>();
+        }
+        Map<Integer, CowDaysLedger> loaded = new ConcurrentHashMap<>();
+        Map<Integer, Integer> open = new ConcurrentHashMap<>();
+        Map<Integer, LocalDateTime> lastEvent = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (Feedlot feedlot : referenceDataCache.table(Feedlot.class).findAll()) {
+            tasks.add(CompletableFuture.runAsync(() -> loaded.put(feedlot.getId(),
+                    backfill(feedlot.getId(), open, lastEvent)), queryExecutor));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        synchronized (moveLock) {
+            // Stored timestamps keep microseconds
+            List<FeedlotMove> missed = pendingMoves.stream().filter(m -> {
+                LocalDateTime last = lastEvent.get(m.cowId());
+                return last == null || last.isBefore(m.at().truncatedTo(ChronoUnit.MICROS));
+            }).toList();
+            apply(missed, loaded, open);
+            ledgers = loaded;
+            openFeedlotOfCow = open;
+            pendingMoves = null;
+        }
+        log.info("Feedlot cow-days backfilled for {} feedlots in {} ms", loaded.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Called by FeedlotService.afterMoves once the move has committed
+    public void apply(List<FeedlotMove> moves) {
+        synchronized (moveLock) {
+            apply(moves, ledgers, openFeedlotOfCow);
+            if (pendingMoves != null) {
+                pendingMoves.addAll(moves);
+            }
+        }
+    }
+
+    private static void apply(List<FeedlotMove> moves, Map<Integer, CowDaysLedger> ledgers,
+                              Map<Integer, Integer> openFeedlotOfCow) {
+        for (FeedlotMove m : moves) {
+            LocalDate day = m.at().toLocalDate();
+            Integer previous = openFeedlotOfCow.remove(m.cowId());
+            if (previous != null) {
+                ledger(ledgers, previous, day).add(day, -1);
+            }
+            if (m.toFeedlotId() != null) {
+                ledger(ledgers, m.toFeedlotId(), day).add(day, 1);
+                openFeedlotOfCow.put(m.cowId(), m.toFeedlotId());
+            }
+        }
+    }
+
+    public List<FeedlotCowDays> getCowDays(Integer feedlotId, LocalDate from, LocalDate to,
+                                           CowDaysGranularity granularity) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_RANGE_DAYS) {
+            throw new RuntimeException("Range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+        List<Feedlot> feedlots = feedlotId != null
+                ? List.of(referenceDataCache.findById(Feedlot.class, feedlotId)
+                        .orElseThrow(() -> new RuntimeException("Feedlot with id " + feedlotId + " not found")))
+                : referenceDataCache.table(Feedlot.class).findAll();
+        List<FeedlotCowDays> result = new ArrayList<>(feedlots.size());
+        for (Feedlot feedlot : feedlots) {
+            CowDaysLedger ledger = ledgers.get(feedlot.getId());
+            if (ledger == null) {
+                result.add(new FeedlotCowDays(feedlot.getId(), feedlot.getName(), 0, List.of()));
+                continue;
+            }
+            result.add(new FeedlotCowDays(feedlot.getId(), feedlot.getName(), ledger.cowDays(from, to),
+                    ledger.buckets(from, to, granularity)));
+        }
+        return result;
+    }
+
+    private CowDaysLedger backfill(Integer feedlotId, Map<Integer, Integer> open,
+                                   Map<Integer, LocalDateTime> lastEvent) {
+        CowDaysLedger ledger = new CowDaysLedger(LocalDate.now().toEpochDay());
+        jdbcTemplate.query("SELECT cow_id, moved_in_at, moved_out_at FROM cow_feedlot_history " +
+                "WHERE feedlot_id = ?", rs -> {
+            int cowId = rs.getInt(1);
+            LocalDateTime movedIn = rs.getTimestamp(2).toLocalDateTime();
+            ledger.add(movedIn.toLocalDate(), 1);
+            lastEvent.merge(cowId, movedIn, (a, b) -> a.isAfter(b) ? a : b);
+            if (rs.getTimestamp(3) == null) {
+                open.put(cowId, feedlotId);
+            } else {
+                LocalDateTime movedOut = rs.getTimestamp(3).toLocalDateTime();
+                ledger.add(movedOut.toLocalDate(), -1);
+                lastEvent.merge(cowId, movedOut, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }, feedlotId);
+        return ledger;
+    }
+
+    private static CowDaysLedger ledger(Map<Integer, CowDaysLedger> ledgers, Integer feedlotId, LocalDate day) {
+        return ledgers.computeIfAbsent(feedlotId, k -> new CowDaysLedger(day.toEpochDay()));
+    }
+}
@@ -0,0 +1,10 @@
+package cowcard.server.FeedlotAnalytics;
+
+import java.util.List;
+
+public record FeedlotCowDays(
+        Integer feedlotId,
+        String feedlotName,
+        long totalCowDays,
+        List<CowDaysBucket> buckets) {
+}
@@ -1,8 +1,10 @@
 package cowcard.server.Inseminator;
 
+import java.time.LocalDate;
+
 import cowcard.server.AiRecord.AiRecord;
 
-public record AiRecordSummaryByInseminator(Integer id, String code, String aiDate, String damTag, String semenName) {
+public record AiRecordSummaryByInseminator(Integer id, String code, LocalDate aiDate, String damTag, String semenName) {
     public static AiRecordSummaryByInseminator from(AiRecord r) {
         return new AiRecordSummaryByInseminator(
                 r.getId(),
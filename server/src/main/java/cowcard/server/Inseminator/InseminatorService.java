@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 
 import cowcard.server.AiRecord.AiRecordRepository;
 import cowcard.server.PregnancyDiagnosis.PregnancyDiagnosisRepository;
+import cowcard.server.ReferenceData.ReferenceDataCache;
 
 @Service
 public class InseminatorService {
@@ -20,23 +21,30 @@ public class InseminatorService {
     @Autowired
     private PregnancyDiagnosisRepository pregnancyDiagnosisRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<Inseminator> findAll() {
         return inseminatorRepository.findAll();
     }
 
     public List<Inseminator> findAllActive() {
-        return inseminatorRepository.findByActiveTrue();
+        return referenceDataCache.findAllActive(Inseminator.class);
     }
 
     public Inseminator toggleActive(Integer id) {
         Inseminator e = inseminatorRepository.findById(id).orElseThrow();
         e.setActive(e.getActive() == null || !e.getActive());
-        return inseminatorRepository.save(e);
+        Inseminator saved = inseminatorRepository.save(e);
+        referenceDataCache.invalidate(Inseminator.class);
+        return saved;
     }
 
     public Inseminator create(Inseminator inseminator) {
         inseminator.setActive(true);
-        return inseminatorRepository.save(inseminator);
+        Inseminator saved = inseminatorRepository.save(inseminator);
+        referenceDataCache.invalidate(Inseminator.class);
+        return saved;
     }
 
     public InseminatorDetail getDetail(Integer id) {
@@ -54,6 +62,8 @@ public class InseminatorService {
         Inseminator e = inseminatorRepository.findById(id).orElseThrow();
         e.setName(inseminator.getName());
         e.setRemark(inseminator.getRemark());
-        return inseminatorRepository.save(e);
+        Inseminator saved = inseminatorRepository.save(e);
+        referenceDataCache.invalidate(Inseminator.class);
+        return saved;
     }
 }
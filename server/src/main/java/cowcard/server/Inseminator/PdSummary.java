@@ -1,8 +1,10 @@
 package cowcard.server.Inseminator;
 
+import java.time.LocalDate;
+
 import cowcard.server.PregnancyDiagnosis.PregnancyDiagnosis;
 
-public record PdSummary(Integer id, String aiDate, String aiRecordCode, String pdStatus) {
+public record PdSummary(Integer id, LocalDate aiDate, String aiRecordCode, String pdStatus) {
     public static PdSummary from(PregnancyDiagnosis pd) {
         return new PdSummary(
                 pd.getId(),
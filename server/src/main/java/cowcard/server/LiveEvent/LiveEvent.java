@@ -0,0 +1,8 @@
+package cowcard.server.LiveEvent;
+
+import java.time.LocalDateTime;
+
+// type is "<topic>.<action>", e.g. "feedlot.moved"; key identifies the entity so that
+// newer events for the same entity replace older ones not yet sent
+public record LiveEvent(String type, String key, Object payload, LocalDateTime at) {
+}
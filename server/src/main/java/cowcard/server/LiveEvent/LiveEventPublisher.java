@@ -0,0 +1,65 @@
+package cowcard.server.LiveEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import cowcard.server.Common.AfterCommit;
+
+// Writers only drop events into a per-topic map keyed by entity and return; a flush
+// every cowcard.live.flush-interval-ms sends each topic's pending events as one frame.
+// Bursts (e.g. a 2,000 head move) coalesce to the latest state per entity, and slow
+// clients are bounded by the broker's per-session send buffer (see WebSocketConfig),
+// so neither can block the request thread that produced the event.
+@Component
+public class LiveEventPublisher {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final Map<LiveTopic, LinkedHashMap<String, LiveEvent>> pending = new EnumMap<>(LiveTopic.class);
+
+    // Published only if and when the surrounding transaction commits
+    public void publish(LiveTopic topic, String action, String key, Object payload) {
+        LiveEvent event = event(topic, action, key, payload);
+        AfterCommit.run(() -> enqueue(topic, event));
+    }
+
+    // For callers already running after commit, where a new synchronization would never fire
+    public void publishCommitted(LiveTopic topic, String action, String key, Object payload) {
+        enqueue(topic, event(topic, action, key, payload));
+    }
+
+    private static LiveEvent event(LiveTopic topic, String action, String key, Object payload) {
+        return new LiveEvent(topic.name().toLowerCase(Locale.ROOT) + "." + action, key, payload, LocalDateTime.now());
+    }
+
+    private synchronized void enqueue(LiveTopic topic, LiveEvent event) {
+        LinkedHashMap<String, LiveEvent> events = pending.computeIfAbsent(topic, k -> new LinkedHashMap<>());
+        // Re-insert so the entity moves to the end and ordering follows the latest change
+        events.remove(event.key());
+        events.put(event.key(), event);
+    }
+
+    @Scheduled(fixedDelayString = "${cowcard.live.flush-interval-ms:250}")
+    public void flush() {
+        Map<LiveTopic, List<LiveEvent>> batch = new EnumMap<>(LiveTopic.class);
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            pending.forEach((topic, events) -> batch.put(topic, new ArrayList<>(events.values())));
+            pending.clear();
+        }
+        batch.forEach((topic, events) -> messagingTemplate.convertAndSend(topic.destination(), events));
+    }
+}
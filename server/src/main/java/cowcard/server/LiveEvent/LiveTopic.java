@@ -0,0 +1,18 @@
+package cowcard.server.LiveEvent;
+
+public enum LiveTopic {
+    TRANSPONDER("/topic/transponder"),
+    FEEDLOT("/topic/feedlot"),
+    BREEDING("/topic/breeding"),
+    RFID("/topic/rfid");
+
+    private final String destination;
+
+    LiveTopic(String destination) {
+        this.destination = destination;
+    }
+
+    public String destination() {
+        return destination;
+    }
+}
@@ -0,0 +1,4 @@
+package cowcard.server.LiveEvent;
+
+public record StatusChange(Integer id, Integer statusId) {
+}
@@ -5,29 +5,38 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import cowcard.server.ReferenceData.ReferenceDataCache;
+
 @Service
 public class PdStatusService {
 
     @Autowired
     private PdStatusRepository pdStatusRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<PdStatus> findAll() {
         return pdStatusRepository.findAllOrderByIdAsc();
     }
 
     public List<PdStatus> findAllActive() {
-        return pdStatusRepository.findByActiveTrueOrderByIdAsc();
+        return referenceDataCache.findAllActive(PdStatus.class);
     }
 
     public PdStatus toggleActive(Integer id) {
         PdStatus e = pdStatusRepository.findById(id).orElseThrow();
         e.setActive(e.getActive() == null || !e.getActive());
-        return pdStatusRepository.save(e);
+        PdStatus saved = pdStatusRepository.save(e);
+        referenceDataCache.invalidate(PdStatus.class);
+        return saved;
     }
 
     public PdStatus create(PdStatus pdStatus) {
         pdStatus.setActive(true);
-        return pdStatusRepository.save(pdStatus);
+        PdStatus saved = pdStatusRepository.save(pdStatus);
+        referenceDataCache.invalidate(PdStatus.class);
+        return saved;
     }
 
     public PdStatus update(Integer id, PdStatus pdStatus) {
@@ -35,6 +44,8 @@ public class PdStatusService {
         e.setName(pdStatus.getName());
         e.setRemark(pdStatus.getRemark());
         e.setColor(pdStatus.getColor());
-        return pdStatusRepository.save(e);
+        PdStatus saved = pdStatusRepository.save(e);
+        referenceDataCache.invalidate(PdStatus.class);
+        return saved;
     }
 }
@@ -0,0 +1,64 @@
+package cowcard.server.Pedigree;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import cowcard.server.Common.ServerRes;
+
+@RestController
+@RequestMapping("/pedigree")
+public class PedigreeController {
+
+    private static final int MAX_GENERATIONS = 20;
+
+    @Autowired
+    private PedigreeService pedigreeService;
+
+    @GetMapping("/{cowId}/ancestors")
+    public ServerRes<List<PedigreeMember>> getAncestors(@PathVariable Integer cowId,
+                                                        @RequestParam(defaultValue = "3") int generations) {
+        try {
+            return ServerRes.success(pedigreeService.getAncestors(cowId, clamp(generations)));
+        } catch (RuntimeException e) {
+            return ServerRes.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{cowId}/descendants")
+    public ServerRes<List<PedigreeMember>> getDescendants(@PathVariable Integer cowId,
+                                                          @RequestParam(defaultValue = "3") int generations) {
+        try {
+            return ServerRes.success(pedigreeService.getDescendants(cowId, clamp(generations)));
+        } catch (RuntimeException e) {
+            return ServerRes.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{cowId}/siblings")
+    public ServerRes<PedigreeSiblings> getSiblings(@PathVariable Integer cowId) {
+        try {
+            return ServerRes.success(pedigreeService.getSiblings(cowId));
+        } catch (RuntimeException e) {
+            return ServerRes.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{cowId}/inbreeding")
+    public ServerRes<PedigreeInbreeding> getInbreeding(@PathVariable Integer cowId) {
+        try {
+            return ServerRes.success(pedigreeService.getInbreeding(cowId));
+        } catch (RuntimeException e) {
+            return ServerRes.error(e.getMessage());
+        }
+    }
+
+    private static int clamp(int generations) {
+        return Math.max(1, Math.min(generations, MAX_GENERATIONS));
+    }
+}
@@ -0,0 +1,4 @@
+package cowcard.server.Pedigree;
+
+public record PedigreeInbreeding(Integer cowId, String tag, double coefficient) {
+}
@@ -0,0 +1,388 @@
+package cowcard.server.Pedigree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import cowcard.server.Common.IntList;
+
+// Pedigree graph held in primitive int arrays. Every cow and every external sire is a
+// node with at most one dam and one sire parent. Children are intrusive linked lists
+// (damHead/nextByDam, sireHead/nextBySire) so adding a cow is O(1).
+public class PedigreeIndex {
+
+    private static final int NONE = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private int[] dam = new int[0];
+    private int[] sire = new int[0];
+    private int[] generation = new int[0];
+    private int[] damHead = new int[0];
+    private int[] sireHead = new int[0];
+    private int[] nextByDam = new int[0];
+    private int[] nextBySire = new int[0];
+    private int[] cowIdOf = new int[0];
+    private String[] label = new String[0];
+
+    // cow id -> node, indexed directly by the (dense, serial) cow id
+    private int[] nodeOfCow = new int[0];
+    private final Map<String, Integer> nodeOfSire = new HashMap<>();
+
+    public PedigreeIndex(int expectedNodes) {
+        grow(Math.max(expectedNodes, 16));
+    }
+
+    // Bulk load: rows must be linked before generations are computed once at the end
+    public static PedigreeIndex build(List<PedigreeRow> rows) {
+        PedigreeIndex index = new PedigreeIndex(rows.size() + rows.size() / 8);
+        for (PedigreeRow row : rows) {
+            index.link(row.cowId(), row.tag(), row.damId(), sireKey(row), sireLabel(row));
+        }
+        index.computeGenerations();
+        return index;
+    }
+
+    public void addCow(PedigreeRow row) {
+        lock.writeLock().lock();
+        try {
+            int node = link(row.cowId(), row.tag(), row.damId(), sireKey(row), sireLabel(row));
+            generation[node] = 1 + Math.max(generationOf(dam[node]), generationOf(sire[node]));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(int cowId) {
+        lock.readLock().lock();
+        try {
+            return cowNode(cowId) != NONE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String tagOf(int cowId) {
+        lock.readLock().lock();
+        try {
+            int node = cowNode(cowId);
+            return node == NONE ? null : label[node];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String sireOf(int cowId) {
+        lock.readLock().lock();
+        try {
+            int node = cowNode(cowId);
+            return node == NONE || sire[node] == NONE ? null : label[sire[node]];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of every cow in the herd sired by the given sire key (see sireKey)
+    public int[] offspringOfSire(String sireKey) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodeOfSire.get(sireKey);
+            if (node == null) {
+                return new int[0];
+            }
+            IntList out = new IntList();
+            for (int c = sireHead[node]; c != NONE; c = nextBySire[c]) {
+                out.add(cowIdOf[c]);
+            }
+            return out.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> sireKeys() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(nodeOfSire.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PedigreeMember> ancestors(int cowId, int generations) {
+        lock.readLock().lock();
+        try {
+            int start = cowNode(cowId);
+            List<PedigreeMember> out = new ArrayList<>();
+            if (start == NONE) {
+                return out;
+            }
+            boolean[] seen = new boolean[size];
+            seen[start] = true;
+            IntList frontier = IntList.of(start);
+            for (int g = 1; g <= generations && !frontier.isEmpty(); g++) {
+                IntList next = new IntList();
+                for (int i = 0; i < frontier.size(); i++) {
+                    int node = frontier.get(i);
+                    visit(dam[node], g, seen, next, out);
+                    visit(sire[node], g, seen, next, out);
+                }
+                frontier = next;
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PedigreeMember> descendants(int cowId, int generations) {
+        lock.readLock().lock();
+        try {
+            int start = cowNode(cowId);
+            List<PedigreeMember> out = new ArrayList<>();
+            if (start == NONE) {
+                return out;
+            }
+            boolean[] seen = new boolean[size];
+            seen[start] = true;
+            IntList frontier = IntList.of(start);
+            for (int g = 1; g <= generations && !frontier.isEmpty(); g++) {
+                IntList next = new IntList();
+                for (int i = 0; i < frontier.size(); i++) {
+                    int node = frontier.get(i);
+                    for (int c = damHead[node]; c != NONE; c = nextByDam[c]) {
+                        visit(c, g, seen, next, out);
+                    }
+                    for (int c = sireHead[node]; c != NONE; c = nextBySire[c]) {
+                        visit(c, g, seen, next, out);
+                    }
+                }
+                frontier = next;
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public PedigreeSiblings siblings(int cowId) {
+        lock.readLock().lock();
+        try {
+            int node = cowNode(cowId);
+            List<PedigreeMember> full = new ArrayList<>();
+            List<PedigreeMember> maternal = new ArrayList<>();
+            List<PedigreeMember> paternal = new ArrayList<>();
+            if (node == NONE) {
+                return new PedigreeSiblings(cowId, full, maternal, paternal);
+            }
+            int d = dam[node];
+            int s = sire[node];
+            if (d != NONE) {
+                for (int c = damHead[d]; c != NONE; c = nextByDam[c]) {
+                    if (c == node) {
+                        continue;
+                    }
+                    if (s != NONE && sire[c] == s) {
+                        full.add(member(c, 0));
+                    } else {
+                        maternal.add(member(c, 0));
+                    }
+                }
+            }
+            if (s != NONE) {
+                for (int c = sireHead[s]; c != NONE; c = nextBySire[c]) {
+                    if (c != node && (d == NONE || dam[c] != d)) {
+                        paternal.add(member(c, 0));
+                    }
+                }
+            }
+            return new PedigreeSiblings(cowId, full, maternal, paternal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Wright's coefficient of inbreeding: F(x) = coancestry(dam(x), sire(x))
+    public double inbreeding(int cowId) {
+        lock.readLock().lock();
+        try {
+            int node = cowNode(cowId);
+            return node == NONE ? 0.0 : inbreedingOf(node, new HashMap<>());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // --- internals (callers hold the lock, or the index is not yet published) ---
+
+    private double inbreedingOf(int node, Map<Long, Double> memo) {
+        int d = parent(node, dam);
+        int s = parent(node, sire);
+        return d == NONE || s == NONE ? 0.0 : coancestry(d, s, memo);
+    }
+
+    // Recursive tabular coancestry: always expand the younger node, whose parents
+    // cannot have the other node as a descendant
+    private double coancestry(int a, int b, Map<Long, Double> memo) {
+        if (a == NONE || b == NONE) {
+            return 0.0;
+        }
+        if (a == b) {
+            return 0.5 * (1.0 + inbreedingOf(a, memo));
+        }
+        if (generation[a] < generation[b] || (generation[a] == generation[b] && a < b)) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        long key = ((long) a << 32) | (b & 0xffffffffL);
+        Double cached = memo.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        double value = 0.5 * (coancestry(parent(a, dam), b, memo) + coancestry(parent(a, sire), b, memo));
+        memo.put(key, value);
+        return value;
+    }
+
+    // Only follow parent links that go strictly back in generation, which keeps
+    // recursion finite even if the data contains a dam cycle
+    private int parent(int node, int[] parents) {
+        int p = parents[node];
+        return p != NONE && generation[p] < generation[node] ? p : NONE;
+    }
+
+    private void visit(int node, int g, boolean[] seen, IntList next, List<PedigreeMember> out) {
+        if (node == NONE || seen[node]) {
+            return;
+        }
+        seen[node] = true;
+        next.add(node);
+        out.add(member(node, g));
+    }
+
+    private PedigreeMember member(int node, int g) {
+        return cowIdOf[node] == NONE
+                ? new PedigreeMember(null, null, label[node], g)
+                : new PedigreeMember(cowIdOf[node], label[node], null, g);
+    }
+
+    private int link(Integer cowId, String tag, Integer damId, String sireKey, String sireLabel) {
+        int node = cowNodeOrCreate(cowId);
+        label[node] = tag;
+        if (dam[node] != NONE || sire[node] != NONE) {
+            return node;
+        }
+        if (damId != null && !damId.equals(cowId)) {
+            int d = cowNodeOrCreate(damId);
+            dam[node] = d;
+            nextByDam[node] = damHead[d];
+            damHead[d] = node;
+        }
+        if (sireKey != null) {
+            int s = nodeOfSire.computeIfAbsent(sireKey, k -> allocate(NONE));
+            label[s] = sireLabel;
+            sire[node] = s;
+            nextBySire[node] = sireHead[s];
+            sireHead[s] = node;
+        }
+        return node;
+    }
+
+    // Kahn's algorithm over parent -> child edges; nodes caught in a cycle keep generation 0
+    private void computeGenerations() {
+        int[] pending = new int[size];
+        IntList queue = new IntList();
+        for (int n = 0; n < size; n++) {
+            pending[n] = (dam[n] != NONE ? 1 : 0) + (sire[n] != NONE ? 1 : 0);
+            generation[n] = 0;
+            if (pending[n] == 0) {
+                queue.add(n);
+            }
+        }
+        for (int i = 0; i < queue.size(); i++) {
+            int n = queue.get(i);
+            for (int c = damHead[n]; c != NONE; c = nextByDam[c]) {
+                generation[c] = Math.max(generation[c], generation[n] + 1);
+                if (--pending[c] == 0) {
+                    queue.add(c);
+                }
+            }
+            for (int c = sireHead[n]; c != NONE; c = nextBySire[c]) {
+                generation[c] = Math.max(generation[c], generation[n] + 1);
+                if (--pending[c] == 0) {
+                    queue.add(c);
+                }
+            }
+        }
+    }
+
+    private int generationOf(int node) {
+        return node == NONE ? -1 : generation[node];
+    }
+
+    private int cowNode(int cowId) {
+        return cowId >= 0 && cowId < nodeOfCow.length ? nodeOfCow[cowId] : NONE;
+    }
+
+    private int cowNodeOrCreate(int cowId) {
+        if (cowId >= nodeOfCow.length) {
+            int old = nodeOfCow.length;
+            nodeOfCow = Arrays.copyOf(nodeOfCow, Math.max(cowId + 1, old * 2));
+            Arrays.fill(nodeOfCow, old, nodeOfCow.length, NONE);
+        }
+        if (nodeOfCow[cowId] == NONE) {
+            nodeOfCow[cowId] = allocate(cowId);
+        }
+        return nodeOfCow[cowId];
+    }
+
+    private int allocate(int cowId) {
+        if (size == dam.length) {
+            grow(dam.length * 2);
+        }
+        int node = size++;
+        dam[node] = NONE;
+        sire[node] = NONE;
+        damHead[node] = NONE;
+        sireHead[node] = NONE;
+        nextByDam[node] = NONE;
+        nextBySire[node] = NONE;
+        generation[node] = 0;
+        cowIdOf[node] = cowId;
+        return node;
+    }
+
+    private void grow(int capacity) {
+        dam = Arrays.copyOf(dam, capacity);
+        sire = Arrays.copyOf(sire, capacity);
+        generation = Arrays.copyOf(generation, capacity);
+        damHead = Arrays.copyOf(damHead, capacity);
+        sireHead = Arrays.copyOf(sireHead, capacity);
+        nextByDam = Arrays.copyOf(nextByDam, capacity);
+        nextBySire = Arrays.copyOf(nextBySire, capacity);
+        cowIdOf = Arrays.copyOf(cowIdOf, capacity);
+        label = Arrays.copyOf(label, capacity);
+    }
+
+    // A sire is identified by the semen's sire name; straws without one count as their own sire
+    public static String sireKey(PedigreeRow row) {
+        if (row.sire() != null && !row.sire().isBlank()) {
+            return "S:" + row.sire().trim().toUpperCase(Locale.ROOT);
+        }
+        return row.semenId() != null ? "M:" + row.semenId() : null;
+    }
+
+    private static String sireLabel(PedigreeRow row) {
+        return row.sire() != null && !row.sire().isBlank() ? row.sire().trim() : row.semenName();
+    }
+}
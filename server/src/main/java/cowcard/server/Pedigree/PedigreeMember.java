@@ -0,0 +1,5 @@
+package cowcard.server.Pedigree;
+
+// A node in a pedigree answer: either a cow in the herd (cowId, tag) or an external sire (sireName)
+public record PedigreeMember(Integer cowId, String tag, String sireName, int generation) {
+}
@@ -0,0 +1,16 @@
+package cowcard.server.Pedigree;
+
+import cowcard.server.Cow.Cow;
+
+public record PedigreeRow(Integer cowId, String tag, Integer damId, Integer semenId, String semenName, String sire) {
+
+    public static PedigreeRow from(Cow cow) {
+        return new PedigreeRow(
+                cow.getId(),
+                cow.getTag(),
+                cow.getDam() != null ? cow.getDam().getId() : null,
+                cow.getSemen() != null ? cow.getSemen().getId() : null,
+                cow.getSemen() != null ? cow.getSemen().getName() : null,
+                cow.getSemen() != null ? cow.getSemen().getSire() : null);
+    }
+}
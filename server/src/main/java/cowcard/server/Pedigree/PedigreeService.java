@@ -0,0 +1,134 @@
+package cowcard.server.Pedigree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import cowcard.server.Common.AfterCommit;
+import cowcard.server.Cow.Cow;
+import cowcard.server.Cow.CowRepository;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class PedigreeService {
+
+    private static final Logger log = LoggerFactory.getLogger(PedigreeService.class);
+
+    @Autowired
+    private CowRepository cowRepository;
+
+    private volatile PedigreeIndex index = new PedigreeIndex(0);
+
+    // Guards the index swap against add(); cows seen while a reload reads the table
+    private final Object addLock = new Object();
+    private List<PedigreeRow> pendingRows;
+
+    // Sire rebuilds run here, one at a time; requests made while one is queued share it
+    private final ExecutorService rebuildExecutor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("pedigree-rebuild").factory());
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    // Cows that commit while the table is read are buffered and replayed onto the new
+    // index before it is swapped in, unless the read already saw them
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        synchronized (addLock) {
+            pendingRows = new ArrayList<>();
+        }
+        List<PedigreeRow> rows = cowRepository.findPedigreeRows();
+        PedigreeIndex loaded = PedigreeIndex.build(rows);
+        synchronized (addLock) {
+            for (PedigreeRow row : pendingRows) {
+                if (!loaded.contains(row.cowId())) {
+                    loaded.addCow(row);
+                }
+            }
+            index = loaded;
+            pendingRows = null;
+        }
+        log.info("Pedigree index loaded: {} cows, {} nodes in {} ms",
+                rows.size(), loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    // Called from every code path that inserts a cow; applied only once the insert commits
+    public void onCowCreated(Cow cow) {
+        PedigreeRow row = PedigreeRow.from(cow);
+        AfterCommit.run(() -> add(row));
+    }
+
+    public void onCowsImported(List<PedigreeRow> rows) {
+        AfterCommit.run(() -> rows.forEach(this::add));
+    }
+
+    // Sire identity comes from Semen.sire, so renaming a sire regroups offspring. The
+    // rebuild reads every cow, so it runs in the background rather than on the request
+    public void onSireChanged() {
+        AfterCommit.run(this::scheduleRebuild);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void add(PedigreeRow row) {
+        synchronized (addLock) {
+            index.addCow(row);
+            if (pendingRows != null) {
+                pendingRows.add(row);
+            }
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    log.error("Pedigree rebuild failed", e);
+                }
+            });
+        }
+    }
+
+    public PedigreeIndex index() {
+        return index;
+    }
+
+    public List<PedigreeMember> getAncestors(Integer cowId, int generations) {
+        return require(cowId).ancestors(cowId, generations);
+    }
+
+    public List<PedigreeMember> getDescendants(Integer cowId, int generations) {
+        return require(cowId).descendants(cowId, generations);
+    }
+
+    public PedigreeSiblings getSiblings(Integer cowId) {
+        return require(cowId).siblings(cowId);
+    }
+
+    public PedigreeInbreeding getInbreeding(Integer cowId) {
+        PedigreeIndex current = require(cowId);
+        return new PedigreeInbreeding(cowId, current.tagOf(cowId), current.inbreeding(cowId));
+    }
+
+    private PedigreeIndex require(Integer cowId) {
+        PedigreeIndex current = index;
+        if (cowId == null || !current.contains(cowId)) {
+            throw new RuntimeException("Cow not found in pedigree: " + cowId);
+        }
+        return current;
+    }
+}
@@ -0,0 +1,10 @@
+package cowcard.server.Pedigree;
+
+import java.util.List;
+
+public record PedigreeSiblings(
+        Integer cowId,
+        List<PedigreeMember> fullSiblings,
+        List<PedigreeMember> maternalHalfSiblings,
+        List<PedigreeMember> paternalHalfSiblings) {
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -14,6 +15,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 
 import cowcard.server.AiRecord.AiRecord;
 import cowcard.server.Common.BaseEntity;
@@ -25,7 +27,10 @@ import cowcard.server.PdStatus.PdStatus;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "pregnancy_diagnosis")
+@Table(name = "pregnancy_diagnosis", indexes = {
+        @Index(name = "idx_pregnancy_diagnosis_status_ai_date", columnList = "pd_status, ai_date"),
+        @Index(name = "idx_pregnancy_diagnosis_status_pregnant_date", columnList = "pd_status, pregnant_date")
+})
 public class PregnancyDiagnosis extends BaseEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -39,7 +44,7 @@ public class PregnancyDiagnosis extends BaseEntity implements Serializable {
     private AiRecord aiRecord;
 
     @Column(name = "ai_date", nullable = false)
-    private String aiDate;
+    private LocalDate aiDate;
 
     @ManyToOne
     @JoinColumn(name = "diagnosis_by", referencedColumnName = "id")
@@ -50,5 +55,5 @@ public class PregnancyDiagnosis extends BaseEntity implements Serializable {
     private PdStatus pdStatus;
 
     @Column(name = "pregnant_date")
-    private String pregnantDate;
+    private LocalDate pregnantDate;
 }
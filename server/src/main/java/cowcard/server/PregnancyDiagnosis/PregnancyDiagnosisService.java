@@ -2,6 +2,7 @@ package cowcard.server.PregnancyDiagnosis;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,16 +10,26 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import cowcard.server.AiRecord.AiRecord;
+import cowcard.server.BreedingAnalytics.BreedingAnalyticsService;
 import cowcard.server.CalfRecord.CalfRecord;
 import cowcard.server.CalfRecord.CalfRecordRepository;
 import cowcard.server.Color.Color;
 import cowcard.server.Cow.Cow;
 import cowcard.server.Cow.CowRepository;
+import cowcard.server.CowFeedlotHistory.CowFeedlotHistory;
+import cowcard.server.CowFeedlotHistory.CowFeedlotHistoryRepository;
 import cowcard.server.CowGender.CowGender;
 import cowcard.server.CowStatus.CowStatus;
 import cowcard.server.Feedlot.Feedlot;
+import cowcard.server.Feedlot.FeedlotMove;
+import cowcard.server.Feedlot.FeedlotService;
 import cowcard.server.Inseminator.Inseminator;
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.LiveEvent.LiveTopic;
+import cowcard.server.LiveEvent.StatusChange;
 import cowcard.server.PdStatus.PdStatus;
+import cowcard.server.Pedigree.PedigreeService;
+import cowcard.server.Search.SearchService;
 
 @Service
 public class PregnancyDiagnosisService {
@@ -32,6 +43,24 @@ public class PregnancyDiagnosisService {
     @Autowired
     private CalfRecordRepository calfRecordRepository;
 
+    @Autowired
+    private PedigreeService pedigreeService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private FeedlotService feedlotService;
+
+    @Autowired
+    private CowFeedlotHistoryRepository cowFeedlotHistoryRepository;
+
+    @Autowired
+    private LiveEventPublisher liveEventPublisher;
+
+    @Autowired
+    private BreedingAnalyticsService breedingAnalyticsService;
+
     public List<PregnancyDiagnosisView> findAll() {
         return pregnancyDiagnosisRepository.findAllOrderByAiRecordAiDateDescIdDesc()
                 .stream().map(PregnancyDiagnosisView::from).toList();
@@ -52,10 +81,13 @@ public class PregnancyDiagnosisService {
 
         // Auto-set pregnantDate when status is Pregnant (id=3)
         if (pdStatusId == 3) {
-            pd.setPregnantDate(LocalDate.now().toString());
+            pd.setPregnantDate(LocalDate.now());
         }
 
-        return pregnancyDiagnosisRepository.save(pd);
+        PregnancyDiagnosis saved = pregnancyDiagnosisRepository.save(pd);
+        liveEventPublisher.publish(LiveTopic.BREEDING, "pd-status", "pd:" + id, new StatusChange(id, pdStatusId));
+        breedingAnalyticsService.refresh(List.of(saved.getAiRecord().getId()));
+        return saved;
     }
 
     @Transactional
@@ -70,6 +102,7 @@ public class PregnancyDiagnosisService {
             status.setId(9); // Still Birth
             pd.setPdStatus(status);
             pregnancyDiagnosisRepository.save(pd);
+            breedingAnalyticsService.refresh(List.of(pd.getAiRecord().getId()));
             return;
         }
 
@@ -112,6 +145,17 @@ public class PregnancyDiagnosisService {
         calf.setStatus(newBornStatus);
 
         Cow savedCalf = cowRepository.save(calf);
+        pedigreeService.onCowCreated(savedCalf);
+        searchService.onCowSaved(savedCalf);
+        if (feedlotId != null) {
+            // Open the calf's first stay so the feedlot history matches currentFeedlot
+            CowFeedlotHistory history = new CowFeedlotHistory();
+            history.setCow(savedCalf);
+            history.setFeedlot(savedCalf.getCurrentFeedlot());
+            history.setMovedInAt(LocalDateTime.now());
+            cowFeedlotHistoryRepository.save(history);
+            feedlotService.afterMoves(List.of(new FeedlotMove(savedCalf.getId(), null, feedlotId, history.getMovedInAt())));
+        }
 
         // Create calf record linking cow, AI record, and PD
         CalfRecord calfRecord = new CalfRecord();
@@ -125,5 +169,6 @@ public class PregnancyDiagnosisService {
         completeStatus.setId(8); // Complete
         pd.setPdStatus(completeStatus);
         pregnancyDiagnosisRepository.save(pd);
+        breedingAnalyticsService.refresh(List.of(aiRecord.getId()));
     }
 }
@@ -1,9 +1,11 @@
 package cowcard.server.PregnancyDiagnosis;
 
+import java.time.LocalDate;
+
 public record PregnancyDiagnosisView(
         Integer id,
-        String aiDate,
-        String pregnantDate,
+        LocalDate aiDate,
+        LocalDate pregnantDate,
         String aiRecordCode,
         Integer aiRecordId,
         Integer damId,
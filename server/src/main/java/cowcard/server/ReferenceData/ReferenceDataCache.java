@@ -0,0 +1,153 @@
+package cowcard.server.ReferenceData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import cowcard.server.AiStatus.AiStatus;
+import cowcard.server.AiStatus.AiStatusRepository;
+import cowcard.server.Color.Color;
+import cowcard.server.Color.ColorRepository;
+import cowcard.server.Common.AfterCommit;
+import cowcard.server.CowGender.CowGender;
+import cowcard.server.CowGender.CowGenderRepository;
+import cowcard.server.CowRole.CowRole;
+import cowcard.server.CowRole.CowRoleRepository;
+import cowcard.server.CowStatus.CowStatus;
+import cowcard.server.CowStatus.CowStatusRepository;
+import cowcard.server.Feedlot.Feedlot;
+import cowcard.server.Feedlot.FeedlotRepository;
+import cowcard.server.Inseminator.Inseminator;
+import cowcard.server.Inseminator.InseminatorRepository;
+import cowcard.server.PdStatus.PdStatus;
+import cowcard.server.PdStatus.PdStatusRepository;
+import jakarta.annotation.PostConstruct;
+
+// Small, rarely-written lookup tables kept in memory. Each table loads lazily on first
+// use and is dropped by the owning service's create/update/toggleActive once the write
+// commits. Cached entities are shared and detached: read them, never modify them.
+@Component
+public class ReferenceDataCache {
+
+    @Autowired
+    private ColorRepository colorRepository;
+
+    @Autowired
+    private CowGenderRepository cowGenderRepository;
+
+    @Autowired
+    private CowRoleRepository cowRoleRepository;
+
+    @Autowired
+    private CowStatusRepository cowStatusRepository;
+
+    @Autowired
+    private AiStatusRepository aiStatusRepository;
+
+    @Autowired
+    private PdStatusRepository pdStatusRepository;
+
+    @Autowired
+    private InseminatorRepository inseminatorRepository;
+
+    @Autowired
+    private FeedlotRepository feedlotRepository;
+
+    // Cached roles embed their genders and statuses embed their roles, so those go stale too
+    private static final Map<Class<?>, List<Class<?>>> DEPENDENTS = Map.of(
+            CowGender.class, List.of(CowRole.class, CowStatus.class),
+            CowRole.class, List.of(CowStatus.class));
+
+    private final Map<Class<?>, Slot<?>> slots = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void register() {
+        register(Color.class, colorRepository::findAll, Color::getId, Color::getName, Color::getActive);
+        register(CowGender.class, cowGenderRepository::findAll, CowGender::getId, CowGender::getName, CowGender::getActive);
+        register(CowRole.class, cowRoleRepository::findAll, CowRole::getId, CowRole::getName, CowRole::getActive);
+        register(CowStatus.class, cowStatusRepository::findAll, CowStatus::getId, CowStatus::getName, CowStatus::getActive);
+        register(AiStatus.class, aiStatusRepository::findAll, AiStatus::getId, AiStatus::getName, AiStatus::getActive);
+        register(PdStatus.class, pdStatusRepository::findAll, PdStatus::getId, PdStatus::getName, PdStatus::getActive);
+        register(Inseminator.class, inseminatorRepository::findAll, Inseminator::getId, Inseminator::getName, Inseminator::getActive);
+        register(Feedlot.class, feedlotRepository::findAll, Feedlot::getId, Feedlot::getName, Feedlot::getActive);
+    }
+
+    public <T> ReferenceTable<T> table(Class<T> type) {
+        return slot(type).get();
+    }
+
+    public <T> List<T> findAllActive(Class<T> type) {
+        return table(type).findAllActive();
+    }
+
+    public <T> Optional<T> findById(Class<T> type, Integer id) {
+        return table(type).findById(id);
+    }
+
+    public <T> Optional<T> findByNameIgnoreCase(Class<T> type, String name) {
+        return table(type).findByNameIgnoreCase(name);
+    }
+
+    public void invalidate(Class<?> type) {
+        Slot<?> slot = slot(type);
+        List<Class<?>> dependents = DEPENDENTS.getOrDefault(type, List.of());
+        AfterCommit.run(() -> {
+            slot.invalidate();
+            dependents.forEach(d -> slot(d).invalidate());
+        });
+    }
+
+    private <T> void register(Class<T> type, Supplier<List<T>> loader, Function<T, Integer> id,
+                              Function<T, String> name, Function<T, Boolean> active) {
+        slots.put(type, new Slot<>(() -> new ReferenceTable<>(loader.get(), id, name, active)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Slot<T> slot(Class<T> type) {
+        Slot<T> slot = (Slot<T>) slots.get(type);
+        if (slot == null) {
+            throw new IllegalArgumentException("Not a cached reference type: " + type.getSimpleName());
+        }
+        return slot;
+    }
+
+    private static final class Slot<T> {
+        private final Supplier<ReferenceTable<T>> loader;
+        private volatile ReferenceTable<T> table;
+        private long version;
+
+        Slot(Supplier<ReferenceTable<T>> loader) {
+            this.loader = loader;
+        }
+
+        ReferenceTable<T> get() {
+            ReferenceTable<T> current = table;
+            if (current != null) {
+                return current;
+            }
+            long seen;
+            synchronized (this) {
+                seen = version;
+            }
+            // Load outside the lock; a result that raced with an invalidation is used once but not kept
+            ReferenceTable<T> loaded = loader.get();
+            synchronized (this) {
+                if (version == seen) {
+                    table = loaded;
+                }
+            }
+            return loaded;
+        }
+
+        synchronized void invalidate() {
+            version++;
+            table = null;
+        }
+    }
+}
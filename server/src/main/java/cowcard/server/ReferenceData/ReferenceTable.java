@@ -0,0 +1,50 @@
+package cowcard.server.ReferenceData;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Immutable snapshot of one lookup table; replaced wholesale on invalidation
+public final class ReferenceTable<T> {
+
+    private final List<T> all;
+    private final List<T> active;
+    private final Map<Integer, T> byId;
+    private final Map<String, T> byName;
+
+    ReferenceTable(List<T> rows, Function<T, Integer> id, Function<T, String> name, Function<T, Boolean> isActive) {
+        this.all = rows.stream().sorted(Comparator.comparing(id)).toList();
+        this.active = all.stream().filter(r -> Boolean.TRUE.equals(isActive.apply(r))).toList();
+        Map<Integer, T> ids = new HashMap<>();
+        Map<String, T> names = new HashMap<>();
+        for (T row : all) {
+            ids.put(id.apply(row), row);
+            String n = name.apply(row);
+            if (n != null) {
+                names.putIfAbsent(n.trim().toLowerCase(Locale.ROOT), row);
+            }
+        }
+        this.byId = Map.copyOf(ids);
+        this.byName = Map.copyOf(names);
+    }
+
+    public List<T> findAll() {
+        return all;
+    }
+
+    public List<T> findAllActive() {
+        return active;
+    }
+
+    public Optional<T> findById(Integer id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id));
+    }
+
+    public Optional<T> findByNameIgnoreCase(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(byName.get(name.trim().toLowerCase(Locale.ROOT)));
+    }
+}
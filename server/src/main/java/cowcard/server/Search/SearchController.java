@@ -0,0 +1,34 @@
+package cowcard.server.Search;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import cowcard.server.Common.ServerRes;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private SearchService searchService;
+
+    @GetMapping
+    public ServerRes<List<SearchHit>> search(@RequestParam String q,
+                                             @RequestParam(required = false) String type,
+                                             @RequestParam(required = false) Integer limit) {
+        int n = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        try {
+            return ServerRes.success(searchService.search(q, type, n));
+        } catch (IllegalArgumentException e) {
+            return ServerRes.error(e.getMessage());
+        }
+    }
+}
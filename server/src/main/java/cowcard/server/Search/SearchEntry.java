@@ -0,0 +1,4 @@
+package cowcard.server.Search;
+
+public record SearchEntry(Integer id, String text) {
+}
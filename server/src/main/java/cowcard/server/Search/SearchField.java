@@ -0,0 +1,24 @@
+package cowcard.server.Search;
+
+public enum SearchField {
+    COW_TAG("cow", "tag"),
+    TRANSPONDER_CODE("transponder", "code"),
+    SEMEN_NAME("semen", "name"),
+    SEMEN_SIRE("semen", "sire");
+
+    private final String type;
+    private final String field;
+
+    SearchField(String type, String field) {
+        this.type = type;
+        this.field = field;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public String field() {
+        return field;
+    }
+}
@@ -0,0 +1,4 @@
+package cowcard.server.Search;
+
+public record SearchHit(String type, Integer id, String field, String text, double score) {
+}
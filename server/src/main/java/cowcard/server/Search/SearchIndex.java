@@ -0,0 +1,338 @@
+package cowcard.server.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import cowcard.server.Common.IntList;
+
+// Type-ahead index over short identifiers (tags, codes, semen and sire names).
+// Prefix matches rank first and are read in rank order from per-field, per-length
+// sorted maps; substring matches come from trigram postings; typos fall back to
+// trigram overlap. Documents are append-only: an update tombstones the old
+// document and everything is compacted once tombstones outweigh a quarter of
+// the live set.
+public class SearchIndex {
+
+    private static final int COMPACT_MIN_DEAD = 1024;
+    private static final Comparator<Scored> BEST_FIRST = Comparator
+            .comparingDouble(Scored::score).reversed()
+            .thenComparingInt(s -> s.norm().length())
+            .thenComparing(Scored::norm);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private int dead;
+    private byte[] fieldOf = new byte[0];
+    private int[] idOf = new int[0];
+    private String[] textOf = new String[0];
+    private String[] normOf = new String[0];
+    private final BitSet deleted = new BitSet();
+
+    private final Map<Long, Integer> docOfKey = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    // [field ordinal] -> [normalised length] -> normalised text -> docs
+    private final List<List<TreeMap<String, IntList>>> prefixes = new ArrayList<>();
+
+    public SearchIndex(int expectedDocs) {
+        grow(Math.max(expectedDocs, 16));
+        for (int i = 0; i < SearchField.values().length; i++) {
+            prefixes.add(new ArrayList<>());
+        }
+    }
+
+    public void put(SearchField field, Integer id, String text) {
+        lock.writeLock().lock();
+        try {
+            String norm = normalize(text);
+            Integer existing = docOfKey.get(key(field, id));
+            if (existing != null) {
+                if (normOf[existing].equals(norm) && textOf[existing].equals(text)) {
+                    return;
+                }
+                tombstone(existing);
+            }
+            if (!norm.isEmpty()) {
+                append(field, id, text, norm);
+            }
+            if (dead >= COMPACT_MIN_DEAD && dead * 4 > size - dead) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(SearchField field, Integer id) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docOfKey.get(key(field, id));
+            if (existing != null) {
+                tombstone(existing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int liveCount() {
+        lock.readLock().lock();
+        try {
+            return size - dead;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, Set<SearchField> fields, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean[] allowed = new boolean[SearchField.values().length];
+        for (SearchField f : fields) {
+            allowed[f.ordinal()] = true;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Scored> ranked = new ArrayList<>(limit);
+            BitSet seen = new BitSet(size);
+            prefixMatches(q, allowed, ranked, seen, limit);
+
+            PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            int remaining = limit - ranked.size();
+            if (remaining > 0 && q.length() >= 3) {
+                long[] grams = uniqueGrams(q);
+                IntList[] lists = new IntList[grams.length];
+                for (int i = 0; i < grams.length; i++) {
+                    lists[i] = postings.get(grams[i]);
+                }
+                if (Arrays.stream(lists).noneMatch(l -> l == null)) {
+                    Arrays.sort(lists, Comparator.comparingInt(IntList::size));
+                    IntList smallest = lists[0];
+                    outer:
+                    for (int i = 0; i < smallest.size(); i++) {
+                        int doc = smallest.get(i);
+                        for (int j = 1; j < lists.length; j++) {
+                            if (!lists[j].containsSorted(doc)) {
+                                continue outer;
+                            }
+                        }
+                        offer(doc, q, allowed, top, seen, remaining, 0);
+                    }
+                }
+                if (top.size() < remaining && q.length() >= 4) {
+                    fuzzy(q, grams, allowed, top, seen, remaining);
+                }
+            }
+
+            List<Scored> rest = new ArrayList<>(top);
+            rest.sort(BEST_FIRST);
+            ranked.addAll(rest);
+            List<SearchHit> hits = new ArrayList<>(ranked.size());
+            for (Scored s : ranked) {
+                SearchField f = SearchField.values()[fieldOf[s.doc()]];
+                hits.add(new SearchHit(f.type(), idOf[s.doc()], f.field(), textOf[s.doc()], s.score()));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Shortest texts first, then lexicographic: exactly the order BEST_FIRST gives
+    // prefix matches, so the walk can stop as soon as the limit is reached
+    private void prefixMatches(String q, boolean[] allowed, List<Scored> out, BitSet seen, int limit) {
+        String end = q + Character.MAX_VALUE;
+        int maxLength = 0;
+        for (int f = 0; f < allowed.length; f++) {
+            if (allowed[f]) {
+                maxLength = Math.max(maxLength, prefixes.get(f).size() - 1);
+            }
+        }
+        for (int length = q.length(); length <= maxLength && out.size() < limit; length++) {
+            List<Scored> level = new ArrayList<>();
+            for (int f = 0; f < allowed.length; f++) {
+                if (!allowed[f] || length >= prefixes.get(f).size()) {
+                    continue;
+                }
+                TreeMap<String, IntList> byText = prefixes.get(f).get(length);
+                SortedMap<String, IntList> range = byText.subMap(q, end);
+                int taken = 0;
+                for (IntList docs : range.values()) {
+                    for (int i = 0; i < docs.size() && taken < limit; i++) {
+                        int doc = docs.get(i);
+                        if (!deleted.get(doc)) {
+                            level.add(new Scored(doc, normOf[doc], score(normOf[doc], q, 0)));
+                            taken++;
+                        }
+                    }
+                    if (taken >= limit) {
+                        break;
+                    }
+                }
+            }
+            level.sort(BEST_FIRST);
+            for (Scored s : level) {
+                if (out.size() == limit) {
+                    break;
+                }
+                out.add(s);
+                seen.set(s.doc());
+            }
+        }
+    }
+
+    // Typo tolerance: documents sharing at least a third of the query's trigrams,
+    // scored by trigram Jaccard similarity
+    private void fuzzy(String q, long[] grams, boolean[] allowed, PriorityQueue<Scored> top,
+                       BitSet seen, int limit) {
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (long g : grams) {
+            IntList docs = postings.get(g);
+            if (docs == null) {
+                continue;
+            }
+            for (int i = 0; i < docs.size(); i++) {
+                shared.merge(docs.get(i), 1, Integer::sum);
+            }
+        }
+        int needed = Math.max(2, (grams.length + 2) / 3);
+        for (Map.Entry<Integer, Integer> e : shared.entrySet()) {
+            int common = e.getValue();
+            if (common < needed) {
+                continue;
+            }
+            int docGrams = Math.max(1, normOf[e.getKey()].length() - 2);
+            double jaccard = (double) common / (grams.length + docGrams - common);
+            offer(e.getKey(), q, allowed, top, seen, limit, jaccard);
+        }
+    }
+
+    private void offer(int doc, String q, boolean[] allowed, PriorityQueue<Scored> top,
+                       BitSet seen, int limit, double fuzzyScore) {
+        if (seen.get(doc) || deleted.get(doc) || !allowed[fieldOf[doc]]) {
+            return;
+        }
+        double score = score(normOf[doc], q, fuzzyScore);
+        if (score <= 0) {
+            return;
+        }
+        seen.set(doc);
+        top.add(new Scored(doc, normOf[doc], score));
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    private static double score(String norm, String q, double fuzzyScore) {
+        if (norm.equals(q)) {
+            return 1.0;
+        } else if (norm.startsWith(q)) {
+            return 0.8 + 0.1 * q.length() / norm.length();
+        } else if (norm.contains(q)) {
+            return 0.6 + 0.1 * q.length() / norm.length();
+        }
+        return 0.5 * fuzzyScore;
+    }
+
+    private void append(SearchField field, Integer id, String text, String norm) {
+        if (size == idOf.length) {
+            grow(size * 2);
+        }
+        int doc = size++;
+        fieldOf[doc] = (byte) field.ordinal();
+        idOf[doc] = id;
+        textOf[doc] = text;
+        normOf[doc] = norm;
+        docOfKey.put(key(field, id), doc);
+        for (long g : uniqueGrams(norm)) {
+            postings.computeIfAbsent(g, k -> new IntList(4)).add(doc);
+        }
+        List<TreeMap<String, IntList>> byLength = prefixes.get(field.ordinal());
+        while (byLength.size() <= norm.length()) {
+            byLength.add(new TreeMap<>());
+        }
+        byLength.get(norm.length()).computeIfAbsent(norm, k -> new IntList(1)).add(doc);
+    }
+
+    private void tombstone(int doc) {
+        deleted.set(doc);
+        dead++;
+        docOfKey.remove(key(SearchField.values()[fieldOf[doc]], idOf[doc]));
+    }
+
+    private void compact() {
+        byte[] fields = fieldOf;
+        int[] ids = idOf;
+        String[] texts = textOf;
+        String[] norms = normOf;
+        int oldSize = size;
+        BitSet oldDeleted = (BitSet) deleted.clone();
+
+        size = 0;
+        dead = 0;
+        deleted.clear();
+        docOfKey.clear();
+        postings.clear();
+        prefixes.forEach(List::clear);
+        grow(Math.max(16, oldSize - oldDeleted.cardinality()));
+        for (int doc = 0; doc < oldSize; doc++) {
+            if (!oldDeleted.get(doc)) {
+                append(SearchField.values()[fields[doc]], ids[doc], texts[doc], norms[doc]);
+            }
+        }
+    }
+
+    private void grow(int capacity) {
+        fieldOf = Arrays.copyOf(fieldOf, capacity);
+        idOf = Arrays.copyOf(idOf, capacity);
+        textOf = Arrays.copyOf(textOf, capacity);
+        normOf = Arrays.copyOf(normOf, capacity);
+    }
+
+    private static long[] uniqueGrams(String norm) {
+        long[] grams = new long[Math.max(0, norm.length() - 2)];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = gram(norm, i);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static long key(SearchField field, int id) {
+        return ((long) field.ordinal() << 32) | (id & 0xffffffffL);
+    }
+
+    // Case- and punctuation-insensitive: "AB-0012", "ab 0012" and "ab0012" all index alike
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    private record Scored(int doc, String norm, double score) {
+    }
+}
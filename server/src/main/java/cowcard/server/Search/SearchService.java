@@ -0,0 +1,126 @@
+package cowcard.server.Search;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import cowcard.server.Common.AfterCommit;
+import cowcard.server.Cow.Cow;
+import cowcard.server.Cow.CowRepository;
+import cowcard.server.Semen.Semen;
+import cowcard.server.Semen.SemenRepository;
+import cowcard.server.Transponder.Transponder;
+import cowcard.server.Transponder.TransponderRepository;
+
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    @Autowired
+    private CowRepository cowRepository;
+
+    @Autowired
+    private TransponderRepository transponderRepository;
+
+    @Autowired
+    private SemenRepository semenRepository;
+
+    private volatile SearchIndex index = new SearchIndex(0);
+
+    // Guards the index swap against put(); puts seen while a reload reads the tables
+    private final Object putLock = new Object();
+    private List<PendingPut> pendingPuts;
+
+    private record PendingPut(SearchField field, Integer id, String text) {
+    }
+
+    // Saves that commit while the tables are read are buffered and replayed, in commit
+    // order, onto the new index before it is swapped in; a put the read already saw is a no-op
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        synchronized (putLock) {
+            pendingPuts = new ArrayList<>();
+        }
+        List<SearchEntry> tags = cowRepository.findSearchEntries();
+        List<SearchEntry> codes = transponderRepository.findSearchEntries();
+        List<SearchEntry> semenNames = semenRepository.findNameSearchEntries();
+        List<SearchEntry> sires = semenRepository.findSireSearchEntries();
+
+        SearchIndex fresh = new SearchIndex(tags.size() + codes.size() + semenNames.size() + sires.size());
+        tags.forEach(e -> fresh.put(SearchField.COW_TAG, e.id(), e.text()));
+        codes.forEach(e -> fresh.put(SearchField.TRANSPONDER_CODE, e.id(), e.text()));
+        semenNames.forEach(e -> fresh.put(SearchField.SEMEN_NAME, e.id(), e.text()));
+        sires.forEach(e -> fresh.put(SearchField.SEMEN_SIRE, e.id(), e.text()));
+        synchronized (putLock) {
+            pendingPuts.forEach(p -> fresh.put(p.field(), p.id(), p.text()));
+            index = fresh;
+            pendingPuts = null;
+        }
+        log.info("Search index loaded: {} entries in {} ms", fresh.liveCount(), System.currentTimeMillis() - start);
+    }
+
+    public List<SearchHit> search(String query, String type, int limit) {
+        return index.search(query, fieldsOf(type), limit);
+    }
+
+    public void onCowSaved(Cow cow) {
+        Integer id = cow.getId();
+        String tag = cow.getTag();
+        AfterCommit.run(() -> put(SearchField.COW_TAG, id, tag));
+    }
+
+    public void onCowsImported(List<SearchEntry> tags) {
+        AfterCommit.run(() -> tags.forEach(e -> put(SearchField.COW_TAG, e.id(), e.text())));
+    }
+
+    public void onTransponderSaved(Transponder transponder) {
+        Integer id = transponder.getId();
+        String code = transponder.getCode();
+        AfterCommit.run(() -> put(SearchField.TRANSPONDER_CODE, id, code));
+    }
+
+    public void onSemenSaved(Semen semen) {
+        Integer id = semen.getId();
+        String name = semen.getName();
+        String sire = semen.getSire();
+        AfterCommit.run(() -> {
+            put(SearchField.SEMEN_NAME, id, name);
+            put(SearchField.SEMEN_SIRE, id, sire);
+        });
+    }
+
+    private void put(SearchField field, Integer id, String text) {
+        synchronized (putLock) {
+            index.put(field, id, text);
+            if (pendingPuts != null) {
+                pendingPuts.add(new PendingPut(field, id, text));
+            }
+        }
+    }
+
+    private static Set<SearchField> fieldsOf(String type) {
+        if (type == null || type.isBlank()) {
+            return EnumSet.allOf(SearchField.class);
+        }
+        Set<SearchField> fields = EnumSet.noneOf(SearchField.class);
+        for (SearchField f : SearchField.values()) {
+            if (f.type().equalsIgnoreCase(type.trim())) {
+                fields.add(f);
+            }
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("Unknown search type: " + type);
+        }
+        return fields;
+    }
+}
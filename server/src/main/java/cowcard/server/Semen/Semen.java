@@ -39,9 +39,13 @@ public class Semen extends BaseEntity implements Serializable {
     @Column(name = "date", nullable = false)
     private LocalDate date;
 
-    @Column(name = "straw")
+    // Stock columns are only written through StrawInventoryService, never by an entity save
+    @Column(name = "straw", updatable = false)
     private Integer straw;
 
+    @Column(name = "reserved_straw", updatable = false)
+    private Integer reservedStraw = 0;
+
     @Column(name = "bull")
     private Boolean bull;
 
@@ -1,11 +1,13 @@
 package cowcard.server.Semen;
 
+import java.time.LocalDate;
+
 import cowcard.server.AiRecord.AiRecord;
 
 public record SemenAiRecordItem(
         Integer id,
         String code,
-        String aiDate,
+        LocalDate aiDate,
         String damTag,
         String aiBy) {
 
@@ -6,9 +6,18 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import cowcard.server.Search.SearchEntry;
+
 @Repository
 public interface SemenRepository extends JpaRepository<Semen, Integer> {
 
     @Query("SELECT s FROM Semen s ORDER BY s.bull ASC NULLS FIRST, s.date ASC")
     List<Semen> findAllOrderByBullAscDateAsc();
+
+    @Query("SELECT new cowcard.server.Search.SearchEntry(s.id, s.name) FROM Semen s ORDER BY s.id ASC")
+    List<SearchEntry> findNameSearchEntries();
+
+    @Query("SELECT new cowcard.server.Search.SearchEntry(s.id, s.sire) FROM Semen s " +
+           "WHERE s.sire IS NOT NULL ORDER BY s.id ASC")
+    List<SearchEntry> findSireSearchEntries();
 }
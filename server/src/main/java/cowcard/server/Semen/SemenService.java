@@ -1,12 +1,18 @@
 package cowcard.server.Semen;
 
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import cowcard.server.AiRecord.AiRecordRepository;
+import cowcard.server.BreedingAnalytics.BreedingAnalyticsService;
 import cowcard.server.Cow.CowRepository;
+import cowcard.server.Pedigree.PedigreeService;
+import cowcard.server.Search.SearchService;
+import cowcard.server.StrawInventory.StrawInventoryService;
 
 @Service
 public class SemenService {
@@ -20,23 +26,52 @@ public class SemenService {
     @Autowired
     private CowRepository cowRepository;
 
+    @Autowired
+    private PedigreeService pedigreeService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private StrawInventoryService strawInventoryService;
+
+    @Autowired
+    private BreedingAnalyticsService breedingAnalyticsService;
+
     public List<Semen> findAll() {
         return semenRepository.findAllOrderByBullAscDateAsc();
     }
 
+    @Transactional
     public Semen create(Semen semen) {
-        return semenRepository.save(semen);
+        semen.setReservedStraw(0);
+        Semen saved = semenRepository.save(semen);
+        strawInventoryService.open(saved);
+        searchService.onSemenSaved(saved);
+        return saved;
     }
 
+    @Transactional
     public Semen update(Integer id, Semen semen) {
         Semen e = semenRepository.findById(id).orElseThrow();
+        boolean sireChanged = !Objects.equals(e.getSire(), semen.getSire());
+        boolean renamed = !Objects.equals(e.getName(), semen.getName());
         e.setName(semen.getName());
         e.setSire(semen.getSire());
         e.setDate(semen.getDate());
-        e.setStraw(semen.getStraw());
         e.setBull(semen.getBull());
         e.setRemark(semen.getRemark());
-        return semenRepository.save(e);
+        // The straw count is left alone: stock only moves through the ledger endpoints, so a
+        // form opened before a straw was used cannot write a stale count back
+        Semen saved = semenRepository.save(e);
+        searchService.onSemenSaved(saved);
+        if (sireChanged) {
+            pedigreeService.onSireChanged();
+        }
+        if (sireChanged || renamed) {
+            breedingAnalyticsService.onSemenSaved(id);
+        }
+        return saved;
     }
 
     public Semen toggleBull(Integer id) {
@@ -53,13 +88,4 @@ public class SemenService {
                 .findBySemenId(id).stream().map(SemenCowItem::from).toList();
         return SemenDetail.from(semen, aiRecords, cows);
     }
-
-    public void deductStraw(Integer semenId) {
-        Semen semen = semenRepository.findById(semenId).orElseThrow();
-        if (semen.getStraw() == null || semen.getStraw() <= 0) {
-            throw new RuntimeException("No straws remaining for semen ID: " + semenId);
-        }
-        semen.setStraw(semen.getStraw() - 1);
-        semenRepository.save(semen);
-    }
 }
@@ -0,0 +1,8 @@
+package cowcard.server.StrawInventory;
+
+import java.util.Map;
+import java.util.Set;
+
+// balances: semen.straw after the consumption, for every semen with a met demand
+public record StrawConsumption(Set<StrawDemand> met, Map<Integer, Integer> balances) {
+}
@@ -0,0 +1,5 @@
+package cowcard.server.StrawInventory;
+
+// count straws of one semen, optionally out of one reservation
+public record StrawDemand(Integer semenId, Integer reservationId, int count) {
+}
@@ -0,0 +1,9 @@
+package cowcard.server.StrawInventory;
+
+public enum StrawEntryType {
+    // Stock on hand when the ledger was introduced, or when a semen batch was created
+    OPENING,
+    RECEIPT,
+    USAGE,
+    ADJUSTMENT
+}
@@ -0,0 +1,81 @@
+package cowcard.server.StrawInventory;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import cowcard.server.Common.ServerRes;
+
+@RestController
+@RequestMapping("/straw-inventory")
+public class StrawInventoryController {
+
+    @Autowired
+    private StrawInventoryService strawInventoryService;
+
+    public record ReceiveRequest(Integer quantity, String remark) {
+    }
+
+    public record AdjustRequest(Integer count, String remark) {
+    }
+
+    public record ReserveRequest(Integer quantity, Integer minutes) {
+    }
+
+    // Latest entries first
+    @GetMapping("/{semenId}/ledger")
+    public ServerRes<List<StrawLedgerEntry>> getLedger(@PathVariable Integer semenId) {
+        return ServerRes.success(strawInventoryService.getLedger(semenId));
+    }
+
+    @GetMapping("/{semenId}/reservations")
+    public ServerRes<List<StrawReservation>> getOpenReservations(@PathVariable Integer semenId) {
+        return ServerRes.success(strawInventoryService.getOpenReservations(semenId));
+    }
+
+    @PostMapping("/{semenId}/receive")
+    public ServerRes<StrawLedgerEntry> receive(@PathVariable Integer semenId, @RequestBody ReceiveRequest request) {
+        try {
+            return ServerRes.success(strawInventoryService.receive(semenId, request.quantity(), request.remark()));
+        } catch (RuntimeException e) {
+            return ServerRes.<StrawLedgerEntry>error(e.getMessage());
+        }
+    }
+
+    // Sets the counted stock; returns no entry when the count already matches
+    @PostMapping("/{semenId}/adjust")
+    public ServerRes<StrawLedgerEntry> adjust(@PathVariable Integer semenId, @RequestBody AdjustRequest request) {
+        try {
+            return ServerRes.success(strawInventoryService.adjustTo(semenId, request.count(), request.remark()));
+        } catch (RuntimeException e) {
+            return ServerRes.<StrawLedgerEntry>error(e.getMessage());
+        }
+    }
+
+    // Holds straws for an AI session; pass the id as strawReservationId when creating AI records
+    @PostMapping("/{semenId}/reserve")
+    public ServerRes<StrawReservation> reserve(@PathVariable Integer semenId, @RequestBody ReserveRequest request) {
+        try {
+            return ServerRes.success(strawInventoryService.reserve(semenId, request.quantity(), request.minutes()));
+        } catch (RuntimeException e) {
+            return ServerRes.<StrawReservation>error(e.getMessage());
+        }
+    }
+
+    @PutMapping("/reservation/{id}/release")
+    public ServerRes<Void> release(@PathVariable Integer id) {
+        try {
+            strawInventoryService.release(id);
+            return ServerRes.success(null);
+        } catch (RuntimeException e) {
+            return ServerRes.<Void>error(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package cowcard.server.StrawInventory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import cowcard.server.Semen.Semen;
+
+// semen.straw is the running balance and semen.reserved_straw what open reservations
+// hold; both are only changed by the conditional UPDATEs below, so concurrent
+// inseminators never oversell or lose a decrement. Every stock change also appends a
+// straw_ledger row, which is the audit trail (the counters carry no updated_by).
+@Service
+public class StrawInventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(StrawInventoryService.class);
+
+    private static final String RECEIVE = "UPDATE semen SET straw = COALESCE(straw, 0) + ? WHERE id = ? RETURNING straw";
+
+    private static final String LOCK_STOCK = "SELECT COALESCE(straw, 0), COALESCE(reserved_straw, 0) FROM semen " +
+            "WHERE id = ? FOR UPDATE";
+
+    private static final String SET_STOCK = "UPDATE semen SET straw = ? WHERE id = ?";
+
+    // Straws held by open reservations are not available to anyone else
+    private static final String USE_UNRESERVED = "UPDATE semen SET straw = straw - 1 " +
+            "WHERE id = ? AND straw - COALESCE(reserved_straw, 0) >= 1 RETURNING straw";
+
+    private static final String USE_RESERVED = "WITH r AS (UPDATE straw_reservations SET remaining = remaining - 1, " +
+            "status = CASE WHEN remaining = 1 THEN 'CONSUMED' ELSE status END, updated_at = ?, updated_by = ? " +
+            "WHERE id = ? AND semen_id = ? AND status = 'OPEN' AND expires_at > ? RETURNING semen_id) " +
+            "UPDATE semen s SET straw = s.straw - 1, reserved_straw = s.reserved_straw - 1 FROM r " +
+            "WHERE s.id = r.semen_id RETURNING s.straw";
+
+    // Batch forms of the two above: one row per reservation, and one row per semen
+    private static final String USE_RESERVED_MANY = "WITH v AS (SELECT * FROM unnest(?::int[], ?::int[], ?::int[]) " +
+            "AS v(reservation_id, semen_id, n)), r AS (UPDATE straw_reservations sr SET remaining = sr.remaining - v.n, " +
+            "status = CASE WHEN sr.remaining = v.n THEN 'CONSUMED' ELSE sr.status END, updated_at = ?, updated_by = ? " +
+            "FROM v WHERE sr.id = v.reservation_id AND sr.semen_id = v.semen_id AND sr.status = 'OPEN' " +
+            "AND sr.expires_at > ? AND sr.remaining >= v.n RETURNING sr.id, sr.semen_id, v.n), " +
+            "stock AS (UPDATE semen s SET straw = s.straw - t.n, reserved_straw = s.reserved_straw - t.n " +
+            "FROM (SELECT semen_id, sum(n) AS n FROM r GROUP BY semen_id) t WHERE s.id = t.semen_id " +
+            "RETURNING s.id, s.straw) SELECT r.id, stock.id, stock.straw FROM r JOIN stock ON stock.id = r.semen_id";
+
+    private static final String USE_UNRESERVED_MANY = "UPDATE semen s SET straw = s.straw - v.n " +
+            "FROM unnest(?::int[], ?::int[]) AS v(semen_id, n) " +
+            "WHERE s.id = v.semen_id AND s.straw - COALESCE(s.reserved_straw, 0) >= v.n RETURNING s.id, s.straw";
+
+    private static final String INSERT_USAGE = "INSERT INTO straw_ledger (semen_id, entry_type, quantity, " +
+            "balance_after, ai_record_id, reservation_id, created_at, created_by, updated_at, updated_by) " +
+            "VALUES (?, 'USAGE', -1, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String RESERVE = "UPDATE semen SET reserved_straw = COALESCE(reserved_straw, 0) + ? " +
+            "WHERE id = ? AND COALESCE(straw, 0) - COALESCE(reserved_straw, 0) >= ? RETURNING id";
+
+    // Closing a reservation hands its unused straws back in the same statement
+    private static final String RELEASE = "WITH r AS (UPDATE straw_reservations SET status = 'RELEASED', " +
+            "updated_at = ?, updated_by = ? WHERE id = ? AND status = 'OPEN' RETURNING semen_id, remaining) " +
+            "UPDATE semen s SET reserved_straw = s.reserved_straw - r.remaining FROM r WHERE s.id = r.semen_id";
+
+    private static final String EXPIRE = "WITH r AS (UPDATE straw_reservations SET status = 'EXPIRED', " +
+            "updated_at = ? WHERE status = 'OPEN' AND expires_at <= ? RETURNING semen_id, remaining) " +
+            "UPDATE semen s SET reserved_straw = s.reserved_straw - freed.held " +
+            "FROM (SELECT semen_id, sum(remaining) AS held FROM r GROUP BY semen_id) freed WHERE s.id = freed.semen_id";
+
+    // Semen that predates the ledger starts it with its current stock
+    private static final String OPEN_MISSING_LEDGERS = "INSERT INTO straw_ledger " +
+            "(semen_id, entry_type, quantity, balance_after, remark, created_at, updated_at) " +
+            "SELECT s.id, 'OPENING', COALESCE(s.straw, 0), COALESCE(s.straw, 0), 'Opening balance', now(), now() " +
+            "FROM semen s WHERE NOT EXISTS (SELECT 1 FROM straw_ledger l WHERE l.semen_id = s.id)";
+
+    private static final String ZERO_NULL_RESERVED = "UPDATE semen SET reserved_straw = 0 WHERE reserved_straw IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StrawLedgerRepository strawLedgerRepository;
+
+    @Autowired
+    private StrawReservationRepository strawReservationRepository;
+
+    @Autowired
+    private AuditorAware<UUID> auditorAware;
+
+    @Value("${cowcard.straw.reservation-minutes:120}")
+    private int defaultReservationMinutes;
+
+    @Value("${cowcard.straw.max-reservation-minutes:720}")
+    private int maxReservationMinutes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void openLedgers() {
+        jdbcTemplate.update(ZERO_NULL_RESERVED);
+        int opened = jdbcTemplate.update(OPEN_MISSING_LEDGERS);
+        if (opened > 0) {
+            log.info("Straw ledger opened for {} semen batches", opened);
+        }
+    }
+
+    // For a newly created semen batch; its initial straw count is the opening balance
+    public void open(Semen semen) {
+        int straw = semen.getStraw() != null ? semen.getStraw() : 0;
+        append(semen.getId(), StrawEntryType.OPENING, straw, straw, null, null, "Opening balance");
+    }
+
+    @Transactional
+    public StrawLedgerEntry receive(Integer semenId, Integer quantity, String remark) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Received quantity must be positive");
+        }
+        Integer balance = returning(RECEIVE, quantity, semenId);
+        if (balance == null) {
+            throw new RuntimeException("Semen with id " + semenId + " not found");
+        }
+        return append(semenId, StrawEntryType.RECEIPT, quantity, balance, null, null, remark);
+    }
+
+    // Stock count correction: sets the balance and records the difference
+    @Transactional
+    public StrawLedgerEntry adjustTo(Integer semenId, Integer count, String remark) {
+        if (count == null || count < 0) {
+            throw new RuntimeException("Straw count cannot be negative");
+        }
+        int[] stock = new int[2];
+        boolean found = Boolean.TRUE.equals(jdbcTemplate.query(LOCK_STOCK, rs -> {
+            if (!rs.next()) {
+                return false;
+            }
+            stock[0] = rs.getInt(1);
+            stock[1] = rs.getInt(2);
+            return true;
+        }, semenId));
+        if (!found) {
+            throw new RuntimeException("Semen with id " + semenId + " not found");
+        }
+        if (count < stock[1]) {
+            throw new RuntimeException("Cannot set stock below the " + stock[1] + " straws currently reserved");
+        }
+        if (count == stock[0]) {
+            return null;
+        }
+        jdbcTemplate.update(SET_STOCK, count, semenId);
+        return append(semenId, StrawEntryType.ADJUSTMENT, count - stock[0], count, null, null, remark);
+    }
+
+    // One straw for an AI record, from the given reservation when there is one
+    @Transactional
+    public StrawLedgerEntry use(Integer semenId, Integer aiRecordId, Integer reservationId) {
+        Integer balance;
+        if (reservationId != null) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            balance = returning(USE_RESERVED, now, auditor(), reservationId, semenId, now);
+            if (balance == null) {
+                throw new RuntimeException("Straw reservation " + reservationId + " is expired, used up or for another semen");
+            }
+        } else {
+            balance = returning(USE_UNRESERVED, semenId);
+            if (balance == null) {
+                throw new RuntimeException("No straws remaining for semen ID: " + semenId);
+            }
+        }
+        return append(semenId, StrawEntryType.USAGE, -1, balance, aiRecordId, reservationId, null);
+    }
+
+    // Straws for many AI records in two statements. Unreserved demands must be one per semen.
+    // A demand is met whole or not at all.
+    @Transactional
+    public StrawConsumption consume(List<StrawDemand> demands) {
+        Set<StrawDemand> met = new HashSet<>();
+        Map<Integer, Integer> balances = new HashMap<>();
+        Map<Integer, StrawDemand> byReservation = new HashMap<>();
+        Map<Integer, StrawDemand> bySemen = new HashMap<>();
+        for (StrawDemand d : demands) {
+            if (d.reservationId() != null) {
+                byReservation.put(d.reservationId(), d);
+            } else {
+                bySemen.put(d.semenId(), d);
+            }
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        UUID auditor = auditor();
+        if (!byReservation.isEmpty()) {
+            List<StrawDemand> rows = new ArrayList<>(byReservation.values());
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(USE_RESERVED_MANY);
+                ps.setArray(1, con.createArrayOf("integer", rows.stream().map(StrawDemand::reservationId).toArray()));
+                ps.setArray(2, con.createArrayOf("integer", rows.stream().map(StrawDemand::semenId).toArray()));
+                ps.setArray(3, con.createArrayOf("integer", rows.stream().map(StrawDemand::count).toArray()));
+                ps.setTimestamp(4, now);
+                ps.setObject(5, auditor, Types.OTHER);
+                ps.setTimestamp(6, now);
+                return ps;
+            }, rs -> {
+                met.add(byReservation.get(rs.getInt(1)));
+                balances.merge(rs.getInt(2), rs.getInt(3), Math::min);
+            });
+        }
+        if (!bySemen.isEmpty()) {
+            List<StrawDemand> rows = new ArrayList<>(bySemen.values());
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(USE_UNRESERVED_MANY);
+                ps.setArray(1, con.createArrayOf("integer", rows.stream().map(StrawDemand::semenId).toArray()));
+                ps.setArray(2, con.createArrayOf("integer", rows.stream().map(StrawDemand::count).toArray()));
+                return ps;
+            }, rs -> {
+                met.add(bySemen.get(rs.getInt(1)));
+                balances.merge(rs.getInt(1), rs.getInt(2), Math::min);
+            });
+        }
+        return new StrawConsumption(met, balances);
+    }
+
+    // Ledger rows for straws taken by consume(), in the order they were used; each semen's
+    // balances count down to the balance consume() returned
+    public void recordUsages(List<StrawUsage> usages, Map<Integer, Integer> balances) {
+        if (usages.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> left = new HashMap<>();
+        usages.forEach(u -> left.merge(u.semenId(), 1, Integer::sum));
+        int[] balanceAfter = new int[usages.size()];
+        for (int i = 0; i < usages.size(); i++) {
+            Integer semenId = usages.get(i).semenId();
+            balanceAfter[i] = balances.get(semenId) + left.merge(semenId, -1, Integer::sum);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        UUID auditor = auditor();
+        jdbcTemplate.batchUpdate(INSERT_USAGE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StrawUsage u = usages.get(i);
+                ps.setInt(1, u.semenId());
+                ps.setInt(2, balanceAfter[i]);
+                ps.setObject(3, u.aiRecordId(), Types.INTEGER);
+                ps.setObject(4, u.reservationId(), Types.INTEGER);
+                ps.setTimestamp(5, now);
+                ps.setObject(6, auditor, Types.OTHER);
+                ps.setTimestamp(7, now);
+                ps.setObject(8, auditor, Types.OTHER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return usages.size();
+            }
+        });
+    }
+
+    @Transactional
+    public StrawReservation reserve(Integer semenId, Integer quantity, Integer minutes) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Reserved quantity must be positive");
+        }
+        int holdMinutes = minutes != null ? Math.min(Math.max(minutes, 1), maxReservationMinutes) : defaultReservationMinutes;
+        if (returning(RESERVE, quantity, semenId, quantity) == null) {
+            throw new RuntimeException("Not enough unreserved straws for semen ID: " + semenId);
+        }
+        StrawReservation reservation = new StrawReservation();
+        reservation.setSemenId(semenId);
+        reservation.setQuantity(quantity);
+        reservation.setRemaining(quantity);
+        reservation.setStatus(StrawReservationStatus.OPEN);
+        reservation.setExpiresAt(LocalDateTime.now().plusMinutes(holdMinutes));
+        return strawReservationRepository.save(reservation);
+    }
+
+    @Transactional
+    public void release(Integer reservationId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (update(RELEASE, now, auditor(), reservationId) == 0) {
+            throw new RuntimeException("Straw reservation " + reservationId + " is not open");
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void expireReservations() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int semen = jdbcTemplate.update(EXPIRE, now, now);
+        if (semen > 0) {
+            log.info("Expired straw reservations released stock for {} semen batches", semen);
+        }
+    }
+
+    public List<StrawLedgerEntry> getLedger(Integer semenId) {
+        return strawLedgerRepository.findTop200BySemenIdOrderByIdDesc(semenId);
+    }
+
+    public List<StrawReservation> getOpenReservations(Integer semenId) {
+        return strawReservationRepository.findBySemenIdAndStatusOrderByIdDesc(semenId, StrawReservationStatus.OPEN);
+    }
+
+    private StrawLedgerEntry append(Integer semenId, StrawEntryType type, int quantity, int balance,
+                                    Integer aiRecordId, Integer reservationId, String remark) {
+        StrawLedgerEntry entry = new StrawLedgerEntry();
+        entry.setSemenId(semenId);
+        entry.setType(type);
+        entry.setQuantity(quantity);
+        entry.setBalanceAfter(balance);
+        entry.setAiRecordId(aiRecordId);
+        entry.setReservationId(reservationId);
+        entry.setRemark(remark);
+        return strawLedgerRepository.save(entry);
+    }
+
+    // First column of the single row an UPDATE ... RETURNING matched, or null if none did
+    private Integer returning(String sql, Object... args) {
+        return jdbcTemplate.query(sql, rs -> rs.next() ? rs.getInt(1) : null, bind(args));
+    }
+
+    private int update(String sql, Object... args) {
+        return jdbcTemplate.update(sql, bind(args));
+    }
+
+    private UUID auditor() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+
+    // A null auditor still has to reach PostgreSQL typed as uuid
+    private static Object[] bind(Object[] args) {
+        Object[] bound = args.clone();
+        for (int i = 0; i < bound.length; i++) {
+            if (bound[i] == null) {
+                bound[i] = new SqlParameterValue(Types.OTHER, null);
+            }
+        }
+        return bound;
+    }
+}
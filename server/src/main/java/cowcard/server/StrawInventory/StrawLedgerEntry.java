@@ -0,0 +1,60 @@
+package cowcard.server.StrawInventory;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+import cowcard.server.Common.BaseEntity;
+
+// Append-only. quantity is signed; balanceAfter snapshots semen.straw right after the
+// change so stock at any entry is read off one row instead of summing the ledger.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "straw_ledger", indexes = {
+        @Index(name = "idx_straw_ledger_semen", columnList = "semen_id, id")
+})
+public class StrawLedgerEntry extends BaseEntity implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "semen_id", nullable = false)
+    private Integer semenId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false)
+    private StrawEntryType type;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "balance_after", nullable = false)
+    private Integer balanceAfter;
+
+    @Column(name = "ai_record_id")
+    private Integer aiRecordId;
+
+    @Column(name = "reservation_id")
+    private Integer reservationId;
+
+    @Column(name = "remark")
+    private String remark;
+}
@@ -0,0 +1,11 @@
+package cowcard.server.StrawInventory;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StrawLedgerRepository extends JpaRepository<StrawLedgerEntry, Integer> {
+    List<StrawLedgerEntry> findTop200BySemenIdOrderByIdDesc(Integer semenId);
+}
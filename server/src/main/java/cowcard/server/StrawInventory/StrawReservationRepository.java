@@ -0,0 +1,11 @@
+package cowcard.server.StrawInventory;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StrawReservationRepository extends JpaRepository<StrawReservation, Integer> {
+    List<StrawReservation> findBySemenIdAndStatusOrderByIdDesc(Integer semenId, StrawReservationStatus status);
+}
@@ -0,0 +1,8 @@
+package cowcard.server.StrawInventory;
+
+public enum StrawReservationStatus {
+    OPEN,
+    CONSUMED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,4 @@
+package cowcard.server.StrawInventory;
+
+public record StrawUsage(Integer semenId, Integer aiRecordId, Integer reservationId) {
+}
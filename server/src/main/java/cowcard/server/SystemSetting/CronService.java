@@ -1,112 +1,150 @@
 package cowcard.server.SystemSetting;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import cowcard.server.PdStatus.PdStatus;
-import cowcard.server.PregnancyDiagnosis.PregnancyDiagnosis;
-import cowcard.server.PregnancyDiagnosis.PregnancyDiagnosisRepository;
+import jakarta.annotation.PostConstruct;
 
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.LiveEvent.LiveTopic;
+import cowcard.server.LiveEvent.StatusChange;
+
+// Each PD status rule is one date-arithmetic UPDATE against the (pd_status, date) indexes,
+// applied in chunks of cowcard.pd-transition.chunk-size rows with a commit per chunk, so the
+// midnight run neither loads PDs into memory nor holds one long transaction. Rules are
+// idempotent, and locked rows are skipped and picked up by the next run.
 @Service
 public class CronService {
 
     private static final Logger log = LoggerFactory.getLogger(CronService.class);
 
-    @Autowired
-    private PregnancyDiagnosisRepository pregnancyDiagnosisRepository;
+    private static final String TRANSITION = "UPDATE pregnancy_diagnosis SET pd_status = ?, updated_at = ?, " +
+            "updated_by = ? WHERE id IN (SELECT id FROM pregnancy_diagnosis WHERE pd_status = ? AND %s <= ? " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id";
 
     @Autowired
     private SystemSettingRepository systemSettingRepository;
 
-    @Scheduled(cron = "0 0 0 * * *") // Midnight daily
-    @Transactional
-    public void execute() {
-        log.info("Cron job started");
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
-        // Read PD day threshold from system setting id=1
-        SystemSetting pdDaySetting = systemSettingRepository.findById(1).orElse(null);
-        if (pdDaySetting == null || pdDaySetting.getValue() == null) {
-            log.warn("System setting id=1 (PD day value) not found, skipping cron");
-            return;
-        }
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
-        int pdDays;
-        try {
-            pdDays = Integer.parseInt(pdDaySetting.getValue());
-        } catch (NumberFormatException e) {
-            log.warn("System setting id=1 value is not a number: {}", pdDaySetting.getValue());
-            return;
-        }
+    @Autowired
+    private AuditorAware<UUID> auditorAware;
 
-        int thresholdDays = pdDays - 5;
+    @Autowired
+    private LiveEventPublisher liveEventPublisher;
 
-        // Find all PDs with status NEW (id=7)
-        List<PregnancyDiagnosis> newPds = pregnancyDiagnosisRepository.findByPdStatusId(7);
-        int updated = 0;
+    @Value("${cowcard.pd-transition.chunk-size:1000}")
+    private int chunkSize;
 
-        for (PregnancyDiagnosis pd : newPds) {
-            if (pd.getAiDate() == null || pd.getAiDate().isBlank()) {
-                continue;
-            }
-            LocalDate aiDate = LocalDate.parse(pd.getAiDate());
-            long daysSince = ChronoUnit.DAYS.between(aiDate, LocalDate.now());
-
-            if (daysSince >= thresholdDays) {
-                PdStatus pendingStatus = new PdStatus();
-                pendingStatus.setId(1); // Pending
-                pd.setPdStatus(pendingStatus);
-                pregnancyDiagnosisRepository.save(pd);
-                updated++;
+    private TransactionTemplate chunkTx;
+
+    private volatile PdTransitionRun lastRun;
+
+    @PostConstruct
+    void init() {
+        chunkTx = new TransactionTemplate(transactionManager);
+        chunkSize = Math.max(chunkSize, 1);
+    }
+
+    @Scheduled(cron = "0 0 0 * * *") // Midnight daily
+    public PdTransitionRun execute() {
+        log.info("Cron job started");
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        UUID auditor = auditorAware.getCurrentAuditor().orElse(null);
+        List<PdTransitionReport> reports = new ArrayList<>();
+        for (PdTransitionRule rule : PdTransitionRule.values()) {
+            PdTransitionReport report = apply(rule, startedAt, auditor);
+            reports.add(report);
+            if (report.skipped() != null) {
+                log.warn("Cron: {} skipped, {}", rule, report.skipped());
+            } else {
+                log.info("Cron: {} moved {} PD records from {} to {} (cutoff {}) in {} chunks, {} ms", rule,
+                        report.updated(), rule.fromStatus, rule.toStatus, report.cutoff(), report.chunks(),
+                        report.millis());
             }
         }
+        PdTransitionRun run = new PdTransitionRun(startedAt, System.currentTimeMillis() - start, reports);
+        lastRun = run;
+        log.info("Cron job completed in {} ms", run.millis());
+        return run;
+    }
 
-        log.info("Cron: {} PD records transitioned from NEW to Pending", updated);
+    public PdTransitionRun getLastRun() {
+        return lastRun;
+    }
 
-        // Rule 2: Pregnant (id=3) → Late Gestation (id=6) when 30 days before due date
-        SystemSetting pregnantDaySetting = systemSettingRepository.findById(2).orElse(null);
-        if (pregnantDaySetting == null || pregnantDaySetting.getValue() == null) {
-            log.warn("System setting id=2 (pregnant day total) not found, skipping Pregnant→Late Gestation rule");
-            return;
+    private PdTransitionReport apply(PdTransitionRule rule, LocalDateTime now, UUID auditor) {
+        long start = System.currentTimeMillis();
+        SystemSetting setting = systemSettingRepository.findById(rule.settingId).orElse(null);
+        if (setting == null || setting.getValue() == null) {
+            return skipped(rule, "system setting id=" + rule.settingId + " not found");
         }
-
-        int pregnantDays;
+        int days;
         try {
-            pregnantDays = Integer.parseInt(pregnantDaySetting.getValue());
+            days = Integer.parseInt(setting.getValue().trim());
         } catch (NumberFormatException e) {
-            log.warn("System setting id=2 value is not a number: {}", pregnantDaySetting.getValue());
-            return;
+            return skipped(rule, "system setting id=" + rule.settingId + " value is not a number: " + setting.getValue());
         }
 
-        int gestationThreshold = pregnantDays - 30;
-
-        List<PregnancyDiagnosis> pregnantPds = pregnancyDiagnosisRepository.findByPdStatusId(3);
-        int gestationUpdated = 0;
-
-        for (PregnancyDiagnosis pd : pregnantPds) {
-            if (pd.getPregnantDate() == null || pd.getPregnantDate().isBlank()) {
-                continue;
-            }
-            LocalDate pregnantDate = LocalDate.parse(pd.getPregnantDate());
-            long daysSincePregnant = ChronoUnit.DAYS.between(pregnantDate, LocalDate.now());
-
-            if (daysSincePregnant >= gestationThreshold) {
-                PdStatus lateGestationStatus = new PdStatus();
-                lateGestationStatus.setId(6); // Late Gestation
-                pd.setPdStatus(lateGestationStatus);
-                pregnancyDiagnosisRepository.save(pd);
-                gestationUpdated++;
+        // Due once (days - leadDays) have passed since the date, i.e. the date is on or before the cutoff
+        LocalDate cutoff = now.toLocalDate().minusDays(days - rule.leadDays);
+        String sql = String.format(TRANSITION, rule.dateColumn);
+        Timestamp at = Timestamp.valueOf(now);
+        int updated = 0;
+        int chunks = 0;
+        int moved;
+        do {
+            List<Integer> ids = chunkTx.execute(status -> {
+                List<Integer> chunk = jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(sql);
+                    ps.setInt(1, rule.toStatus);
+                    ps.setTimestamp(2, at);
+                    ps.setObject(3, auditor, Types.OTHER);
+                    ps.setInt(4, rule.fromStatus);
+                    ps.setDate(5, Date.valueOf(cutoff));
+                    ps.setInt(6, chunkSize);
+                    return ps;
+                }, (rs, i) -> rs.getInt(1));
+                for (Integer id : chunk) {
+                    liveEventPublisher.publish(LiveTopic.BREEDING, "pd-status", "pd:" + id,
+                            new StatusChange(id, rule.toStatus));
+                }
+                return chunk;
+            });
+            moved = ids != null ? ids.size() : 0;
+            updated += moved;
+            if (moved > 0) {
+                chunks++;
             }
-        }
+        } while (moved == chunkSize);
+        return new PdTransitionReport(rule.name(), rule.fromStatus, rule.toStatus, cutoff, updated, chunks,
+                System.currentTimeMillis() - start, null);
+    }
 
-        log.info("Cron: {} PD records transitioned from Pregnant to Late Gestation", gestationUpdated);
-        log.info("Cron job completed");
+    private static PdTransitionReport skipped(PdTransitionRule rule, String reason) {
+        return new PdTransitionReport(rule.name(), rule.fromStatus, rule.toStatus, null, 0, 0, 0, reason);
     }
 }
@@ -0,0 +1,15 @@
+package cowcard.server.SystemSetting;
+
+import java.time.LocalDate;
+
+// skipped is the reason a rule did not run, null when it did
+public record PdTransitionReport(
+        String rule,
+        Integer fromStatusId,
+        Integer toStatusId,
+        LocalDate cutoff,
+        int updated,
+        int chunks,
+        long millis,
+        String skipped) {
+}
@@ -0,0 +1,24 @@
+package cowcard.server.SystemSetting;
+
+// A PD moves from fromStatus to toStatus once dateColumn is at least
+// (setting value - leadDays) days in the past
+enum PdTransitionRule {
+    // NEW (7) -> Pending (1), 5 days before the PD day
+    NEW_TO_PENDING(7, 1, "ai_date", 1, 5),
+    // Pregnant (3) -> Late Gestation (6), 30 days before the due date
+    PREGNANT_TO_LATE_GESTATION(3, 6, "pregnant_date", 2, 30);
+
+    final int fromStatus;
+    final int toStatus;
+    final String dateColumn;
+    final int settingId;
+    final int leadDays;
+
+    PdTransitionRule(int fromStatus, int toStatus, String dateColumn, int settingId, int leadDays) {
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.dateColumn = dateColumn;
+        this.settingId = settingId;
+        this.leadDays = leadDays;
+    }
+}
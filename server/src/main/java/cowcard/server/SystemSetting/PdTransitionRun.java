@@ -0,0 +1,7 @@
+package cowcard.server.SystemSetting;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record PdTransitionRun(LocalDateTime startedAt, long millis, List<PdTransitionReport> rules) {
+}
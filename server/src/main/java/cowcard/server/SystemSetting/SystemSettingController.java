@@ -46,10 +46,20 @@ public class SystemSettingController {
         return ServerRes.success(systemSettingService.update(id, setting));
     }
 
+    // Per-rule counts and timings of the PD status transitions
     @PostMapping("/run-cron")
-    public ServerRes<String> runCron() {
-        cronService.execute();
-        return ServerRes.success("Cron job executed successfully");
+    public ServerRes<PdTransitionRun> runCron() {
+        try {
+            return ServerRes.success(cronService.execute());
+        } catch (RuntimeException e) {
+            return ServerRes.<PdTransitionRun>error(e.getMessage());
+        }
+    }
+
+    // null until the cron has run since startup
+    @GetMapping("/cron/last-run")
+    public ServerRes<PdTransitionRun> getLastCronRun() {
+        return ServerRes.success(cronService.getLastRun());
     }
 
     public record SystemSettingRequest(String name, String value, String remark) {}
@@ -0,0 +1,19 @@
+package cowcard.server.Transponder;
+
+import java.time.LocalDate;
+
+// Compact cow card returned to a chute handheld; cow fields are null if the tag is unassigned
+public record ScanCard(
+        Integer transponderId,
+        String code,
+        Integer cowId,
+        String tag,
+        String gender,
+        String role,
+        String status,
+        String color,
+        Integer feedlotId,
+        String feedlot,
+        LocalDate dob,
+        Boolean active) {
+}
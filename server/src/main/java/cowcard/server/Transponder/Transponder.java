@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -26,7 +27,9 @@ import cowcard.server.Cow.Cow;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transponders")
+@Table(name = "transponders", indexes = {
+        @Index(name = "idx_transponders_current_cow", columnList = "current_cow")
+})
 public class Transponder extends BaseEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
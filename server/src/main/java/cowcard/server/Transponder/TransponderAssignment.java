@@ -0,0 +1,4 @@
+package cowcard.server.Transponder;
+
+public record TransponderAssignment(Integer transponderId, Integer cowId) {
+}
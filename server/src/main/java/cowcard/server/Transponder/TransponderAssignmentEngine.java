@@ -0,0 +1,239 @@
+package cowcard.server.Transponder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import cowcard.server.Transponder.TransponderBulkResult.TransponderBulkError;
+
+// Applies many (transponder, cow) pairs with a fixed number of statements, following the
+// same rules as TransponderService.assign: a transponder moving to a new cow leaves its
+// old cow, and a cow getting a new transponder frees its old one. Conflicts inside the
+// batch (one transponder to two cows, or one cow to two transponders) reject every pair
+// involved. Callers own the transaction.
+@Component
+public class TransponderAssignmentEngine {
+
+    private static final String CLOSE_OPEN_HISTORY = "UPDATE cow_transponder_history " +
+            "SET unassigned_at = ?, updated_at = ?, updated_by = ? " +
+            "WHERE unassigned_at IS NULL AND (transponder_id = ANY(?) OR cow_id = ANY(?))";
+
+    private static final String CLEAR_TRANSPONDERS = "UPDATE transponders " +
+            "SET current_cow = NULL, assigned_date = NULL, updated_at = ?, updated_by = ? " +
+            "WHERE id = ANY(?) OR current_cow = ANY(?)";
+
+    private static final String CLEAR_COWS = "UPDATE cows " +
+            "SET current_transponder_id = NULL, updated_at = ?, updated_by = ? " +
+            "WHERE id = ANY(?) OR current_transponder_id = ANY(?)";
+
+    private static final String SET_TRANSPONDERS = "UPDATE transponders t " +
+            "SET current_cow = v.cow_id, assigned_date = ?, updated_at = ?, updated_by = ? " +
+            "FROM unnest(?::int[], ?::int[]) AS v(transponder_id, cow_id) WHERE t.id = v.transponder_id";
+
+    private static final String SET_COWS = "UPDATE cows c " +
+            "SET current_transponder_id = v.transponder_id, updated_at = ?, updated_by = ? " +
+            "FROM unnest(?::int[], ?::int[]) AS v(transponder_id, cow_id) WHERE c.id = v.cow_id";
+
+    private static final String INSERT_HISTORY = "INSERT INTO cow_transponder_history " +
+            "(cow_id, transponder_id, assigned_at, created_at, created_by, updated_at, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditorAware<UUID> auditorAware;
+
+    public Outcome assign(List<TransponderAssignment> pairs) {
+        List<TransponderBulkError> rejected = new ArrayList<>();
+        Map<Integer, Integer> cowOfTransponder = new LinkedHashMap<>();
+        Map<Integer, Integer> transponderOfCow = new HashMap<>();
+        Set<Integer> conflictedTransponders = new HashSet<>();
+        Set<Integer> conflictedCows = new HashSet<>();
+        for (TransponderAssignment p : pairs) {
+            if (p == null || p.transponderId() == null || p.cowId() == null) {
+                rejected.add(new TransponderBulkError(p != null ? p.transponderId() : null,
+                        p != null ? p.cowId() : null, "transponderId and cowId are required"));
+                continue;
+            }
+            Integer cow = cowOfTransponder.putIfAbsent(p.transponderId(), p.cowId());
+            if (cow != null && !cow.equals(p.cowId())) {
+                conflictedTransponders.add(p.transponderId());
+            }
+            Integer transponder = transponderOfCow.putIfAbsent(p.cowId(), p.transponderId());
+            if (transponder != null && !transponder.equals(p.transponderId())) {
+                conflictedCows.add(p.cowId());
+            }
+        }
+        // Every pair naming a conflicted transponder or cow is dropped, not just the later one
+        for (TransponderAssignment p : pairs) {
+            if (p == null || p.transponderId() == null || p.cowId() == null) {
+                continue;
+            }
+            if (conflictedTransponders.contains(p.transponderId())) {
+                rejected.add(new TransponderBulkError(p.transponderId(), p.cowId(),
+                        "Transponder is assigned to more than one cow in this batch"));
+            } else if (conflictedCows.contains(p.cowId())) {
+                rejected.add(new TransponderBulkError(p.transponderId(), p.cowId(),
+                        "Cow is assigned more than one transponder in this batch"));
+            }
+        }
+        cowOfTransponder.entrySet().removeIf(e ->
+                conflictedTransponders.contains(e.getKey()) || conflictedCows.contains(e.getValue()));
+
+        Map<Integer, Integer> currentCowOf = currentPartners(
+                "SELECT id, current_cow FROM transponders WHERE id = ANY(?)", cowOfTransponder.keySet());
+        Map<Integer, Integer> currentTransponderOf = currentPartners(
+                "SELECT id, current_transponder_id FROM cows WHERE id = ANY(?)", Set.copyOf(cowOfTransponder.values()));
+
+        List<Integer> transponders = new ArrayList<>();
+        List<Integer> cows = new ArrayList<>();
+        Set<Integer> displacedCows = new HashSet<>();
+        Set<Integer> displacedTransponders = new HashSet<>();
+        int unchanged = 0;
+        for (Map.Entry<Integer, Integer> e : cowOfTransponder.entrySet()) {
+            Integer transponderId = e.getKey();
+            Integer cowId = e.getValue();
+            if (!currentCowOf.containsKey(transponderId)) {
+                rejected.add(new TransponderBulkError(transponderId, cowId,
+                        "Transponder with id " + transponderId + " not found"));
+                continue;
+            }
+            if (!currentTransponderOf.containsKey(cowId)) {
+                rejected.add(new TransponderBulkError(transponderId, cowId, "Cow with id " + cowId + " not found"));
+                continue;
+            }
+            Integer oldCow = currentCowOf.get(transponderId);
+            Integer oldTransponder = currentTransponderOf.get(cowId);
+            if (cowId.equals(oldCow) && transponderId.equals(oldTransponder)) {
+                unchanged++;
+                continue;
+            }
+            transponders.add(transponderId);
+            cows.add(cowId);
+            if (oldCow != null && !oldCow.equals(cowId)) {
+                displacedCows.add(oldCow);
+            }
+            if (oldTransponder != null && !oldTransponder.equals(transponderId)) {
+                displacedTransponders.add(oldTransponder);
+            }
+        }
+        // Partners that are themselves re-paired in this batch were not really displaced
+        displacedCows.removeAll(cows);
+        displacedTransponders.removeAll(transponders);
+
+        Set<Integer> touchedTransponders = new HashSet<>(transponders);
+        if (!transponders.isEmpty()) {
+            apply(transponders, cows);
+            touchedTransponders.addAll(displacedTransponders);
+        }
+        TransponderBulkResult result = new TransponderBulkResult(pairs.size(), transponders.size(), unchanged,
+                displacedCows.size() + displacedTransponders.size(), rejected);
+        return new Outcome(result, touchedTransponders);
+    }
+
+    private Map<Integer, Integer> currentPartners(String sql, Set<Integer> ids) {
+        Map<Integer, Integer> partners = new HashMap<>();
+        if (ids.isEmpty()) {
+            return partners;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", ids.toArray()));
+            return ps;
+        }, rs -> {
+            partners.put(rs.getInt(1), (Integer) rs.getObject(2));
+        });
+        return partners;
+    }
+
+    private void apply(List<Integer> transponders, List<Integer> cows) {
+        LocalDateTime at = LocalDateTime.now();
+        Timestamp now = Timestamp.valueOf(at);
+        UUID auditor = auditorAware.getCurrentAuditor().orElse(null);
+        Integer[] transponderIds = transponders.toArray(Integer[]::new);
+        Integer[] cowIds = cows.toArray(Integer[]::new);
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(CLOSE_OPEN_HISTORY);
+            ps.setTimestamp(1, now);
+            ps.setTimestamp(2, now);
+            ps.setObject(3, auditor, Types.OTHER);
+            ps.setArray(4, con.createArrayOf("integer", transponderIds));
+            ps.setArray(5, con.createArrayOf("integer", cowIds));
+            return ps;
+        });
+        // Detach both sides of every pair from whatever they were attached to
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(CLEAR_TRANSPONDERS);
+            ps.setTimestamp(1, now);
+            ps.setObject(2, auditor, Types.OTHER);
+            ps.setArray(3, con.createArrayOf("integer", transponderIds));
+            ps.setArray(4, con.createArrayOf("integer", cowIds));
+            return ps;
+        });
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(CLEAR_COWS);
+            ps.setTimestamp(1, now);
+            ps.setObject(2, auditor, Types.OTHER);
+            ps.setArray(3, con.createArrayOf("integer", cowIds));
+            ps.setArray(4, con.createArrayOf("integer", transponderIds));
+            return ps;
+        });
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SET_TRANSPONDERS);
+            ps.setDate(1, Date.valueOf(at.toLocalDate()));
+            ps.setTimestamp(2, now);
+            ps.setObject(3, auditor, Types.OTHER);
+            ps.setArray(4, con.createArrayOf("integer", transponderIds));
+            ps.setArray(5, con.createArrayOf("integer", cowIds));
+            return ps;
+        });
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SET_COWS);
+            ps.setTimestamp(1, now);
+            ps.setObject(2, auditor, Types.OTHER);
+            ps.setArray(3, con.createArrayOf("integer", transponderIds));
+            ps.setArray(4, con.createArrayOf("integer", cowIds));
+            return ps;
+        });
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, cowIds[i]);
+                ps.setInt(2, transponderIds[i]);
+                ps.setTimestamp(3, now);
+                ps.setTimestamp(4, now);
+                ps.setObject(5, auditor, Types.OTHER);
+                ps.setTimestamp(6, now);
+                ps.setObject(7, auditor, Types.OTHER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return cowIds.length;
+            }
+        });
+    }
+
+    // touchedTransponders: every transponder whose current cow changed, for index refresh
+    public record Outcome(TransponderBulkResult result, Set<Integer> touchedTransponders) {
+    }
+}
@@ -0,0 +1,15 @@
+package cowcard.server.Transponder;
+
+import java.util.List;
+
+// displaced counts cows and transponders that lost their previous partner
+public record TransponderBulkResult(
+        int requested,
+        int assigned,
+        int unchanged,
+        int displaced,
+        List<TransponderBulkError> rejected) {
+
+    public record TransponderBulkError(Integer transponderId, Integer cowId, String message) {
+    }
+}
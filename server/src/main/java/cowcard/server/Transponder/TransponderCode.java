@@ -0,0 +1,40 @@
+package cowcard.server.Transponder;
+
+import java.time.LocalDate;
+
+import cowcard.server.Cow.Cow;
+
+// Resolution of one scanned code plus the cow-card fields of the cow wearing it.
+// Cow fields are null for an unassigned transponder; reference ids are named on read.
+public record TransponderCode(
+        Integer transponderId,
+        String code,
+        Integer cowId,
+        String tag,
+        Integer genderId,
+        Integer roleId,
+        Integer statusId,
+        Integer colorId,
+        Integer feedlotId,
+        LocalDate dob,
+        Boolean active) {
+
+    public static TransponderCode from(Transponder t) {
+        Cow cow = t.getCurrentCow();
+        if (cow == null) {
+            return new TransponderCode(t.getId(), t.getCode(), null, null, null, null, null, null, null, null, null);
+        }
+        return new TransponderCode(t.getId(), t.getCode(), cow.getId(), cow.getTag(),
+                cow.getGender() != null ? cow.getGender().getId() : null,
+                cow.getRole() != null ? cow.getRole().getId() : null,
+                cow.getStatus() != null ? cow.getStatus().getId() : null,
+                cow.getColor() != null ? cow.getColor().getId() : null,
+                cow.getCurrentFeedlot() != null ? cow.getCurrentFeedlot().getId() : null,
+                cow.getDob(), cow.getActive());
+    }
+
+    public TransponderCode withFeedlot(Integer newFeedlotId) {
+        return new TransponderCode(transponderId, code, cowId, tag, genderId, roleId, statusId, colorId,
+                newFeedlotId, dob, active);
+    }
+}
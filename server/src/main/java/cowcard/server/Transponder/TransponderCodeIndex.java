@@ -0,0 +1,128 @@
+package cowcard.server.Transponder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import cowcard.server.Common.AfterCommit;
+import cowcard.server.Feedlot.FeedlotMove;
+
+// Scanned code -> transponder -> current cow (with its cow-card fields), so reader traffic
+// and chute scans never query the database. Codes are matched trimmed and case-insensitively.
+// Cows are only created, moved between feedlots and (un)tagged, so those are the only
+// paths that need to report here.
+@Component
+public class TransponderCodeIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TransponderCodeIndex.class);
+
+    private static final String SELECT_ENTRIES = "SELECT t.id, t.code, c.id, c.tag, c.gender, c.role, c.status, " +
+            "c.color, c.current_feedlot_id, c.dob, c.active FROM transponders t LEFT JOIN cows c ON c.id = t.current_cow";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Map<String, TransponderCode> byCode = new ConcurrentHashMap<>();
+    private volatile Map<Integer, TransponderCode> byId = new ConcurrentHashMap<>();
+    private volatile Map<Integer, Integer> transponderOfCow = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        Map<String, TransponderCode> codes = new ConcurrentHashMap<>();
+        Map<Integer, TransponderCode> ids = new ConcurrentHashMap<>();
+        Map<Integer, Integer> cows = new ConcurrentHashMap<>();
+        jdbcTemplate.query(SELECT_ENTRIES, rs -> {
+            TransponderCode entry = entry(rs);
+            ids.put(entry.transponderId(), entry);
+            codes.put(normalize(entry.code()), entry);
+            if (entry.cowId() != null) {
+                cows.put(entry.cowId(), entry.transponderId());
+            }
+        });
+        byCode = codes;
+        byId = ids;
+        transponderOfCow = cows;
+        log.info("Transponder code index loaded: {} codes in {} ms", codes.size(), System.currentTimeMillis() - start);
+    }
+
+    // For set-based writes: re-reads the given transponders inside the current transaction
+    // and publishes them to the index once it commits
+    public List<TransponderCode> refresh(Collection<Integer> transponderIds) {
+        if (transponderIds.isEmpty()) {
+            return List.of();
+        }
+        List<TransponderCode> entries = new ArrayList<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_ENTRIES + " WHERE t.id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("integer", transponderIds.toArray()));
+            return ps;
+        }, rs -> {
+            entries.add(entry(rs));
+        });
+        AfterCommit.run(() -> entries.forEach(this::put));
+        return entries;
+    }
+
+    public TransponderCode resolve(String code) {
+        return code == null ? null : byCode.get(normalize(code));
+    }
+
+    // Create/update/assign/unassign all funnel through here after commit
+    public void onTransponderSaved(Transponder t) {
+        TransponderCode entry = TransponderCode.from(t);
+        AfterCommit.run(() -> put(entry));
+    }
+
+    // Called from FeedlotService.afterMoves, already after commit
+    public synchronized void onCowsMoved(List<FeedlotMove> moves) {
+        for (FeedlotMove m : moves) {
+            Integer transponderId = transponderOfCow.get(m.cowId());
+            TransponderCode current = transponderId != null ? byId.get(transponderId) : null;
+            if (current != null && m.cowId().equals(current.cowId())) {
+                put(current.withFeedlot(m.toFeedlotId()));
+            }
+        }
+    }
+
+    private synchronized void put(TransponderCode entry) {
+        TransponderCode previous = byId.put(entry.transponderId(), entry);
+        if (previous != null && !normalize(previous.code()).equals(normalize(entry.code()))) {
+            byCode.remove(normalize(previous.code()), previous);
+        }
+        if (previous != null && previous.cowId() != null && !previous.cowId().equals(entry.cowId())) {
+            transponderOfCow.remove(previous.cowId(), entry.transponderId());
+        }
+        byCode.put(normalize(entry.code()), entry);
+        if (entry.cowId() != null) {
+            transponderOfCow.put(entry.cowId(), entry.transponderId());
+        }
+    }
+
+    private static TransponderCode entry(ResultSet rs) throws SQLException {
+        Date dob = rs.getDate(10);
+        return new TransponderCode(rs.getInt(1), rs.getString(2), (Integer) rs.getObject(3),
+                rs.getString(4), (Integer) rs.getObject(5), (Integer) rs.getObject(6), (Integer) rs.getObject(7),
+                (Integer) rs.getObject(8), (Integer) rs.getObject(9), dob != null ? dob.toLocalDate() : null,
+                (Boolean) rs.getObject(11));
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
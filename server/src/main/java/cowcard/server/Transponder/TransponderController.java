@@ -25,6 +25,15 @@ public class TransponderController {
         return ServerRes.success(transponderService.getDetail(id));
     }
 
+    @GetMapping("/scan/{code}")
+    public ServerRes<ScanCard> scan(@PathVariable String code) {
+        try {
+            return ServerRes.success(transponderService.scan(code));
+        } catch (RuntimeException e) {
+            return ServerRes.<ScanCard>error(e.getMessage());
+        }
+    }
+
     @GetMapping("/all")
     public ServerRes<List<Transponder>> getAll() {
         return ServerRes.success(transponderService.findAll());
@@ -50,6 +59,12 @@ public class TransponderController {
         return transponderService.assign(transponderId, cowId);
     }
 
+    // Many (transponderId, cowId) pairs in one transaction; conflicting pairs are rejected
+    @PutMapping("/assign-bulk")
+    public ServerRes<TransponderBulkResult> assignBulk(@RequestBody List<TransponderAssignment> pairs) {
+        return transponderService.assignBulk(pairs);
+    }
+
     @PutMapping("/unassign/{transponderId}")
     public ServerRes<Transponder> unassign(@PathVariable Integer transponderId) {
         return transponderService.unassign(transponderId);
@@ -3,10 +3,16 @@ package cowcard.server.Transponder;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import cowcard.server.Search.SearchEntry;
+
 @Repository
 public interface TransponderRepository extends JpaRepository<Transponder, Integer> {
 
     List<Transponder> findByCurrentCowIsNull();
+
+    @Query("SELECT new cowcard.server.Search.SearchEntry(t.id, t.code) FROM Transponder t ORDER BY t.id ASC")
+    List<SearchEntry> findSearchEntries();
 }
@@ -4,16 +4,26 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import cowcard.server.Color.Color;
 import cowcard.server.Common.ServerRes;
 import cowcard.server.Cow.Cow;
 import cowcard.server.Cow.CowRepository;
+import cowcard.server.CowGender.CowGender;
+import cowcard.server.CowRole.CowRole;
+import cowcard.server.CowStatus.CowStatus;
 import cowcard.server.CowTransponderHistory.CowTransponderHistory;
 import cowcard.server.CowTransponderHistory.CowTransponderHistoryRepository;
+import cowcard.server.Feedlot.Feedlot;
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.LiveEvent.LiveTopic;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.Search.SearchService;
 
 @Service
 public class TransponderService {
@@ -27,6 +37,21 @@ public class TransponderService {
     @Autowired
     private CowTransponderHistoryRepository cowTransponderHistoryRepository;
 
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private TransponderCodeIndex transponderCodeIndex;
+
+    @Autowired
+    private LiveEventPublisher liveEventPublisher;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private TransponderAssignmentEngine transponderAssignmentEngine;
+
     public TransponderDetail getDetail(Integer id) {
         Transponder t = transponderRepository.findById(id).orElseThrow();
         TransponderCurrentCow currentCow = t.getCurrentCow() != null
@@ -37,6 +62,26 @@ public class TransponderService {
         return TransponderDetail.from(t, currentCow, history);
     }
 
+    // Chute lookup: answered entirely from memory
+    public ScanCard scan(String code) {
+        TransponderCode entry = transponderCodeIndex.resolve(code);
+        if (entry == null) {
+            throw new RuntimeException("Unknown transponder code " + code);
+        }
+        return new ScanCard(entry.transponderId(), entry.code(), entry.cowId(), entry.tag(),
+                nameOf(CowGender.class, entry.genderId(), CowGender::getName),
+                nameOf(CowRole.class, entry.roleId(), CowRole::getName),
+                nameOf(CowStatus.class, entry.statusId(), CowStatus::getName),
+                nameOf(Color.class, entry.colorId(), Color::getName),
+                entry.feedlotId(),
+                nameOf(Feedlot.class, entry.feedlotId(), Feedlot::getName),
+                entry.dob(), entry.active());
+    }
+
+    private <T> String nameOf(Class<T> type, Integer id, Function<T, String> name) {
+        return id == null ? null : referenceDataCache.findById(type, id).map(name).orElse(null);
+    }
+
     public List<Transponder> findAll() {
         return transponderRepository.findAll();
     }
@@ -46,14 +91,20 @@ public class TransponderService {
     }
 
     public Transponder create(Transponder transponder) {
-        return transponderRepository.save(transponder);
+        Transponder saved = transponderRepository.save(transponder);
+        searchService.onTransponderSaved(saved);
+        transponderCodeIndex.onTransponderSaved(saved);
+        return saved;
     }
 
     public Transponder update(Integer id, Transponder transponder) {
         Transponder e = transponderRepository.findById(id).orElseThrow();
         e.setCode(transponder.getCode());
         e.setRemark(transponder.getRemark());
-        return transponderRepository.save(e);
+        Transponder saved = transponderRepository.save(e);
+        searchService.onTransponderSaved(saved);
+        transponderCodeIndex.onTransponderSaved(saved);
+        return saved;
     }
 
     @Transactional
@@ -104,6 +155,8 @@ public class TransponderService {
             oldTransponder.setCurrentCow(null);
             oldTransponder.setAssignedDate(null);
             transponderRepository.save(oldTransponder);
+            transponderCodeIndex.onTransponderSaved(oldTransponder);
+            publish("unassigned", oldTransponder);
         }
 
         // Create new history record
@@ -117,6 +170,8 @@ public class TransponderService {
         transponder.setCurrentCow(cow);
         transponder.setAssignedDate(LocalDate.now());
         transponderRepository.save(transponder);
+        transponderCodeIndex.onTransponderSaved(transponder);
+        publish("assigned", transponder);
 
         // Update cow's current transponder
         cow.setCurrentTransponder(transponder);
@@ -153,7 +208,27 @@ public class TransponderService {
         transponder.setCurrentCow(null);
         transponder.setAssignedDate(null);
         transponderRepository.save(transponder);
+        transponderCodeIndex.onTransponderSaved(transponder);
+        publish("unassigned", transponder);
 
         return ServerRes.success(transponder, "Transponder unassigned successfully");
     }
+
+    @Transactional
+    public ServerRes<TransponderBulkResult> assignBulk(List<TransponderAssignment> pairs) {
+        if (pairs == null || pairs.isEmpty()) {
+            return ServerRes.<TransponderBulkResult>error("No assignments given");
+        }
+        TransponderAssignmentEngine.Outcome outcome = transponderAssignmentEngine.assign(pairs);
+        for (TransponderCode entry : transponderCodeIndex.refresh(outcome.touchedTransponders())) {
+            liveEventPublisher.publish(LiveTopic.TRANSPONDER, entry.cowId() != null ? "assigned" : "unassigned",
+                    "transponder:" + entry.transponderId(), entry);
+        }
+        return ServerRes.success(outcome.result(), "Transponders assigned successfully");
+    }
+
+    private void publish(String action, Transponder t) {
+        liveEventPublisher.publish(LiveTopic.TRANSPONDER, action, "transponder:" + t.getId(),
+                TransponderCode.from(t));
+    }
 }
@@ -0,0 +1,12 @@
+package cowcard.server.TransponderRecord;
+
+import java.util.List;
+
+// unknownCodes lists each unresolved code once
+public record RfidIngestResult(
+        int received,
+        int stored,
+        int duplicates,
+        int invalid,
+        List<String> unknownCodes) {
+}
@@ -0,0 +1,201 @@
+package cowcard.server.TransponderRecord;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cowcard.server.Common.AfterCommit;
+import cowcard.server.Feedlot.Feedlot;
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.LiveEvent.LiveTopic;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.Transponder.TransponderCode;
+import cowcard.server.Transponder.TransponderCodeIndex;
+
+// Panel readers report the same tag many times while a cow stands at the trough.
+// A read is stored only if the same transponder was not already stored from the same
+// reader within the dedup window; everything else is resolved in memory and written
+// with one batched insert per call.
+@Service
+public class RfidIngestService {
+
+    private static final String INSERT_READ = "INSERT INTO transponder_records " +
+            "(transponder_id, cow_id, feedlot_id, assigned_date, read_at, reader, " +
+            "created_at, created_by, updated_at, updated_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditorAware<UUID> auditorAware;
+
+    @Autowired
+    private TransponderCodeIndex transponderCodeIndex;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private LiveEventPublisher liveEventPublisher;
+
+    @Value("${cowcard.rfid.dedup-window-seconds:30}")
+    private long dedupWindowSeconds;
+
+    // Last stored read time (epoch ms) per transponder and reader
+    private final Map<ReadKey, Long> lastStored = new ConcurrentHashMap<>();
+
+    @Transactional
+    public RfidIngestResult ingest(List<RfidRead> reads) {
+        if (reads == null || reads.isEmpty()) {
+            return new RfidIngestResult(0, 0, 0, 0, List.of());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> unknown = new LinkedHashSet<>();
+        List<Resolved> resolved = new ArrayList<>(reads.size());
+        int invalid = 0;
+        for (RfidRead r : reads) {
+            if (r == null || r.code() == null || r.code().isBlank()) {
+                invalid++;
+                continue;
+            }
+            LocalDateTime at;
+            try {
+                at = r.readAt() == null || r.readAt().isBlank() ? now : LocalDateTime.parse(r.readAt());
+            } catch (DateTimeParseException e) {
+                invalid++;
+                continue;
+            }
+            if (r.feedlotId() != null && referenceDataCache.findById(Feedlot.class, r.feedlotId()).isEmpty()) {
+                invalid++;
+                continue;
+            }
+            TransponderCode code = transponderCodeIndex.resolve(r.code());
+            if (code == null) {
+                unknown.add(r.code().trim());
+                continue;
+            }
+            resolved.add(new Resolved(code, r.reader(), r.feedlotId(), at, epochMilli(at)));
+        }
+
+        // Oldest first so a burst keeps its first read rather than an arbitrary one
+        resolved.sort(Comparator.comparingLong(Resolved::epochMilli));
+        long window = dedupWindowSeconds * 1000;
+        List<Resolved> stored = new ArrayList<>(resolved.size());
+        List<Claim> claims = new ArrayList<>(resolved.size());
+        for (Resolved r : resolved) {
+            // Checked and claimed in one step, so two batches cannot both take the same read
+            ReadKey key = new ReadKey(r.code().transponderId(), r.reader());
+            Long[] previous = {null};
+            boolean[] accepted = {false};
+            Long claimed = lastStored.compute(key, (k, last) -> {
+                previous[0] = last;
+                if (last != null && Math.abs(r.epochMilli() - last) < window) {
+                    return last;
+                }
+                accepted[0] = true;
+                return last == null ? r.epochMilli() : Math.max(last, r.epochMilli());
+            });
+            if (accepted[0]) {
+                stored.add(r);
+                claims.add(new Claim(key, previous[0], claimed));
+            }
+        }
+
+        if (!stored.isEmpty()) {
+            releaseOnRollback(claims);
+            insert(stored, now);
+            AfterCommit.run(() -> stored.forEach(r -> liveEventPublisher.publishCommitted(LiveTopic.RFID, "read",
+                    "transponder:" + r.code().transponderId(), new RfidSeen(r.code().transponderId(), r.code().code(),
+                            r.code().cowId(), r.reader(), r.feedlotId(), r.readAt()))));
+        }
+        return new RfidIngestResult(reads.size(), stored.size(), resolved.size() - stored.size(), invalid,
+                new ArrayList<>(unknown));
+    }
+
+    // Entries older than the window can no longer suppress anything
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long cutoff = epochMilli(LocalDateTime.now()) - 2 * dedupWindowSeconds * 1000;
+        lastStored.values().removeIf(last -> last < cutoff);
+    }
+
+    // A batch that never commits hands its claims back so a retry is not suppressed. Claims
+    // are undone newest first, and one already overtaken by a later batch is left alone.
+    private void releaseOnRollback(List<Claim> claims) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                for (int i = claims.size() - 1; i >= 0; i--) {
+                    Claim c = claims.get(i);
+                    lastStored.computeIfPresent(c.key(), (k, last) -> last.equals(c.claimed()) ? c.previous() : last);
+                }
+            }
+        });
+    }
+
+    private void insert(List<Resolved> rows, LocalDateTime now) {
+        Timestamp created = Timestamp.valueOf(now);
+        UUID auditor = auditorAware.getCurrentAuditor().orElse(null);
+        jdbcTemplate.batchUpdate(INSERT_READ, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Resolved r = rows.get(i);
+                ps.setInt(1, r.code().transponderId());
+                ps.setObject(2, r.code().cowId(), Types.INTEGER);
+                ps.setObject(3, r.feedlotId(), Types.INTEGER);
+                ps.setObject(4, r.readAt().toLocalDate());
+                ps.setTimestamp(5, Timestamp.valueOf(r.readAt()));
+                ps.setString(6, r.reader());
+                ps.setTimestamp(7, created);
+                ps.setObject(8, auditor, Types.OTHER);
+                ps.setTimestamp(9, created);
+                ps.setObject(10, auditor, Types.OTHER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private static long epochMilli(LocalDateTime at) {
+        return at.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private record ReadKey(int transponderId, String reader) {
+    }
+
+    private record Claim(ReadKey key, Long previous, Long claimed) {
+    }
+
+    private record Resolved(TransponderCode code, String reader, Integer feedlotId, LocalDateTime readAt,
+                            long epochMilli) {
+    }
+}
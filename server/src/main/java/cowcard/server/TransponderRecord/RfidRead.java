@@ -0,0 +1,6 @@
+package cowcard.server.TransponderRecord;
+
+// One tag read from a panel reader; readAt is ISO local date-time, omitted means "now".
+// feedlotId is the pen the reader is mounted in, if known.
+public record RfidRead(String code, String reader, Integer feedlotId, String readAt) {
+}
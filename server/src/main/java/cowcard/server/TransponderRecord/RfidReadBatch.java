@@ -0,0 +1,6 @@
+package cowcard.server.TransponderRecord;
+
+import java.util.List;
+
+public record RfidReadBatch(List<RfidRead> reads) {
+}
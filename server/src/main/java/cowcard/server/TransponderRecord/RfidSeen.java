@@ -0,0 +1,8 @@
+package cowcard.server.TransponderRecord;
+
+import java.time.LocalDateTime;
+
+// Live-stream payload for a stored read
+public record RfidSeen(Integer transponderId, String code, Integer cowId, String reader, Integer feedlotId,
+                       LocalDateTime readAt) {
+}
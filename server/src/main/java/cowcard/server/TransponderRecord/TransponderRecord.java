@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -15,6 +16,7 @@ import lombok.Setter;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 import cowcard.server.Common.BaseEntity;
 import cowcard.server.Cow.Cow;
@@ -26,7 +28,9 @@ import cowcard.server.Transponder.Transponder;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transponder_records")
+@Table(name = "transponder_records", indexes = {
+        @Index(name = "idx_transponder_records_cow_read", columnList = "cow_id, read_at")
+})
 public class TransponderRecord extends BaseEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -52,4 +56,11 @@ public class TransponderRecord extends BaseEntity implements Serializable {
 
     @Column(name = "leave_date")
     private LocalDate leaveDate;
+
+    // Set for RFID reads ingested from panel readers
+    @Column(name = "read_at")
+    private LocalDateTime readAt;
+
+    @Column(name = "reader")
+    private String reader;
 }
@@ -4,6 +4,8 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -16,8 +18,21 @@ public class TransponderRecordController {
     @Autowired
     private TransponderRecordService transponderRecordService;
 
+    @Autowired
+    private RfidIngestService rfidIngestService;
+
     @GetMapping("/all")
     public ServerRes<List<TransponderRecord>> getAll() {
         return ServerRes.success(transponderRecordService.findAll());
     }
+
+    // Batch of panel-reader tag reads; duplicates within the dedup window are dropped
+    @PostMapping("/ingest")
+    public ServerRes<RfidIngestResult> ingest(@RequestBody RfidReadBatch batch) {
+        try {
+            return ServerRes.success(rfidIngestService.ingest(batch.reads()));
+        } catch (RuntimeException e) {
+            return ServerRes.<RfidIngestResult>error(e.getMessage());
+        }
+    }
 }
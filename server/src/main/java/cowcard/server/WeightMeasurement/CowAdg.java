@@ -0,0 +1,6 @@
+package cowcard.server.WeightMeasurement;
+
+// Average daily gain as the least-squares slope of weight over days (kg/day)
+public record CowAdg(Integer cowId, String tag, int measurements, double firstWeight, double lastWeight,
+                     double days, Double adg) {
+}
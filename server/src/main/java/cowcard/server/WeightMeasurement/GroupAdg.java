@@ -0,0 +1,5 @@
+package cowcard.server.WeightMeasurement;
+
+// Mean of per-cow ADG over cows with at least two weighings in the group
+public record GroupAdg(Integer id, String name, int cows, double meanAdg, double minAdg, double maxAdg) {
+}
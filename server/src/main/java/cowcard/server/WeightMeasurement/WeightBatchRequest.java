@@ -0,0 +1,6 @@
+package cowcard.server.WeightMeasurement;
+
+import java.util.List;
+
+public record WeightBatchRequest(List<WeightReading> readings) {
+}
@@ -0,0 +1,9 @@
+package cowcard.server.WeightMeasurement;
+
+import java.util.List;
+
+public record WeightBatchResult(int accepted, int rejected, List<WeightBatchError> errors) {
+
+    public record WeightBatchError(int index, Integer cowId, String message) {
+    }
+}
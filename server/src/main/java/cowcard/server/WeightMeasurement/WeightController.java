@@ -0,0 +1,60 @@
+package cowcard.server.WeightMeasurement;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import cowcard.server.Common.ServerRes;
+
+@RestController
+@RequestMapping("/weight")
+public class WeightController {
+
+    @Autowired
+    private WeightService weightService;
+
+    // One scale session per call; invalid readings are reported by index, the rest are stored
+    @PostMapping("/batch")
+    public ServerRes<WeightBatchResult> ingest(@RequestBody WeightBatchRequest request) {
+        try {
+            return ServerRes.success(weightService.ingest(request.readings()));
+        } catch (RuntimeException e) {
+            return ServerRes.<WeightBatchResult>error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/cow/{cowId}")
+    public ServerRes<CowWeightHistory> getHistory(@PathVariable Integer cowId,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ServerRes.success(weightService.getHistory(cowId, from, to));
+    }
+
+    @GetMapping("/adg/cow/{cowId}")
+    public ServerRes<CowAdg> getCowAdg(@PathVariable Integer cowId,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ServerRes.success(weightService.getCowAdg(cowId, from, to));
+    }
+
+    @GetMapping("/adg/feedlot")
+    public ServerRes<List<GroupAdg>> getFeedlotAdg(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ServerRes.success(weightService.getFeedlotAdg(from, to));
+    }
+
+    @GetMapping("/adg/sire")
+    public ServerRes<List<GroupAdg>> getSireAdg(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ServerRes.success(weightService.getSireAdg(from, to));
+    }
+}
@@ -0,0 +1,56 @@
+package cowcard.server.WeightMeasurement;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import cowcard.server.Common.BaseEntity;
+import cowcard.server.Cow.Cow;
+import cowcard.server.Feedlot.Feedlot;
+
+// Append-only: rows are written in batches by WeightService and never updated
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "weight_measurements", indexes = {
+        @Index(name = "idx_weight_measurements_cow_time", columnList = "cow_id, measured_at")
+})
+public class WeightMeasurement extends BaseEntity implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Integer id;
+
+    @ManyToOne
+    @JoinColumn(name = "cow_id", referencedColumnName = "id", nullable = false)
+    private Cow cow;
+
+    @Column(name = "measured_at", nullable = false)
+    private LocalDateTime measuredAt;
+
+    @Column(name = "weight", nullable = false)
+    private BigDecimal weight;
+
+    // Feedlot the cow was in when weighed, so gain can be attributed per pen
+    @ManyToOne
+    @JoinColumn(name = "feedlot_id", referencedColumnName = "id")
+    private Feedlot feedlot;
+}
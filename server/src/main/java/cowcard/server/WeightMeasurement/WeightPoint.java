@@ -0,0 +1,6 @@
+package cowcard.server.WeightMeasurement;
+
+import java.time.LocalDateTime;
+
+public record WeightPoint(LocalDateTime measuredAt, double weight, Integer feedlotId) {
+}
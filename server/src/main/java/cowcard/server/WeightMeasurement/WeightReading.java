@@ -0,0 +1,7 @@
+package cowcard.server.WeightMeasurement;
+
+import java.math.BigDecimal;
+
+// measuredAt is ISO local date-time; omitted means "now"
+public record WeightReading(Integer cowId, String measuredAt, BigDecimal weight) {
+}
@@ -0,0 +1,102 @@
+package cowcard.server.WeightMeasurement;
+
+import java.util.Arrays;
+
+// One cow's weighings as parallel primitive arrays sorted by time (epoch seconds, UTC).
+// Scale sessions append in time order, so inserts are almost always at the end.
+public class WeightSeries {
+
+    private static final double SECONDS_PER_DAY = 86_400.0;
+    static final int NO_FEEDLOT = 0;
+
+    private long[] at = new long[4];
+    private double[] weight = new double[4];
+    private int[] feedlot = new int[4];
+    private int size;
+
+    public synchronized void add(long epochSecond, double kg, int feedlotId) {
+        if (size == at.length) {
+            at = Arrays.copyOf(at, size * 2);
+            weight = Arrays.copyOf(weight, size * 2);
+            feedlot = Arrays.copyOf(feedlot, size * 2);
+        }
+        int pos = size;
+        while (pos > 0 && at[pos - 1] > epochSecond) {
+            pos--;
+        }
+        System.arraycopy(at, pos, at, pos + 1, size - pos);
+        System.arraycopy(weight, pos, weight, pos + 1, size - pos);
+        System.arraycopy(feedlot, pos, feedlot, pos + 1, size - pos);
+        at[pos] = epochSecond;
+        weight[pos] = kg;
+        feedlot[pos] = feedlotId;
+        size++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long[] times() {
+        return Arrays.copyOf(at, size);
+    }
+
+    public synchronized double[] weights() {
+        return Arrays.copyOf(weight, size);
+    }
+
+    public synchronized int[] feedlots() {
+        return Arrays.copyOf(feedlot, size);
+    }
+
+    // Least-squares fit over points in [from, to]; feedlotId NO_FEEDLOT means any pen
+    public synchronized Fit fit(long from, long to, int feedlotId) {
+        int n = 0;
+        long t0 = 0;
+        double first = 0;
+        double last = 0;
+        double span = 0;
+        double sx = 0;
+        double sy = 0;
+        double sxx = 0;
+        double sxy = 0;
+        for (int i = lowerBound(from); i < size && at[i] <= to; i++) {
+            if (feedlotId != NO_FEEDLOT && feedlot[i] != feedlotId) {
+                continue;
+            }
+            if (n == 0) {
+                t0 = at[i];
+                first = weight[i];
+            }
+            double x = (at[i] - t0) / SECONDS_PER_DAY;
+            double y = weight[i];
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            sxy += x * y;
+            last = y;
+            span = x;
+            n++;
+        }
+        double denominator = n * sxx - sx * sx;
+        Double slope = n >= 2 && denominator > 0 ? (n * sxy - sx * sy) / denominator : null;
+        return new Fit(n, first, last, span, slope);
+    }
+
+    private int lowerBound(long from) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (at[mid] < from) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public record Fit(int n, double first, double last, double days, Double slope) {
+    }
+}
@@ -0,0 +1,297 @@
+package cowcard.server.WeightMeasurement;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import cowcard.server.Common.AfterCommit;
+import cowcard.server.Feedlot.Feedlot;
+import cowcard.server.Pedigree.PedigreeIndex;
+import cowcard.server.Pedigree.PedigreeService;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.WeightMeasurement.WeightBatchResult.WeightBatchError;
+
+@Service
+public class WeightService {
+
+    private static final Logger log = LoggerFactory.getLogger(WeightService.class);
+
+    private static final String INSERT_MEASUREMENT = "INSERT INTO weight_measurements " +
+            "(cow_id, measured_at, weight, feedlot_id, created_at, created_by, updated_at, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Keep cows.weight as the latest-value cache for every cow touched by a batch
+    private static final String REFRESH_LATEST_WEIGHT = "UPDATE cows SET weight = latest.weight " +
+            "FROM (SELECT DISTINCT ON (cow_id) cow_id, weight FROM weight_measurements " +
+            "WHERE cow_id = ANY(?) ORDER BY cow_id, measured_at DESC, id DESC) latest " +
+            "WHERE cows.id = latest.cow_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditorAware<UUID> auditorAware;
+
+    @Autowired
+    private PedigreeService pedigreeService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    private volatile Map<Integer, WeightSeries> seriesByCow = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        Map<Integer, WeightSeries> loaded = new ConcurrentHashMap<>();
+        long[] rows = {0};
+        jdbcTemplate.query("SELECT cow_id, measured_at, weight, feedlot_id FROM weight_measurements " +
+                "ORDER BY cow_id, measured_at", rs -> {
+            loaded.computeIfAbsent(rs.getInt(1), k -> new WeightSeries())
+                    .add(epochSecond(rs.getTimestamp(2).toLocalDateTime()), rs.getDouble(3), rs.getInt(4));
+            rows[0]++;
+        });
+        seriesByCow = loaded;
+        log.info("Weight series loaded: {} measurements for {} cows in {} ms",
+                rows[0], loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    @Transactional
+    public WeightBatchResult ingest(List<WeightReading> readings) {
+        List<WeightBatchError> errors = new ArrayList<>();
+        if (readings == null || readings.isEmpty()) {
+            return new WeightBatchResult(0, 0, errors);
+        }
+
+        Set<Integer> cowIds = new LinkedHashSet<>();
+        for (WeightReading r : readings) {
+            if (r != null && r.cowId() != null) {
+                cowIds.add(r.cowId());
+            }
+        }
+        Map<Integer, Integer> feedlotOfCow = currentFeedlots(cowIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Accepted> accepted = new ArrayList<>(readings.size());
+        for (int i = 0; i < readings.size(); i++) {
+            WeightReading r = readings.get(i);
+            if (r == null || r.cowId() == null) {
+                errors.add(new WeightBatchError(i, null, "cowId is required"));
+                continue;
+            }
+            if (!feedlotOfCow.containsKey(r.cowId())) {
+                errors.add(new WeightBatchError(i, r.cowId(), "Cow not found"));
+                continue;
+            }
+            if (r.weight() == null || r.weight().signum() <= 0) {
+                errors.add(new WeightBatchError(i, r.cowId(), "Weight must be positive"));
+                continue;
+            }
+            LocalDateTime at;
+            try {
+                at = r.measuredAt() == null || r.measuredAt().isBlank() ? now : LocalDateTime.parse(r.measuredAt());
+            } catch (DateTimeParseException e) {
+                errors.add(new WeightBatchError(i, r.cowId(), "Invalid measuredAt: " + r.measuredAt()));
+                continue;
+            }
+            accepted.add(new Accepted(r.cowId(), at, r.weight(), feedlotOfCow.get(r.cowId())));
+        }
+
+        if (!accepted.isEmpty()) {
+            insert(accepted, now);
+            Integer[] touched = accepted.stream().map(Accepted::cowId).distinct().toArray(Integer[]::new);
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(REFRESH_LATEST_WEIGHT);
+                ps.setArray(1, con.createArrayOf("integer", touched));
+                return ps;
+            });
+            AfterCommit.run(() -> {
+                for (Accepted a : accepted) {
+                    seriesByCow.computeIfAbsent(a.cowId(), k -> new WeightSeries())
+                            .add(epochSecond(a.measuredAt()), a.weight().doubleValue(),
+                                    a.feedlotId() != null ? a.feedlotId() : WeightSeries.NO_FEEDLOT);
+                }
+            });
+        }
+        return new WeightBatchResult(accepted.size(), errors.size(), errors);
+    }
+
+    public CowWeightHistory getHistory(Integer cowId, LocalDate from, LocalDate to) {
+        WeightSeries series = seriesByCow.get(cowId);
+        List<WeightPoint> points = new ArrayList<>();
+        if (series != null) {
+            long[] times = series.times();
+            double[] weights = series.weights();
+            int[] feedlots = series.feedlots();
+            long lo = lower(from);
+            long hi = upper(to);
+            for (int i = 0; i < times.length; i++) {
+                if (times[i] >= lo && times[i] <= hi) {
+                    points.add(new WeightPoint(LocalDateTime.ofEpochSecond(times[i], 0, ZoneOffset.UTC), weights[i],
+                            feedlots[i] == WeightSeries.NO_FEEDLOT ? null : feedlots[i]));
+                }
+            }
+        }
+        return new CowWeightHistory(getCowAdg(cowId, from, to), points);
+    }
+
+    public CowAdg getCowAdg(Integer cowId, LocalDate from, LocalDate to) {
+        String tag = pedigreeService.index().tagOf(cowId);
+        WeightSeries series = seriesByCow.get(cowId);
+        if (series == null) {
+            return new CowAdg(cowId, tag, 0, 0, 0, 0, null);
+        }
+        WeightSeries.Fit fit = series.fit(lower(from), upper(to), WeightSeries.NO_FEEDLOT);
+        return new CowAdg(cowId, tag, fit.n(), fit.first(), fit.last(), fit.days(), fit.slope());
+    }
+
+    // Gain is attributed to the pen the cow was weighed in, so a cow that moved
+    // contributes a separate slope to each feedlot
+    public List<GroupAdg> getFeedlotAdg(LocalDate from, LocalDate to) {
+        long lo = lower(from);
+        long hi = upper(to);
+        Map<Integer, Stats> byFeedlot = new HashMap<>();
+        for (WeightSeries series : seriesByCow.values()) {
+            Set<Integer> feedlots = new LinkedHashSet<>();
+            for (int f : series.feedlots()) {
+                if (f != WeightSeries.NO_FEEDLOT) {
+                    feedlots.add(f);
+                }
+            }
+            for (int f : feedlots) {
+                Double slope = series.fit(lo, hi, f).slope();
+                if (slope != null) {
+                    byFeedlot.computeIfAbsent(f, k -> new Stats()).add(slope);
+                }
+            }
+        }
+        List<GroupAdg> result = new ArrayList<>();
+        byFeedlot.forEach((id, stats) -> result.add(stats.toGroup(id,
+                referenceDataCache.findById(Feedlot.class, id).map(Feedlot::getName).orElse(null))));
+        result.sort(Comparator.comparingDouble(GroupAdg::meanAdg).reversed());
+        return result;
+    }
+
+    // Offspring grouped by sire as resolved by the pedigree index (Semen.sire, else semen name)
+    public List<GroupAdg> getSireAdg(LocalDate from, LocalDate to) {
+        long lo = lower(from);
+        long hi = upper(to);
+        PedigreeIndex pedigree = pedigreeService.index();
+        Map<String, Stats> bySire = new HashMap<>();
+        seriesByCow.forEach((cowId, series) -> {
+            String sire = pedigree.sireOf(cowId);
+            if (sire == null) {
+                return;
+            }
+            Double slope = series.fit(lo, hi, WeightSeries.NO_FEEDLOT).slope();
+            if (slope != null) {
+                bySire.computeIfAbsent(sire, k -> new Stats()).add(slope);
+            }
+        });
+        List<GroupAdg> result = new ArrayList<>();
+        bySire.forEach((sire, stats) -> result.add(stats.toGroup(null, sire)));
+        result.sort(Comparator.comparingDouble(GroupAdg::meanAdg).reversed());
+        return result;
+    }
+
+    private Map<Integer, Integer> currentFeedlots(Set<Integer> cowIds) {
+        Map<Integer, Integer> feedlotOfCow = new HashMap<>();
+        if (cowIds.isEmpty()) {
+            return feedlotOfCow;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, current_feedlot_id FROM cows WHERE id = ANY(?)");
+            Array array = con.createArrayOf("integer", cowIds.toArray());
+            ps.setArray(1, array);
+            return ps;
+        }, rs -> {
+            int feedlotId = rs.getInt(2);
+            feedlotOfCow.put(rs.getInt(1), rs.wasNull() ? null : feedlotId);
+        });
+        return feedlotOfCow;
+    }
+
+    private void insert(List<Accepted> rows, LocalDateTime now) {
+        Timestamp created = Timestamp.valueOf(now);
+        UUID auditor = auditorAware.getCurrentAuditor().orElse(null);
+        jdbcTemplate.batchUpdate(INSERT_MEASUREMENT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Accepted a = rows.get(i);
+                ps.setInt(1, a.cowId());
+                ps.setTimestamp(2, Timestamp.valueOf(a.measuredAt()));
+                ps.setBigDecimal(3, a.weight());
+                ps.setObject(4, a.feedlotId(), Types.INTEGER);
+                ps.setTimestamp(5, created);
+                ps.setObject(6, auditor, Types.OTHER);
+                ps.setTimestamp(7, created);
+                ps.setObject(8, auditor, Types.OTHER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private static long epochSecond(LocalDateTime at) {
+        return at.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long lower(LocalDate from) {
+        return from == null ? Long.MIN_VALUE : epochSecond(from.atStartOfDay());
+    }
+
+    private static long upper(LocalDate to) {
+        return to == null ? Long.MAX_VALUE : epochSecond(to.plusDays(1).atStartOfDay()) - 1;
+    }
+
+    private record Accepted(Integer cowId, LocalDateTime measuredAt, BigDecimal weight, Integer feedlotId) {
+    }
+
+    private static final class Stats {
+        int n;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void add(double adg) {
+            n++;
+            sum += adg;
+            min = Math.min(min, adg);
+            max = Math.max(max, adg);
+        }
+
+        GroupAdg toGroup(Integer id, String name) {
+            return new GroupAdg(id, name, n, sum / n, min, max);
+        }
+    }
+}
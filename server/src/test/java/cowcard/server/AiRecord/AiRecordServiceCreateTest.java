@@ -0,0 +1,131 @@
+package cowcard.server.AiRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.BreedingAnalytics.BreedingAnalyticsService;
+import cowcard.server.CodeSequence.CodeSequenceAllocator;
+import cowcard.server.Cow.Cow;
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.Semen.Semen;
+import cowcard.server.Semen.SemenService;
+import cowcard.server.StrawInventory.StrawInventoryService;
+
+// Two writers on one dam each commit on their own, so these run outside the test transaction
+@Import(AiRecordService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AiRecordServiceCreateTest extends PostgresTest {
+
+    @Autowired
+    private AiRecordService aiRecordService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private SemenService semenService;
+
+    @MockitoBean
+    private LiveEventPublisher liveEventPublisher;
+
+    @MockitoBean
+    private CodeSequenceAllocator codeSequenceAllocator;
+
+    @MockitoBean
+    private StrawInventoryService strawInventoryService;
+
+    @MockitoBean
+    private BreedingAnalyticsService breedingAnalyticsService;
+
+    private int dam;
+    private int sexedSemen;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO ai_status (id, name) VALUES (3, 'Waiting')");
+        jdbcTemplate.update("INSERT INTO pd_status (id, name) VALUES (7, 'New')");
+        int gender = jdbcTemplate.queryForObject("INSERT INTO cow_gender (name) VALUES ('Female') RETURNING id",
+                Integer.class);
+        dam = jdbcTemplate.queryForObject("INSERT INTO cows (tag, gender) VALUES ('D-1', ?) RETURNING id",
+                Integer.class, gender);
+        sexedSemen = jdbcTemplate.queryForObject("INSERT INTO semen (name, straw, bull) VALUES ('Sexed', 10, false) " +
+                "RETURNING id", Integer.class);
+        insertAi("A-1");
+        insertAi("A-2");
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "pregnancy_diagnosis", "ai_records", "semen", "cows", "cow_gender", "pd_status",
+                "ai_status");
+    }
+
+    @Test
+    void createWaitsForAnUploadHoldingTheDamAndThenSeesItsRecord() throws Exception {
+        // Stands in for AiSessionService: dam locked, third non-bull AI written, not yet committed
+        CompletableFuture<String> create = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.queryForObject("SELECT id FROM cows WHERE id = ? FOR UPDATE", Integer.class, dam);
+            insertAi("A-3");
+            CompletableFuture<String> started = CompletableFuture.supplyAsync(this::createNonBullAi);
+            assertThat(started).failsWithin(300, TimeUnit.MILLISECONDS)
+                    .withThrowableOfType(TimeoutException.class);
+            return started;
+        });
+
+        assertThat(create.get(10, TimeUnit.SECONDS))
+                .isEqualTo("This dam already has 3 AI records with non-bull semen. Only bull semen can be used.");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM ai_records", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    void createBelowTheLimitStoresTheRecordAndItsPd() {
+        assertThat(createNonBullAi()).isNull();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM ai_records WHERE dam_id = ?", Integer.class, dam))
+                .isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM pregnancy_diagnosis", Integer.class)).isEqualTo(1);
+    }
+
+    // null when the AI record was created, otherwise the error it was refused with
+    private String createNonBullAi() {
+        AiRecord aiRecord = new AiRecord();
+        Cow ref = new Cow();
+        ref.setId(dam);
+        aiRecord.setDam(ref);
+        Semen semen = new Semen();
+        semen.setId(sexedSemen);
+        aiRecord.setSemen(semen);
+        aiRecord.setAiDate(LocalDate.of(2026, 10, 1));
+        try {
+            aiRecordService.create(aiRecord, sexedSemen, null);
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void insertAi(String code) {
+        jdbcTemplate.update("INSERT INTO ai_records (code, dam_id, semen_id, ai_date) VALUES (?, ?, ?, '2026-09-01')",
+                code, dam, sexedSemen);
+    }
+}
@@ -0,0 +1,110 @@
+package cowcard.server.AiRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.BreedingAnalytics.BreedingAnalyticsService;
+import cowcard.server.CodeSequence.CodeSequenceAllocator;
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.Semen.SemenService;
+import cowcard.server.StrawInventory.StrawInventoryService;
+
+@Import(AiRecordService.class)
+class AiRecordServiceTest extends PostgresTest {
+
+    @Autowired
+    private AiRecordService aiRecordService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private SemenService semenService;
+
+    @MockitoBean
+    private LiveEventPublisher liveEventPublisher;
+
+    @MockitoBean
+    private CodeSequenceAllocator codeSequenceAllocator;
+
+    @MockitoBean
+    private StrawInventoryService strawInventoryService;
+
+    @MockitoBean
+    private BreedingAnalyticsService breedingAnalyticsService;
+
+    private final LocalDate today = LocalDate.now();
+
+    private int bullSemen;
+    private int sexedSemen;
+    private int unflaggedSemen;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO cow_gender (id, name) VALUES (1, 'Female')");
+        jdbcTemplate.update("INSERT INTO cows (id, tag, gender) VALUES (1, 'D-1', 1), (2, 'D-2', 1), (3, 'D-3', 1)");
+        bullSemen = insert("INSERT INTO semen (name, bull) VALUES ('Bull pen', true) RETURNING id");
+        sexedSemen = insert("INSERT INTO semen (name, bull) VALUES ('Sexed', false) RETURNING id");
+        unflaggedSemen = insert("INSERT INTO semen (name) VALUES ('Unflagged') RETURNING id");
+    }
+
+    @Test
+    void damSummaryKeepsEveryBullAiAndTheFirstThreeOthers() {
+        int first = ai(1, sexedSemen, 50, "A-1");
+        int second = ai(1, sexedSemen, 40, "A-2");
+        int third = ai(1, sexedSemen, 30, "A-3");
+        ai(1, sexedSemen, 20, "A-4");
+        int bull = ai(1, bullSemen, 10, "B-1");
+        int onlyBull = ai(3, bullSemen, 7, "B-2");
+
+        List<DamAiRecord> dams = aiRecordService.getDamAiRecord();
+
+        assertThat(dams).extracting(DamAiRecord::damId).containsExactly(1, 3);
+        DamAiRecord dam = dams.getFirst();
+        assertThat(dam.damTag()).isEqualTo("D-1");
+        assertThat(dam.aiRecords()).containsExactly(
+                new AiRecordSummary(first, "A-1", today.minusDays(50), "Sexed"),
+                new AiRecordSummary(second, "A-2", today.minusDays(40), "Sexed"),
+                new AiRecordSummary(third, "A-3", today.minusDays(30), "Sexed"));
+        assertThat(dam.bullAiRecords()).containsExactly(new BullAiSummary(bull, "B-1"));
+        assertThat(dam.lastAiDays()).isEqualTo(10);
+        assertThat(dams.get(1)).isEqualTo(new DamAiRecord(3, "D-3", List.of(),
+                List.of(new BullAiSummary(onlyBull, "B-2")), 7));
+    }
+
+    @Test
+    void lastAiDaysCountsRecordsWhoseSemenHasNoBullFlag() {
+        ai(1, sexedSemen, 30, "A-1");
+        ai(1, unflaggedSemen, 3, "U-1");
+        ai(2, unflaggedSemen, 1, "U-2");
+
+        List<DamAiRecord> dams = aiRecordService.getDamAiRecord();
+
+        // Dam 2 has nothing but unflagged AIs, so it has no summary to show
+        assertThat(dams).singleElement().satisfies(dam -> {
+            assertThat(dam.damId()).isEqualTo(1);
+            assertThat(dam.aiRecords()).extracting(AiRecordSummary::code).containsExactly("A-1");
+            assertThat(dam.lastAiDays()).isEqualTo(3);
+        });
+    }
+
+    private int ai(int damId, int semenId, int daysAgo, String code) {
+        return insert("INSERT INTO ai_records (code, dam_id, semen_id, ai_date) VALUES (?, ?, ?, ?) RETURNING id",
+                code, damId, semenId, today.minusDays(daysAgo));
+    }
+
+    private int insert(String sql, Object... args) {
+        Integer id = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return id != null ? id : 0;
+    }
+}
@@ -0,0 +1,305 @@
+package cowcard.server.AiRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import cowcard.server.AiRecord.AiSessionResult.AiSessionError;
+import cowcard.server.AiRecord.AiSessionResult.AiSessionSaved;
+import cowcard.server.BreedingAnalytics.BreedingAnalyticsService;
+import cowcard.server.StrawInventory.StrawConsumption;
+import cowcard.server.StrawInventory.StrawDemand;
+import cowcard.server.StrawInventory.StrawInventoryService;
+
+// JdbcTemplate is backed by a few maps standing in for ai_records, semen and cows
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AiSessionServiceTest {
+
+    private static final int BULL_SEMEN = 1;
+    private static final int STRAW_SEMEN = 2;
+    private static final int DAM = 10;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AuditorAware<UUID> auditorAware;
+
+    @Mock
+    private AiRecordService aiRecordService;
+
+    @Mock
+    private StrawInventoryService strawInventoryService;
+
+    @Mock
+    private BreedingAnalyticsService breedingAnalyticsService;
+
+    @InjectMocks
+    private AiSessionService service;
+
+    private final Map<UUID, Stored> aiRecords = new LinkedHashMap<>();
+    private int codes;
+    // Set to simulate records another request stores after this one checked for replays
+    private boolean storedByOtherRequest;
+
+    private record Stored(int id, String code, int semenId) {
+    }
+
+    @BeforeEach
+    void database() {
+        Map<Integer, Boolean> bullOfSemen = Map.of(BULL_SEMEN, true, STRAW_SEMEN, false);
+        when(aiRecordService.generateCodes(anyInt())).thenAnswer(inv -> {
+            List<String> out = new ArrayList<>();
+            for (int i = 0; i < (int) inv.getArgument(0); i++) {
+                out.add("AI-" + ++codes);
+            }
+            return out;
+        });
+        when(strawInventoryService.consume(any())).thenAnswer(inv -> {
+            List<StrawDemand> demands = inv.getArgument(0);
+            Map<Integer, Integer> balances = new HashMap<>();
+            demands.forEach(d -> balances.put(d.semenId(), 100));
+            return new StrawConsumption(new HashSet<>(demands), balances);
+        });
+
+        doAnswer(inv -> {
+            Query q = Query.of(inv.getArgument(0));
+            RowCallbackHandler handler = inv.getArgument(1);
+            if (q.sql.startsWith("SELECT client_id")) {
+                if (storedByOtherRequest) {
+                    return null;
+                }
+                for (Object id : q.ids) {
+                    Stored s = aiRecords.get(id);
+                    if (s != null) {
+                        handler.processRow(row(id, s.id(), s.code()));
+                    }
+                }
+            } else if (q.sql.startsWith("SELECT id, bull FROM semen")) {
+                for (Object id : q.ids) {
+                    if (bullOfSemen.containsKey(id)) {
+                        handler.processRow(row(id, bullOfSemen.get(id)));
+                    }
+                }
+            } else if (q.sql.startsWith("SELECT c.id, f.name FROM cows")) {
+                for (Object id : q.ids) {
+                    if (id.equals(DAM)) {
+                        handler.processRow(row(DAM, "Pen A"));
+                    }
+                }
+            } else if (q.sql.startsWith("SELECT a.dam_id, count(*)")) {
+                long nonBull = aiRecords.values().stream().filter(s -> s.semenId() == STRAW_SEMEN).count();
+                if (nonBull > 0) {
+                    handler.processRow(row(DAM, nonBull));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        doAnswer(inv -> {
+            BatchPreparedStatementSetter setter = inv.getArgument(1);
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                PreparedStatement ps = mock(PreparedStatement.class);
+                String[] code = new String[1];
+                UUID[] clientId = new UUID[1];
+                int[] semenId = new int[1];
+                doAnswer(a -> code[0] = a.getArgument(1)).when(ps).setString(eq(1), anyString());
+                doAnswer(a -> semenId[0] = a.getArgument(1)).when(ps).setInt(eq(3), anyInt());
+                doAnswer(a -> clientId[0] = a.getArgument(1)).when(ps).setObject(eq(11), any(), anyInt());
+                setter.setValues(ps, i);
+                if (aiRecords.containsKey(clientId[0])) {
+                    throw new DuplicateKeyException("uk_ai_records_client_id");
+                }
+                aiRecords.put(clientId[0], new Stored(aiRecords.size() + 1, code[0], semenId[0]));
+            }
+            return new int[setter.getBatchSize()];
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT INTO ai_records"), any(BatchPreparedStatementSetter.class));
+    }
+
+    private static AiSessionRecord record(UUID clientId, int semenId) {
+        return record(clientId, semenId, "2026-10-01", null);
+    }
+
+    private static AiSessionRecord record(UUID clientId, int semenId, String aiDate, Integer reservationId) {
+        return new AiSessionRecord(clientId, DAM, semenId, aiDate, "08:00", null, null, null, reservationId);
+    }
+
+    @Test
+    void replayedUploadCreatesNothingAndReportsTheOriginalRecords() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        AiSessionResult first = service.upload(List.of(record(a, BULL_SEMEN), record(b, STRAW_SEMEN)));
+
+        AiSessionResult replay = service.upload(List.of(record(a, BULL_SEMEN), record(b, STRAW_SEMEN)));
+
+        assertThat(first.created()).isEqualTo(2);
+        assertThat(replay.created()).isZero();
+        assertThat(replay.alreadyUploaded()).isEqualTo(2);
+        assertThat(replay.rejected()).isEmpty();
+        assertThat(replay.saved()).extracting(AiSessionSaved::created).containsOnly(false);
+        assertThat(replay.saved()).extracting(AiSessionSaved::clientId, AiSessionSaved::aiRecordId, AiSessionSaved::code)
+                .containsExactlyInAnyOrderElementsOf(first.saved().stream()
+                        .map(s -> tuple(s.clientId(), s.aiRecordId(), s.code()))
+                        .toList());
+        assertThat(aiRecords).hasSize(2);
+        verify(aiRecordService, times(1)).generateCodes(anyInt());
+        // The replay takes no further straws
+        verify(strawInventoryService, times(1)).recordUsages(any(), any());
+    }
+
+    @Test
+    void partialReplayOnlyCreatesTheNewRecords() {
+        UUID a = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        service.upload(List.of(record(a, BULL_SEMEN)));
+
+        AiSessionResult result = service.upload(List.of(record(a, BULL_SEMEN), record(c, BULL_SEMEN)));
+
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.alreadyUploaded()).isEqualTo(1);
+        assertThat(result.saved()).extracting(AiSessionSaved::clientId, AiSessionSaved::created)
+                .containsExactlyInAnyOrder(tuple(a, false),
+                        tuple(c, true));
+        assertThat(aiRecords).hasSize(2);
+    }
+
+    @Test
+    void repeatedClientIdInOneUploadIsStoredOnce() {
+        UUID a = UUID.randomUUID();
+
+        AiSessionResult result = service.upload(List.of(record(a, BULL_SEMEN), record(a, BULL_SEMEN)));
+
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.rejected()).extracting(AiSessionError::message)
+                .containsExactly("clientId appears more than once in this upload");
+        assertThat(aiRecords).hasSize(1);
+    }
+
+    @Test
+    void replayDoesNotCountTowardsTheNonBullLimit() {
+        List<AiSessionRecord> three = List.of(record(UUID.randomUUID(), STRAW_SEMEN),
+                record(UUID.randomUUID(), STRAW_SEMEN), record(UUID.randomUUID(), STRAW_SEMEN));
+        service.upload(three);
+
+        AiSessionResult replay = service.upload(three);
+
+        assertThat(replay.rejected()).isEmpty();
+        assertThat(replay.alreadyUploaded()).isEqualTo(3);
+    }
+
+    @Test
+    void recordWithoutStrawsGivesItsNonBullSlotToTheNextAi() {
+        aiRecords.put(UUID.randomUUID(), new Stored(1, "AI-0", STRAW_SEMEN));
+        // Reservation 99 has run out; unreserved straws are plentiful
+        doAnswer(inv -> {
+            List<StrawDemand> demands = inv.getArgument(0);
+            return new StrawConsumption(new HashSet<>(demands.stream().filter(d -> d.reservationId() == null).toList()),
+                    Map.of(STRAW_SEMEN, 50));
+        }).when(strawInventoryService).consume(any());
+        UUID reserved = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        AiSessionResult result = service.upload(List.of(
+                record(third, STRAW_SEMEN, "2026-10-03", null),
+                record(reserved, STRAW_SEMEN, "2026-10-01", 99),
+                record(second, STRAW_SEMEN, "2026-10-02", null)));
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.saved()).extracting(AiSessionSaved::clientId).containsExactly(second, third);
+        assertThat(result.rejected()).extracting(AiSessionError::clientId, AiSessionError::message)
+                .containsExactly(tuple(reserved, "Straw reservation 99 is expired, short or for another semen"));
+        // The third AI only got its slot once the first had lost its straws
+        verify(strawInventoryService, times(2)).consume(any());
+    }
+
+    @Test
+    void recordsPastTheLimitAreRejectedWhenNoSlotIsFreed() {
+        aiRecords.put(UUID.randomUUID(), new Stored(1, "AI-0", STRAW_SEMEN));
+        aiRecords.put(UUID.randomUUID(), new Stored(2, "AI-0", STRAW_SEMEN));
+        UUID late = UUID.randomUUID();
+
+        AiSessionResult result = service.upload(List.of(record(late, STRAW_SEMEN, "2026-10-02", null),
+                record(UUID.randomUUID(), STRAW_SEMEN, "2026-10-01", null), record(UUID.randomUUID(), BULL_SEMEN)));
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.rejected()).extracting(AiSessionError::clientId).containsExactly(late);
+        verify(strawInventoryService, times(1)).consume(any());
+    }
+
+    @Test
+    void concurrentUploadOfTheSameRecordsAsksForARetry() {
+        UUID a = UUID.randomUUID();
+        storedByOtherRequest = true;
+        aiRecords.put(a, new Stored(1, "AI-0", BULL_SEMEN));
+
+        assertThatThrownBy(() -> service.upload(List.of(record(a, BULL_SEMEN))))
+                .hasMessageContaining("retry the upload");
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT INTO pregnancy_diagnosis"),
+                any(BatchPreparedStatementSetter.class));
+    }
+
+    // Every getter returns the value at its column index, whatever getter the service uses
+    private static ResultSet row(Object... columns) {
+        return mock(ResultSet.class, inv -> columns[(int) inv.getArgument(0) - 1]);
+    }
+
+    // Runs a PreparedStatementCreator against a mock connection to see its SQL and array argument
+    private record Query(String sql, Object[] ids) {
+
+        static Query of(PreparedStatementCreator creator) throws Exception {
+            String[] sql = new String[1];
+            Object[][] ids = new Object[1][];
+            Connection con = mock(Connection.class);
+            when(con.prepareStatement(anyString())).thenAnswer(i -> {
+                sql[0] = i.getArgument(0);
+                return mock(PreparedStatement.class);
+            });
+            when(con.createArrayOf(anyString(), any())).thenAnswer(i -> {
+                ids[0] = i.getArgument(1);
+                return mock(Array.class);
+            });
+            creator.createPreparedStatement(con);
+            return new Query(sql[0], ids[0]);
+        }
+    }
+}
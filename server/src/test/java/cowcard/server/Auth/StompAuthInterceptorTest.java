@@ -0,0 +1,111 @@
+package cowcard.server.Auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+@ExtendWith(MockitoExtension.class)
+class StompAuthInterceptorTest {
+
+    private static final UserDetails ANNA = User.withUsername("anna").password("x").roles("USER").build();
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @InjectMocks
+    private StompAuthInterceptor interceptor;
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void bearerHeaderAuthenticatesTheSession() {
+        trust("good");
+        Message<?> connect = frame(StompCommand.CONNECT, "Bearer good", null);
+
+        Message<?> passed = interceptor.preSend(connect, channel);
+
+        assertThat(user(passed).getName()).isEqualTo("anna");
+    }
+
+    @Test
+    void cookieCopiedAtHandshakeAuthenticatesTheSession() {
+        trust("from-cookie");
+        Message<?> connect = frame(StompCommand.CONNECT, null, "from-cookie");
+
+        assertThat(user(interceptor.preSend(connect, channel)).getName()).isEqualTo("anna");
+    }
+
+    @Test
+    void connectWithoutAValidTokenIsRejected() {
+        when(jwtService.extractUsername("expired")).thenReturn("anna");
+        when(userDetailsService.loadUserByUsername("anna")).thenReturn(ANNA);
+        when(jwtService.validateToken("expired", ANNA)).thenReturn(false);
+        when(jwtService.extractUsername("garbage")).thenThrow(new IllegalArgumentException("malformed"));
+
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer expired", null), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, null, "garbage"), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, "Basic abc", null), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void framesAfterConnectAreNotRechecked() {
+        Message<?> subscribe = frame(StompCommand.SUBSCRIBE, null, null);
+
+        assertThat(interceptor.preSend(subscribe, channel)).isSameAs(subscribe);
+        verifyNoInteractions(jwtService, userDetailsService);
+    }
+
+    private void trust(String token) {
+        when(jwtService.extractUsername(token)).thenReturn("anna");
+        when(userDetailsService.loadUserByUsername("anna")).thenReturn(ANNA);
+        when(jwtService.validateToken(token, ANNA)).thenReturn(true);
+    }
+
+    private static Message<?> frame(StompCommand command, String authorization, String cookieJwt) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (authorization != null) {
+            accessor.setNativeHeader("Authorization", authorization);
+        }
+        Map<String, Object> attributes = new HashMap<>();
+        if (cookieJwt != null) {
+            attributes.put(StompAuthInterceptor.JWT_ATTRIBUTE, cookieJwt);
+        }
+        accessor.setSessionAttributes(attributes);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Principal user(Message<?> message) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        assertThat(accessor).isNotNull();
+        return accessor.getUser();
+    }
+}
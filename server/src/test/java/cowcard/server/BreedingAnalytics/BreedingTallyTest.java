@@ -0,0 +1,101 @@
+package cowcard.server.BreedingAnalytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class BreedingTallyTest {
+
+    private static BreedingFact service(Long day) {
+        return fact(day, false, false, false, false);
+    }
+
+    private static BreedingFact fact(Long day, boolean diagnosed, boolean pregnant, boolean liveCalf,
+                                     boolean stillbirth) {
+        return new BreedingFact(1, day, 2, "Straw", "Apex", 3, 4, 5, 6, diagnosed, pregnant, liveCalf, stillbirth);
+    }
+
+    private static BreedingStats stats(long[] counts) {
+        return BreedingStats.from("2", "Straw", counts);
+    }
+
+    @Test
+    void conceptionRateIsPregnanciesOverDiagnosedServices() {
+        BreedingTally tally = new BreedingTally();
+        tally.add(fact(100L, true, true, true, false), 1);
+        tally.add(fact(101L, true, true, false, true), 1);
+        tally.add(fact(102L, true, false, false, false), 1);
+        tally.add(fact(103L, true, false, false, false), 1);
+        // Undiagnosed services count as services but not against the rate
+        tally.add(service(104L), 1);
+
+        BreedingStats stats = stats(tally.sum(null, null));
+
+        assertThat(stats.services()).isEqualTo(5);
+        assertThat(stats.diagnosed()).isEqualTo(4);
+        assertThat(stats.pregnancies()).isEqualTo(2);
+        assertThat(stats.liveCalves()).isEqualTo(1);
+        assertThat(stats.stillbirths()).isEqualTo(1);
+        assertThat(stats.conceptionRate()).isCloseTo(0.5, within(1e-12));
+    }
+
+    @Test
+    void noRateUntilSomethingIsDiagnosed() {
+        BreedingTally tally = new BreedingTally();
+        tally.add(service(100L), 1);
+
+        assertThat(stats(tally.sum(null, null)).conceptionRate()).isNull();
+    }
+
+    @Test
+    void windowIsInclusiveAndOpenEndedBoundsWork() {
+        BreedingTally tally = new BreedingTally();
+        tally.add(fact(100L, true, true, false, false), 1);
+        tally.add(fact(105L, true, false, false, false), 1);
+        tally.add(fact(110L, true, true, false, false), 1);
+
+        assertThat(tally.sum(100L, 105L)[BreedingTally.SERVICES]).isEqualTo(2);
+        assertThat(stats(tally.sum(105L, 110L)).conceptionRate()).isCloseTo(0.5, within(1e-12));
+        assertThat(tally.sum(106L, null)[BreedingTally.SERVICES]).isEqualTo(1);
+        assertThat(tally.sum(null, 99L)[BreedingTally.SERVICES]).isZero();
+    }
+
+    @Test
+    void undatedServicesOnlyCountAllTime() {
+        BreedingTally tally = new BreedingTally();
+        tally.add(service(null), 1);
+        tally.add(service(100L), 1);
+
+        assertThat(tally.sum(null, null)[BreedingTally.SERVICES]).isEqualTo(2);
+        assertThat(tally.sum(Long.MIN_VALUE, Long.MAX_VALUE)[BreedingTally.SERVICES]).isEqualTo(1);
+    }
+
+    @Test
+    void retractAndReAddMovesAnOutcome() {
+        BreedingTally tally = new BreedingTally();
+        BreedingFact pending = service(100L);
+        BreedingFact pregnant = fact(100L, true, true, false, false);
+        tally.add(pending, 1);
+
+        tally.add(pending, -1);
+        tally.add(pregnant, 1);
+
+        BreedingStats stats = stats(tally.sum(100L, 100L));
+        assertThat(stats.services()).isEqualTo(1);
+        assertThat(stats.conceptionRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retractingEverythingEmptiesTheTally() {
+        BreedingTally tally = new BreedingTally();
+        BreedingFact fact = fact(100L, true, true, true, false);
+        tally.add(fact, 1);
+
+        tally.add(fact, -1);
+
+        assertThat(tally.isEmpty()).isTrue();
+        assertThat(tally.sum(null, null)).containsOnly(0L);
+        assertThat(tally.sum(0L, 1000L)).containsOnly(0L);
+    }
+}
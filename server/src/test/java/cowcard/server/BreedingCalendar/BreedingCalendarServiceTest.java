@@ -0,0 +1,114 @@
+package cowcard.server.BreedingCalendar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import cowcard.server.PostgresTest;
+
+@Import(BreedingCalendarService.class)
+class BreedingCalendarServiceTest extends PostgresTest {
+
+    private static final int PD_NEW = 7;
+    private static final int PD_PENDING = 1;
+    private static final int PD_OPEN = 2;
+
+    @Autowired
+    private BreedingCalendarService calendar;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int dam;
+    private int semen;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO system_settings (id, name, value) VALUES (1, 'PD day', ' 30 ')");
+        jdbcTemplate.update("INSERT INTO pd_status (id, name) VALUES (?, 'New'), (?, 'Pending'), (?, 'Open')",
+                PD_NEW, PD_PENDING, PD_OPEN);
+        int gender = jdbcTemplate.queryForObject("INSERT INTO cow_gender (name) VALUES ('Female') RETURNING id",
+                Integer.class);
+        dam = jdbcTemplate.queryForObject("INSERT INTO cows (tag, gender) VALUES ('D-1', ?) RETURNING id",
+                Integer.class, gender);
+        semen = jdbcTemplate.queryForObject("INSERT INTO semen (name) VALUES ('Angus') RETURNING id", Integer.class);
+    }
+
+    @Test
+    void aiServicesAreTheInclusiveDateRangeInDateOrder() {
+        ai("B", "2026-03-31", PD_NEW);
+        ai("A", "2026-03-01", PD_NEW);
+        ai("before", "2026-02-28", PD_NEW);
+        ai("after", "2026-04-01", PD_NEW);
+
+        List<CalendarAiService> services = calendar.getAiServices(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31));
+
+        assertThat(services).extracting(CalendarAiService::code).containsExactly("A", "B");
+        assertThat(services.getFirst().damTag()).isEqualTo("D-1");
+        assertThat(services.getFirst().semenName()).isEqualTo("Angus");
+    }
+
+    @Test
+    void pdDueIsTheAiDatePlusPdDaysForUndiagnosedPdsOnly() {
+        ai("new", "2026-02-01", PD_NEW);
+        ai("pending", "2026-02-10", PD_PENDING);
+        ai("diagnosed", "2026-02-05", PD_OPEN);
+        ai("too early", "2026-01-30", PD_NEW);
+
+        List<CalendarPdDue> due = calendar.getPdDue(LocalDate.of(2026, 3, 3), LocalDate.of(2026, 3, 12));
+
+        assertThat(due).extracting(CalendarPdDue::aiRecordCode, CalendarPdDue::dueDate).containsExactly(
+                tuple("new", LocalDate.of(2026, 3, 3)),
+                tuple("pending", LocalDate.of(2026, 3, 12)));
+        assertThat(due.getFirst().pdStatus()).isEqualTo("New");
+    }
+
+    @Test
+    void monthListsEveryDayWithItsCounts() {
+        ai("a", "2026-02-01", PD_NEW);
+        ai("b", "2026-02-01", PD_OPEN);
+        ai("c", "2026-02-28", PD_PENDING);
+
+        List<CalendarDay> days = calendar.getMonth(YearMonth.of(2026, 3));
+
+        assertThat(days).hasSize(31);
+        assertThat(days.getFirst()).isEqualTo(new CalendarDay(LocalDate.of(2026, 3, 1), 0, 0));
+        // 2026-02-01 + 30 days
+        assertThat(days.get(2)).isEqualTo(new CalendarDay(LocalDate.of(2026, 3, 3), 0, 1));
+        assertThat(days.get(29)).isEqualTo(new CalendarDay(LocalDate.of(2026, 3, 30), 0, 1));
+
+        List<CalendarDay> february = calendar.getMonth(YearMonth.of(2026, 2));
+        assertThat(february).hasSize(28);
+        assertThat(february.getFirst().aiServices()).isEqualTo(2);
+        assertThat(february.getLast().aiServices()).isEqualTo(1);
+    }
+
+    @Test
+    void rangesAreCheckedAndPdDaysMustBeSet() {
+        assertThatThrownBy(() -> calendar.getAiServices(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 1)))
+                .hasMessage("from must not be after to");
+        assertThatThrownBy(() -> calendar.getPdDue(LocalDate.of(2026, 1, 1), LocalDate.of(2027, 1, 2)))
+                .hasMessage("Range is limited to 366 days");
+
+        jdbcTemplate.update("UPDATE system_settings SET value = 'thirty' WHERE id = 1");
+        assertThatThrownBy(() -> calendar.getMonth(YearMonth.of(2026, 3)))
+                .hasMessage("PD day setting (id=1) is not a number: thirty");
+    }
+
+    private void ai(String code, String aiDate, int pdStatus) {
+        int id = jdbcTemplate.queryForObject("INSERT INTO ai_records (code, dam_id, semen_id, ai_date) " +
+                "VALUES (?, ?, ?, ?::date) RETURNING id", Integer.class, code, dam, semen, aiDate);
+        jdbcTemplate.update("INSERT INTO pregnancy_diagnosis (ai_record_id, ai_date, pd_status) VALUES (?, ?::date, ?)",
+                id, aiDate, pdStatus);
+    }
+}
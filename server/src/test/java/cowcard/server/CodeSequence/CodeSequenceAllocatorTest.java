@@ -0,0 +1,141 @@
+package cowcard.server.CodeSequence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cowcard.server.PostgresTest;
+
+// Sequences are DDL and nextval is never rolled back, so these run outside the test transaction
+@Import(CodeSequenceAllocator.class)
+@TestPropertySource(properties = "cowcard.code-sequence.block-size=5")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CodeSequenceAllocatorTest extends PostgresTest {
+
+    private static final String SEQUENCE = "test-code";
+
+    @Autowired
+    private CodeSequenceAllocator allocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void clean() {
+        allocator.dropBefore(SEQUENCE, "99999999");
+    }
+
+    @Test
+    void preparedPeriodStartsAfterTheSeedAndPeeksWithoutAllocating() {
+        allocator.prepare(SEQUENCE, "20261018", () -> 41);
+
+        assertThat(allocator.peek(SEQUENCE, "20261018", () -> 0)).isEqualTo(42);
+        assertThat(allocator.peek(SEQUENCE, "20261018", () -> 0)).isEqualTo(42);
+        assertThat(allocator.next(SEQUENCE, "20261018", () -> 0)).isEqualTo(42);
+        assertThat(allocator.next(SEQUENCE, "20261018", () -> 0)).isEqualTo(43);
+        // An unknown period peeks at its seed without creating anything
+        assertThat(allocator.peek(SEQUENCE, "20261019", () -> 7)).isEqualTo(8);
+        assertThat(exists("code_seq_test_code_20261019")).isFalse();
+    }
+
+    @Test
+    void concurrentCallersNeverShareAValue() throws Exception {
+        allocator.prepare(SEQUENCE, "20261018", () -> 0);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        List<Callable<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(() -> {
+                for (int j = 0; j < 25; j++) {
+                    // Each caller allocates inside a transaction of its own, as AiRecordService.create does
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                            assertThat(seen.add(allocator.next(SEQUENCE, "20261018", () -> 0))).isTrue());
+                }
+                return null;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Void> f : pool.invokeAll(callers)) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(seen).hasSize(200).allMatch(v -> v >= 1);
+    }
+
+    @Test
+    void rolledBackCallerDoesNotGiveItsValueBack() {
+        allocator.prepare(SEQUENCE, "20261018", () -> 0);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(allocator.next(SEQUENCE, "20261018", () -> 0)).isEqualTo(1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(allocator.next(SEQUENCE, "20261018", () -> 0)).isEqualTo(2);
+    }
+
+    @Test
+    void unpreparedPeriodFailsFastInsideATransaction() {
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                allocator.next(SEQUENCE, "20261020", () -> 0)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Code sequence code_seq_test_code_20261020 has not been prepared");
+        assertThat(exists("code_seq_test_code_20261020")).isFalse();
+
+        // Without a transaction the period is created on first use
+        assertThat(allocator.next(SEQUENCE, "20261020", () -> 9)).isEqualTo(10);
+        Long inTransaction = new TransactionTemplate(transactionManager).execute(status ->
+                allocator.next(SEQUENCE, "20261020", () -> 0));
+        assertThat(inTransaction).isEqualTo(11);
+    }
+
+    @Test
+    void dropBeforeRemovesOnlyEarlierPeriodsOfTheSameSequence() {
+        allocator.prepare(SEQUENCE, "20261016", () -> 0);
+        allocator.prepare(SEQUENCE, "20261017", () -> 0);
+        allocator.prepare(SEQUENCE, "20261018", () -> 0);
+        allocator.prepare("other", "20261001", () -> 0);
+
+        try {
+            assertThat(allocator.dropBefore(SEQUENCE, "20261017")).containsExactly("code_seq_test_code_20261016");
+
+            assertThat(exists("code_seq_test_code_20261016")).isFalse();
+            assertThat(exists("code_seq_test_code_20261017")).isTrue();
+            assertThat(exists("code_seq_other_20261001")).isTrue();
+            // A dropped period is created again, from its seed, if it is ever asked for
+            assertThat(allocator.next(SEQUENCE, "20261016", () -> 3)).isEqualTo(4);
+        } finally {
+            allocator.dropBefore("other", "99999999");
+        }
+    }
+
+    private boolean exists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+}
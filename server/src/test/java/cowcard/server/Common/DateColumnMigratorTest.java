@@ -0,0 +1,108 @@
+package cowcard.server.Common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import cowcard.server.PostgresTest;
+
+// The columns are turned back into varchar inside the test transaction, so the rollback
+// restores the DATE columns the other tests expect
+@Import(DateColumnMigrator.class)
+class DateColumnMigratorTest extends PostgresTest {
+
+    @Autowired
+    private DateColumnMigrator migrator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int dam;
+    private int semen;
+
+    @BeforeEach
+    void seed() {
+        int gender = jdbcTemplate.queryForObject("INSERT INTO cow_gender (name) VALUES ('Female') RETURNING id",
+                Integer.class);
+        dam = jdbcTemplate.queryForObject("INSERT INTO cows (tag, gender) VALUES ('D-1', ?) RETURNING id",
+                Integer.class, gender);
+        semen = jdbcTemplate.queryForObject("INSERT INTO semen (name) VALUES ('Angus') RETURNING id", Integer.class);
+    }
+
+    @Test
+    void varcharDatesBecomeDatesAndUnparseableOnesFallBack() {
+        jdbcTemplate.execute("ALTER TABLE ai_records ALTER COLUMN ai_date TYPE varchar");
+        jdbcTemplate.execute("ALTER TABLE pregnancy_diagnosis ALTER COLUMN ai_date TYPE varchar");
+        jdbcTemplate.execute("ALTER TABLE pregnancy_diagnosis ALTER COLUMN pregnant_date TYPE varchar");
+        int plain = ai("2026-03-01");
+        int padded = ai(" 2026-03-02 ");
+        int garbled = ai("1/3/26");
+        int pdOfPlain = pd(plain, "n/a", "2026-04-15");
+        int pdOfGarbled = pd(garbled, "", "soon");
+        jdbcTemplate.update("UPDATE pregnancy_diagnosis SET created_at = '2026-03-09T10:00:00Z' WHERE id = ?",
+                pdOfGarbled);
+
+        migrator.migrate();
+
+        assertThat(type("ai_records", "ai_date")).isEqualTo("date");
+        assertThat(type("pregnancy_diagnosis", "ai_date")).isEqualTo("date");
+        assertThat(type("pregnancy_diagnosis", "pregnant_date")).isEqualTo("date");
+        assertThat(aiDate(plain)).isEqualTo(LocalDate.of(2026, 3, 1));
+        assertThat(aiDate(padded)).isEqualTo(LocalDate.of(2026, 3, 2));
+        assertThat(aiDate(garbled)).isNull();
+        // A PD's required AI date falls back to its AI record's, then to the day it was created
+        assertThat(pdDates(pdOfPlain)).containsEntry("ai_date", LocalDate.of(2026, 3, 1))
+                .containsEntry("pregnant_date", LocalDate.of(2026, 4, 15));
+        assertThat(pdDates(pdOfGarbled)).containsEntry("ai_date", LocalDate.of(2026, 3, 9))
+                .containsEntry("pregnant_date", null);
+    }
+
+    @Test
+    void dateColumnsAreLeftAlone() {
+        int ai = jdbcTemplate.queryForObject("INSERT INTO ai_records (dam_id, semen_id, ai_date) " +
+                "VALUES (?, ?, '2026-03-01') RETURNING id", Integer.class, dam, semen);
+
+        migrator.migrate();
+
+        assertThat(type("ai_records", "ai_date")).isEqualTo("date");
+        assertThat(aiDate(ai)).isEqualTo(LocalDate.of(2026, 3, 1));
+    }
+
+    private int ai(String aiDate) {
+        return jdbcTemplate.queryForObject("INSERT INTO ai_records (dam_id, semen_id, ai_date) VALUES (?, ?, ?) " +
+                "RETURNING id", Integer.class, dam, semen, aiDate);
+    }
+
+    private int pd(int aiRecordId, String aiDate, String pregnantDate) {
+        return jdbcTemplate.queryForObject("INSERT INTO pregnancy_diagnosis (ai_record_id, ai_date, pregnant_date) " +
+                "VALUES (?, ?, ?) RETURNING id", Integer.class, aiRecordId, aiDate, pregnantDate);
+    }
+
+    private LocalDate aiDate(int id) {
+        return jdbcTemplate.queryForObject("SELECT ai_date FROM ai_records WHERE id = ?", LocalDate.class, id);
+    }
+
+    private Map<String, Object> pdDates(int id) {
+        return jdbcTemplate.queryForObject("SELECT ai_date, pregnant_date FROM pregnancy_diagnosis WHERE id = ?",
+                (rs, row) -> {
+                    Map<String, Object> dates = new HashMap<>();
+                    dates.put("ai_date", rs.getObject(1, LocalDate.class));
+                    dates.put("pregnant_date", rs.getObject(2, LocalDate.class));
+                    return dates;
+                }, id);
+    }
+
+    private String type(String table, String column) {
+        return jdbcTemplate.queryForObject("SELECT data_type FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?", String.class,
+                table, column);
+    }
+}
@@ -0,0 +1,183 @@
+package cowcard.server.Consistency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.Config.ExecutorConfig;
+import cowcard.server.Feedlot.FeedlotOccupancy;
+import cowcard.server.Feedlot.FeedlotTimelineService;
+import cowcard.server.FeedlotAnalytics.FeedlotAnalyticsService;
+import cowcard.server.Transponder.TransponderCodeIndex;
+
+// Scans run on the scan pool and repairs commit per range, so the rows here are committed.
+// Two cows per range puts each kind of drift in a range of its own.
+@Import({ConsistencyService.class, ExecutorConfig.class})
+@TestPropertySource(properties = "cowcard.consistency.range-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConsistencyServiceTest extends PostgresTest {
+
+    @Autowired
+    private ConsistencyService consistencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private AuditorAware<UUID> auditorAware;
+
+    @MockitoBean
+    private FeedlotOccupancy feedlotOccupancy;
+
+    @MockitoBean
+    private FeedlotTimelineService feedlotTimelineService;
+
+    @MockitoBean
+    private FeedlotAnalyticsService feedlotAnalyticsService;
+
+    @MockitoBean
+    private TransponderCodeIndex transponderCodeIndex;
+
+    @BeforeEach
+    void seed() {
+        // The startup reloads run on the mocks too (ApplicationReadyEvent)
+        clearInvocations(feedlotOccupancy, feedlotTimelineService, feedlotAnalyticsService, transponderCodeIndex);
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.empty());
+        jdbcTemplate.update("INSERT INTO cow_gender (id, name) VALUES (1, 'Female')");
+        jdbcTemplate.update("INSERT INTO feedlots (id, name) VALUES (10, 'Pen A'), (20, 'Pen B')");
+        jdbcTemplate.update("INSERT INTO transponders (id, code) VALUES (100, 'T-100'), (200, 'T-200')");
+        // Range 1-2: cow 2 is in a pen with no open stay
+        // Range 3-4: cow 3 has open stays in two pens, one of them stale
+        // Range 5-6: cow 5 is properly tagged, cow 6 points at a transponder that does not point back
+        // Range 7-8: clean
+        jdbcTemplate.update("INSERT INTO cows (id, tag, gender, current_feedlot_id, current_transponder_id) VALUES " +
+                "(1, 'C-1', 1, 10, NULL), (2, 'C-2', 1, 10, NULL), (3, 'C-3', 1, 20, NULL), (4, 'C-4', 1, NULL, NULL), " +
+                "(5, 'C-5', 1, NULL, 100), (6, 'C-6', 1, NULL, 200), (7, 'C-7', 1, 20, NULL), (8, 'C-8', 1, NULL, NULL)");
+        jdbcTemplate.update("UPDATE transponders SET current_cow = 5 WHERE id = 100");
+        jdbcTemplate.update("INSERT INTO cow_feedlot_history (cow_id, feedlot_id, moved_in_at) VALUES " +
+                "(1, 10, '2026-01-01'), (3, 10, '2026-01-01'), (3, 20, '2026-02-01'), (7, 20, '2026-01-01')");
+        jdbcTemplate.update("INSERT INTO cow_transponder_history (cow_id, transponder_id, assigned_at) " +
+                "VALUES (5, 100, '2026-01-01')");
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "cow_transponder_history", "cow_feedlot_history", "transponders", "cows", "feedlots",
+                "cow_gender");
+    }
+
+    @Test
+    void reportOnlyScanCountsDriftWithoutTouchingRows() throws Exception {
+        ConsistencyScanStatus status = scan(false);
+
+        assertThat(status.error()).isNull();
+        assertThat(status.rangesTotal()).isEqualTo(4);
+        assertThat(status.rangesDone()).isEqualTo(4);
+        assertThat(status.cowsScanned()).isEqualTo(8);
+        assertThat(status.issuesByType()).isEqualTo(Map.of(
+                ConsistencyIssueType.FEEDLOT_MISSING_OPEN, 1L,
+                ConsistencyIssueType.FEEDLOT_DUPLICATE_OPEN, 1L,
+                ConsistencyIssueType.FEEDLOT_STALE_OPEN, 1L,
+                ConsistencyIssueType.COW_LINK_BROKEN, 1L));
+        assertThat(status.issuesFound()).isEqualTo(4);
+        assertThat(status.issues()).extracting(ConsistencyIssue::cowId).containsOnly(2, 3, 6);
+        assertThat(status.rangesRepaired()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cow_feedlot_history WHERE moved_out_at IS NULL",
+                Integer.class)).isEqualTo(4);
+        verify(feedlotOccupancy, never()).reload();
+    }
+
+    @Test
+    void repairRewritesOnlyDirtyRangesAndLeavesNothingToFind() throws Exception {
+        ConsistencyScanStatus repaired = scan(true);
+
+        assertThat(repaired.rangesRepaired()).isEqualTo(3);
+        assertThat(repaired.rowsRepaired()).isPositive();
+        assertThat(jdbcTemplate.queryForList("SELECT cow_id || ':' || feedlot_id FROM cow_feedlot_history " +
+                "WHERE moved_out_at IS NULL ORDER BY cow_id", String.class))
+                .containsExactly("1:10", "2:10", "3:20", "7:20");
+        assertThat(jdbcTemplate.queryForObject("SELECT current_cow FROM transponders WHERE id = 200", Integer.class))
+                .isEqualTo(6);
+        assertThat(jdbcTemplate.queryForList("SELECT cow_id || ':' || transponder_id FROM cow_transponder_history " +
+                "WHERE unassigned_at IS NULL ORDER BY cow_id", String.class))
+                .containsExactly("5:100", "6:200");
+        // The clean range was never rewritten
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cow_feedlot_history WHERE cow_id = 7 " +
+                "AND updated_at IS NOT NULL", Integer.class)).isZero();
+        verify(feedlotOccupancy).reload();
+        verify(feedlotTimelineService).reload();
+        verify(feedlotAnalyticsService).reload();
+        verify(transponderCodeIndex).reload();
+
+        ConsistencyScanStatus again = scan(false);
+        assertThat(again.issuesFound()).isZero();
+        assertThat(again.issuesByType()).isEmpty();
+    }
+
+    @Test
+    void onlyOneScanRunsAtATime() throws Exception {
+        // Holding the table lock keeps the first scan waiting on its first read
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE cows IN ACCESS EXCLUSIVE MODE");
+            consistencyService.start(false, "test");
+
+            assertThatThrownBy(() -> consistencyService.start(true, "test"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("A consistency scan is already running");
+            assertThat(consistencyService.getStatus().running()).isTrue();
+        });
+
+        assertThat(awaitFinished().repair()).isFalse();
+    }
+
+    private ConsistencyScanStatus scan(boolean repair) throws InterruptedException {
+        // The previous run reports finished just before it frees the slot
+        for (int i = 0; ; i++) {
+            try {
+                consistencyService.start(repair, "test");
+                return awaitFinished();
+            } catch (IllegalStateException e) {
+                if (i == 20) {
+                    throw e;
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private ConsistencyScanStatus awaitFinished() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            ConsistencyScanStatus status = consistencyService.getStatus();
+            if (!status.running()) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("Consistency scan did not finish");
+    }
+}
@@ -0,0 +1,50 @@
+package cowcard.server.Cow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class CowCursorTest {
+
+    @Test
+    void roundTripsTagAndId() {
+        CowCursor cursor = new CowCursor("A-102", 42);
+
+        assertThat(CowCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void keepsSeparatorsAndNonAsciiInTag() {
+        CowCursor cursor = new CowCursor("lot:7/โค", 9);
+
+        assertThat(CowCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodesUrlSafeWithoutPadding() {
+        String encoded = new CowCursor("??>>", 1).encode();
+
+        assertThat(encoded).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void missingCursorStartsFromTheBeginning() {
+        assertThat(CowCursor.decode(null)).isEqualTo(CowCursor.START);
+        assertThat(CowCursor.decode("  ")).isEqualTo(CowCursor.START);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> CowCursor.decode("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+        String noSeparator = Base64.getUrlEncoder().encodeToString("42".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> CowCursor.decode(noSeparator)).isInstanceOf(IllegalArgumentException.class);
+        String badId = Base64.getUrlEncoder().encodeToString("x:A-1".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> CowCursor.decode(badId)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
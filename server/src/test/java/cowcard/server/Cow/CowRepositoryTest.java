@@ -0,0 +1,136 @@
+package cowcard.server.Cow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.Color.CowSummary;
+import cowcard.server.CowGender.GenderCowSummary;
+import cowcard.server.CowRole.RoleCowSummary;
+import cowcard.server.CowStatus.StatusCowSummary;
+import jakarta.persistence.EntityManager;
+
+class CowRepositoryTest extends PostgresTest {
+
+    @Autowired
+    private CowRepository cowRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int female;
+    private int black;
+    private int heifer;
+    private int open;
+    private int pen;
+    private int transponder;
+
+    @BeforeEach
+    void seed() {
+        female = insert("INSERT INTO cow_gender (name) VALUES ('Female') RETURNING id");
+        black = insert("INSERT INTO colors (name) VALUES ('Black') RETURNING id");
+        heifer = insert("INSERT INTO cow_role (name) VALUES ('Heifer') RETURNING id");
+        open = insert("INSERT INTO cow_status (name) VALUES ('Open') RETURNING id");
+        pen = insert("INSERT INTO feedlots (name) VALUES ('Pen A') RETURNING id");
+        transponder = insert("INSERT INTO transponders (code) VALUES ('982000001') RETURNING id");
+    }
+
+    @Test
+    void viewsCarryLookupNamesAndKeepCowsWithoutThem() {
+        int full = cow("B-1", black, heifer, open, pen, transponder, true);
+        int bare = cow("A-1", null, null, null, null, null, false);
+
+        List<CowView> views = cowRepository.findAllViewOrderByTag();
+
+        assertThat(views).extracting(CowView::id).containsExactly(bare, full);
+        assertSameView(views.get(0), new CowView(bare, "A-1", "Female", female, null, null, null, null,
+                new BigDecimal("410.5"), null, null, null, null, null, false));
+        assertSameView(views.get(1), new CowView(full, "B-1", "Female", female, "Heifer", heifer, "Open", open,
+                new BigDecimal("410.5"), "Pen A", pen, "982000001", transponder, null, true));
+        assertThat(cowRepository.findAllActiveViewOrderByTag()).extracting(CowView::id).containsExactly(full);
+    }
+
+    @Test
+    void viewsLeaveThePersistenceContextEmpty() {
+        cow("A-1", black, heifer, open, pen, transponder, true);
+        entityManager.clear();
+
+        cowRepository.findAllViewOrderByTag();
+        cowRepository.findViewPageAfter("", 0, null, null, null, null, null, null, PageRequest.of(0, 10));
+        cowRepository.findSummariesByColorId(black);
+
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void pageSeeksPastTheCursorOnTagThenId() {
+        int first = cow("T-1", null, null, null, null, null, true);
+        int second = cow("T-1", null, null, null, null, null, true);
+        int third = cow("T-2", null, null, null, null, null, true);
+
+        List<CowView> page = cowRepository.findViewPageAfter("T-1", first, null, null, null, null, null, null,
+                PageRequest.of(0, 10));
+
+        assertThat(page).extracting(CowView::id).containsExactly(second, third);
+    }
+
+    @Test
+    void pageFiltersOnLookupsAndActive() {
+        int inPen = cow("A-1", black, heifer, open, pen, null, true);
+        cow("A-2", null, heifer, open, null, null, true);
+        cow("A-3", black, heifer, open, pen, null, false);
+
+        List<CowView> page = cowRepository.findViewPageAfter("", 0, female, heifer, open, pen, black, true,
+                PageRequest.of(0, 10));
+
+        assertThat(page).extracting(CowView::id).containsExactly(inPen);
+    }
+
+    @Test
+    void summariesFilterOnTheirLookupAndKeepMissingJoinsAsNull() {
+        int a = cow("A-1", black, heifer, open, pen, null, true);
+        int b = cow("B-1", black, null, null, null, null, true);
+        cow("C-1", null, heifer, null, null, null, true);
+
+        assertThat(cowRepository.findSummariesByColorId(black)).containsExactly(
+                new CowSummary(a, "A-1", "Female", "Heifer", "Open"),
+                new CowSummary(b, "B-1", "Female", null, null));
+        assertThat(cowRepository.findSummariesByGenderId(female)).extracting(GenderCowSummary::tag)
+                .containsExactly("A-1", "B-1", "C-1");
+        assertThat(cowRepository.findSummariesByRoleId(heifer)).extracting(RoleCowSummary::feedlot)
+                .containsExactly("Pen A", null);
+        assertThat(cowRepository.findSummariesByStatusId(open)).containsExactly(
+                new StatusCowSummary(a, "A-1", "Heifer", "Pen A"));
+    }
+
+    // Hibernate reads numeric with its own scale, so weights compare by value
+    private static void assertSameView(CowView actual, CowView expected) {
+        assertThat(actual).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(expected);
+    }
+
+    private int cow(String tag, Integer color, Integer role, Integer status, Integer feedlot, Integer transponderId,
+                    boolean active) {
+        return insert("INSERT INTO cows (tag, gender, weight, color, role, status, current_feedlot_id, " +
+                        "current_transponder_id, active) VALUES (?, ?, 410.5, ?, ?, ?, ?, ?, ?) RETURNING id",
+                tag, female, color, role, status, feedlot, transponderId, active);
+    }
+
+    private int insert(String sql, Object... args) {
+        Integer id = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return id != null ? id : 0;
+    }
+}
@@ -0,0 +1,164 @@
+package cowcard.server.Cow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.AiRecord.AiRecordRepository;
+import cowcard.server.Config.ExecutorConfig;
+import cowcard.server.CowFeedlotHistory.CowFeedlotHistoryRepository;
+import cowcard.server.CowTransponderHistory.CowTransponderHistoryRepository;
+
+// Sub-queries run on the query executor with their own connections, so the rows are committed
+@Import(ExecutorConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CowServiceDetailTest extends PostgresTest {
+
+    @Autowired
+    private CowRepository cowRepository;
+
+    @Autowired
+    private CowTransponderHistoryRepository cowTransponderHistoryRepository;
+
+    @Autowired
+    private CowFeedlotHistoryRepository cowFeedlotHistoryRepository;
+
+    @Autowired
+    private AiRecordRepository aiRecordRepository;
+
+    @Autowired
+    @Qualifier("queryExecutor")
+    private ExecutorService queryExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final CowService cowService = new CowService();
+
+    private int dam;
+    private int firstCalf;
+    private int secondCalf;
+
+    @BeforeEach
+    void seed() {
+        ReflectionTestUtils.setField(cowService, "cowRepository", cowRepository);
+        ReflectionTestUtils.setField(cowService, "cowTransponderHistoryRepository", cowTransponderHistoryRepository);
+        ReflectionTestUtils.setField(cowService, "cowFeedlotHistoryRepository", cowFeedlotHistoryRepository);
+        ReflectionTestUtils.setField(cowService, "aiRecordRepository", aiRecordRepository);
+        ReflectionTestUtils.setField(cowService, "queryExecutor", queryExecutor);
+        ReflectionTestUtils.setField(cowService, "parallelDetail", true);
+
+        int female = insert("INSERT INTO cow_gender (name) VALUES ('Female') RETURNING id");
+        int black = insert("INSERT INTO colors (name) VALUES ('Black') RETURNING id");
+        int dams = insert("INSERT INTO cow_role (name) VALUES ('Dam') RETURNING id");
+        int penA = insert("INSERT INTO feedlots (name) VALUES ('Pen A') RETURNING id");
+        int penB = insert("INSERT INTO feedlots (name) VALUES ('Pen B') RETURNING id");
+        int oldTag = insert("INSERT INTO transponders (code) VALUES ('982000001') RETURNING id");
+        int newTag = insert("INSERT INTO transponders (code) VALUES ('982000002') RETURNING id");
+        int semen = insert("INSERT INTO semen (name, straw, bull) VALUES ('Angus 7', 5, false) RETURNING id");
+        int vet = insert("INSERT INTO inseminators (name) VALUES ('Vet') RETURNING id");
+        int waiting = insert("INSERT INTO ai_status (name) VALUES ('Waiting') RETURNING id");
+
+        int grandDam = insert("INSERT INTO cows (tag, gender) VALUES ('G-1', ?) RETURNING id", female);
+        dam = insert("INSERT INTO cows (tag, gender, dob, weight, color, role, dam_id, semen_id, current_feedlot_id, " +
+                "current_transponder_id, remark) VALUES ('D-1', ?, '2022-03-01', 512.5, ?, ?, ?, ?, ?, ?, 'calm') " +
+                "RETURNING id", female, black, dams, grandDam, semen, penB, newTag);
+        firstCalf = insert("INSERT INTO cows (tag, gender, dob, color, dam_id) VALUES ('C-2', ?, '2025-02-01', ?, ?) " +
+                "RETURNING id", female, black, dam);
+        secondCalf = insert("INSERT INTO cows (tag, gender, dam_id) VALUES ('C-1', ?, ?) RETURNING id", female, dam);
+
+        jdbcTemplate.update("INSERT INTO cow_transponder_history (cow_id, transponder_id, assigned_at, unassigned_at) " +
+                "VALUES (?, ?, '2023-01-01 08:00', '2024-01-01 08:00'), (?, ?, '2024-01-01 08:00', NULL)",
+                dam, oldTag, dam, newTag);
+        jdbcTemplate.update("INSERT INTO cow_feedlot_history (cow_id, feedlot_id, moved_in_at, moved_out_at) " +
+                "VALUES (?, ?, '2023-05-01 07:30', '2024-06-01 07:30'), (?, ?, '2024-06-01 07:30', NULL)",
+                dam, penA, dam, penB);
+        jdbcTemplate.update("INSERT INTO ai_records (code, dam_id, semen_id, ai_by, prepared_by, status, ai_date, " +
+                "feedlot) VALUES ('20240401-1', ?, ?, ?, NULL, ?, '2024-04-01', 'Pen A'), " +
+                "('20240501-1', ?, ?, NULL, ?, NULL, '2024-05-01', NULL)",
+                dam, semen, vet, waiting, dam, semen, vet);
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "cows", "transponders", "feedlots", "semen", "inseminators", "ai_status",
+                "cow_gender", "colors", "cow_role");
+    }
+
+    @Test
+    void parallelDetailJoinsHeaderAndEveryCollection() {
+        CowDetail detail = cowService.getDetail(dam);
+
+        assertThat(detail.tag()).isEqualTo("D-1");
+        assertThat(detail.dob()).isEqualTo("2022-03-01");
+        assertThat(detail.weight()).isEqualTo(512.5);
+        assertThat(detail.remark()).isEqualTo("calm");
+        assertThat(detail.gender()).isEqualTo("Female");
+        assertThat(detail.color()).isEqualTo("Black");
+        assertThat(detail.role()).isEqualTo("Dam");
+        assertThat(detail.status()).isNull();
+        assertThat(detail.feedlot()).isEqualTo("Pen B");
+        assertThat(detail.transponder()).isEqualTo("982000002");
+        assertThat(detail.damTag()).isEqualTo("G-1");
+        assertThat(detail.semenName()).isEqualTo("Angus 7");
+
+        // Histories newest first, AI records and calves in id order
+        assertThat(detail.transponderHistory()).extracting(CowTransponderHistoryItem::transponderCode)
+                .containsExactly("982000002", "982000001");
+        assertThat(detail.transponderHistory().get(0).unassignedAt()).isNull();
+        assertThat(detail.feedlotHistory()).extracting(CowFeedlotHistoryItem::feedlotName)
+                .containsExactly("Pen B", "Pen A");
+        assertThat(detail.feedlotHistory().get(1).movedInAt()).isEqualTo("2023-05-01T07:30");
+        assertThat(detail.aiRecords()).extracting(CowAiRecordItem::code).containsExactly("20240401-1", "20240501-1");
+        assertThat(detail.aiRecords().get(0)).isEqualTo(new CowAiRecordItem(detail.aiRecords().get(0).id(),
+                "20240401-1", LocalDate.of(2024, 4, 1), null, "Angus 7", "Vet", null, "Pen A", "Waiting"));
+        assertThat(detail.aiRecords().get(1).preparedBy()).isEqualTo("Vet");
+        assertThat(detail.calves()).containsExactly(
+                new CowCalfItem(firstCalf, "C-2", "2025-02-01", "Female", "Black"),
+                new CowCalfItem(secondCalf, "C-1", (String) null, "Female", null));
+    }
+
+    @Test
+    void sequentialDetailMatchesParallel() {
+        CowDetail parallel = cowService.getDetail(dam);
+        ReflectionTestUtils.setField(cowService, "parallelDetail", false);
+
+        assertThat(cowService.getDetail(dam)).isEqualTo(parallel);
+    }
+
+    @Test
+    void cowWithoutHistoryHasEmptyCollections() {
+        CowDetail calf = cowService.getDetail(secondCalf);
+
+        assertThat(calf.damTag()).isEqualTo("D-1");
+        assertThat(calf.transponderHistory()).isEmpty();
+        assertThat(calf.feedlotHistory()).isEmpty();
+        assertThat(calf.aiRecords()).isEmpty();
+        assertThat(calf.calves()).isEmpty();
+    }
+
+    @Test
+    void unknownCowFails() {
+        assertThatThrownBy(() -> cowService.getDetail(-1)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    private int insert(String sql, Object... args) {
+        Integer id = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return id != null ? id : 0;
+    }
+}
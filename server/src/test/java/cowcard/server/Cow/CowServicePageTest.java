@@ -0,0 +1,104 @@
+package cowcard.server.Cow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+class CowServicePageTest {
+
+    @Mock
+    private CowRepository cowRepository;
+
+    @InjectMocks
+    private CowService cowService;
+
+    @Test
+    void fullPageWithAnExtraRowHasMoreAndPointsAtItsLastRow() {
+        stubRows(rows(3));
+
+        CowPage page = cowService.findPage(null, 2, null, null, null, null, null, null);
+
+        assertThat(page.items()).extracting(CowView::id).containsExactly(1, 2);
+        assertThat(page.hasMore()).isTrue();
+        assertThat(CowCursor.decode(page.nextCursor())).isEqualTo(new CowCursor("T2", 2));
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoCursor() {
+        stubRows(rows(2));
+
+        CowPage page = cowService.findPage(null, 2, null, null, null, null, null, null);
+
+        assertThat(page.items()).hasSize(2);
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void emptyPageHasNoCursor() {
+        stubRows(List.of());
+
+        CowPage page = cowService.findPage(null, 10, null, null, null, null, null, null);
+
+        assertThat(page.items()).isEmpty();
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void seeksAfterTheDecodedCursorAndAsksForOneExtraRow() {
+        stubRows(List.of());
+        String cursor = new CowCursor("T5", 5).encode();
+
+        cowService.findPage(cursor, 20, null, null, null, null, null, true);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(cowRepository).findViewPageAfter(eq("T5"), eq(5), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(true), pageable.capture());
+        assertThat(pageable.getValue()).isEqualTo(PageRequest.of(0, 21));
+    }
+
+    @Test
+    void clampsPageSize() {
+        stubRows(List.of());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+
+        cowService.findPage(null, 0, null, null, null, null, null, null);
+        cowService.findPage(null, 10_000, null, null, null, null, null, null);
+
+        verify(cowRepository, times(2)).findViewPageAfter(eq(""), eq(0), any(), any(), any(),
+                any(), any(), any(), pageable.capture());
+        assertThat(pageable.getAllValues()).extracting(Pageable::getPageSize).containsExactly(51, 501);
+    }
+
+    private void stubRows(List<CowView> rows) {
+        when(cowRepository.findViewPageAfter(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(rows);
+    }
+
+    private static List<CowView> rows(int count) {
+        List<CowView> rows = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            rows.add(new CowView(i, "T" + i, null, null, null, null, null, null, null, null, null, null, null,
+                    null, true));
+        }
+        return rows;
+    }
+}
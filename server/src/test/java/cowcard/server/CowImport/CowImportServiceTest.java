@@ -0,0 +1,148 @@
+package cowcard.server.CowImport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.Color.Color;
+import cowcard.server.CowGender.CowGender;
+import cowcard.server.Pedigree.PedigreeRow;
+import cowcard.server.Pedigree.PedigreeService;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.Search.SearchService;
+import tools.jackson.databind.ObjectMapper;
+
+// Chunks run in their own transactions, so the rows are committed
+@Import({CowImportService.class, ReferenceDataCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CowImportServiceTest extends PostgresTest {
+
+    private static final String HEADER = "tag,gender,role,color,status,dob,weight,dam,semen,remark\n";
+
+    @Autowired
+    private CowImportService cowImportService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private PedigreeService pedigreeService;
+
+    @MockitoBean
+    private SearchService searchService;
+
+    @MockitoBean
+    private AuditorAware<UUID> auditorAware;
+
+    @MockitoBean
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.empty());
+        jdbcTemplate.update("INSERT INTO cow_gender (name) VALUES ('Female')");
+        jdbcTemplate.update("INSERT INTO cow_role (name) VALUES ('Heifer')");
+        jdbcTemplate.update("INSERT INTO colors (name) VALUES ('Black')");
+        jdbcTemplate.update("INSERT INTO cow_status (name) VALUES ('Open')");
+        // Passes the service's own checks but not the database's, to fail a batch
+        jdbcTemplate.execute("ALTER TABLE cows ADD CONSTRAINT cows_import_test_weight CHECK (weight < 1000)");
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.execute("ALTER TABLE cows DROP CONSTRAINT cows_import_test_weight");
+        truncate(jdbcTemplate, "cows", "cow_gender", "cow_role", "colors", "cow_status");
+        referenceDataCache.invalidate(CowGender.class);
+        referenceDataCache.invalidate(Color.class);
+    }
+
+    @Test
+    void cleanFileGoesInAsOneBatchWithDamsFromTheSameFile() {
+        CowImportResult result = importCsv(
+                "D-1,female,heifer,black,open,2022-01-01,450,,,\n" +
+                "C-1,Female,Heifer,Black,Open,,,D-1,,first calf\n");
+
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.failed()).isZero();
+        assertThat(damTags()).containsEntry("C-1", "D-1");
+        verify(pedigreeService, times(1)).onCowsImported(anyList());
+    }
+
+    @Test
+    void rowTheDatabaseRejectsIsRetriedBehindSavepointsAndTheRestGoIn() {
+        CowImportResult result = importCsv(
+                "D-1,Female,Heifer,Black,Open,,450,,,\n" +
+                "X-1,Female,Heifer,Black,Open,,5000,,,\n" +
+                "C-1,Female,Heifer,Black,Open,,,D-1,,\n");
+
+        assertThat(result.rows()).isEqualTo(3);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(3);
+            assertThat(error.tag()).isEqualTo("X-1");
+            assertThat(error.message()).startsWith("Rejected by database:").contains("cows_import_test_weight");
+        });
+        assertThat(damTags()).containsOnlyKeys("D-1", "C-1").containsEntry("C-1", "D-1");
+
+        // Indexes hear only about the rows that were committed
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PedigreeRow>> imported = ArgumentCaptor.forClass(List.class);
+        verify(pedigreeService).onCowsImported(imported.capture());
+        assertThat(imported.getValue()).extracting(PedigreeRow::tag).containsExactly("D-1", "C-1");
+    }
+
+    @Test
+    void rowsFailingValidationNeverReachTheDatabase() {
+        CowImportResult result = importCsv(
+                "D-1,Female,Heifer,Black,Open,not-a-date,,,,\n" +
+                ",Female,Heifer,Black,Open,,,,,\n" +
+                "C-1,Female,Heifer,Black,Open,,,Nobody,,\n");
+
+        assertThat(result.imported()).isZero();
+        assertThat(result.errors()).extracting(CowImportError::message).containsExactly(
+                "Invalid dob (expected yyyy-MM-dd): not-a-date", "Tag is required", "Dam not found: Nobody");
+        assertThat(damTags()).isEmpty();
+    }
+
+    private CowImportResult importCsv(String body) {
+        return cowImportService.importCows(
+                new ByteArrayInputStream((HEADER + body).getBytes(StandardCharsets.UTF_8)), CowImportFormat.CSV);
+    }
+
+    // tag -> dam tag ("" when there is no dam)
+    private Map<String, String> damTags() {
+        Map<String, String> tags = new HashMap<>();
+        jdbcTemplate.query("SELECT c.tag, COALESCE(d.tag, '') FROM cows c LEFT JOIN cows d ON d.id = c.dam_id",
+                rs -> {
+                    tags.put(rs.getString(1), rs.getString(2));
+                });
+        return tags;
+    }
+}
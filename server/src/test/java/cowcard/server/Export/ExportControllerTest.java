@@ -0,0 +1,154 @@
+package cowcard.server.Export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+// Drives the async manager the way StreamingResponseBodyReturnValueHandler and the
+// servlet container do, so the slot is checked on every way an export can end
+@ExtendWith(MockitoExtension.class)
+class ExportControllerTest {
+
+    @Mock
+    private ExportService exportService;
+
+    @InjectMocks
+    private ExportController exportController;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private WebAsyncManager asyncManager;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("GET", "/export/cows");
+        request.setAsyncSupported(true);
+        response = new MockHttpServletResponse();
+        asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+    }
+
+    @Test
+    void finishedExportReleasesItsSlotOnce() throws Exception {
+        when(exportService.tryAcquire()).thenReturn(true);
+        asyncManager.setTaskExecutor(inline());
+
+        start(exportController.export("cows", "csv", request));
+        complete();
+
+        verify(exportService).export(any(), any(), anyBoolean(), any());
+        verify(exportService, times(1)).release();
+    }
+
+    @Test
+    void failedExportReleasesItsSlotOnce() throws Exception {
+        when(exportService.tryAcquire()).thenReturn(true);
+        doThrow(new IllegalStateException("cursor lost")).when(exportService)
+                .export(any(), any(), anyBoolean(), any());
+        asyncManager.setTaskExecutor(inline());
+
+        start(exportController.export("cows", "csv", request));
+        complete();
+
+        verify(exportService, times(1)).release();
+    }
+
+    @Test
+    void rejectedTaskReleasesItsSlot() throws Exception {
+        when(exportService.tryAcquire()).thenReturn(true);
+        asyncManager.setTaskExecutor(task -> {
+            throw new RejectedExecutionException("queue full");
+        });
+
+        start(exportController.export("cows", "csv", request));
+        complete();
+
+        verify(exportService, never()).export(any(), any(), anyBoolean(), any());
+        verify(exportService, times(1)).release();
+    }
+
+    @Test
+    void timedOutRequestReleasesItsSlot() throws Exception {
+        when(exportService.tryAcquire()).thenReturn(true);
+        // Accepted but never run, as when every worker is busy until the request times out
+        asyncManager.setTaskExecutor(task -> {
+        });
+
+        start(exportController.export("cows", "csv", request));
+        MockAsyncContext context = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        complete();
+
+        verify(exportService, times(1)).release();
+    }
+
+    @Test
+    void busyExportsAnswerTooManyRequestsWithoutTakingASlot() {
+        when(exportService.tryAcquire()).thenReturn(false);
+
+        ResponseEntity<?> response = exportController.export("cows", null, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        verify(exportService, never()).release();
+    }
+
+    @Test
+    void unknownDatasetIsABadRequest() {
+        ResponseEntity<?> response = exportController.export("horses", null, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(exportService, never()).tryAcquire();
+    }
+
+    private static AsyncTaskExecutor inline() {
+        return Runnable::run;
+    }
+
+    private void start(ResponseEntity<?> entity) throws Exception {
+        StreamingResponseBody body = (StreamingResponseBody) entity.getBody();
+        OutputStream out = response.getOutputStream();
+        asyncManager.startCallableProcessing(() -> {
+            body.writeTo(out);
+            return null;
+        });
+    }
+
+    // What the container does once the dispatched result has been handled
+    private void complete() throws IOException {
+        MockAsyncContext context = (MockAsyncContext) request.getAsyncContext();
+        if (context != null) {
+            context.complete();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package cowcard.server.Export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cowcard.server.PostgresTest;
+
+// The export opens its own read-only transaction, so the rows are committed
+@Import(ExportService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = {"cowcard.export.fetch-size=2", "cowcard.export.max-concurrent=1"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExportServiceTest extends PostgresTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO cow_gender (id, name) VALUES (1, 'Female')");
+        jdbcTemplate.update("INSERT INTO cows (id, tag, gender, dob, weight, remark, active) VALUES " +
+                "(1, 'A-1', 1, '2023-04-05', 410.5, 'calm', true), " +
+                "(2, 'A-2', 1, NULL, NULL, 'says \"moo\", often', true), " +
+                "(3, 'A-3', 1, NULL, NULL, NULL, false), " +
+                "(4, 'A-4', 1, NULL, NULL, NULL, true), " +
+                "(5, 'A-5', 1, NULL, NULL, NULL, true)");
+        jdbcTemplate.update("UPDATE cows SET dam_id = 1 WHERE id = 2");
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "cows", "cow_gender");
+    }
+
+    @Test
+    void csvQuotesOnlyCellsThatNeedIt() {
+        String csv = export(ExportDataset.COWS, ExportFormat.CSV, false);
+
+        assertThat(csv.split("\r\n")).containsExactly(
+                "id,tag,gender,dob,weight,color,role,status,dam_tag,semen,feedlot,transponder,remark,active",
+                "1,A-1,Female,2023-04-05,410.50,,,,,,,,calm,true",
+                "2,A-2,Female,,,,,,A-1,,,,\"says \"\"moo\"\", often\",true",
+                "3,A-3,Female,,,,,,,,,,,false",
+                "4,A-4,Female,,,,,,,,,,,true",
+                "5,A-5,Female,,,,,,,,,,,true");
+    }
+
+    @Test
+    void ndjsonWritesOneTypedObjectPerLine() {
+        String ndjson = export(ExportDataset.COWS, ExportFormat.NDJSON, true);
+
+        String[] lines = ndjson.split("\n", -1);
+        assertThat(lines).hasSize(5).endsWith("");
+        assertThat(lines[0]).isEqualTo("{\"id\":1,\"tag\":\"A-1\",\"gender\":\"Female\",\"dob\":\"2023-04-05\"," +
+                "\"weight\":410.50,\"color\":null,\"role\":null,\"status\":null,\"dam_tag\":null,\"semen\":null," +
+                "\"feedlot\":null,\"transponder\":null,\"remark\":\"calm\",\"active\":true}");
+        // Bare newlines between rows, and only active cows for a non-admin
+        assertThat(lines[1]).startsWith("{\"id\":2,");
+        assertThat(lines[2]).startsWith("{\"id\":4,");
+        assertThat(lines[3]).startsWith("{\"id\":5,");
+    }
+
+    @Test
+    void rowsAreWrittenFromAnOpenReadOnlyCursor() {
+        WatchingStream out = new WatchingStream();
+
+        long rows = exportService.export(ExportDataset.COWS, ExportFormat.NDJSON, false, out);
+
+        assertThat(rows).isEqualTo(5);
+        assertThat(out.writes).isPositive();
+        assertThat(out.outsideReadOnlyTransaction).isZero();
+    }
+
+    @Test
+    void slotsAreLimitedAndReturned() {
+        assertThat(exportService.tryAcquire()).isTrue();
+        assertThat(exportService.tryAcquire()).isFalse();
+
+        exportService.release();
+
+        assertThat(exportService.tryAcquire()).isTrue();
+        exportService.release();
+    }
+
+    private String export(ExportDataset dataset, ExportFormat format, boolean activeOnly) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(dataset, format, activeOnly, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // Counts writes made while the export's read-only transaction (and so its cursor) is open
+    private static final class WatchingStream extends OutputStream {
+        int writes;
+        int outsideReadOnlyTransaction;
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes++;
+            if (!TransactionSynchronizationManager.isActualTransactionActive()
+                    || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                outsideReadOnlyTransaction++;
+            }
+        }
+    }
+}
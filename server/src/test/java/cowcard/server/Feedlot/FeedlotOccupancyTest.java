@@ -0,0 +1,149 @@
+package cowcard.server.Feedlot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.Cow.CowRepository;
+
+// Moves are committed from another thread while a reload holds its snapshot open
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FeedlotOccupancyTest extends PostgresTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+    @Autowired
+    private CowRepository cowRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CowRepository countingRepository = mock(CowRepository.class);
+    private final FeedlotOccupancy occupancy = new FeedlotOccupancy();
+
+    private int penA;
+    private int penB;
+    private int first;
+    private int second;
+
+    @BeforeEach
+    void seed() {
+        ReflectionTestUtils.setField(occupancy, "cowRepository", countingRepository);
+        ReflectionTestUtils.setField(occupancy, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(occupancy, "transactionManager", transactionManager);
+        occupancy.init();
+
+        int gender = insert("INSERT INTO cow_gender (name) VALUES ('Female') RETURNING id");
+        penA = insert("INSERT INTO feedlots (name) VALUES ('Pen A') RETURNING id");
+        penB = insert("INSERT INTO feedlots (name) VALUES ('Pen B') RETURNING id");
+        first = insert("INSERT INTO cows (tag, gender, current_feedlot_id) VALUES ('A-1', ?, ?) RETURNING id",
+                gender, penA);
+        second = insert("INSERT INTO cows (tag, gender, current_feedlot_id) VALUES ('A-2', ?, ?) RETURNING id",
+                gender, penA);
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "cows", "feedlots", "cow_gender");
+    }
+
+    @Test
+    void countsLoadOnFirstUseAndFollowMoves() {
+        when(countingRepository.countGroupByCurrentFeedlot()).thenAnswer(i -> cowRepository.countGroupByCurrentFeedlot());
+
+        assertThat(occupancy.count(penA)).isEqualTo(2);
+        occupancy.apply(List.of(new FeedlotMove(first, penA, penB, NOW), new FeedlotMove(second, penA, null, NOW),
+                new FeedlotMove(first, penB, penB, NOW)));
+
+        assertThat(occupancy.count(penA)).isZero();
+        assertThat(occupancy.count(penB)).isEqualTo(1);
+    }
+
+    @Test
+    void moveCommittedAfterTheSnapshotIsReplayed() {
+        when(countingRepository.countGroupByCurrentFeedlot()).thenAnswer(i -> {
+            List<FeedlotHeadcount> counts = cowRepository.countGroupByCurrentFeedlot();
+            moveElsewhere(first, penA, penB);
+            return counts;
+        });
+
+        occupancy.reload();
+
+        assertThat(headcounts()).isEqualTo(Map.of(penA, 1L, penB, 1L));
+        assertThat(occupancy.count(penA)).isEqualTo(1);
+        assertThat(occupancy.count(penB)).isEqualTo(1);
+    }
+
+    @Test
+    void moveTheSnapshotAlreadySawIsNotCountedTwice() {
+        when(countingRepository.countGroupByCurrentFeedlot()).thenAnswer(i -> {
+            // Commits before the snapshot is taken, but is reported to the occupancy only afterwards
+            CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                    "UPDATE cows SET current_feedlot_id = ? WHERE id = ?", penB, first)).join();
+            List<FeedlotHeadcount> counts = cowRepository.countGroupByCurrentFeedlot();
+            CompletableFuture.runAsync(() -> occupancy.apply(List.of(new FeedlotMove(first, penA, penB, NOW)))).join();
+            return counts;
+        });
+
+        occupancy.reload();
+
+        assertThat(occupancy.count(penA)).isEqualTo(1);
+        assertThat(occupancy.count(penB)).isEqualTo(1);
+    }
+
+    @Test
+    void cowMovedTwiceDuringAReloadEndsUpCountedOnce() {
+        when(countingRepository.countGroupByCurrentFeedlot()).thenAnswer(i -> {
+            List<FeedlotHeadcount> counts = cowRepository.countGroupByCurrentFeedlot();
+            moveElsewhere(first, penA, penB);
+            moveElsewhere(first, penB, null);
+            return counts;
+        });
+
+        occupancy.reload();
+
+        assertThat(occupancy.count(penA)).isEqualTo(1);
+        assertThat(occupancy.count(penB)).isZero();
+    }
+
+    // Commits the move on another connection, then reports it the way FeedlotService.afterMoves does
+    private void moveElsewhere(int cowId, Integer from, Integer to) {
+        CompletableFuture.runAsync(() -> {
+            jdbcTemplate.update("UPDATE cows SET current_feedlot_id = ? WHERE id = ?", to, cowId);
+            occupancy.apply(List.of(new FeedlotMove(cowId, from, to, LocalDateTime.now())));
+        }).join();
+    }
+
+    private Map<Integer, Long> headcounts() {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (FeedlotHeadcount h : cowRepository.countGroupByCurrentFeedlot()) {
+            counts.put(h.feedlotId(), h.cowCount());
+        }
+        return counts;
+    }
+
+    private int insert(String sql, Object... args) {
+        Integer id = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return id != null ? id : 0;
+    }
+}
@@ -0,0 +1,234 @@
+package cowcard.server.Feedlot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.Common.ServerRes;
+import cowcard.server.FeedlotAnalytics.FeedlotAnalyticsService;
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.Transponder.TransponderCodeIndex;
+
+// Moves commit from several threads at once, so the rows here are committed
+@Import({FeedlotService.class, FeedlotMovementEngine.class, FeedlotOccupancy.class, ReferenceDataCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FeedlotServiceTest extends PostgresTest {
+
+    @Autowired
+    private FeedlotService feedlotService;
+
+    @Autowired
+    private FeedlotOccupancy feedlotOccupancy;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private AuditorAware<UUID> auditorAware;
+
+    @MockitoBean
+    private FeedlotTimelineService feedlotTimelineService;
+
+    @MockitoBean
+    private FeedlotAnalyticsService feedlotAnalyticsService;
+
+    @MockitoBean
+    private LiveEventPublisher liveEventPublisher;
+
+    @MockitoBean
+    private TransponderCodeIndex transponderCodeIndex;
+
+    private int gender;
+    private int penA;
+    private int penB;
+
+    @BeforeEach
+    void seed() {
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.empty());
+        gender = insert("INSERT INTO cow_gender (name) VALUES ('Female') RETURNING id");
+        penA = insert("INSERT INTO feedlots (name, active) VALUES ('Pen A', true) RETURNING id");
+        penB = insert("INSERT INTO feedlots (name, active) VALUES ('Pen B', true) RETURNING id");
+        referenceDataCache.invalidate(Feedlot.class);
+        feedlotOccupancy.reload();
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "cow_feedlot_history", "cows", "feedlots", "cow_gender");
+        referenceDataCache.invalidate(Feedlot.class);
+        feedlotOccupancy.reload();
+    }
+
+    @Test
+    void bulkMoveReportsWhatMovedAndKeepsHistoryAndCountsInStep() {
+        int inA = cow("A-1");
+        int loose = cow("A-2");
+        int inB = cow("A-3");
+        feedlotService.assign(penA, inA);
+        feedlotService.assign(penB, inB);
+
+        ServerRes<FeedlotMovementSummary> res = feedlotService.assignBulk(penB,
+                Arrays.asList(inA, loose, inB, inA, -1, null));
+
+        assertThat(res.getData()).isEqualTo(new FeedlotMovementSummary(penB, 4, 2, 1,
+                Map.of(penA, 1), 1, List.of(-1)));
+        assertThat(openHistory(inA)).containsExactly(penB);
+        assertThat(openHistory(loose)).containsExactly(penB);
+        assertThat(openHistory(inB)).containsExactly(penB);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cow_feedlot_history " +
+                "WHERE cow_id = ? AND feedlot_id = ? AND moved_out_at IS NOT NULL", Integer.class, inA, penA))
+                .isEqualTo(1);
+        assertThat(feedlotOccupancy.count(penA)).isZero();
+        assertThat(feedlotOccupancy.count(penB)).isEqualTo(3);
+
+        feedlotService.unassignBulk(List.of(inA, loose));
+
+        assertThat(openHistory(inA)).isEmpty();
+        assertThat(feedlotOccupancy.count(penB)).isEqualTo(1);
+        assertThat(feedlotService.unassignBulk(List.of(-1)).getData()).isNull();
+    }
+
+    @Test
+    void bulkMoveWaitsForAnOverlappingMoveAndReadsItsResult() throws Exception {
+        int first = cow("A-1");
+        int second = cow("A-2");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transaction().executeWithoutResult(s -> {
+            feedlotService.assignBulk(penA, List.of(second, first));
+            locked.countDown();
+            await(commit);
+        }));
+        await(locked);
+        CompletableFuture<ServerRes<FeedlotMovementSummary>> waiter = CompletableFuture.supplyAsync(
+                () -> feedlotService.assignBulk(penB, List.of(first, second)));
+
+        Thread.sleep(300);
+        assertThat(waiter).isNotDone();
+        commit.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+
+        FeedlotMovementSummary summary = waiter.get(10, TimeUnit.SECONDS).getData();
+        assertThat(summary.moved()).isEqualTo(2);
+        assertThat(summary.movedFrom()).isEqualTo(Map.of(penA, 2));
+        assertThat(openHistory(first)).containsExactly(penB);
+        assertThat(openHistory(second)).containsExactly(penB);
+    }
+
+    @Test
+    void overlappingBulkMovesInOppositeOrderDoNotDeadlock() throws Exception {
+        List<Integer> cows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            cows.add(cow("H-" + i));
+        }
+        List<Integer> reversed = new ArrayList<>(cows);
+        Collections.reverse(reversed);
+
+        List<CompletableFuture<ServerRes<FeedlotMovementSummary>>> moves = new ArrayList<>();
+        for (int round = 0; round < 10; round++) {
+            moves.add(CompletableFuture.supplyAsync(() -> feedlotService.assignBulk(penA, cows)));
+            moves.add(CompletableFuture.supplyAsync(() -> feedlotService.assignBulk(penB, reversed)));
+        }
+        CompletableFuture.allOf(moves.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cow_feedlot_history WHERE moved_out_at IS NULL",
+                Integer.class)).isEqualTo(cows.size());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cows c JOIN cow_feedlot_history h " +
+                "ON h.cow_id = c.id AND h.moved_out_at IS NULL AND h.feedlot_id = c.current_feedlot_id",
+                Integer.class)).isEqualTo(cows.size());
+        assertThat(feedlotOccupancy.count(penA) + feedlotOccupancy.count(penB)).isEqualTo(cows.size());
+    }
+
+    @Test
+    void singleMovesOfOneCowQueueOnItsRow() throws Exception {
+        int cowId = cow("A-1");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transaction().executeWithoutResult(s -> {
+            feedlotService.assign(penA, cowId);
+            locked.countDown();
+            await(commit);
+        }));
+        await(locked);
+        CompletableFuture<ServerRes<Feedlot>> waiter = CompletableFuture.supplyAsync(
+                () -> feedlotService.assign(penB, cowId));
+
+        Thread.sleep(300);
+        assertThat(waiter).isNotDone();
+        commit.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+        waiter.get(10, TimeUnit.SECONDS);
+
+        // The second move saw the first one's open row and closed it
+        assertThat(openHistory(cowId)).containsExactly(penB);
+        assertThat(jdbcTemplate.queryForObject("SELECT current_feedlot_id FROM cows WHERE id = ?", Integer.class,
+                cowId)).isEqualTo(penB);
+
+        feedlotService.unassign(cowId);
+        assertThat(openHistory(cowId)).isEmpty();
+        assertThat(feedlotOccupancy.count(penA)).isZero();
+        assertThat(feedlotOccupancy.count(penB)).isZero();
+    }
+
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private List<Integer> openHistory(int cowId) {
+        return jdbcTemplate.queryForList("SELECT feedlot_id FROM cow_feedlot_history " +
+                "WHERE cow_id = ? AND moved_out_at IS NULL", Integer.class, cowId);
+    }
+
+    private int cow(String tag) {
+        return insert("INSERT INTO cows (tag, gender) VALUES (?, ?) RETURNING id", tag, gender);
+    }
+
+    private int insert(String sql, Object... args) {
+        Integer id = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return id != null ? id : 0;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the other move");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
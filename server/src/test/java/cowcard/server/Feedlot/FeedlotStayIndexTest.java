@@ -0,0 +1,153 @@
+package cowcard.server.Feedlot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class FeedlotStayIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private static LocalDateTime day(int d) {
+        return T0.plusDays(d);
+    }
+
+    private static List<Integer> cowsIn(FeedlotStayIndex index, int feedlotId, LocalDateTime at) {
+        return index.occupantsAt(feedlotId, at).stream().map(FeedlotStay::cowId).sorted().toList();
+    }
+
+    @Test
+    void stayIsHalfOpen() {
+        FeedlotStayIndex index = new FeedlotStayIndex();
+        index.load(1, 10, day(1), day(3));
+        index.finishLoad();
+
+        assertThat(cowsIn(index, 10, day(0))).isEmpty();
+        assertThat(cowsIn(index, 10, day(1))).containsExactly(1);
+        assertThat(cowsIn(index, 10, day(2))).containsExactly(1);
+        assertThat(cowsIn(index, 10, day(3))).isEmpty();
+        assertThat(index.locationAt(1, day(3))).isNull();
+    }
+
+    @Test
+    void loadAcceptsRowsOutOfStartOrder() {
+        FeedlotStayIndex index = new FeedlotStayIndex();
+        index.load(1, 10, day(5), null);
+        index.load(2, 10, day(1), day(4));
+        index.load(1, 20, day(0), day(5));
+        index.finishLoad();
+
+        assertThat(cowsIn(index, 10, day(2))).containsExactly(2);
+        assertThat(cowsIn(index, 10, day(6))).containsExactly(1);
+        assertThat(index.locationAt(1, day(2)).feedlotId()).isEqualTo(20);
+        assertThat(index.locationAt(1, day(9)).feedlotId()).isEqualTo(10);
+        assertThat(index.locationAt(1, day(9)).movedOutAt()).isNull();
+    }
+
+    @Test
+    void backdatedMoveIntoPenIsFoundAndStillClosesTheRightStay() {
+        FeedlotStayIndex index = new FeedlotStayIndex();
+        index.load(1, 10, day(10), null);
+        index.finishLoad();
+
+        // Cow 2 is recorded as arriving before cow 1, forcing an insert in the middle of the pen
+        index.apply(List.of(new FeedlotMove(2, null, 10, day(5))));
+        index.apply(List.of(new FeedlotMove(1, 10, 20, day(12))));
+
+        assertThat(cowsIn(index, 10, day(6))).containsExactly(2);
+        assertThat(cowsIn(index, 10, day(11))).containsExactly(1, 2);
+        assertThat(cowsIn(index, 10, day(13))).containsExactly(2);
+        assertThat(cowsIn(index, 20, day(13))).containsExactly(1);
+        assertThat(index.locationAt(2, day(13)).movedOutAt()).isNull();
+    }
+
+    @Test
+    void moveOutClosesTheOpenStay() {
+        FeedlotStayIndex index = new FeedlotStayIndex();
+        index.load(1, 10, day(1), null);
+        index.finishLoad();
+
+        index.apply(List.of(new FeedlotMove(1, 10, null, day(4))));
+
+        assertThat(cowsIn(index, 10, day(3))).containsExactly(1);
+        assertThat(cowsIn(index, 10, day(4))).isEmpty();
+        assertThat(index.locationAt(1, day(3)).movedOutAt()).isEqualTo(day(4));
+        assertThat(index.locationAt(1, day(5))).isNull();
+    }
+
+    @Test
+    void matchesAScanAcrossSegmentTreeRebuilds() {
+        FeedlotStayIndex index = new FeedlotStayIndex();
+        index.finishLoad();
+        List<FeedlotStay> model = new ArrayList<>();
+        Integer[] current = new Integer[60];
+        Random random = new Random(42);
+        // Well past the initial tree capacity, with every fifth move backdated
+        for (int i = 0; i < 600; i++) {
+            int cow = random.nextInt(current.length);
+            Integer to = random.nextInt(6) == 0 ? null : 1 + random.nextInt(3);
+            LocalDateTime at = T0.plusHours(i % 5 == 0 ? Math.max(0, i - 30) : i);
+            if (lastEvent(model, cow) != null && at.isBefore(lastEvent(model, cow))) {
+                at = lastEvent(model, cow);
+            }
+            index.apply(List.of(new FeedlotMove(cow, current[cow], to, at)));
+            close(model, cow, at);
+            if (to != null) {
+                model.add(new FeedlotStay(cow, to, at, null));
+            }
+            current[cow] = to;
+        }
+
+        for (int h = 0; h < 620; h += 7) {
+            LocalDateTime at = T0.plusHours(h);
+            for (int feedlot = 1; feedlot <= 3; feedlot++) {
+                assertThat(cowsIn(index, feedlot, at)).as("feedlot %d at hour %d", feedlot, h)
+                        .isEqualTo(scan(model, feedlot, at));
+            }
+        }
+    }
+
+    @Test
+    void reflectsOnlyMovesTheHistoryAlreadyContains() {
+        FeedlotStayIndex index = new FeedlotStayIndex();
+        index.load(1, 10, day(1), day(3));
+        index.load(1, 20, day(3), null);
+        index.finishLoad();
+
+        assertThat(index.reflects(new FeedlotMove(1, 10, 20, day(3)))).isTrue();
+        assertThat(index.reflects(new FeedlotMove(1, 20, 10, day(4)))).isFalse();
+        assertThat(index.reflects(new FeedlotMove(2, null, 10, day(1)))).isFalse();
+    }
+
+    private static LocalDateTime lastEvent(List<FeedlotStay> model, int cow) {
+        LocalDateTime last = null;
+        for (FeedlotStay s : model) {
+            if (s.cowId() == cow) {
+                LocalDateTime t = s.movedOutAt() != null ? s.movedOutAt() : s.movedInAt();
+                last = last == null || t.isAfter(last) ? t : last;
+            }
+        }
+        return last;
+    }
+
+    private static void close(List<FeedlotStay> model, int cow, LocalDateTime at) {
+        for (int i = 0; i < model.size(); i++) {
+            FeedlotStay s = model.get(i);
+            if (s.cowId() == cow && s.movedOutAt() == null) {
+                model.set(i, new FeedlotStay(cow, s.feedlotId(), s.movedInAt(), at));
+            }
+        }
+    }
+
+    private static List<Integer> scan(List<FeedlotStay> model, int feedlot, LocalDateTime at) {
+        return model.stream()
+                .filter(s -> s.feedlotId() == feedlot && !s.movedInAt().isAfter(at)
+                        && (s.movedOutAt() == null || s.movedOutAt().isAfter(at)))
+                .map(FeedlotStay::cowId).sorted().toList();
+    }
+}
@@ -0,0 +1,112 @@
+package cowcard.server.FeedlotAnalytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CowDaysLedgerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 15);
+
+    @Test
+    void countsMoveInDayButNotMoveOutDay() {
+        CowDaysLedger ledger = new CowDaysLedger(TODAY.toEpochDay());
+        stay(ledger, TODAY, TODAY.plusDays(3));
+
+        assertThat(ledger.headcount(TODAY.minusDays(1))).isZero();
+        assertThat(ledger.headcount(TODAY)).isEqualTo(1);
+        assertThat(ledger.headcount(TODAY.plusDays(2))).isEqualTo(1);
+        assertThat(ledger.headcount(TODAY.plusDays(3))).isZero();
+        assertThat(ledger.cowDays(TODAY.minusDays(10), TODAY.plusDays(10))).isEqualTo(3);
+        assertThat(ledger.cowDays(TODAY.plusDays(1), TODAY.plusDays(1))).isEqualTo(1);
+    }
+
+    @Test
+    void openStayKeepsCounting() {
+        CowDaysLedger ledger = new CowDaysLedger(TODAY.toEpochDay());
+        ledger.add(TODAY, 1);
+
+        assertThat(ledger.cowDays(TODAY, TODAY.plusDays(99))).isEqualTo(100);
+    }
+
+    @Test
+    void matchesBruteForceIncludingDaysThatForceResizes() {
+        CowDaysLedger ledger = new CowDaysLedger(TODAY.toEpochDay());
+        // Days relative to TODAY; the ledger starts with a window of about -366..+1098
+        int from = -3000;
+        int to = 4000;
+        long[] headcount = new long[to - from];
+        Random random = new Random(7);
+        for (int i = 0; i < 400; i++) {
+            int in = from + random.nextInt(to - from - 1);
+            int out = in + 1 + random.nextInt(Math.min(400, to - in - 1));
+            stay(ledger, TODAY.plusDays(in), TODAY.plusDays(out));
+            for (int d = in; d < out; d++) {
+                headcount[d - from]++;
+            }
+        }
+
+        for (int i = 0; i < 300; i++) {
+            int a = from + random.nextInt(to - from);
+            int b = a + random.nextInt(to - a);
+            long expected = 0;
+            for (int d = a; d <= b; d++) {
+                expected += headcount[d - from];
+            }
+            assertThat(ledger.cowDays(TODAY.plusDays(a), TODAY.plusDays(b))).as("[%d, %d]", a, b)
+                    .isEqualTo(expected);
+            assertThat(ledger.headcount(TODAY.plusDays(a))).isEqualTo(headcount[a - from]);
+        }
+    }
+
+    @Test
+    void rangesOutsideTheHistoryAreEmpty() {
+        CowDaysLedger ledger = new CowDaysLedger(TODAY.toEpochDay());
+        stay(ledger, TODAY, TODAY.plusDays(5));
+
+        assertThat(ledger.cowDays(TODAY.minusYears(20), TODAY.minusYears(19))).isZero();
+        assertThat(ledger.cowDays(TODAY.plusYears(19), TODAY.plusYears(20))).isZero();
+    }
+
+    @Test
+    void bucketsAddUpToTheRangeTotal() {
+        CowDaysLedger ledger = new CowDaysLedger(TODAY.toEpochDay());
+        stay(ledger, TODAY.minusDays(40), TODAY.plusDays(10));
+        stay(ledger, TODAY.minusDays(5), TODAY.plusDays(60));
+        stay(ledger, TODAY, TODAY.plusDays(1));
+        LocalDate from = TODAY.minusDays(50);
+        LocalDate to = TODAY.plusDays(70);
+
+        for (CowDaysGranularity granularity : CowDaysGranularity.values()) {
+            List<CowDaysBucket> buckets = ledger.buckets(from, to, granularity);
+            assertThat(buckets.getFirst().from()).isEqualTo(from);
+            assertThat(buckets.getLast().to()).isEqualTo(to);
+            assertThat(buckets.stream().mapToLong(CowDaysBucket::cowDays).sum()).as(granularity.name())
+                    .isEqualTo(ledger.cowDays(from, to));
+            for (CowDaysBucket bucket : buckets) {
+                assertThat(bucket.cowDays()).isEqualTo(ledger.cowDays(bucket.from(), bucket.to()));
+            }
+        }
+    }
+
+    @Test
+    void dailyBucketsCarryHeadcountAndPeak() {
+        CowDaysLedger ledger = new CowDaysLedger(TODAY.toEpochDay());
+        stay(ledger, TODAY, TODAY.plusDays(2));
+        stay(ledger, TODAY.plusDays(1), TODAY.plusDays(3));
+
+        List<CowDaysBucket> days = ledger.buckets(TODAY, TODAY.plusDays(3), CowDaysGranularity.DAY);
+        assertThat(days).extracting(CowDaysBucket::cowDays).containsExactly(1L, 2L, 1L, 0L);
+        assertThat(ledger.buckets(TODAY, TODAY.plusDays(3), CowDaysGranularity.MONTH).getFirst().peakHeadcount())
+                .isEqualTo(2);
+    }
+
+    private static void stay(CowDaysLedger ledger, LocalDate in, LocalDate out) {
+        ledger.add(in, 1);
+        ledger.add(out, -1);
+    }
+}
@@ -0,0 +1,90 @@
+package cowcard.server.LiveEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class LiveEventPublisherTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private LiveEventPublisher publisher;
+
+    @Test
+    void burstCoalescesToTheLatestStatePerEntityInOneFrame() {
+        publisher.publish(LiveTopic.FEEDLOT, "moved", "cow:1", "pen A");
+        publisher.publish(LiveTopic.FEEDLOT, "moved", "cow:2", "pen A");
+        publisher.publish(LiveTopic.FEEDLOT, "moved", "cow:1", "pen B");
+        publisher.publishCommitted(LiveTopic.RFID, "read", "transponder:7", "gate");
+
+        publisher.flush();
+
+        assertThat(sent(LiveTopic.FEEDLOT)).extracting(LiveEvent::type, LiveEvent::key, LiveEvent::payload)
+                .containsExactly(tuple("feedlot.moved", "cow:2", "pen A"), tuple("feedlot.moved", "cow:1", "pen B"));
+        assertThat(sent(LiveTopic.RFID)).extracting(LiveEvent::type).containsExactly("rfid.read");
+    }
+
+    @Test
+    void flushSendsEachEventOnceAndNothingWhenIdle() {
+        publisher.publish(LiveTopic.BREEDING, "status", "ai:1", new StatusChange(1, 2));
+        publisher.flush();
+        publisher.flush();
+
+        verify(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void eventsWaitForTheTransactionAndAreDroppedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            publisher.publish(LiveTopic.TRANSPONDER, "assigned", "transponder:1", "cow 1");
+            publisher.flush();
+            verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        publisher.flush();
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            publisher.publish(LiveTopic.TRANSPONDER, "assigned", "transponder:1", "cow 2");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        publisher.flush();
+        assertThat(sent(LiveTopic.TRANSPONDER)).extracting(LiveEvent::payload).containsExactly("cow 2");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LiveEvent> sent(LiveTopic topic) {
+        ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq(topic.destination()), frame.capture());
+        return (List<LiveEvent>) frame.getValue();
+    }
+}
@@ -0,0 +1,93 @@
+package cowcard.server.Pedigree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PedigreeIndexTest {
+
+    // Semen 100 and 101 are two straws from the same sire; 200 is an unrelated sire
+    private static PedigreeRow cow(int id, Integer damId, Integer semenId) {
+        String sire = semenId == null ? null : semenId == 200 ? "Other" : "Apex";
+        return new PedigreeRow(id, "T" + id, damId, semenId, semenId == null ? null : "Straw " + semenId, sire);
+    }
+
+    @Test
+    void unrelatedParentsGiveZero() {
+        PedigreeIndex index = PedigreeIndex.build(List.of(cow(1, null, null), cow(2, 1, 100)));
+
+        assertThat(index.inbreeding(2)).isZero();
+    }
+
+    @Test
+    void sireBredToHisDaughterGivesAQuarter() {
+        PedigreeIndex index = PedigreeIndex.build(List.of(
+                cow(1, null, null),
+                cow(2, 1, 100),
+                // Different straw, same sire name, so the same sire node
+                cow(3, 2, 101)));
+
+        assertThat(index.inbreeding(3)).isCloseTo(0.25, within(1e-12));
+    }
+
+    @Test
+    void sireBredToHisGranddaughterGivesAnEighth() {
+        PedigreeIndex index = PedigreeIndex.build(List.of(
+                cow(1, null, null),
+                cow(2, 1, 100),
+                cow(3, 2, 200),
+                cow(4, 3, 100)));
+
+        assertThat(index.inbreeding(4)).isCloseTo(0.125, within(1e-12));
+    }
+
+    @Test
+    void inbredDamRaisesCoancestryWithHerSire() {
+        // 3 is 0.25 inbred; breeding 3 back to the same sire again:
+        // F(4) = coancestry(3, S) = 0.5 * (coancestry(2, S) + coancestry(S, S)) = 0.5 * (0.25 + 0.5)
+        PedigreeIndex index = PedigreeIndex.build(List.of(
+                cow(1, null, null),
+                cow(2, 1, 100),
+                cow(3, 2, 100),
+                cow(4, 3, 100)));
+
+        assertThat(index.inbreeding(4)).isCloseTo(0.375, within(1e-12));
+    }
+
+    @Test
+    void incrementalAddMatchesBulkBuild() {
+        List<PedigreeRow> rows = List.of(cow(1, null, null), cow(2, 1, 100), cow(3, 2, 200), cow(4, 3, 100));
+        PedigreeIndex built = PedigreeIndex.build(rows);
+        PedigreeIndex added = new PedigreeIndex(0);
+        rows.forEach(added::addCow);
+
+        for (PedigreeRow row : rows) {
+            assertThat(added.inbreeding(row.cowId())).isEqualTo(built.inbreeding(row.cowId()));
+        }
+    }
+
+    @Test
+    void rowsLoadedBeforeTheirDamStillResolve() {
+        PedigreeIndex index = PedigreeIndex.build(List.of(cow(3, 2, 101), cow(2, 1, 100), cow(1, null, null)));
+
+        assertThat(index.inbreeding(3)).isCloseTo(0.25, within(1e-12));
+    }
+
+    @Test
+    void damCycleDoesNotRecurseForever() {
+        PedigreeIndex index = PedigreeIndex.build(List.of(cow(1, 2, 100), cow(2, 1, 100)));
+
+        assertThat(index.inbreeding(1)).isZero();
+        assertThat(index.inbreeding(2)).isZero();
+    }
+
+    @Test
+    void unknownCowGivesZero() {
+        PedigreeIndex index = PedigreeIndex.build(List.of(cow(1, null, null)));
+
+        assertThat(index.inbreeding(99)).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package cowcard.server.Pedigree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import cowcard.server.Cow.Cow;
+import cowcard.server.Cow.CowRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PedigreeServiceTest {
+
+    @Mock
+    private CowRepository cowRepository;
+
+    @InjectMocks
+    private PedigreeService pedigreeService;
+
+    @AfterEach
+    void stop() {
+        pedigreeService.shutdown();
+    }
+
+    @Test
+    void cowCreatedWhileReloadReadsIsKept() {
+        when(cowRepository.findPedigreeRows()).thenAnswer(invocation -> {
+            // Commits after the read has started, so the rows below do not include it
+            pedigreeService.onCowCreated(cow(2));
+            return List.of(row(1));
+        });
+
+        pedigreeService.reload();
+
+        assertThat(pedigreeService.index().contains(1)).isTrue();
+        assertThat(pedigreeService.index().contains(2)).isTrue();
+    }
+
+    @Test
+    void cowTheReadAlreadySawIsNotAddedTwice() {
+        when(cowRepository.findPedigreeRows()).thenAnswer(invocation -> {
+            pedigreeService.onCowCreated(cow(2));
+            return List.of(row(1), row(2));
+        });
+
+        pedigreeService.reload();
+
+        assertThat(pedigreeService.index().size()).isEqualTo(2);
+    }
+
+    @Test
+    void sireChangeRebuildsOffTheCallingThread() throws Exception {
+        CompletableFuture<Thread> rebuiltOn = new CompletableFuture<>();
+        when(cowRepository.findPedigreeRows()).thenAnswer(invocation -> {
+            rebuiltOn.complete(Thread.currentThread());
+            return List.of(row(1));
+        });
+
+        pedigreeService.onSireChanged();
+
+        assertThat(rebuiltOn.get(5, TimeUnit.SECONDS)).isNotSameAs(Thread.currentThread());
+    }
+
+    private static PedigreeRow row(int id) {
+        return new PedigreeRow(id, "T" + id, null, null, null, null);
+    }
+
+    private static Cow cow(int id) {
+        Cow cow = new Cow();
+        cow.setId(id);
+        cow.setTag("T" + id);
+        return cow;
+    }
+}
@@ -0,0 +1,56 @@
+package cowcard.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+// JPA slice against a real PostgreSQL, for tests whose point is the SQL. One server per
+// test JVM, started from the embedded binaries on first use. Tables come from schema.sql
+// followed by Hibernate's ddl-auto update, the way the production database was built.
+// Tests roll back by default; tests that commit clean up after themselves.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public abstract class PostgresTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        EmbeddedPostgres server = server();
+        registry.add("spring.datasource.url", () -> server.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    // For tests that commit: empties the tables they wrote to (and anything referencing them)
+    protected static void truncate(JdbcTemplate jdbcTemplate, String... tables) {
+        jdbcTemplate.execute("TRUNCATE " + String.join(", ", tables) + " RESTART IDENTITY CASCADE");
+    }
+
+    private static synchronized EmbeddedPostgres server() {
+        if (postgres == null) {
+            try {
+                EmbeddedPostgres started = EmbeddedPostgres.start();
+                try (Connection c = started.getPostgresDatabase().getConnection();
+                     Statement s = c.createStatement()) {
+                    s.execute(Files.readString(Path.of("..", "schema.sql")));
+                }
+                postgres = started;
+            } catch (IOException | SQLException e) {
+                throw new IllegalStateException("Could not start the test database", e);
+            }
+        }
+        return postgres;
+    }
+}
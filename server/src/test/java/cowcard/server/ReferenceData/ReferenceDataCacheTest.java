@@ -0,0 +1,168 @@
+package cowcard.server.ReferenceData;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cowcard.server.AiStatus.AiStatusRepository;
+import cowcard.server.Color.Color;
+import cowcard.server.Color.ColorRepository;
+import cowcard.server.CowGender.CowGender;
+import cowcard.server.CowGender.CowGenderRepository;
+import cowcard.server.CowRole.CowRole;
+import cowcard.server.CowRole.CowRoleRepository;
+import cowcard.server.CowStatus.CowStatus;
+import cowcard.server.CowStatus.CowStatusRepository;
+import cowcard.server.Feedlot.FeedlotRepository;
+import cowcard.server.Inseminator.InseminatorRepository;
+import cowcard.server.PdStatus.PdStatusRepository;
+import cowcard.server.Semen.Semen;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+
+    @Mock
+    private ColorRepository colorRepository;
+
+    @Mock
+    private CowGenderRepository cowGenderRepository;
+
+    @Mock
+    private CowRoleRepository cowRoleRepository;
+
+    @Mock
+    private CowStatusRepository cowStatusRepository;
+
+    @Mock
+    private AiStatusRepository aiStatusRepository;
+
+    @Mock
+    private PdStatusRepository pdStatusRepository;
+
+    @Mock
+    private InseminatorRepository inseminatorRepository;
+
+    @Mock
+    private FeedlotRepository feedlotRepository;
+
+    @InjectMocks
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache.register();
+    }
+
+    @Test
+    void loadsOnFirstUseAndServesLookupsFromMemory() {
+        when(colorRepository.findAll()).thenReturn(List.of(color(2, "Red", false), color(1, "Black", true)));
+
+        assertThat(cache.findById(Color.class, 2)).map(Color::getName).contains("Red");
+        assertThat(cache.findByNameIgnoreCase(Color.class, "  bLaCk ")).map(Color::getId).contains(1);
+        assertThat(cache.findByNameIgnoreCase(Color.class, "White")).isEmpty();
+        assertThat(cache.findAllActive(Color.class)).extracting(Color::getId).containsExactly(1);
+        assertThat(cache.table(Color.class).findAll()).extracting(Color::getId).containsExactly(1, 2);
+
+        verify(colorRepository, times(1)).findAll();
+    }
+
+    @Test
+    void invalidationOutsideATransactionReloadsOnNextUse() {
+        when(colorRepository.findAll())
+                .thenReturn(List.of(color(1, "Black", true)))
+                .thenReturn(List.of(color(1, "Jet Black", true)));
+        cache.findById(Color.class, 1);
+
+        cache.invalidate(Color.class);
+
+        assertThat(cache.findById(Color.class, 1)).map(Color::getName).contains("Jet Black");
+    }
+
+    @Test
+    void invalidationInsideATransactionWaitsForTheCommit() {
+        when(colorRepository.findAll())
+                .thenReturn(List.of(color(1, "Black", true)))
+                .thenReturn(List.of(color(1, "Jet Black", true)));
+        cache.findById(Color.class, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(Color.class);
+            assertThat(cache.findById(Color.class, 1)).map(Color::getName).contains("Black");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.findById(Color.class, 1)).map(Color::getName).contains("Jet Black");
+    }
+
+    @Test
+    void genderChangeAlsoDropsRolesAndStatuses() {
+        when(cowGenderRepository.findAll()).thenReturn(List.of());
+        when(cowRoleRepository.findAll()).thenReturn(List.of());
+        when(cowStatusRepository.findAll()).thenReturn(List.of());
+        when(colorRepository.findAll()).thenReturn(List.of());
+        cache.table(CowGender.class);
+        cache.table(CowRole.class);
+        cache.table(CowStatus.class);
+        cache.table(Color.class);
+
+        cache.invalidate(CowGender.class);
+        cache.table(CowGender.class);
+        cache.table(CowRole.class);
+        cache.table(CowStatus.class);
+        cache.table(Color.class);
+
+        verify(cowGenderRepository, times(2)).findAll();
+        verify(cowRoleRepository, times(2)).findAll();
+        verify(cowStatusRepository, times(2)).findAll();
+        verify(colorRepository, times(1)).findAll();
+    }
+
+    @Test
+    void loadThatRacesWithAnInvalidationIsUsedOnceButNotKept() {
+        when(colorRepository.findAll())
+                .thenAnswer(invocation -> {
+                    // A write commits while the table is being read
+                    cache.invalidate(Color.class);
+                    return List.of(color(1, "Black", true));
+                })
+                .thenReturn(List.of(color(1, "Jet Black", true)));
+
+        assertThat(cache.findById(Color.class, 1)).map(Color::getName).contains("Black");
+        assertThat(cache.findById(Color.class, 1)).map(Color::getName).contains("Jet Black");
+        assertThat(cache.findById(Color.class, 1)).map(Color::getName).contains("Jet Black");
+
+        verify(colorRepository, times(2)).findAll();
+    }
+
+    @Test
+    void unregisteredTypeIsRejected() {
+        assertThatThrownBy(() -> cache.table(Semen.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Not a cached reference type: Semen");
+    }
+
+    private static Color color(int id, String name, boolean active) {
+        Color color = new Color();
+        color.setId(id);
+        color.setName(name);
+        color.setActive(active);
+        return color;
+    }
+}
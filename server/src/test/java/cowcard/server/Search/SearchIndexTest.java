@@ -0,0 +1,104 @@
+package cowcard.server.Search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class SearchIndexTest {
+
+    private static final Set<SearchField> ALL = EnumSet.allOf(SearchField.class);
+
+    @Test
+    void ranksExactThenPrefixThenSubstringThenFuzzy() {
+        SearchIndex index = new SearchIndex(0);
+        index.put(SearchField.COW_TAG, 1, "XAB0012");
+        index.put(SearchField.COW_TAG, 2, "AB0012-B");
+        index.put(SearchField.COW_TAG, 3, "AB-0012");
+        index.put(SearchField.COW_TAG, 4, "AB0013");
+
+        List<SearchHit> hits = index.search("ab0012", ALL, 10);
+
+        assertThat(hits).extracting(SearchHit::id).containsExactly(3, 2, 1, 4);
+        assertThat(hits.get(0).score()).isEqualTo(1.0);
+        assertThat(hits).extracting(SearchHit::score).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+    }
+
+    @Test
+    void shorterPrefixMatchesRankFirst() {
+        SearchIndex index = new SearchIndex(0);
+        index.put(SearchField.COW_TAG, 1, "AB00123");
+        index.put(SearchField.COW_TAG, 2, "AB001");
+        index.put(SearchField.COW_TAG, 3, "AB0012");
+
+        assertThat(index.search("ab00", ALL, 2)).extracting(SearchHit::id).containsExactly(2, 3);
+    }
+
+    @Test
+    void ignoresCaseAndPunctuation() {
+        SearchIndex index = new SearchIndex(0);
+        index.put(SearchField.COW_TAG, 1, "AB-0012");
+
+        assertThat(index.search("ab 0012", ALL, 5)).extracting(SearchHit::text).containsExactly("AB-0012");
+    }
+
+    @Test
+    void onlySearchesRequestedFields() {
+        SearchIndex index = new SearchIndex(0);
+        index.put(SearchField.COW_TAG, 1, "Apex");
+        index.put(SearchField.SEMEN_SIRE, 1, "Apex");
+
+        List<SearchHit> hits = index.search("apex", EnumSet.of(SearchField.SEMEN_SIRE), 5);
+
+        assertThat(hits).extracting(SearchHit::type, SearchHit::field).containsExactly(
+                tuple("semen", "sire"));
+    }
+
+    @Test
+    void updateTombstonesTheOldText() {
+        SearchIndex index = new SearchIndex(0);
+        index.put(SearchField.COW_TAG, 1, "OLD-001");
+        index.put(SearchField.COW_TAG, 1, "NEW-001");
+
+        assertThat(index.search("old001", ALL, 5)).isEmpty();
+        assertThat(index.search("new001", ALL, 5)).extracting(SearchHit::id).containsExactly(1);
+        assertThat(index.liveCount()).isEqualTo(1);
+    }
+
+    @Test
+    void removeAndBlankTextDropTheDocument() {
+        SearchIndex index = new SearchIndex(0);
+        index.put(SearchField.COW_TAG, 1, "AB001");
+        index.put(SearchField.COW_TAG, 2, "AB002");
+
+        index.remove(SearchField.COW_TAG, 1);
+        index.put(SearchField.COW_TAG, 2, " - ");
+
+        assertThat(index.search("ab00", ALL, 5)).isEmpty();
+        assertThat(index.liveCount()).isZero();
+    }
+
+    @Test
+    void searchesStayCorrectAcrossCompaction() {
+        SearchIndex index = new SearchIndex(0);
+        int cows = 3000;
+        for (int id = 1; id <= cows; id++) {
+            index.put(SearchField.COW_TAG, id, "OLD" + id);
+        }
+        // Enough tombstones to cross the compaction threshold more than once
+        for (int id = 1; id <= cows; id++) {
+            index.put(SearchField.COW_TAG, id, "NEW" + id);
+        }
+
+        assertThat(index.liveCount()).isEqualTo(cows);
+        assertThat(index.search("old", ALL, cows)).isEmpty();
+        assertThat(index.search("old1234", ALL, 5)).extracting(SearchHit::text).doesNotContain("OLD1234");
+        assertThat(index.search("new1234", ALL, 1)).extracting(SearchHit::id, SearchHit::text)
+                .containsExactly(tuple(1234, "NEW1234"));
+        assertThat(index.search("new", ALL, cows + 1)).hasSize(cows);
+    }
+}
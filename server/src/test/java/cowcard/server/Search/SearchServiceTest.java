@@ -0,0 +1,83 @@
+package cowcard.server.Search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import cowcard.server.Cow.Cow;
+import cowcard.server.Cow.CowRepository;
+import cowcard.server.Semen.SemenRepository;
+import cowcard.server.Transponder.Transponder;
+import cowcard.server.Transponder.TransponderRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+
+    @Mock
+    private CowRepository cowRepository;
+
+    @Mock
+    private TransponderRepository transponderRepository;
+
+    @Mock
+    private SemenRepository semenRepository;
+
+    @InjectMocks
+    private SearchService searchService;
+
+    @Test
+    void savesCommittedWhileReloadReadsAreReplayed() {
+        when(cowRepository.findSearchEntries()).thenAnswer(invocation -> {
+            // Both commit after the cow table was read: a rename and a new transponder
+            searchService.onCowSaved(cow(1, "B-0001"));
+            searchService.onTransponderSaved(transponder(7, "982000007"));
+            return List.of(new SearchEntry(1, "A-0001"));
+        });
+        when(transponderRepository.findSearchEntries()).thenReturn(List.of());
+        when(semenRepository.findNameSearchEntries()).thenReturn(List.of());
+        when(semenRepository.findSireSearchEntries()).thenReturn(List.of());
+
+        searchService.reload();
+
+        assertThat(searchService.search("B-0001", "cow", 10)).extracting(SearchHit::id).containsExactly(1);
+        assertThat(searchService.search("A-0001", "cow", 10)).extracting(SearchHit::text).doesNotContain("A-0001");
+        assertThat(searchService.search("982000007", "transponder", 10)).extracting(SearchHit::id)
+                .containsExactly(7);
+    }
+
+    @Test
+    void putTheReadAlreadySawIsNotDuplicated() {
+        when(cowRepository.findSearchEntries()).thenAnswer(invocation -> {
+            searchService.onCowSaved(cow(1, "A-0001"));
+            return List.of(new SearchEntry(1, "A-0001"));
+        });
+        when(transponderRepository.findSearchEntries()).thenReturn(List.of());
+        when(semenRepository.findNameSearchEntries()).thenReturn(List.of());
+        when(semenRepository.findSireSearchEntries()).thenReturn(List.of());
+
+        searchService.reload();
+
+        assertThat(searchService.search("A-0001", null, 10)).hasSize(1);
+    }
+
+    private static Cow cow(int id, String tag) {
+        Cow cow = new Cow();
+        cow.setId(id);
+        cow.setTag(tag);
+        return cow;
+    }
+
+    private static Transponder transponder(int id, String code) {
+        Transponder transponder = new Transponder();
+        transponder.setId(id);
+        transponder.setCode(code);
+        return transponder;
+    }
+}
@@ -0,0 +1,149 @@
+package cowcard.server.StrawInventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import cowcard.server.PostgresTest;
+
+// Inseminators racing for the last straws, each call committing on its own connection
+@Import(StrawInventoryService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StrawInventoryConcurrencyTest extends PostgresTest {
+
+    private static final int CALLERS = 16;
+
+    @Autowired
+    private StrawInventoryService strawInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private AuditorAware<UUID> auditorAware;
+
+    private int semen;
+
+    @BeforeEach
+    void seed() {
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.empty());
+        semen = jdbcTemplate.queryForObject("INSERT INTO semen (name, straw) VALUES ('Bull pen', 10) RETURNING id",
+                Integer.class);
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "straw_ledger", "straw_reservations", "semen");
+    }
+
+    @Test
+    void concurrentUsesNeverTouchReservedStrawsOrSellTheSameOneTwice() throws Exception {
+        StrawReservation held = strawInventoryService.reserve(semen, 3, null);
+
+        List<Boolean> used = race(() -> strawInventoryService.use(semen, null, null));
+
+        assertThat(used).filteredOn(ok -> ok).hasSize(7);
+        assertThat(stock()).containsExactly(3, 3);
+        // Every usage saw its own balance
+        assertThat(jdbcTemplate.queryForList("SELECT balance_after FROM straw_ledger " +
+                "WHERE entry_type = 'USAGE' ORDER BY balance_after DESC", Integer.class))
+                .containsExactly(9, 8, 7, 6, 5, 4, 3);
+
+        List<Boolean> fromReservation = race(() -> strawInventoryService.use(semen, null, held.getId()));
+
+        assertThat(fromReservation).filteredOn(ok -> ok).hasSize(3);
+        assertThat(stock()).containsExactly(0, 0);
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM straw_reservations WHERE id = ?", String.class,
+                held.getId())).isEqualTo("CONSUMED");
+    }
+
+    @Test
+    void concurrentReservesAndUsesNeverOversell() throws Exception {
+        List<Supplier<Object>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            calls.add(i % 2 == 0
+                    ? () -> strawInventoryService.reserve(semen, 2, null)
+                    : () -> strawInventoryService.use(semen, null, null));
+        }
+
+        List<Boolean> results = race(calls);
+
+        int reserves = 0;
+        int uses = 0;
+        for (int i = 0; i < CALLERS; i++) {
+            if (results.get(i)) {
+                if (i % 2 == 0) {
+                    reserves++;
+                } else {
+                    uses++;
+                }
+            }
+        }
+        List<Integer> stock = stock();
+        assertThat(stock.get(0)).isEqualTo(10 - uses);
+        assertThat(stock.get(1)).isEqualTo(2 * reserves);
+        assertThat(stock.get(1)).isLessThanOrEqualTo(stock.get(0));
+        // Nothing left to hand out: either all gone or less than one more reservation
+        assertThat(stock.get(0) - stock.get(1)).isLessThan(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM straw_reservations WHERE status = 'OPEN'",
+                Integer.class)).isEqualTo(reserves);
+    }
+
+    private List<Boolean> race(Supplier<Object> call) throws Exception {
+        List<Supplier<Object>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            calls.add(call);
+        }
+        return race(calls);
+    }
+
+    // Starts every call at once; true for each that succeeded, in call order
+    private static List<Boolean> race(List<Supplier<Object>> calls) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (Supplier<Object> call : calls) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                    call.get();
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        List<Boolean> results = new ArrayList<>();
+        for (CompletableFuture<Boolean> f : futures) {
+            results.add(f.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private List<Integer> stock() {
+        return jdbcTemplate.queryForObject("SELECT straw, reserved_straw FROM semen WHERE id = ?",
+                (rs, row) -> List.of(rs.getInt(1), rs.getInt(2)), semen);
+    }
+}
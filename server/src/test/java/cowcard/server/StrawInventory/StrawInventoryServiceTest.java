@@ -0,0 +1,188 @@
+package cowcard.server.StrawInventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class StrawInventoryServiceTest {
+
+    private static final String RESERVE = "UPDATE semen SET reserved_straw";
+    private static final String USE_RESERVED = "WITH r AS (UPDATE straw_reservations SET remaining";
+    private static final String USE_UNRESERVED = "UPDATE semen SET straw = straw - 1";
+    private static final String RELEASE = "WITH r AS (UPDATE straw_reservations SET status = 'RELEASED'";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private StrawLedgerRepository strawLedgerRepository;
+
+    @Mock
+    private StrawReservationRepository strawReservationRepository;
+
+    @Mock
+    private AuditorAware<UUID> auditorAware;
+
+    @InjectMocks
+    private StrawInventoryService service;
+
+    @BeforeEach
+    void settings() {
+        ReflectionTestUtils.setField(service, "defaultReservationMinutes", 120);
+        ReflectionTestUtils.setField(service, "maxReservationMinutes", 720);
+    }
+
+    private void returning(String sqlPrefix, Integer value) {
+        doReturn(value).when(jdbcTemplate).query(startsWith(sqlPrefix),
+                ArgumentMatchers.<ResultSetExtractor<Integer>>any(), any(Object[].class));
+    }
+
+    @Test
+    void reserveHoldsStrawsInAnOpenReservation() {
+        returning(RESERVE, 5);
+        when(strawReservationRepository.save(any())).then(returnsFirstArg());
+
+        StrawReservation reservation = service.reserve(5, 3, null);
+
+        assertThat(reservation.getSemenId()).isEqualTo(5);
+        assertThat(reservation.getQuantity()).isEqualTo(3);
+        assertThat(reservation.getRemaining()).isEqualTo(3);
+        assertThat(reservation.getStatus()).isEqualTo(StrawReservationStatus.OPEN);
+        assertThat(reservation.getExpiresAt())
+                .isCloseTo(LocalDateTime.now().plusMinutes(120), within(1, ChronoUnit.MINUTES));
+    }
+
+    @Test
+    void reserveClampsTheHold() {
+        returning(RESERVE, 5);
+        when(strawReservationRepository.save(any())).then(returnsFirstArg());
+
+        StrawReservation reservation = service.reserve(5, 1, 100_000);
+
+        assertThat(reservation.getExpiresAt())
+                .isCloseTo(LocalDateTime.now().plusMinutes(720), within(1, ChronoUnit.MINUTES));
+    }
+
+    @Test
+    void reserveFailsWithoutEnoughUnreservedStraws() {
+        returning(RESERVE, null);
+
+        assertThatThrownBy(() -> service.reserve(5, 3, null))
+                .hasMessage("Not enough unreserved straws for semen ID: 5");
+        verifyNoInteractions(strawReservationRepository);
+    }
+
+    @Test
+    void reserveRejectsNonPositiveQuantity() {
+        assertThatThrownBy(() -> service.reserve(5, 0, null)).hasMessage("Reserved quantity must be positive");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void useFromReservationRecordsTheBalance() {
+        returning(USE_RESERVED, 11);
+        when(strawLedgerRepository.save(any())).then(returnsFirstArg());
+
+        StrawLedgerEntry entry = service.use(5, 40, 9);
+
+        assertThat(entry.getType()).isEqualTo(StrawEntryType.USAGE);
+        assertThat(entry.getQuantity()).isEqualTo(-1);
+        assertThat(entry.getBalanceAfter()).isEqualTo(11);
+        assertThat(entry.getAiRecordId()).isEqualTo(40);
+        assertThat(entry.getReservationId()).isEqualTo(9);
+    }
+
+    @Test
+    void useFromClosedReservationFails() {
+        returning(USE_RESERVED, null);
+
+        assertThatThrownBy(() -> service.use(5, 40, 9))
+                .hasMessage("Straw reservation 9 is expired, used up or for another semen");
+        verifyNoInteractions(strawLedgerRepository);
+    }
+
+    @Test
+    void useWithoutReservationFailsWhenEverythingIsReserved() {
+        returning(USE_UNRESERVED, null);
+
+        assertThatThrownBy(() -> service.use(5, 40, null)).hasMessage("No straws remaining for semen ID: 5");
+        verifyNoInteractions(strawLedgerRepository);
+    }
+
+    @Test
+    void releaseReturnsUnusedStraws() {
+        when(jdbcTemplate.update(startsWith(RELEASE), any(Object[].class))).thenReturn(1);
+
+        service.release(9);
+
+        verify(jdbcTemplate).update(startsWith(RELEASE), any(Object[].class));
+    }
+
+    @Test
+    void releaseOfAClosedReservationFails() {
+        when(jdbcTemplate.update(startsWith(RELEASE), any(Object[].class))).thenReturn(0);
+
+        assertThatThrownBy(() -> service.release(9)).hasMessage("Straw reservation 9 is not open");
+    }
+
+    @Test
+    void usageRowsCountDownToTheFinalBalancePerSemen() throws Exception {
+        service.recordUsages(List.of(
+                new StrawUsage(1, 100, null),
+                new StrawUsage(2, 101, 7),
+                new StrawUsage(1, 102, null),
+                new StrawUsage(1, 103, null)), Map.of(1, 7, 2, 0));
+
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), setter.capture());
+        List<Integer> balances = new ArrayList<>();
+        for (int i = 0; i < setter.getValue().getBatchSize(); i++) {
+            PreparedStatement ps = mock(PreparedStatement.class);
+            setter.getValue().setValues(ps, i);
+            ArgumentCaptor<Integer> balance = ArgumentCaptor.forClass(Integer.class);
+            verify(ps).setInt(eq(2), balance.capture());
+            balances.add(balance.getValue());
+        }
+        assertThat(balances).containsExactly(9, 0, 8, 7);
+    }
+
+    @Test
+    void noUsagesWriteNothing() {
+        service.recordUsages(List.of(), Map.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
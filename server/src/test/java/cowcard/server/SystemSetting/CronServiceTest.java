@@ -0,0 +1,176 @@
+package cowcard.server.SystemSetting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.LiveEvent.LiveTopic;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CronServiceTest {
+
+    @Mock
+    private SystemSettingRepository systemSettingRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AuditorAware<UUID> auditorAware;
+
+    @Mock
+    private LiveEventPublisher liveEventPublisher;
+
+    @InjectMocks
+    private CronService cronService;
+
+    // Per from-status: ids each successive chunk UPDATE returns, and the cutoffs it was given
+    private final Map<Integer, Deque<List<Integer>>> chunks = new HashMap<>();
+    private final Map<Integer, List<LocalDate>> cutoffs = new HashMap<>();
+    private final List<Integer> limits = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cronService, "chunkSize", 2);
+        cronService.init();
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.empty());
+        doAnswer(inv -> {
+            PreparedStatementCreator creator = inv.getArgument(0);
+            Connection con = mock(Connection.class);
+            PreparedStatement ps = mock(PreparedStatement.class);
+            when(con.prepareStatement(anyString())).thenReturn(ps);
+            int[] from = new int[1];
+            doAnswer(a -> from[0] = a.getArgument(1)).when(ps).setInt(eq(4), anyInt());
+            doAnswer(a -> limits.add(a.getArgument(1))).when(ps).setInt(eq(6), anyInt());
+            Date[] cutoff = new Date[1];
+            doAnswer(a -> cutoff[0] = a.getArgument(1)).when(ps).setDate(eq(5), any());
+            creator.createPreparedStatement(con);
+            cutoffs.computeIfAbsent(from[0], k -> new ArrayList<>()).add(cutoff[0].toLocalDate());
+            Deque<List<Integer>> queue = chunks.get(from[0]);
+            return queue == null || queue.isEmpty() ? List.of() : queue.poll();
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+    }
+
+    private void setting(int id, String value) {
+        SystemSetting setting = new SystemSetting();
+        setting.setId(id);
+        setting.setValue(value);
+        when(systemSettingRepository.findById(id)).thenReturn(Optional.of(setting));
+    }
+
+    private void chunks(int fromStatus, List<List<Integer>> results) {
+        chunks.put(fromStatus, new ArrayDeque<>(results));
+    }
+
+    private static PdTransitionReport report(PdTransitionRun run, PdTransitionRule rule) {
+        return run.rules().stream().filter(r -> r.rule().equals(rule.name())).findFirst().orElseThrow();
+    }
+
+    @Test
+    void cutoffsLeadTheConfiguredDaysByEachRulesLead() {
+        setting(1, "30");
+        setting(2, " 283 ");
+
+        PdTransitionRun run = cronService.execute();
+
+        LocalDate today = run.startedAt().toLocalDate();
+        // NEW -> Pending 5 days before the PD day; Pregnant -> Late Gestation 30 days before the due date
+        assertThat(report(run, PdTransitionRule.NEW_TO_PENDING).cutoff()).isEqualTo(today.minusDays(25));
+        assertThat(report(run, PdTransitionRule.PREGNANT_TO_LATE_GESTATION).cutoff()).isEqualTo(today.minusDays(253));
+        assertThat(cutoffs.get(7)).containsOnly(today.minusDays(25));
+        assertThat(cutoffs.get(3)).containsOnly(today.minusDays(253));
+    }
+
+    @Test
+    void settingShorterThanTheLeadPutsTheCutoffInTheFuture() {
+        setting(1, "3");
+        setting(2, "280");
+
+        PdTransitionRun run = cronService.execute();
+
+        assertThat(report(run, PdTransitionRule.NEW_TO_PENDING).cutoff())
+                .isEqualTo(run.startedAt().toLocalDate().plusDays(2));
+    }
+
+    @Test
+    void runsChunksUntilOneComesBackShort() {
+        setting(1, "30");
+        setting(2, "280");
+        chunks(7, List.of(List.of(1, 2), List.of(3, 4), List.of(5)));
+
+        PdTransitionReport report = report(cronService.execute(), PdTransitionRule.NEW_TO_PENDING);
+
+        assertThat(report.updated()).isEqualTo(5);
+        assertThat(report.chunks()).isEqualTo(3);
+        assertThat(cutoffs.get(7)).hasSize(3);
+        assertThat(limits).containsOnly(2);
+        verify(liveEventPublisher, times(5)).publish(eq(LiveTopic.BREEDING), eq("pd-status"), anyString(), any());
+    }
+
+    @Test
+    void fullLastChunkNeedsOneEmptyRoundTrip() {
+        setting(1, "30");
+        setting(2, "280");
+        chunks(3, List.of(List.of(1, 2)));
+
+        PdTransitionReport report = report(cronService.execute(), PdTransitionRule.PREGNANT_TO_LATE_GESTATION);
+
+        assertThat(report.updated()).isEqualTo(2);
+        assertThat(report.chunks()).isEqualTo(1);
+        assertThat(cutoffs.get(3)).hasSize(2);
+    }
+
+    @Test
+    void missingOrInvalidSettingSkipsOnlyThatRule() {
+        when(systemSettingRepository.findById(1)).thenReturn(Optional.empty());
+        setting(2, "soon");
+
+        PdTransitionRun run = cronService.execute();
+
+        assertThat(report(run, PdTransitionRule.NEW_TO_PENDING).skipped()).contains("not found");
+        assertThat(report(run, PdTransitionRule.PREGNANT_TO_LATE_GESTATION).skipped()).contains("not a number");
+        assertThat(report(run, PdTransitionRule.NEW_TO_PENDING).cutoff()).isNull();
+        assertThat(cutoffs).isEmpty();
+        assertThat(cronService.getLastRun()).isSameAs(run);
+    }
+}
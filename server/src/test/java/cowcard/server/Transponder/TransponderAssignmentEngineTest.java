@@ -0,0 +1,180 @@
+package cowcard.server.Transponder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import cowcard.server.Transponder.TransponderBulkResult.TransponderBulkError;
+
+@ExtendWith(MockitoExtension.class)
+class TransponderAssignmentEngineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AuditorAware<UUID> auditorAware;
+
+    @InjectMocks
+    private TransponderAssignmentEngine engine;
+
+    // id -> current partner (null when free), standing in for the transponders and cows tables
+    private final Map<Integer, Integer> cowOfTransponder = new HashMap<>();
+    private final Map<Integer, Integer> transponderOfCow = new HashMap<>();
+
+    @BeforeEach
+    void herd() {
+        for (int id = 1; id <= 6; id++) {
+            cowOfTransponder.put(100 + id, null);
+            transponderOfCow.put(id, null);
+        }
+        // Lenient: batches rejected entirely in memory never read the tables
+        lenient().doAnswer(inv -> {
+            PreparedStatementCreator creator = inv.getArgument(0);
+            RowCallbackHandler handler = inv.getArgument(1);
+            String[] sql = new String[1];
+            Object[][] ids = new Object[1][];
+            Connection con = mock(Connection.class);
+            when(con.prepareStatement(anyString())).thenAnswer(i -> {
+                sql[0] = i.getArgument(0);
+                return mock(PreparedStatement.class);
+            });
+            when(con.createArrayOf(eq("integer"), any())).thenAnswer(i -> {
+                ids[0] = i.getArgument(1);
+                return mock(Array.class);
+            });
+            creator.createPreparedStatement(con);
+            Map<Integer, Integer> table = sql[0].contains("FROM transponders") ? cowOfTransponder : transponderOfCow;
+            for (Object id : ids[0]) {
+                if (table.containsKey(id)) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getInt(1)).thenReturn((Integer) id);
+                    when(rs.getObject(2)).thenReturn(table.get(id));
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private void paired(int transponderId, int cowId) {
+        cowOfTransponder.put(transponderId, cowId);
+        transponderOfCow.put(cowId, transponderId);
+    }
+
+    private static TransponderAssignment pair(Integer transponderId, Integer cowId) {
+        return new TransponderAssignment(transponderId, cowId);
+    }
+
+    @Test
+    void transponderSentToTwoCowsRejectsBothPairs() {
+        TransponderAssignmentEngine.Outcome outcome = engine.assign(List.of(
+                pair(101, 1), pair(102, 2), pair(101, 3)));
+
+        assertThat(outcome.result().assigned()).isEqualTo(1);
+        assertThat(outcome.result().rejected())
+                .extracting(TransponderBulkError::transponderId, TransponderBulkError::cowId)
+                .containsExactlyInAnyOrder(tuple(101, 1), tuple(101, 3));
+        assertThat(outcome.result().rejected()).extracting(TransponderBulkError::message)
+                .allMatch(m -> m.contains("more than one cow"));
+        assertThat(outcome.touchedTransponders()).containsExactly(102);
+    }
+
+    @Test
+    void cowGivenTwoTranspondersRejectsBothPairs() {
+        TransponderAssignmentEngine.Outcome outcome = engine.assign(List.of(pair(101, 1), pair(102, 1)));
+
+        assertThat(outcome.result().assigned()).isZero();
+        assertThat(outcome.result().rejected()).extracting(TransponderBulkError::message)
+                .containsOnly("Cow is assigned more than one transponder in this batch");
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+    }
+
+    @Test
+    void conflictsSpreadThroughSharedCowsAndTransponders() {
+        // 102 goes to two cows, and cow 1 also gets 101, so all three pairs are dropped
+        TransponderAssignmentEngine.Outcome outcome = engine.assign(List.of(
+                pair(101, 1), pair(102, 1), pair(102, 2)));
+
+        assertThat(outcome.result().assigned()).isZero();
+        assertThat(outcome.result().rejected()).hasSize(3);
+    }
+
+    @Test
+    void repeatedIdenticalPairIsNotAConflict() {
+        TransponderAssignmentEngine.Outcome outcome = engine.assign(List.of(pair(101, 1), pair(101, 1)));
+
+        assertThat(outcome.result().assigned()).isEqualTo(1);
+        assertThat(outcome.result().rejected()).isEmpty();
+    }
+
+    @Test
+    void incompleteAndUnknownPairsAreRejectedIndividually() {
+        TransponderAssignmentEngine.Outcome outcome = engine.assign(Arrays.asList(
+                pair(null, 1), null, pair(999, 2), pair(103, 999), pair(104, 4)));
+
+        assertThat(outcome.result().requested()).isEqualTo(5);
+        assertThat(outcome.result().assigned()).isEqualTo(1);
+        assertThat(outcome.result().rejected()).extracting(TransponderBulkError::message).containsExactly(
+                "transponderId and cowId are required",
+                "transponderId and cowId are required",
+                "Transponder with id 999 not found",
+                "Cow with id 999 not found");
+    }
+
+    @Test
+    void countsUnchangedAndDisplacedPartners() {
+        paired(101, 1);
+        paired(102, 2);
+        paired(103, 3);
+
+        // 101 stays put; 102 leaves cow 2 for cow 5; cow 3 drops 103 for 106
+        TransponderAssignmentEngine.Outcome outcome = engine.assign(List.of(
+                pair(101, 1), pair(102, 5), pair(106, 3)));
+
+        assertThat(outcome.result().unchanged()).isEqualTo(1);
+        assertThat(outcome.result().assigned()).isEqualTo(2);
+        assertThat(outcome.result().displaced()).isEqualTo(2);
+        assertThat(outcome.touchedTransponders()).containsExactlyInAnyOrder(102, 106, 103);
+    }
+
+    @Test
+    void swapWithinTheBatchDisplacesNobody() {
+        paired(101, 1);
+        paired(102, 2);
+
+        TransponderAssignmentEngine.Outcome outcome = engine.assign(List.of(pair(101, 2), pair(102, 1)));
+
+        assertThat(outcome.result().assigned()).isEqualTo(2);
+        assertThat(outcome.result().displaced()).isZero();
+    }
+}
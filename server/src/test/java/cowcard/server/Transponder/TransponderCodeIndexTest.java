@@ -0,0 +1,135 @@
+package cowcard.server.Transponder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.Cow.Cow;
+import cowcard.server.Feedlot.Feedlot;
+import cowcard.server.Feedlot.FeedlotMove;
+
+// Saves are published after commit, so these run outside the test transaction
+@Import(TransponderCodeIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransponderCodeIndexTest extends PostgresTest {
+
+    @Autowired
+    private TransponderCodeIndex index;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int pen;
+    private int wearer;
+    private int tagged;
+    private int spare;
+
+    @BeforeEach
+    void seed() {
+        int gender = insert("INSERT INTO cow_gender (name) VALUES ('Female') RETURNING id");
+        pen = insert("INSERT INTO feedlots (name) VALUES ('Pen A') RETURNING id");
+        wearer = insert("INSERT INTO cows (tag, gender, current_feedlot_id, dob, active) " +
+                "VALUES ('A-1', ?, ?, '2024-03-01', true) RETURNING id", gender, pen);
+        tagged = insert("INSERT INTO transponders (code, current_cow) VALUES ('985 000 1', ?) RETURNING id", wearer);
+        spare = insert("INSERT INTO transponders (code) VALUES ('985 000 2') RETURNING id");
+        index.reload();
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "transponders", "cows", "feedlots", "cow_gender");
+        index.reload();
+    }
+
+    @Test
+    void reloadJoinsTheWearersCardFieldsAndMatchesCodesLoosely() {
+        TransponderCode code = index.resolve("  985 000 1 ");
+
+        assertThat(code.transponderId()).isEqualTo(tagged);
+        assertThat(code.cowId()).isEqualTo(wearer);
+        assertThat(code.tag()).isEqualTo("A-1");
+        assertThat(code.feedlotId()).isEqualTo(pen);
+        assertThat(code.dob()).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(code.active()).isTrue();
+        assertThat(index.resolve("985 000 2").cowId()).isNull();
+        assertThat(index.resolve("985 000 3")).isNull();
+        assertThat(index.resolve(null)).isNull();
+    }
+
+    @Test
+    void retaggingMovesTheCowAndRenamingDropsTheOldCode() {
+        index.onTransponderSaved(transponder(tagged, "985 000 1", null));
+        index.onTransponderSaved(transponder(spare, "985-000-2b", cow(wearer, "A-1")));
+
+        assertThat(index.resolve("985 000 1").cowId()).isNull();
+        assertThat(index.resolve("985 000 2")).isNull();
+        assertThat(index.resolve("985-000-2B").cowId()).isEqualTo(wearer);
+
+        // Moves now follow the cow to its new tag only
+        index.onCowsMoved(List.of(new FeedlotMove(wearer, pen, null, LocalDateTime.now())));
+        assertThat(index.resolve("985-000-2b").feedlotId()).isNull();
+        assertThat(index.resolve("985 000 1").feedlotId()).isNull();
+    }
+
+    @Test
+    void moveUpdatesTheFeedlotOnTheCard() {
+        index.onCowsMoved(List.of(new FeedlotMove(wearer, pen, null, LocalDateTime.now()),
+                new FeedlotMove(-1, null, pen, LocalDateTime.now())));
+
+        assertThat(index.resolve("985 000 1").feedlotId()).isNull();
+        assertThat(index.resolve("985 000 1").tag()).isEqualTo("A-1");
+    }
+
+    @Test
+    void rolledBackSaveIsNeverSeen() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            index.onTransponderSaved(transponder(tagged, "985 000 9", null));
+            assertThat(index.resolve("985 000 9")).isNull();
+            status.setRollbackOnly();
+        });
+
+        assertThat(index.resolve("985 000 9")).isNull();
+        assertThat(index.resolve("985 000 1").cowId()).isEqualTo(wearer);
+    }
+
+    private static Transponder transponder(int id, String code, Cow wearer) {
+        Transponder t = new Transponder();
+        t.setId(id);
+        t.setCode(code);
+        t.setCurrentCow(wearer);
+        return t;
+    }
+
+    private Cow cow(int id, String tag) {
+        Cow cow = new Cow();
+        cow.setId(id);
+        cow.setTag(tag);
+        Feedlot feedlot = new Feedlot();
+        feedlot.setId(pen);
+        cow.setCurrentFeedlot(feedlot);
+        cow.setActive(true);
+        return cow;
+    }
+
+    private int insert(String sql, Object... args) {
+        Integer id = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return id != null ? id : 0;
+    }
+}
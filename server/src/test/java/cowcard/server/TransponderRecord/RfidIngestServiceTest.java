@@ -0,0 +1,174 @@
+package cowcard.server.TransponderRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.Feedlot.Feedlot;
+import cowcard.server.LiveEvent.LiveEventPublisher;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.Transponder.TransponderCodeIndex;
+
+// Batches commit (or roll back) on their own, so the dedup window sees what really happened
+@Import({RfidIngestService.class, TransponderCodeIndex.class, ReferenceDataCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RfidIngestServiceTest extends PostgresTest {
+
+    @Autowired
+    private RfidIngestService rfidIngestService;
+
+    @Autowired
+    private TransponderCodeIndex transponderCodeIndex;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private AuditorAware<UUID> auditorAware;
+
+    @MockitoBean
+    private LiveEventPublisher liveEventPublisher;
+
+    private int pen;
+
+    @BeforeEach
+    void seed() {
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.empty());
+        int gender = jdbcTemplate.queryForObject("INSERT INTO cow_gender (name) VALUES ('Female') RETURNING id",
+                Integer.class);
+        pen = jdbcTemplate.queryForObject("INSERT INTO feedlots (name, active) VALUES ('Pen A', true) RETURNING id",
+                Integer.class);
+        int cow = jdbcTemplate.queryForObject("INSERT INTO cows (tag, gender) VALUES ('A-1', ?) RETURNING id",
+                Integer.class, gender);
+        jdbcTemplate.update("INSERT INTO transponders (code, current_cow) VALUES ('985 000 1', ?), ('985 000 2', NULL)",
+                cow);
+        referenceDataCache.invalidate(Feedlot.class);
+        transponderCodeIndex.reload();
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "transponder_records", "transponders", "cows", "feedlots", "cow_gender");
+        referenceDataCache.invalidate(Feedlot.class);
+        // Every read here is months old, so this forgets them all
+        rfidIngestService.evictExpired();
+    }
+
+    @Test
+    void burstAtOneReaderIsStoredOnceAndEverythingElseIsCounted() {
+        RfidIngestResult result = rfidIngestService.ingest(Arrays.asList(
+                read("985 000 1", "trough", "2026-01-01T08:00:10"),
+                read("985 000 1", "trough", "2026-01-01T08:00:00"),
+                read("985 000 1", "trough", "2026-01-01T08:00:29"),
+                read("985 000 1", "gate", "2026-01-01T08:00:05"),
+                read("985 000 2", "trough", "2026-01-01T08:00:05"),
+                read("985 000 1", "trough", "2026-01-01T08:00:30"),
+                read("999", "trough", null),
+                read("999", "trough", null),
+                read("985 000 1", "trough", "noon"),
+                null));
+
+        assertThat(result).isEqualTo(new RfidIngestResult(10, 4, 2, 2, List.of("999")));
+        assertThat(jdbcTemplate.queryForList("SELECT to_char(read_at, 'HH24:MI:SS') || ' ' || reader " +
+                "FROM transponder_records ORDER BY read_at, reader", String.class))
+                .containsExactly("08:00:00 trough", "08:00:05 gate", "08:00:05 trough", "08:00:30 trough");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transponder_records WHERE cow_id IS NULL",
+                Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void committedReadSuppressesTheNextBatchWithinTheWindow() {
+        rfidIngestService.ingest(List.of(read("985 000 1", "trough", "2026-01-01T08:00:00")));
+
+        RfidIngestResult again = rfidIngestService.ingest(List.of(
+                read("985 000 1", "trough", "2026-01-01T08:00:20"),
+                read("985 000 1", "trough", "2026-01-01T08:01:00")));
+
+        assertThat(again.stored()).isEqualTo(1);
+        assertThat(again.duplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentBatchesStoreASharedReadOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<RfidIngestResult>> batches = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            batches.add(CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return rfidIngestService.ingest(List.of(read("985 000 1", "trough", "2026-01-01T08:00:00")));
+            }));
+        }
+        start.countDown();
+
+        int stored = 0;
+        for (CompletableFuture<RfidIngestResult> batch : batches) {
+            stored += batch.get(30, TimeUnit.SECONDS).stored();
+        }
+        assertThat(stored).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transponder_records", Integer.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackBatchDoesNotSuppressItsRetry() {
+        List<RfidRead> batch = List.of(
+                read("985 000 1", "trough", "2026-01-01T08:00:00"),
+                read("985 000 1", "trough", "2026-01-01T08:01:00"),
+                read("985 000 2", "trough", "2026-01-01T08:00:00", pen));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(rfidIngestService.ingest(batch).stored()).isEqualTo(3);
+            status.setRollbackOnly();
+        });
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transponder_records", Integer.class)).isZero();
+
+        assertThat(rfidIngestService.ingest(batch).stored()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transponder_records WHERE feedlot_id = ?",
+                Integer.class, pen)).isEqualTo(1);
+    }
+
+    private static RfidRead read(String code, String reader, String at) {
+        return new RfidRead(code, reader, null, at);
+    }
+
+    private static RfidRead read(String code, String reader, String at, Integer feedlotId) {
+        return new RfidRead(code, reader, feedlotId, at);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package cowcard.server.WeightMeasurement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class WeightSeriesTest {
+
+    private static final long DAY = 86_400;
+
+    @Test
+    void lateReadingIsSortedIntoPlace() {
+        WeightSeries series = new WeightSeries();
+        series.add(2 * DAY, 320, 1);
+        series.add(0, 300, 1);
+        series.add(5 * DAY, 350, 2);
+        series.add(DAY, 310, 1);
+        series.add(3 * DAY, 330, 2);
+
+        assertThat(series.times()).containsExactly(0, DAY, 2 * DAY, 3 * DAY, 5 * DAY);
+        assertThat(series.weights()).containsExactly(300, 310, 320, 330, 350);
+        assertThat(series.feedlots()).containsExactly(1, 1, 1, 2, 2);
+    }
+
+    @Test
+    void slopeOfAStraightLineIsItsDailyGain() {
+        WeightSeries series = new WeightSeries();
+        for (int day = 0; day <= 10; day += 2) {
+            series.add(day * DAY, 250 + 1.2 * day, WeightSeries.NO_FEEDLOT);
+        }
+
+        WeightSeries.Fit fit = series.fit(Long.MIN_VALUE, Long.MAX_VALUE, WeightSeries.NO_FEEDLOT);
+
+        assertThat(fit.n()).isEqualTo(6);
+        assertThat(fit.first()).isEqualTo(250);
+        assertThat(fit.last()).isCloseTo(262, within(1e-9));
+        assertThat(fit.days()).isEqualTo(10);
+        assertThat(fit.slope()).isCloseTo(1.2, within(1e-9));
+    }
+
+    @Test
+    void scatterIsFittedByLeastSquares() {
+        WeightSeries series = new WeightSeries();
+        series.add(0, 300, 1);
+        series.add(DAY, 303, 1);
+        series.add(2 * DAY, 302, 1);
+        series.add(3 * DAY, 307, 1);
+
+        // x = 0..3, y = 300, 303, 302, 307: slope = (4*1828 - 6*1212) / (4*14 - 36) = 2.0
+        assertThat(series.fit(Long.MIN_VALUE, Long.MAX_VALUE, 1).slope()).isCloseTo(2.0, within(1e-9));
+    }
+
+    @Test
+    void windowAndPenNarrowTheFit() {
+        WeightSeries series = new WeightSeries();
+        series.add(0, 300, 1);
+        series.add(10 * DAY, 310, 1);
+        series.add(20 * DAY, 340, 2);
+        series.add(30 * DAY, 370, 2);
+
+        assertThat(series.fit(Long.MIN_VALUE, Long.MAX_VALUE, 1).slope()).isCloseTo(1.0, within(1e-9));
+        assertThat(series.fit(Long.MIN_VALUE, Long.MAX_VALUE, 2).slope()).isCloseTo(3.0, within(1e-9));
+        // Inclusive bounds: days 10 and 20 only
+        WeightSeries.Fit window = series.fit(10 * DAY, 20 * DAY, WeightSeries.NO_FEEDLOT);
+        assertThat(window.n()).isEqualTo(2);
+        assertThat(window.slope()).isCloseTo(3.0, within(1e-9));
+    }
+
+    @Test
+    void fewerThanTwoDistinctTimesHaveNoSlope() {
+        WeightSeries series = new WeightSeries();
+        series.add(DAY, 300, 1);
+
+        assertThat(series.fit(Long.MIN_VALUE, Long.MAX_VALUE, WeightSeries.NO_FEEDLOT).slope()).isNull();
+
+        series.add(DAY, 305, 1);
+        assertThat(series.fit(Long.MIN_VALUE, Long.MAX_VALUE, WeightSeries.NO_FEEDLOT).slope()).isNull();
+        assertThat(series.fit(Long.MIN_VALUE, Long.MAX_VALUE, 2).n()).isZero();
+    }
+}
@@ -0,0 +1,175 @@
+package cowcard.server.WeightMeasurement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import cowcard.server.PostgresTest;
+import cowcard.server.Feedlot.Feedlot;
+import cowcard.server.Pedigree.PedigreeIndex;
+import cowcard.server.Pedigree.PedigreeRow;
+import cowcard.server.Pedigree.PedigreeService;
+import cowcard.server.ReferenceData.ReferenceDataCache;
+import cowcard.server.WeightMeasurement.WeightBatchResult.WeightBatchError;
+
+// The in-memory series is appended after commit, so batches here really commit
+@Import({WeightService.class, ReferenceDataCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WeightServiceTest extends PostgresTest {
+
+    @Autowired
+    private WeightService weightService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private PedigreeService pedigreeService;
+
+    @MockitoBean
+    private AuditorAware<UUID> auditorAware;
+
+    private int penA;
+    private int penB;
+    private int steer;
+    private int heifer;
+
+    @BeforeEach
+    void seed() {
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.empty());
+        int gender = insert("INSERT INTO cow_gender (name) VALUES ('Male') RETURNING id");
+        penA = insert("INSERT INTO feedlots (name) VALUES ('Pen A') RETURNING id");
+        penB = insert("INSERT INTO feedlots (name) VALUES ('Pen B') RETURNING id");
+        steer = insert("INSERT INTO cows (tag, gender, weight, current_feedlot_id) VALUES ('S-1', ?, 1, ?) " +
+                "RETURNING id", gender, penA);
+        heifer = insert("INSERT INTO cows (tag, gender, current_feedlot_id) VALUES ('H-1', ?, ?) RETURNING id",
+                gender, penB);
+        when(pedigreeService.index()).thenReturn(PedigreeIndex.build(List.of(
+                new PedigreeRow(steer, "S-1", null, 1, "Straw 1", "Apex"),
+                new PedigreeRow(heifer, "H-1", null, 2, "Straw 2", "Apex"))));
+        weightService.reload();
+    }
+
+    @AfterEach
+    void clean() {
+        truncate(jdbcTemplate, "weight_measurements", "cows", "feedlots", "cow_gender");
+        referenceDataCache.invalidate(Feedlot.class);
+        weightService.reload();
+    }
+
+    @Test
+    void badReadingsAreReportedByIndexAndTheRestGoIn() {
+        WeightBatchResult result = weightService.ingest(Arrays.asList(
+                reading(steer, "2026-01-01T08:00", "300"),
+                reading(null, null, "300"),
+                reading(-1, null, "300"),
+                reading(steer, null, "0"),
+                reading(steer, "yesterday", "300"),
+                null));
+
+        assertThat(result.accepted()).isEqualTo(1);
+        assertThat(result.errors()).containsExactly(
+                new WeightBatchError(1, null, "cowId is required"),
+                new WeightBatchError(2, -1, "Cow not found"),
+                new WeightBatchError(3, steer, "Weight must be positive"),
+                new WeightBatchError(4, steer, "Invalid measuredAt: yesterday"),
+                new WeightBatchError(5, null, "cowId is required"));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM weight_measurements", Integer.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void cowWeightFollowsTheNewestReadingNotTheLastSent() {
+        weightService.ingest(List.of(
+                reading(steer, "2026-01-10T08:00", "320"),
+                reading(steer, "2026-01-01T08:00", "300")));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT weight FROM cows WHERE id = ?", BigDecimal.class, steer))
+                .isEqualByComparingTo("320");
+        assertThat(jdbcTemplate.queryForObject("SELECT weight FROM cows WHERE id = ?", BigDecimal.class, heifer))
+                .isNull();
+        assertThat(jdbcTemplate.queryForList("SELECT feedlot_id FROM weight_measurements", Integer.class))
+                .containsOnly(penA);
+    }
+
+    @Test
+    void committedBatchIsVisibleToAdgAndAgreesWithAReload() {
+        weightService.ingest(List.of(
+                reading(steer, "2026-01-01T08:00", "300"),
+                reading(steer, "2026-01-11T08:00", "315"),
+                reading(heifer, "2026-01-01T08:00", "250"),
+                reading(heifer, "2026-01-11T08:00", "255")));
+
+        CowAdg live = weightService.getCowAdg(steer, null, null);
+        assertThat(live.tag()).isEqualTo("S-1");
+        assertThat(live.measurements()).isEqualTo(2);
+        assertThat(live.adg()).isCloseTo(1.5, within(1e-9));
+
+        weightService.reload();
+        assertThat(weightService.getCowAdg(steer, null, null)).isEqualTo(live);
+    }
+
+    @Test
+    void historyWindowIsInclusiveOfWholeDays() {
+        weightService.ingest(List.of(
+                reading(steer, "2026-01-01T08:00", "300"),
+                reading(steer, "2026-01-05T23:59:59", "304"),
+                reading(steer, "2026-01-06T00:00", "305")));
+
+        CowWeightHistory history = weightService.getHistory(steer, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 5));
+
+        assertThat(history.points()).extracting(WeightPoint::weight).containsExactly(300.0, 304.0);
+        assertThat(history.points()).extracting(WeightPoint::feedlotId).containsOnly(penA);
+        assertThat(history.summary().measurements()).isEqualTo(2);
+    }
+
+    @Test
+    void groupAdgByPenAndBySire() {
+        weightService.ingest(List.of(
+                reading(steer, "2026-01-01T08:00", "300"),
+                reading(steer, "2026-01-11T08:00", "320"),
+                reading(heifer, "2026-01-01T08:00", "250"),
+                reading(heifer, "2026-01-11T08:00", "260")));
+
+        assertThat(weightService.getFeedlotAdg(null, null)).containsExactly(
+                new GroupAdg(penA, "Pen A", 1, 2.0, 2.0, 2.0),
+                new GroupAdg(penB, "Pen B", 1, 1.0, 1.0, 1.0));
+        assertThat(weightService.getSireAdg(null, null)).singleElement().satisfies(group -> {
+            assertThat(group.name()).isEqualTo("Apex");
+            assertThat(group.cows()).isEqualTo(2);
+            assertThat(group.meanAdg()).isCloseTo(1.5, within(1e-9));
+            assertThat(group.minAdg()).isCloseTo(1.0, within(1e-9));
+            assertThat(group.maxAdg()).isCloseTo(2.0, within(1e-9));
+        });
+    }
+
+    private static WeightReading reading(Integer cowId, String at, String kg) {
+        return new WeightReading(cowId, at, new BigDecimal(kg));
+    }
+
+    private int insert(String sql, Object... args) {
+        Integer id = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return id != null ? id : 0;
+    }
+}